@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.integration.channel.AbstractMessageChannel;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.PublishSubscribeChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Measures the {@code AbstractMessageChannel.send()} hot path for the core channel types,
+ * including the {@code UnicastingDispatcher} and {@code BroadcastingDispatcher}.
+ * <p>
+ * The {@code plainChannel} and {@code interceptedChannel} benchmarks isolate
+ * {@link AbstractMessageChannel#send(Message)} from any dispatching:
+ * the {@code gc.alloc.rate.norm} reported for them must stay at zero.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelSendBenchmark {
+
+	private final Message<String> message = new GenericMessage<>("test");
+
+	private final DirectChannel directChannel = new DirectChannel();
+
+	private final QueueChannel queueChannel = new QueueChannel();
+
+	private final PublishSubscribeChannel publishSubscribeChannel = new PublishSubscribeChannel();
+
+	private final AbstractMessageChannel plainChannel = new NoopChannel();
+
+	private final AbstractMessageChannel interceptedChannel = new NoopChannel();
+
+	private ThreadPoolExecutor executor;
+
+	private ExecutorChannel executorChannel;
+
+	private RingBufferChannel ringBufferChannel;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		MessageHandler handler = blackhole::consume;
+
+		this.plainChannel.setBeanName("plainChannel");
+		this.plainChannel.afterPropertiesSet();
+
+		this.interceptedChannel.setBeanName("interceptedChannel");
+		this.interceptedChannel.afterPropertiesSet();
+		this.interceptedChannel.addInterceptor(new ChannelInterceptor() {
+
+		});
+
+		this.directChannel.setBeanName("directChannel");
+		this.directChannel.afterPropertiesSet();
+		this.directChannel.subscribe(handler);
+
+		this.queueChannel.setBeanName("queueChannel");
+		this.queueChannel.afterPropertiesSet();
+
+		this.publishSubscribeChannel.setBeanName("publishSubscribeChannel");
+		this.publishSubscribeChannel.afterPropertiesSet();
+		this.publishSubscribeChannel.subscribe(handler);
+		this.publishSubscribeChannel.subscribe(handler::handleMessage);
+
+		// a bounded queue and caller-runs keep the producer from racing ahead of the consumer
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		this.executorChannel = new ExecutorChannel(this.executor);
+		this.executorChannel.setBeanName("executorChannel");
+		this.executorChannel.afterPropertiesSet();
+		this.executorChannel.subscribe(handler);
+
+		// the consumer loop runs on its own thread, not on the executor used above
+		this.ringBufferChannel = new RingBufferChannel();
+		this.ringBufferChannel.setBeanName("ringBufferChannel");
+		this.ringBufferChannel.afterPropertiesSet();
+		this.ringBufferChannel.subscribe(handler);
+		this.ringBufferChannel.start();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.ringBufferChannel.stop();
+		this.executor.shutdownNow();
+	}
+
+	@Benchmark
+	public boolean plainChannel() {
+		return this.plainChannel.send(this.message);
+	}
+
+	@Benchmark
+	public boolean interceptedChannel() {
+		return this.interceptedChannel.send(this.message);
+	}
+
+	@Benchmark
+	public boolean directChannel() {
+		return this.directChannel.send(this.message);
+	}
+
+	@Benchmark
+	public boolean executorChannel() {
+		return this.executorChannel.send(this.message);
+	}
+
+	@Benchmark
+	public boolean ringBufferChannel() {
+		return this.ringBufferChannel.send(this.message);
+	}
+
+	@Benchmark
+	public Message<?> queueChannel() {
+		this.queueChannel.send(this.message);
+		return this.queueChannel.receive(0);
+	}
+
+	@Benchmark
+	public boolean publishSubscribeChannel() {
+		return this.publishSubscribeChannel.send(this.message);
+	}
+
+	private static final class NoopChannel extends AbstractMessageChannel {
+
+		@Override
+		protected boolean doSend(Message<?> message, long timeout) {
+			return true;
+		}
+
+	}
+
+}
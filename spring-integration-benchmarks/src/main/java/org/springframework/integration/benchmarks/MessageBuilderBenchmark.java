@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.MutableMessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures the header copying cost of {@link MessageBuilder} and
+ * {@link MutableMessageBuilder} for a growing number of headers, with plain and
+ * persistent message headers.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBuilderBenchmark {
+
+	@Param({ "0", "10", "40" })
+	public int headerCount;
+
+	private Message<String> message;
+
+	private Message<String> persistentMessage;
+
+	@Setup
+	public void setup() {
+		MessageBuilder<String> builder = MessageBuilder.withPayload("test");
+		MessageBuilder<String> persistentBuilder = MessageBuilder.withPayload("test", true);
+		for (int i = 0; i < this.headerCount; i++) {
+			builder.setHeader("header" + i, i);
+			persistentBuilder.setHeader("header" + i, i);
+		}
+		this.message = builder.build();
+		this.persistentMessage = persistentBuilder.build();
+	}
+
+	@Benchmark
+	public Message<String> withPayload() {
+		return MessageBuilder.withPayload("test").build();
+	}
+
+	@Benchmark
+	public Message<String> fromMessage() {
+		return MessageBuilder.fromMessage(this.message).build();
+	}
+
+	@Benchmark
+	public Message<String> fromMessageSetHeader() {
+		return MessageBuilder.fromMessage(this.message).setHeader("extra", "value").build();
+	}
+
+	@Benchmark
+	public Message<String> persistentFromMessageSetHeader() {
+		return MessageBuilder.fromMessage(this.persistentMessage).setHeader("extra", "value").build();
+	}
+
+	@Benchmark
+	public Message<String> mutableFromMessageSetHeader() {
+		return MutableMessageBuilder.fromMessage(this.message).setHeader("extra", "value").build();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.codec.MessageStoreCodec;
+import org.springframework.integration.codec.MessageStoreCodec.Format;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Compares the encoding and decoding cost of the {@link MessageStoreCodec} formats
+ * for a typical message. The encoded sizes are asserted by {@code MessageStoreCodecTests}.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageStoreCodecBenchmark {
+
+	@Param({ "JAVA", "KRYO", "COMPACT" })
+	public Format format;
+
+	private MessageStoreCodec codec;
+
+	private Message<?> message;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() throws IOException {
+		this.codec = new MessageStoreCodec(this.format);
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("name", "foo");
+		payload.put("count", 42);
+		payload.put("amount", 12.5d);
+		payload.put("tags", new ArrayList<>(Arrays.asList("bar", "baz")));
+		payload.put("date", new Date(1234567890L));
+		this.message = MessageBuilder.withPayload(payload)
+				.setCorrelationId(UUID.randomUUID())
+				.setSequenceNumber(3)
+				.setSequenceSize(10)
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+				.setHeader("customer", "someCustomer")
+				.setHeader("attempt", 1L)
+				.setReplyChannel(new QueueChannel())
+				.build();
+		this.bytes = this.codec.encode(this.message);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return this.codec.encode(this.message);
+	}
+
+	@Benchmark
+	public Object decode() throws IOException {
+		return this.codec.decode(this.bytes);
+	}
+
+}
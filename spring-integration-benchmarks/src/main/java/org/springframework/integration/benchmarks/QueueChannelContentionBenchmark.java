@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Compares a {@link QueueChannel} backed by the default {@link LinkedBlockingQueue}
+ * with the lock-free {@link MpmcArrayBlockingQueue} under producer/consumer contention.
+ * <p>
+ * The default group is 4 producers and 4 consumers; use the JMH {@code -tg} option
+ * (e.g. {@code -tg 32,32}) for higher contention.
+ *
+ * @since 5.1
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueChannelContentionBenchmark {
+
+	@Param({ "linked", "SPIN", "YIELD", "PARK", "BLOCK" })
+	public String queue;
+
+	private final Message<String> message = new GenericMessage<>("test");
+
+	private QueueChannel channel;
+
+	@Setup
+	public void setup() {
+		if ("linked".equals(this.queue)) {
+			this.channel = new QueueChannel(new LinkedBlockingQueue<>(1024));
+		}
+		else {
+			this.channel = new QueueChannel(
+					new MpmcArrayBlockingQueue<>(1024, MpmcArrayBlockingQueue.WaitStrategy.valueOf(this.queue)));
+		}
+		this.channel.setBeanName("queueChannel");
+		this.channel.afterPropertiesSet();
+	}
+
+	@Benchmark
+	@Group("sendReceive")
+	@GroupThreads(4)
+	public boolean send() {
+		return this.channel.send(this.message, 10);
+	}
+
+	@Benchmark
+	@Group("sendReceive")
+	@GroupThreads(4)
+	public Message<?> receive() {
+		return this.channel.receive(10);
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.integration.handler.ExpressionEvaluatingMessageProcessor;
+import org.springframework.integration.handler.GenericHandler;
+import org.springframework.integration.handler.LambdaMessageProcessor;
+import org.springframework.integration.handler.ServiceActivatingHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Compares the service-activator invocation styles: a SpEL expression, a POJO method
+ * resolved by the {@code MessagingMethodInvokerHelper} and a lambda.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceActivatorBenchmark {
+
+	private final Message<String> message = new GenericMessage<>("test");
+
+	private ServiceActivatingHandler expressionHandler;
+
+	private ServiceActivatingHandler methodHandler;
+
+	private ServiceActivatingHandler lambdaHandler;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		MessageChannel outputChannel = (message, timeout) -> {
+			blackhole.consume(message);
+			return true;
+		};
+
+		this.expressionHandler =
+				new ServiceActivatingHandler(new ExpressionEvaluatingMessageProcessor<>("payload.toUpperCase()"));
+		this.methodHandler = new ServiceActivatingHandler(new UpperCaseService(), "upperCase");
+		this.lambdaHandler =
+				new ServiceActivatingHandler(new LambdaMessageProcessor(
+						(GenericHandler<String>) (payload, headers) -> payload.toUpperCase(), String.class));
+
+		for (ServiceActivatingHandler handler :
+				new ServiceActivatingHandler[] { this.expressionHandler, this.methodHandler, this.lambdaHandler }) {
+
+			handler.setOutputChannel(outputChannel);
+			handler.afterPropertiesSet();
+		}
+	}
+
+	@Benchmark
+	public void expression() {
+		this.expressionHandler.handleMessage(this.message);
+	}
+
+	@Benchmark
+	public void method() {
+		this.methodHandler.handleMessage(this.message);
+	}
+
+	@Benchmark
+	public void lambda() {
+		this.lambdaHandler.handleMessage(this.message);
+	}
+
+	public static class UpperCaseService {
+
+		public String upperCase(String payload) {
+			return payload.toUpperCase();
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.splitter.DefaultMessageSplitter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Measures a splitter to aggregator round trip over a {@link DirectChannel}
+ * for several group sizes.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitterAggregatorBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int groupSize;
+
+	private final DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+
+	private final AggregatingMessageHandler aggregator =
+			new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor());
+
+	private Message<List<Integer>> message;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		List<Integer> payload = new ArrayList<>(this.groupSize);
+		for (int i = 0; i < this.groupSize; i++) {
+			payload.add(i);
+		}
+		this.message = new GenericMessage<>(payload);
+
+		MessageChannel outputChannel = (message, timeout) -> {
+			blackhole.consume(message);
+			return true;
+		};
+		this.aggregator.setOutputChannel(outputChannel);
+		this.aggregator.setExpireGroupsUponCompletion(true);
+		this.aggregator.afterPropertiesSet();
+
+		DirectChannel splitChannel = new DirectChannel();
+		splitChannel.setBeanName("splitChannel");
+		splitChannel.afterPropertiesSet();
+		splitChannel.subscribe(this.aggregator);
+
+		this.splitter.setOutputChannel(splitChannel);
+		this.splitter.afterPropertiesSet();
+	}
+
+	@Benchmark
+	public void splitAndAggregate() {
+		this.splitter.handleMessage(this.message);
+	}
+
+}
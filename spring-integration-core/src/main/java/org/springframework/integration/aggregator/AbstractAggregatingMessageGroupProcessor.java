@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.integration.aggregator;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -34,6 +35,7 @@ import org.springframework.integration.support.AbstractIntegrationMessageBuilder
 import org.springframework.integration.support.DefaultMessageBuilderFactory;
 import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.utils.IntegrationUtils;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.Assert;
@@ -109,26 +111,34 @@ public abstract class AbstractAggregatingMessageGroupProcessor implements Messag
 	protected Map<String, Object> aggregateHeaders(MessageGroup group) {
 		Map<String, Object> aggregatedHeaders = new HashMap<String, Object>();
 		Set<String> conflictKeys = new HashSet<String>();
-		for (Message<?> message : group.getMessages()) {
-			for (Entry<String, Object> entry : message.getHeaders().entrySet()) {
-				String key = entry.getKey();
-				if (MessageHeaders.ID.equals(key) || MessageHeaders.TIMESTAMP.equals(key)
-						|| IntegrationMessageHeaderAccessor.SEQUENCE_SIZE.equals(key)
-						|| IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER.equals(key)) {
-					continue;
-				}
-				Object value = entry.getValue();
-				if (!aggregatedHeaders.containsKey(key)) {
-					aggregatedHeaders.put(key, value);
-				}
-				else {
-					Object existingValue = aggregatedHeaders.get(key);
-					if (value != existingValue && (value == null || !value.equals(existingValue))) {
-						conflictKeys.add(key);
+		Iterator<Message<?>> messages = group.getMessages().iterator();
+		try {
+			while (messages.hasNext()) {
+				for (Entry<String, Object> entry : messages.next().getHeaders().entrySet()) {
+					String key = entry.getKey();
+					if (MessageHeaders.ID.equals(key) || MessageHeaders.TIMESTAMP.equals(key)
+							|| IntegrationMessageHeaderAccessor.SEQUENCE_SIZE.equals(key)
+							|| IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER.equals(key)) {
+						continue;
+					}
+					Object value = entry.getValue();
+					if (!aggregatedHeaders.containsKey(key)) {
+						aggregatedHeaders.put(key, value);
+					}
+					else {
+						Object existingValue = aggregatedHeaders.get(key);
+						if (value != existingValue && (value == null || !value.equals(existingValue))) {
+							conflictKeys.add(key);
+						}
 					}
 				}
 			}
 		}
+		finally {
+			if (messages instanceof CloseableIterator) {
+				((CloseableIterator<?>) messages).close();
+			}
+		}
 		for (String keyToRemove : conflictKeys) {
 			if (this.logger.isDebugEnabled()) {
 				this.logger.debug("Excluding header '" + keyToRemove + "' upon aggregation due to conflict(s) "
@@ -43,6 +43,7 @@ import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.channel.NullChannel;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.handler.AbstractMessageProducingHandler;
 import org.springframework.integration.handler.DiscardingMessageHandler;
@@ -140,6 +141,8 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 
 	private boolean expireGroupsUponTimeout = true;
 
+	private TaskScheduler timeoutTaskScheduler;
+
 	private volatile boolean running;
 
 	public AbstractCorrelatingMessageHandler(MessageGroupProcessor processor, MessageGroupStore store,
@@ -217,9 +220,16 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		this.outputProcessor = outputProcessor;
 	}
 
+	/**
+	 * Set the {@link TaskScheduler} for the group timeouts and the removal of empty
+	 * groups. When not set, the "integrationTimeoutTaskScheduler" bean is used, falling back
+	 * to the "taskScheduler" bean.
+	 * @param taskScheduler the task scheduler.
+	 */
 	@Override
 	public void setTaskScheduler(TaskScheduler taskScheduler) {
 		super.setTaskScheduler(taskScheduler);
+		this.timeoutTaskScheduler = taskScheduler;
 	}
 
 	@Override
@@ -243,6 +253,9 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 			if (this.releaseStrategy instanceof BeanFactoryAware) {
 				((BeanFactoryAware) this.releaseStrategy).setBeanFactory(beanFactory);
 			}
+			if (this.timeoutTaskScheduler == null) {
+				this.timeoutTaskScheduler = IntegrationContextUtils.getTimeoutTaskScheduler(beanFactory);
+			}
 		}
 
 		if (this.discardChannel == null) {
@@ -419,7 +432,21 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 			this.logger.debug("Handling message with correlationKey [" + correlationKey + "]: " + message);
 		}
 
-		UUID groupIdUuid = UUIDConverter.getUUID(correlationKey);
+		processMessageForGroup(message, correlationKey, UUIDConverter.getUUID(correlationKey));
+	}
+
+	/**
+	 * Add the message to its group and release the group if it is complete, holding the
+	 * group lock.
+	 * @param message the message.
+	 * @param correlationKey the correlation key.
+	 * @param groupIdUuid the {@link UUID} of the correlation key, to obtain the group lock.
+	 * @throws Exception any exception.
+	 * @since 5.1
+	 */
+	protected void processMessageForGroup(Message<?> message, Object correlationKey, UUID groupIdUuid)
+			throws Exception {
+
 		Lock lock = this.lockRegistry.obtain(groupIdUuid.toString());
 
 		lock.lockInterruptibly();
@@ -477,7 +504,7 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 	private void removeEmptyGroupAfterTimeout(MessageGroup messageGroup, long timeout) {
 		Object groupId = messageGroup.getGroupId();
 		UUID groupUuid = UUIDConverter.getUUID(groupId);
-		ScheduledFuture<?> scheduledFuture = getTaskScheduler()
+		ScheduledFuture<?> scheduledFuture = obtainTimeoutTaskScheduler()
 				.schedule(() -> {
 					Lock lock = this.lockRegistry.obtain(groupUuid.toString());
 
@@ -521,6 +548,10 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		this.expireGroupScheduledFutures.put(groupUuid, scheduledFuture);
 	}
 
+	private TaskScheduler obtainTimeoutTaskScheduler() {
+		return this.timeoutTaskScheduler != null ? this.timeoutTaskScheduler : getTaskScheduler();
+	}
+
 	private void scheduleGroupToForceComplete(MessageGroup messageGroup) {
 		final Long groupTimeout = obtainGroupTimeout(messageGroup);
 		/*
@@ -532,7 +563,7 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 				final Object groupId = messageGroup.getGroupId();
 				final long timestamp = messageGroup.getTimestamp();
 				final long lastModified = messageGroup.getLastModified();
-				ScheduledFuture<?> scheduledFuture = getTaskScheduler()
+				ScheduledFuture<?> scheduledFuture = obtainTimeoutTaskScheduler()
 						.schedule(() -> {
 							try {
 								processForceRelease(groupId, timestamp, lastModified);
@@ -569,7 +600,12 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		}
 	}
 
-	private void discardMessage(Message<?> message) {
+	/**
+	 * Send the message to the discard channel.
+	 * @param message the message.
+	 * @since 5.1
+	 */
+	protected void discardMessage(Message<?> message) {
 		this.messagingTemplate.send(getDiscardChannel(), message);
 	}
 
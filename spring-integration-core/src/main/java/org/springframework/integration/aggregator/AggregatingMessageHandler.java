@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,28 @@
 package org.springframework.integration.aggregator;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.springframework.integration.channel.MessagePublishingErrorHandler;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
+import org.springframework.integration.support.utils.IntegrationUtils;
+import org.springframework.integration.util.CallerBlocksPolicy;
+import org.springframework.integration.util.UUIDConverter;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
 
 /**
  * Aggregator specific implementation of {@link AbstractCorrelatingMessageHandler}.
@@ -36,8 +53,34 @@ import org.springframework.messaging.Message;
  */
 public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler {
 
+	/**
+	 * The capacity of the queue of each partition; a caller blocks while the queue
+	 * of the target partition is full.
+	 */
+	public static final int PARTITION_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * The default time to wait for the partitions to process their queued messages
+	 * when the handler is stopped or destroyed.
+	 */
+	public static final long DEFAULT_PARTITIONS_SHUTDOWN_TIMEOUT = 10000L;
+
 	private volatile boolean expireGroupsUponCompletion = false;
 
+	private IncrementalAggregatingMessageGroupProcessor incrementalProcessor;
+
+	private int partitions;
+
+	private long partitionsShutdownTimeout = DEFAULT_PARTITIONS_SHUTDOWN_TIMEOUT;
+
+	private final Object partitionsMonitor = new Object();
+
+	private volatile ThreadPoolExecutor[] partitionExecutors;
+
+	private Lock[] partitionLocks;
+
+	private ErrorHandler partitionErrorHandler;
+
 	public AggregatingMessageHandler(MessageGroupProcessor processor, MessageGroupStore store,
 			CorrelationStrategy correlationStrategy, ReleaseStrategy releaseStrategy) {
 		super(processor, store, correlationStrategy, releaseStrategy);
@@ -62,6 +105,197 @@ public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler
 		this.expireGroupsUponCompletion = expireGroupsUponCompletion;
 	}
 
+	/**
+	 * Aggregate the messages of each group into a running state with the provided
+	 * {@link IncrementalAggregator}, instead of storing them all until release.
+	 * The group then holds a single message with the state, which replaces the
+	 * configured output processor. The {@link ReleaseStrategy} sees that message,
+	 * but the group {@link MessageGroup#size() size} is the number of aggregated messages.
+	 * Can't be used with a {@link SequenceSizeReleaseStrategy}.
+	 * @param incrementalAggregator the incremental aggregator.
+	 * @since 5.1
+	 */
+	public void setIncrementalAggregator(IncrementalAggregator<?> incrementalAggregator) {
+		this.incrementalProcessor = new IncrementalAggregatingMessageGroupProcessor(incrementalAggregator);
+		setOutputProcessor(this.incrementalProcessor);
+	}
+
+	/**
+	 * Process the messages on the given number of single-threaded partitions instead of
+	 * on the calling thread. The partition is selected by the hash of the correlation key,
+	 * so all the messages of a group are handled, in order, by the same thread, while
+	 * different groups are aggregated in parallel. Unless a {@link #setLockRegistry(
+	 * org.springframework.integration.support.locks.LockRegistry) lockRegistry} is provided,
+	 * each partition has a single lock, uncontended except by the group timeout and
+	 * expiry tasks. Since the messages are handed over to the partitions, exceptions are
+	 * sent to the {@code errorChannel} (header or default) rather than thrown to the caller,
+	 * and transactions are not propagated. The caller blocks while the queue of the target
+	 * partition is full ({@value #PARTITION_QUEUE_CAPACITY} messages). When the handler is
+	 * stopped or destroyed, the partitions stop accepting messages (the caller gets a
+	 * {@link java.util.concurrent.RejectedExecutionException}) and process their queued
+	 * messages; see {@link #setPartitionsShutdownTimeout(long)}.
+	 * Default 0 - no partitions.
+	 * @param partitions the number of partitions.
+	 * @since 5.1
+	 */
+	public void setPartitions(int partitions) {
+		Assert.isTrue(partitions >= 0, "'partitions' must not be negative");
+		this.partitions = partitions;
+	}
+
+	/**
+	 * Set the time, in milliseconds, to wait for the partitions to process their queued
+	 * messages when the handler is stopped or destroyed. The messages still queued
+	 * after that time are not aggregated; each is sent, in a
+	 * {@link MessageHandlingException}, to the {@code errorChannel} (header or default).
+	 * Default {@value #DEFAULT_PARTITIONS_SHUTDOWN_TIMEOUT}.
+	 * @param partitionsShutdownTimeout the timeout.
+	 * @since 5.1
+	 * @see #setPartitions(int)
+	 */
+	public void setPartitionsShutdownTimeout(long partitionsShutdownTimeout) {
+		this.partitionsShutdownTimeout = partitionsShutdownTimeout;
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		if (this.partitions > 0) {
+			initPartitions();
+		}
+		super.onInit();
+		if (this.incrementalProcessor != null) {
+			Assert.state(!isSequenceAware(),
+					"A 'SequenceSizeReleaseStrategy' can't be used with an 'IncrementalAggregator'; " +
+							"consider to use a 'SimpleSequenceSizeReleaseStrategy' instead.");
+			ReleaseStrategy releaseStrategy = getReleaseStrategy();
+			if (!(releaseStrategy instanceof AccumulatedReleaseStrategy)) {
+				setReleaseStrategy(new AccumulatedReleaseStrategy(releaseStrategy));
+			}
+		}
+	}
+
+	private void initPartitions() {
+		this.partitionErrorHandler = getBeanFactory() != null
+				? new MessagePublishingErrorHandler(new BeanFactoryChannelResolver(getBeanFactory()))
+				: new MessagePublishingErrorHandler();
+		this.partitionLocks = new Lock[this.partitions];
+		for (int i = 0; i < this.partitions; i++) {
+			this.partitionLocks[i] = new ReentrantLock();
+		}
+		if (!isLockRegistrySet()) {
+			setLockRegistry(lockKey -> this.partitionLocks[partition(lockKey.toString())]);
+		}
+		this.partitionExecutors = createPartitionExecutors();
+	}
+
+	private ThreadPoolExecutor[] createPartitionExecutors() {
+		ThreadPoolExecutor[] executors = new ThreadPoolExecutor[this.partitions];
+		String threadNamePrefix = (getComponentName() != null ? getComponentName() : "aggregator") + "-partition-";
+		for (int i = 0; i < this.partitions; i++) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix + i + "-");
+			threadFactory.setDaemon(true);
+			executors[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(PARTITION_QUEUE_CAPACITY), threadFactory,
+					new CallerBlocksPolicy(Long.MAX_VALUE));
+		}
+		return executors;
+	}
+
+	private int partition(String groupIdKey) {
+		int hash = groupIdKey.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), this.partitions);
+	}
+
+	@Override
+	protected void handleMessageInternal(Message<?> message) throws Exception {
+		ThreadPoolExecutor[] executors = this.partitionExecutors;
+		if (executors == null) {
+			super.handleMessageInternal(message);
+		}
+		else {
+			Object correlationKey = getCorrelationStrategy().getCorrelationKey(message);
+			Assert.state(correlationKey != null,
+					"Null correlation not allowed.  Maybe the CorrelationStrategy is failing?");
+			UUID groupIdUuid = UUIDConverter.getUUID(correlationKey);
+			executors[partition(groupIdUuid.toString())]
+					.execute(new PartitionTask(message, correlationKey, groupIdUuid));
+		}
+	}
+
+	@Override
+	public void start() {
+		synchronized (this.partitionsMonitor) {
+			ThreadPoolExecutor[] executors = this.partitionExecutors;
+			if (executors != null && executors[0].isShutdown()) {
+				this.partitionExecutors = createPartitionExecutors();
+			}
+		}
+		super.start();
+	}
+
+	@Override
+	public void stop() {
+		super.stop();
+		shutdownPartitions();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		super.destroy();
+		shutdownPartitions();
+	}
+
+	private void shutdownPartitions() {
+		synchronized (this.partitionsMonitor) {
+			ThreadPoolExecutor[] executors = this.partitionExecutors;
+			if (executors != null && !executors[0].isShutdown()) {
+				shutdownPartitions(executors);
+			}
+		}
+	}
+
+	private void shutdownPartitions(ThreadPoolExecutor[] executors) {
+		for (ThreadPoolExecutor executor : executors) {
+			executor.shutdown();
+		}
+		long deadline = System.currentTimeMillis() + this.partitionsShutdownTimeout;
+		try {
+			for (ThreadPoolExecutor executor : executors) {
+				executor.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (ThreadPoolExecutor executor : executors) {
+			List<Runnable> notProcessed = executor.shutdownNow();
+			if (!notProcessed.isEmpty()) {
+				this.logger.warn(notProcessed.size() + " message(s) were not aggregated by a partition of "
+						+ getComponentName() + " within the shutdown timeout of " + this.partitionsShutdownTimeout
+						+ "ms; sending them to the error channel");
+				for (Runnable task : notProcessed) {
+					Message<?> message = ((PartitionTask) task).message;
+					this.partitionErrorHandler.handleError(new MessageHandlingException(message,
+							"message not aggregated: a partition of " + getComponentName() + " was shut down"));
+				}
+			}
+		}
+	}
+
+	@Override
+	protected MessageGroup store(Object correlationKey, Message<?> message) {
+		if (this.incrementalProcessor == null) {
+			return super.store(correlationKey, message);
+		}
+		MessageGroupStore messageStore = getMessageStore();
+		Message<?> stateMessage = messageStore.getOneMessageFromGroup(correlationKey);
+		Message<?> newStateMessage = this.incrementalProcessor.accumulate(stateMessage, message);
+		if (stateMessage != null) {
+			messageStore.removeMessagesFromGroup(correlationKey, stateMessage);
+		}
+		return super.store(correlationKey, newStateMessage);
+	}
+
 	@Override
 	protected boolean isExpireGroupsUponCompletion() {
 		return this.expireGroupsUponCompletion;
@@ -92,4 +326,70 @@ public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler
 		}
 	}
 
+	/**
+	 * The aggregation of a message on its partition.
+	 */
+	private final class PartitionTask implements Runnable {
+
+		private final Message<?> message;
+
+		private final Object correlationKey;
+
+		private final UUID groupIdUuid;
+
+		PartitionTask(Message<?> message, Object correlationKey, UUID groupIdUuid) {
+			this.message = message;
+			this.correlationKey = correlationKey;
+			this.groupIdUuid = groupIdUuid;
+		}
+
+		@Override
+		public void run() {
+			try {
+				processMessageForGroup(this.message, this.correlationKey, this.groupIdUuid);
+			}
+			catch (Exception e) {
+				AggregatingMessageHandler.this.partitionErrorHandler.handleError(
+						IntegrationUtils.wrapInHandlingExceptionIfNecessary(this.message,
+								() -> "failed to aggregate message in partition of " + getComponentName(), e));
+			}
+		}
+
+	}
+
+	/**
+	 * A {@link ReleaseStrategy} presenting a group of an incremental aggregation
+	 * with its number of aggregated messages as the size.
+	 */
+	private static final class AccumulatedReleaseStrategy implements ReleaseStrategy {
+
+		private final ReleaseStrategy delegate;
+
+		AccumulatedReleaseStrategy(ReleaseStrategy delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean canRelease(MessageGroup group) {
+			return this.delegate.canRelease(new AccumulatedMessageGroup(group));
+		}
+
+	}
+
+	private static final class AccumulatedMessageGroup extends SimpleMessageGroup {
+
+		AccumulatedMessageGroup(MessageGroup group) {
+			super(group.getMessages(), group.getGroupId(), group.getTimestamp(), group.isComplete());
+			setLastModified(group.getLastModified());
+			setLastReleasedMessageSequenceNumber(group.getLastReleasedMessageSequenceNumber());
+		}
+
+		@Override
+		public int size() {
+			Message<?> stateMessage = getOne();
+			return stateMessage != null ? IncrementalAggregatingMessageGroupProcessor.getMessageCount(stateMessage) : 0;
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,12 @@ package org.springframework.integration.aggregator;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 
@@ -41,8 +43,16 @@ public class DefaultAggregatingMessageGroupProcessor extends AbstractAggregating
 		Collection<Message<?>> messages = group.getMessages();
 		Assert.notEmpty(messages, this.getClass().getSimpleName() + " cannot process empty message groups");
 		List<Object> payloads = new ArrayList<Object>(messages.size());
-		for (Message<?> message : messages) {
-			payloads.add(message.getPayload());
+		Iterator<Message<?>> iterator = messages.iterator();
+		try {
+			while (iterator.hasNext()) {
+				payloads.add(iterator.next().getPayload());
+			}
+		}
+		finally {
+			if (iterator instanceof CloseableIterator) {
+				((CloseableIterator<?>) iterator).close();
+			}
 		}
 		return payloads;
 	}
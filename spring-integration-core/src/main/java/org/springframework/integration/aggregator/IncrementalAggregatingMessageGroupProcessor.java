@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.aggregator;
+
+import java.util.Map;
+
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MessageGroupProcessor} for groups which hold the running state of an
+ * {@link IncrementalAggregator} in a single message, rather than the messages themselves.
+ * The state message carries the headers of the aggregated messages (those of the earliest
+ * message win) and their count in the {@value #MESSAGE_COUNT} header.
+ *
+ * @since 5.1
+ */
+public class IncrementalAggregatingMessageGroupProcessor extends AbstractAggregatingMessageGroupProcessor {
+
+	/**
+	 * The header of the state message with the number of aggregated messages.
+	 */
+	public static final String MESSAGE_COUNT = "accumulatedMessageCount";
+
+	private final IncrementalAggregator<Object> aggregator;
+
+	@SuppressWarnings("unchecked")
+	public IncrementalAggregatingMessageGroupProcessor(IncrementalAggregator<?> aggregator) {
+		Assert.notNull(aggregator, "'aggregator' must not be null");
+		this.aggregator = (IncrementalAggregator<Object>) aggregator;
+	}
+
+	/**
+	 * Fold the message into the state of the current state message.
+	 * @param stateMessage the current state message, or null for a new group.
+	 * @param message the message to aggregate.
+	 * @return the new state message.
+	 */
+	public Message<?> accumulate(Message<?> stateMessage, Message<?> message) {
+		Object state = stateMessage != null ? stateMessage.getPayload() : this.aggregator.createState();
+		Object newState = this.aggregator.accumulate(state, message);
+		Assert.state(newState != null, "The 'IncrementalAggregator' must not return a null state");
+		if (stateMessage != null) {
+			return getMessageBuilderFactory().withPayload(newState)
+					.copyHeaders(stateMessage.getHeaders())
+					.setHeader(MESSAGE_COUNT, getMessageCount(stateMessage) + 1)
+					.build();
+		}
+		else {
+			return getMessageBuilderFactory().withPayload(newState)
+					.copyHeaders(message.getHeaders())
+					.setHeader(MESSAGE_COUNT, 1)
+					.build();
+		}
+	}
+
+	@Override
+	protected Map<String, Object> aggregateHeaders(MessageGroup group) {
+		Map<String, Object> headers = super.aggregateHeaders(group);
+		headers.remove(MESSAGE_COUNT);
+		return headers;
+	}
+
+	@Override
+	protected Object aggregatePayloads(MessageGroup group, Map<String, Object> defaultHeaders) {
+		Message<?> stateMessage = group.getOne();
+		return this.aggregator.release(stateMessage != null
+				? stateMessage.getPayload()
+				: this.aggregator.createState());
+	}
+
+	/**
+	 * Return the number of messages aggregated into the state message.
+	 * @param stateMessage the state message.
+	 * @return the count.
+	 */
+	public static int getMessageCount(Message<?> stateMessage) {
+		Integer count = stateMessage.getHeaders().get(MESSAGE_COUNT, Integer.class);
+		return count != null ? count : 0;
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.aggregator;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * A strategy to aggregate the messages of a group one at a time into a running state,
+ * instead of processing the whole group on release. Sums, counts, top-N selections and
+ * other folds then need memory proportional to the state, not to the group.
+ * <p>
+ * An {@link AggregatingMessageHandler} configured with an incremental aggregator keeps a
+ * single message in each group, whose payload is the state; the state therefore has to
+ * be serializable when a persistent message store is used. The state may be mutated and
+ * returned from {@link #accumulate(Object, Message)}.
+ *
+ * @param <S> the state type.
+ *
+ * @since 5.1
+ *
+ * @see AggregatingMessageHandler#setIncrementalAggregator(IncrementalAggregator)
+ */
+public interface IncrementalAggregator<S> {
+
+	/**
+	 * Create the state for a new group.
+	 * @return the initial state.
+	 */
+	S createState();
+
+	/**
+	 * Fold a message into the state.
+	 * @param state the current state.
+	 * @param message the message added to the group.
+	 * @return the new state; must not be null.
+	 */
+	S accumulate(S state, Message<?> message);
+
+	/**
+	 * Produce the aggregation result when the group is released.
+	 * @param state the final state.
+	 * @return the payload, or the {@link Message}, to send.
+	 */
+	Object release(S state);
+
+	/**
+	 * Create an {@link IncrementalAggregator} from functions.
+	 * @param initialState the supplier of the initial state.
+	 * @param accumulator the function to fold a message into the state.
+	 * @param finisher the function to produce the result from the final state.
+	 * @param <S> the state type.
+	 * @return the incremental aggregator.
+	 */
+	static <S> IncrementalAggregator<S> of(Supplier<S> initialState, BiFunction<S, Message<?>, S> accumulator,
+			Function<S, ?> finisher) {
+
+		Assert.notNull(initialState, "'initialState' must not be null");
+		Assert.notNull(accumulator, "'accumulator' must not be null");
+		Assert.notNull(finisher, "'finisher' must not be null");
+		return new IncrementalAggregator<S>() {
+
+			@Override
+			public S createState() {
+				return initialState.get();
+			}
+
+			@Override
+			public S accumulate(S state, Message<?> message) {
+				return accumulator.apply(state, message);
+			}
+
+			@Override
+			public Object release(S state) {
+				return finisher.apply(state);
+			}
+
+		};
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,13 +17,16 @@
 package org.springframework.integration.aggregator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.messaging.Message;
 
 /**
@@ -38,30 +41,99 @@ public class ResequencingMessageGroupProcessor implements MessageGroupProcessor
 
 	private final Comparator<Message<?>> comparator = new MessageSequenceComparator();
 
+	/**
+	 * Return the messages of the contiguous sequence which starts with the lowest
+	 * sequence number in the group.
+	 * The group is iterated twice: first to find the contiguous range, retaining only
+	 * the sequence numbers, then to collect the messages of that range; only these
+	 * messages are kept in memory and sorted, so lazy-loaded (paged) groups are never
+	 * fully materialized. The memory used for the sequence numbers is proportional to
+	 * the group size, whatever the values of the sequence numbers.
+	 * @param group the group.
+	 * @return the sorted partial sequence, or null for an empty group.
+	 */
 	public Object processMessageGroup(MessageGroup group) {
 		Collection<Message<?>> messages = group.getMessages();
 
 		if (messages.size() > 0) {
-			List<Message<?>> sorted = new ArrayList<Message<?>>(messages);
-			Collections.sort(sorted, this.comparator);
-			ArrayList<Message<?>> partialSequence = new ArrayList<Message<?>>();
-			int previousSequence = extractSequenceNumber(sorted.get(0));
-			int currentSequence = previousSequence;
-			for (Message<?> message : sorted) {
-				previousSequence = currentSequence;
-				currentSequence = extractSequenceNumber(message);
-				if (currentSequence - 1 > previousSequence) {
-					//there is a gap in the sequence here
-					break;
+			int[] sequenceNumbers = new int[messages.size()];
+			int count = 0;
+			boolean negativeSequenceNumber = false;
+			Iterator<Message<?>> iterator = messages.iterator();
+			try {
+				while (iterator.hasNext()) {
+					int sequenceNumber = extractSequenceNumber(iterator.next());
+					if (sequenceNumber < 0) {
+						negativeSequenceNumber = true;
+						break;
+					}
+					if (count == sequenceNumbers.length) {
+						sequenceNumbers = Arrays.copyOf(sequenceNumbers, count * 2 + 1);
+					}
+					sequenceNumbers[count++] = sequenceNumber;
 				}
-				partialSequence.add(message);
+			}
+			finally {
+				close(iterator);
+			}
+			if (negativeSequenceNumber) {
+				return sortAll(messages);
+			}
+			if (count == 0) {
+				return null;
+			}
+			Arrays.sort(sequenceNumbers, 0, count);
+			int lowest = sequenceNumbers[0];
+			int highest = lowest;
+			for (int i = 1; i < count && sequenceNumbers[i] - highest <= 1; i++) {
+				highest = sequenceNumbers[i];
 			}
 
+			List<Message<?>> partialSequence = new ArrayList<Message<?>>(highest - lowest + 1);
+			iterator = messages.iterator();
+			try {
+				while (iterator.hasNext()) {
+					Message<?> message = iterator.next();
+					int sequenceNumber = extractSequenceNumber(message);
+					if (sequenceNumber >= lowest && sequenceNumber <= highest) {
+						partialSequence.add(message);
+					}
+				}
+			}
+			finally {
+				close(iterator);
+			}
+			Collections.sort(partialSequence, this.comparator);
 			return partialSequence;
 		}
 		return null;
 	}
 
+	private List<Message<?>> sortAll(Collection<Message<?>> messages) {
+		List<Message<?>> sorted = new ArrayList<Message<?>>(messages);
+		Collections.sort(sorted, this.comparator);
+		ArrayList<Message<?>> partialSequence = new ArrayList<Message<?>>();
+		int previousSequence = extractSequenceNumber(sorted.get(0));
+		int currentSequence = previousSequence;
+		for (Message<?> message : sorted) {
+			previousSequence = currentSequence;
+			currentSequence = extractSequenceNumber(message);
+			if (currentSequence - 1 > previousSequence) {
+				//there is a gap in the sequence here
+				break;
+			}
+			partialSequence.add(message);
+		}
+
+		return partialSequence;
+	}
+
+	private static void close(Iterator<Message<?>> iterator) {
+		if (iterator instanceof CloseableIterator) {
+			((CloseableIterator<?>) iterator).close();
+		}
+	}
+
 	private Integer extractSequenceNumber(Message<?> message) {
 		return new IntegrationMessageHeaderAccessor(message).getSequenceNumber();
 	}
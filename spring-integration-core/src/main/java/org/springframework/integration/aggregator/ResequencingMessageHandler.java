@@ -16,12 +16,20 @@
 
 package org.springframework.integration.aggregator;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.util.UUIDConverter;
 import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
 
 /**
  * Resequencer specific implementation of {@link AbstractCorrelatingMessageHandler}.
@@ -35,6 +43,10 @@ import org.springframework.messaging.Message;
  */
 public class ResequencingMessageHandler extends AbstractCorrelatingMessageHandler {
 
+	private final Map<UUID, SequenceWindow> sequenceWindows = new ConcurrentHashMap<>();
+
+	private int sequenceWindowSize;
+
 	public ResequencingMessageHandler(MessageGroupProcessor processor,
 			MessageGroupStore store, CorrelationStrategy correlationStrategy,
 			ReleaseStrategy releaseStrategy) {
@@ -66,6 +78,35 @@ public class ResequencingMessageHandler extends AbstractCorrelatingMessageHandle
 		super.setExpireGroupsUponTimeout(expireGroupsUponTimeout);
 	}
 
+	/**
+	 * Set the capacity of an in-memory sequence window kept for each group. When greater
+	 * than 0, the messages buffered for a group are indexed by their sequence number in
+	 * a ring of this capacity, and contiguous messages are released as soon as they
+	 * arrive, without sorting the group or evaluating the release strategy against its
+	 * messages; the release strategy and {@code releasePartialSequences} are ignored.
+	 * A message arriving {@code sequenceWindowSize} or more positions ahead of the next
+	 * expected sequence number slides the window: the buffered messages falling out of it
+	 * are released in order and the missing ones are skipped, so the memory used by
+	 * streams that never complete stays bounded. Late and duplicate messages are
+	 * discarded. Messages must carry positive sequence numbers.
+	 * Default 0 (sort-on-release).
+	 * @param sequenceWindowSize the window capacity.
+	 * @since 5.1
+	 */
+	public void setSequenceWindowSize(int sequenceWindowSize) {
+		Assert.isTrue(sequenceWindowSize >= 0, "'sequenceWindowSize' must not be negative");
+		this.sequenceWindowSize = sequenceWindowSize;
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (this.sequenceWindowSize > 0) {
+			setReleaseStrategy(new SequenceWindowReleaseStrategy());
+			setOutputProcessor(new SequenceWindowMessageGroupProcessor(getOutputProcessor()));
+		}
+	}
+
 	@Override
 	public String getComponentType() {
 		return "resequencer";
@@ -76,6 +117,45 @@ public class ResequencingMessageHandler extends AbstractCorrelatingMessageHandle
 		return false;
 	}
 
+	@Override
+	protected MessageGroup store(Object correlationKey, Message<?> message) {
+		if (this.sequenceWindowSize > 0) {
+			UUID groupIdUuid = UUIDConverter.getUUID(correlationKey);
+			SequenceWindow window = this.sequenceWindows.get(groupIdUuid);
+			if (window == null) {
+				window = createSequenceWindow(getMessageStore().getMessageGroup(correlationKey));
+				this.sequenceWindows.put(groupIdUuid, window);
+			}
+			int sequenceNumber = new IntegrationMessageHeaderAccessor(message).getSequenceNumber();
+			if (!window.accepts(sequenceNumber)) {
+				discardMessage(message);
+				return getMessageStore().getMessageGroup(correlationKey);
+			}
+			MessageGroup messageGroup = super.store(correlationKey, message);
+			window.add(message, sequenceNumber);
+			return messageGroup;
+		}
+		return super.store(correlationKey, message);
+	}
+
+	private SequenceWindow createSequenceWindow(MessageGroup messageGroup) {
+		SequenceWindow window =
+				new SequenceWindow(this.sequenceWindowSize, messageGroup.getLastReleasedMessageSequenceNumber());
+		for (Message<?> message : messageGroup.getMessages()) {
+			int sequenceNumber = new IntegrationMessageHeaderAccessor(message).getSequenceNumber();
+			if (window.accepts(sequenceNumber)) {
+				window.add(message, sequenceNumber);
+			}
+		}
+		return window;
+	}
+
+	@Override
+	protected void remove(MessageGroup group) {
+		super.remove(group);
+		this.sequenceWindows.remove(UUIDConverter.getUUID(group.getGroupId()));
+	}
+
 	@Override
 	protected void afterRelease(MessageGroup messageGroup, Collection<Message<?>> completedMessages) {
 		afterRelease(messageGroup, completedMessages, false);
@@ -114,7 +194,126 @@ public class ResequencingMessageHandler extends AbstractCorrelatingMessageHandle
 			if (timeout) {
 				messageStore.completeGroup(groupId);
 			}
+			if (this.sequenceWindowSize > 0) {
+				UUID groupIdUuid = UUIDConverter.getUUID(groupId);
+				if (timeout) {
+					this.sequenceWindows.remove(groupIdUuid);
+				}
+				else {
+					SequenceWindow window = this.sequenceWindows.get(groupIdUuid);
+					if (sequenceSize > 0 && window != null && window.isPast(sequenceSize)) {
+						remove(messageGroup);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A {@link ReleaseStrategy} that checks the group's {@link SequenceWindow} only.
+	 */
+	private final class SequenceWindowReleaseStrategy implements ReleaseStrategy {
+
+		SequenceWindowReleaseStrategy() {
+			super();
+		}
+
+		@Override
+		public boolean canRelease(MessageGroup group) {
+			SequenceWindow window =
+					ResequencingMessageHandler.this.sequenceWindows.get(UUIDConverter.getUUID(group.getGroupId()));
+			return window != null && window.canRelease();
+		}
+
+	}
+
+	/**
+	 * A {@link MessageGroupProcessor} that releases the group's {@link SequenceWindow};
+	 * the delegate is used when the window has nothing to release, e.g. for partial
+	 * results on expiry.
+	 */
+	private final class SequenceWindowMessageGroupProcessor implements MessageGroupProcessor {
+
+		private final MessageGroupProcessor delegate;
+
+		SequenceWindowMessageGroupProcessor(MessageGroupProcessor delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object processMessageGroup(MessageGroup group) {
+			SequenceWindow window =
+					ResequencingMessageHandler.this.sequenceWindows.get(UUIDConverter.getUUID(group.getGroupId()));
+			if (window != null && window.canRelease()) {
+				return window.release();
+			}
+			return this.delegate.processMessageGroup(group);
+		}
+
+	}
+
+	/**
+	 * A ring of messages indexed by sequence number, starting at the next expected one.
+	 * Guarded by the group lock.
+	 */
+	private static final class SequenceWindow {
+
+		private final Message<?>[] ring;
+
+		private final List<Message<?>> slid = new ArrayList<>();
+
+		private int next;
+
+		SequenceWindow(int capacity, int lastReleasedSequenceNumber) {
+			this.ring = new Message<?>[capacity];
+			this.next = lastReleasedSequenceNumber + 1;
+		}
+
+		boolean accepts(int sequenceNumber) {
+			return sequenceNumber > 0 && sequenceNumber >= this.next
+					&& (sequenceNumber - this.next >= this.ring.length || this.ring[index(sequenceNumber)] == null);
+		}
+
+		void add(Message<?> message, int sequenceNumber) {
+			if (sequenceNumber - this.next >= this.ring.length) {
+				int newNext = sequenceNumber - this.ring.length + 1;
+				int end = Math.min(newNext, this.next + this.ring.length);
+				for (int i = this.next; i < end; i++) {
+					int index = index(i);
+					if (this.ring[index] != null) {
+						this.slid.add(this.ring[index]);
+						this.ring[index] = null;
+					}
+				}
+				this.next = newNext;
+			}
+			this.ring[index(sequenceNumber)] = message;
+		}
+
+		boolean isPast(int sequenceNumber) {
+			return this.next > sequenceNumber;
+		}
+
+		boolean canRelease() {
+			return !this.slid.isEmpty() || this.ring[index(this.next)] != null;
+		}
+
+		List<Message<?>> release() {
+			List<Message<?>> released = new ArrayList<>(this.slid);
+			this.slid.clear();
+			int index = index(this.next);
+			while (this.ring[index] != null) {
+				released.add(this.ring[index]);
+				this.ring[index] = null;
+				index = index(++this.next);
+			}
+			return released;
+		}
+
+		private int index(int sequenceNumber) {
+			return sequenceNumber % this.ring.length;
 		}
+
 	}
 
 }
@@ -16,13 +16,13 @@
 
 package org.springframework.integration.channel;
 
-import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 
@@ -95,6 +95,10 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 	private TimerFacade failureTimer;
 
+	private final AtomicInteger sendPlanVersion = new AtomicInteger();
+
+	private volatile SendPlan sendPlan;
+
 	public AbstractMessageChannel() {
 		this.interceptors = new ChannelInterceptorList(logger);
 	}
@@ -107,6 +111,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	@Override
 	public void setShouldTrack(boolean shouldTrack) {
 		this.shouldTrack = shouldTrack;
+		invalidateSendPlan();
 	}
 
 	@Override
@@ -126,6 +131,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			this.statsEnabled = false;
 			this.managementOverrides.statsConfigured = true;
 		}
+		invalidateSendPlan();
 	}
 
 	@Override
@@ -142,6 +148,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		this.statsEnabled = statsEnabled;
 		this.channelMetrics.setFullStatsEnabled(statsEnabled);
 		this.managementOverrides.statsConfigured = true;
+		invalidateSendPlan();
 	}
 
 	@Override
@@ -158,6 +165,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public void setLoggingEnabled(boolean loggingEnabled) {
 		this.loggingEnabled = loggingEnabled;
 		this.managementOverrides.loggingConfigured = true;
+		invalidateSendPlan();
 	}
 
 	protected AbstractMessageChannelMetrics getMetrics() {
@@ -184,6 +192,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public void setDatatypes(Class<?>... datatypes) {
 		this.datatypes = (datatypes != null && datatypes.length > 0)
 				? datatypes : new Class<?>[0];
+		invalidateSendPlan();
 	}
 
 	/**
@@ -362,6 +371,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		}
 
 		this.fullChannelName = null;
+		invalidateSendPlan();
 	}
 
 	/**
@@ -410,31 +420,42 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public boolean send(Message<?> message, long timeout) {
 		Assert.notNull(message, "message must not be null");
 		Assert.notNull(message.getPayload(), "message payload must not be null");
-		if (this.shouldTrack) {
+		SendPlan plan = obtainSendPlan();
+		if (plan.direct) {
+			return sendDirect(message, timeout, plan);
+		}
+		if (plan.track) {
 			message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
 		}
 
-		Deque<ChannelInterceptor> interceptorStack = null;
+		ChannelInterceptor[] interceptors = plan.interceptors;
+		int interceptorIndex = -1;
 		boolean sent = false;
 		boolean metricsProcessed = false;
 		MetricsContext metrics = null;
-		boolean countsEnabled = this.countsEnabled;
-		ChannelInterceptorList interceptors = this.interceptors;
+		boolean countsEnabled = plan.counts;
 		AbstractMessageChannelMetrics channelMetrics = this.channelMetrics;
 		SampleFacade sample = null;
 		try {
-			if (this.datatypes.length > 0) {
+			if (plan.convert) {
 				message = this.convertPayloadIfNecessary(message);
 			}
-			boolean debugEnabled = this.loggingEnabled && logger.isDebugEnabled();
+			boolean debugEnabled = plan.logging && logger.isDebugEnabled();
 			if (debugEnabled) {
 				logger.debug("preSend on channel '" + this + "', message: " + message);
 			}
-			if (interceptors.getSize() > 0) {
-				interceptorStack = new ArrayDeque<>();
-				message = interceptors.preSend(message, this, interceptorStack);
-				if (message == null) {
-					return false;
+			if (interceptors.length > 0) {
+				for (ChannelInterceptor interceptor : interceptors) {
+					message = interceptor.preSend(message, this);
+					if (message == null) {
+						if (logger.isDebugEnabled()) {
+							logger.debug(interceptor.getClass().getSimpleName()
+									+ " returned null from preSend, i.e. precluding the send.");
+						}
+						triggerAfterSendCompletion(null, sent, null, interceptors, interceptorIndex);
+						return false;
+					}
+					interceptorIndex++;
 				}
 			}
 			if (countsEnabled) {
@@ -456,9 +477,11 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			if (debugEnabled) {
 				logger.debug("postSend (sent=" + sent + ") on channel '" + this + "', message: " + message);
 			}
-			if (interceptorStack != null) {
-				interceptors.postSend(message, this, sent);
-				interceptors.afterSendCompletion(message, this, sent, null, interceptorStack);
+			if (interceptors.length > 0) {
+				for (ChannelInterceptor interceptor : interceptors) {
+					interceptor.postSend(message, this, sent);
+				}
+				triggerAfterSendCompletion(message, sent, null, interceptors, interceptorIndex);
 			}
 			return sent;
 		}
@@ -469,14 +492,74 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 				}
 				channelMetrics.afterSend(metrics, false);
 			}
-			if (interceptorStack != null) {
-				interceptors.afterSendCompletion(message, this, sent, e, interceptorStack);
+			if (interceptorIndex >= 0) {
+				triggerAfterSendCompletion(message, sent, e, interceptors, interceptorIndex);
+			}
+			throw IntegrationUtils.wrapInDeliveryExceptionIfNecessary(message,
+					() -> "failed to send Message to channel '" + this.getComponentName() + "'", e);
+		}
+	}
+
+	/**
+	 * The fast path for channels without message history, datatypes, interceptors and metrics:
+	 * no per-message allocation happens here besides what {@link #doSend(Message, long)} does.
+	 */
+	private boolean sendDirect(Message<?> message, long timeout, SendPlan plan) {
+		boolean debugEnabled = plan.logging && logger.isDebugEnabled();
+		try {
+			if (debugEnabled) {
+				logger.debug("preSend on channel '" + this + "', message: " + message);
+			}
+			boolean sent = doSend(message, timeout);
+			if (debugEnabled) {
+				logger.debug("postSend (sent=" + sent + ") on channel '" + this + "', message: " + message);
 			}
+			return sent;
+		}
+		catch (Exception e) {
 			throw IntegrationUtils.wrapInDeliveryExceptionIfNecessary(message,
 					() -> "failed to send Message to channel '" + this.getComponentName() + "'", e);
 		}
 	}
 
+	private void triggerAfterSendCompletion(Message<?> message, boolean sent, Exception ex,
+			ChannelInterceptor[] interceptors, int lastIndex) {
+
+		for (int i = lastIndex; i >= 0; i--) {
+			ChannelInterceptor interceptor = interceptors[i];
+			try {
+				interceptor.afterSendCompletion(message, this, sent, ex);
+			}
+			catch (Exception ex2) {
+				logger.error("Exception from afterSendCompletion in " + interceptor, ex2);
+			}
+		}
+	}
+
+	/**
+	 * Discard the current {@link SendPlan}; the version is bumped after the new setting is
+	 * written, so a plan built concurrently from the old settings is rejected on the next send.
+	 */
+	private void invalidateSendPlan() {
+		this.sendPlanVersion.incrementAndGet();
+		this.sendPlan = null;
+	}
+
+	private SendPlan obtainSendPlan() {
+		SendPlan plan = this.sendPlan;
+		if (plan == null || plan.version != this.sendPlanVersion.get()
+				|| plan.interceptorsVersion != this.interceptors.version.get()) {
+
+			int version = this.sendPlanVersion.get();
+			int interceptorsVersion = this.interceptors.version.get();
+			plan = new SendPlan(version, this.shouldTrack, this.datatypes.length > 0,
+					this.interceptors.interceptors.toArray(new ChannelInterceptor[0]), interceptorsVersion,
+					this.countsEnabled, this.loggingEnabled);
+			this.sendPlan = plan;
+		}
+		return plan;
+	}
+
 	private TimerFacade sendTimer(boolean sent) {
 		if (sent) {
 			if (this.successTimer == null) {
@@ -556,6 +639,8 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 		private volatile int size;
 
+		private final AtomicInteger version = new AtomicInteger();
+
 		public ChannelInterceptorList(Log logger) {
 			this.logger = logger;
 		}
@@ -564,7 +649,9 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			synchronized (this.interceptors) {
 				this.interceptors.clear();
 				this.size = interceptors.size();
-				return this.interceptors.addAll(interceptors);
+				boolean changed = this.interceptors.addAll(interceptors);
+				this.version.incrementAndGet();
+				return changed;
 			}
 		}
 
@@ -574,52 +661,15 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 		public boolean add(ChannelInterceptor interceptor) {
 			this.size++;
-			return this.interceptors.add(interceptor);
+			boolean added = this.interceptors.add(interceptor);
+			this.version.incrementAndGet();
+			return added;
 		}
 
 		public void add(int index, ChannelInterceptor interceptor) {
 			this.size++;
 			this.interceptors.add(index, interceptor);
-		}
-
-		public Message<?> preSend(Message<?> message, MessageChannel channel,
-				Deque<ChannelInterceptor> interceptorStack) {
-			if (this.size > 0) {
-				for (ChannelInterceptor interceptor : this.interceptors) {
-					message = interceptor.preSend(message, channel);
-					if (message == null) {
-						if (this.logger.isDebugEnabled()) {
-							this.logger.debug(interceptor.getClass().getSimpleName()
-									+ " returned null from preSend, i.e. precluding the send.");
-						}
-						afterSendCompletion(null, channel, false, null, interceptorStack);
-						return null;
-					}
-					interceptorStack.add(interceptor);
-				}
-			}
-			return message;
-		}
-
-		public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
-			if (this.size > 0) {
-				for (ChannelInterceptor interceptor : this.interceptors) {
-					interceptor.postSend(message, channel, sent);
-				}
-			}
-		}
-
-		public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex,
-				Deque<ChannelInterceptor> interceptorStack) {
-			for (Iterator<ChannelInterceptor> iterator = interceptorStack.descendingIterator(); iterator.hasNext(); ) {
-				ChannelInterceptor interceptor = iterator.next();
-				try {
-					interceptor.afterSendCompletion(message, channel, sent, ex);
-				}
-				catch (Exception ex2) {
-					this.logger.error("Exception from afterSendCompletion in " + interceptor, ex2);
-				}
-			}
+			this.version.incrementAndGet();
 		}
 
 		public boolean preReceive(MessageChannel channel, Deque<ChannelInterceptor> interceptorStack) {
@@ -667,6 +717,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		public boolean remove(ChannelInterceptor interceptor) {
 			if (this.interceptors.remove(interceptor)) {
 				this.size--;
+				this.version.incrementAndGet();
 				return true;
 			}
 			else {
@@ -678,10 +729,48 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			ChannelInterceptor removed = this.interceptors.remove(index);
 			if (removed != null) {
 				this.size--;
+				this.version.incrementAndGet();
 			}
 			return removed;
 		}
 
 	}
 
+	/**
+	 * An immutable snapshot of the channel configuration relevant for the
+	 * {@link #send(Message, long)} operation; rebuilt only when that configuration changes.
+	 */
+	private static final class SendPlan {
+
+		private final int version;
+
+		private final boolean track;
+
+		private final boolean convert;
+
+		private final ChannelInterceptor[] interceptors;
+
+		private final int interceptorsVersion;
+
+		private final boolean counts;
+
+		private final boolean logging;
+
+		private final boolean direct;
+
+		SendPlan(int version, boolean track, boolean convert, ChannelInterceptor[] interceptors,
+				int interceptorsVersion, boolean counts, boolean logging) {
+
+			this.version = version;
+			this.track = track;
+			this.convert = convert;
+			this.interceptors = interceptors;
+			this.interceptorsVersion = interceptorsVersion;
+			this.counts = counts;
+			this.logging = logging;
+			this.direct = !track && !convert && interceptors.length == 0 && !counts;
+		}
+
+	}
+
 }
@@ -17,6 +17,7 @@
 package org.springframework.integration.channel;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 
@@ -149,6 +150,48 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 		}
 	}
 
+	/**
+	 * Receive up to {@code maxMessages} messages which are immediately available from
+	 * this channel. Without channel interceptors, they are obtained in one
+	 * {@link #doReceiveAvailable(int)} operation; otherwise {@link #receive(long)
+	 * receive(0)} is invoked for each one, so that the interceptors see every message.
+	 * @param maxMessages the maximum number of messages.
+	 * @return the messages; empty if none is available.
+	 * @since 5.1
+	 */
+	public List<Message<?>> receiveAvailable(int maxMessages) {
+		if (getInterceptors().getSize() > 0) {
+			List<Message<?>> messages = new ArrayList<>();
+			Message<?> message;
+			while (messages.size() < maxMessages && (message = receive(0)) != null) {
+				messages.add(message);
+			}
+			return messages;
+		}
+		List<Message<?>> messages;
+		try {
+			messages = doReceiveAvailable(maxMessages);
+		}
+		catch (RuntimeException e) {
+			if (isCountsEnabled()) {
+				getMetrics().afterError();
+			}
+			throw e;
+		}
+		if (isCountsEnabled()) {
+			for (int i = 0; i < messages.size(); i++) {
+				if (getMetricsCaptor() != null) {
+					incrementReceiveCounter();
+				}
+				getMetrics().afterReceive();
+			}
+		}
+		if (!messages.isEmpty() && logger.isDebugEnabled()) {
+			logger.debug("postReceive on channel '" + this + "', messages: " + messages);
+		}
+		return messages;
+	}
+
 	private void incrementReceiveCounter() {
 		if (this.receiveCounter == null) {
 			this.receiveCounter = getMetricsCaptor().counterBuilder(RECEIVE_COUNTER_NAME)
@@ -223,4 +266,21 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 	 */
 	protected abstract Message<?> doReceive(long timeout);
 
+	/**
+	 * Obtain up to {@code maxMessages} immediately available messages. By default,
+	 * {@link #doReceive(long) doReceive(0)} is invoked until it returns null; subclasses
+	 * can override it to retrieve them in bulk.
+	 * @param maxMessages the maximum number of messages.
+	 * @return the messages; empty if none is available.
+	 * @since 5.1
+	 */
+	protected List<Message<?>> doReceiveAvailable(int maxMessages) {
+		List<Message<?>> messages = new ArrayList<>();
+		Message<?> message;
+		while (messages.size() < maxMessages && (message = doReceive(0)) != null) {
+			messages.add(message);
+		}
+		return messages;
+	}
+
 }
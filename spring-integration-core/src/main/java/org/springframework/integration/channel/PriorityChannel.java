@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.integration.channel;
 
 import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -140,6 +142,19 @@ public class PriorityChannel extends QueueChannel {
 		return message;
 	}
 
+	@Override
+	protected List<Message<?>> doReceiveAvailable(int maxMessages) {
+		List<Message<?>> messages = super.doReceiveAvailable(maxMessages);
+		if (!this.useMessageStore) {
+			ListIterator<Message<?>> iterator = messages.listIterator();
+			while (iterator.hasNext()) {
+				iterator.set(((MessageWrapper) iterator.next()).getRootMessage());
+			}
+		}
+		this.upperBound.release(messages.size());
+		return messages;
+	}
+
 	private static final class SequenceFallbackComparator implements Comparator<Message<?>> {
 
 		private final Comparator<Message<?>> targetComparator;
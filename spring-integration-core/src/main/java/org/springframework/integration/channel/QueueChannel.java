@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -145,6 +145,25 @@ public class QueueChannel extends AbstractPollableChannel implements QueueChanne
 		}
 	}
 
+	/**
+	 * Drain up to {@code maxMessages} messages from a {@link BlockingQueue} in one
+	 * {@link BlockingQueue#drainTo(java.util.Collection, int)} operation; a
+	 * {@link org.springframework.integration.store.MessageGroupQueue} polls them from its
+	 * {@link org.springframework.integration.store.ChannelMessageStore} in bulk.
+	 * @param maxMessages the maximum number of messages.
+	 * @return the messages.
+	 * @since 5.1
+	 */
+	@Override
+	protected List<Message<?>> doReceiveAvailable(int maxMessages) {
+		if (this.queue instanceof BlockingQueue) {
+			List<Message<?>> messages = new ArrayList<Message<?>>();
+			((BlockingQueue<Message<?>>) this.queue).drainTo(messages, maxMessages);
+			return messages;
+		}
+		return super.doReceiveAvailable(maxMessages);
+	}
+
 	@Override
 	public List<Message<?>> clear() {
 		List<Message<?>> clearedMessages = new ArrayList<Message<?>>();
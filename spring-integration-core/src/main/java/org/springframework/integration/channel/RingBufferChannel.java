@@ -0,0 +1,569 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.integration.dispatcher.LoadBalancingStrategy;
+import org.springframework.integration.dispatcher.RoundRobinLoadBalancingStrategy;
+import org.springframework.integration.dispatcher.UnicastingDispatcher;
+import org.springframework.integration.handler.EndOfBatchListener;
+import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A point-to-point {@link org.springframework.messaging.SubscribableChannel} that hands
+ * messages over to its subscribers through a preallocated ring buffer.
+ * <p>
+ * Like the {@link ExecutorChannel}, the sender returns as soon as the message is
+ * accepted and the subscribed handler is invoked on another thread. Unlike the
+ * {@link ExecutorChannel}, no task is created per message: a fixed number of
+ * long-running consumers, started on the provided {@link Executor} when the channel is
+ * started, claim all messages published since their previous pass (up to
+ * {@link #setMaxBatchSize(int) maxBatchSize}) and dispatch them in order on the same
+ * thread. Subscribers implementing {@link EndOfBatchListener} are notified after each
+ * such batch so that they can coalesce their I/O. With {@link #setBatchDispatch(boolean)
+ * batchDispatch}, a subscribed {@link org.springframework.integration.handler.BatchMessageHandler}
+ * receives the whole batch in one call; {@link #setBatchTimeout(long) batchTimeout}
+ * lets a consumer wait a little longer to fill a batch.
+ * <p>
+ * The ring buffer is a {@link MpmcArrayBlockingQueue}; each slot carries a sequence
+ * that acts as the barrier between the publishing and the consuming side, so neither
+ * side takes a lock unless the {@link MpmcArrayBlockingQueue.WaitStrategy#BLOCK}
+ * strategy has to park a thread. When the buffer is full, the send blocks according to
+ * the send timeout, just like a bounded {@link QueueChannel}.
+ * <p>
+ * Stopping the channel waits for the consumers to finish their current batch; messages
+ * still in the buffer stay there and are delivered after a restart.
+ *
+ * @since 5.1
+ */
+public class RingBufferChannel extends AbstractExecutorChannel implements SmartLifecycle, DisposableBean {
+
+	/**
+	 * The default number of slots in the ring buffer.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	/**
+	 * The default maximum number of messages a consumer claims in one pass.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+	/**
+	 * The default time in milliseconds {@link #stop()} waits for the consumers to finish
+	 * their current batch.
+	 */
+	public static final long DEFAULT_STOP_TIMEOUT = 5000;
+
+	private static final long CONSUMER_IDLE_TIMEOUT = 100;
+
+	private final MpmcArrayBlockingQueue<Message<?>> ringBuffer;
+
+	private final List<EndOfBatchListener> endOfBatchListeners = new CopyOnWriteArrayList<>();
+
+	private final MessageHandler dispatchingHandler = message -> getDispatcher().dispatch(message);
+
+	private volatile boolean failover = true;
+
+	private volatile LoadBalancingStrategy loadBalancingStrategy = new RoundRobinLoadBalancingStrategy();
+
+	private volatile ErrorHandler errorHandler;
+
+	private volatile int consumers = 1;
+
+	private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	private volatile long batchTimeout;
+
+	private volatile boolean batchDispatch;
+
+	private volatile boolean autoStartup = true;
+
+	private volatile int phase = Integer.MAX_VALUE / 4;
+
+	private volatile boolean running;
+
+	private volatile int generation;
+
+	private volatile long stopTimeout = DEFAULT_STOP_TIMEOUT;
+
+	private volatile CountDownLatch consumersLatch = new CountDownLatch(0);
+
+	/**
+	 * Create a channel with a {@value #DEFAULT_BUFFER_SIZE} slot ring buffer; the
+	 * consumers run on a {@link SimpleAsyncTaskExecutor}.
+	 */
+	public RingBufferChannel() {
+		this(null);
+	}
+
+	/**
+	 * Create a channel with a {@value #DEFAULT_BUFFER_SIZE} slot ring buffer whose
+	 * consumers run on the provided {@link Executor}.
+	 * @param executor the executor; it must be able to run {@link #setConsumers(int)
+	 * consumers} long-running tasks concurrently.
+	 */
+	public RingBufferChannel(Executor executor) {
+		this(executor, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a channel with the provided ring buffer size whose consumers run on the
+	 * provided {@link Executor}; idle consumers block until a message is published.
+	 * @param executor the executor.
+	 * @param bufferSize the number of slots in the ring buffer.
+	 */
+	public RingBufferChannel(Executor executor, int bufferSize) {
+		this(executor, bufferSize, MpmcArrayBlockingQueue.WaitStrategy.BLOCK);
+	}
+
+	/**
+	 * Create a channel with the provided ring buffer size and
+	 * {@link MpmcArrayBlockingQueue.WaitStrategy} whose consumers run on the provided
+	 * {@link Executor}.
+	 * @param executor the executor.
+	 * @param bufferSize the number of slots in the ring buffer.
+	 * @param waitStrategy how producers and consumers wait for a slot or a message.
+	 */
+	public RingBufferChannel(Executor executor, int bufferSize, MpmcArrayBlockingQueue.WaitStrategy waitStrategy) {
+		super(executor);
+		this.ringBuffer = new MpmcArrayBlockingQueue<>(bufferSize, waitStrategy);
+		UnicastingDispatcher unicastingDispatcher = new UnicastingDispatcher();
+		unicastingDispatcher.setLoadBalancingStrategy(this.loadBalancingStrategy);
+		this.dispatcher = unicastingDispatcher;
+	}
+
+	/**
+	 * Specify whether the channel's dispatcher should have failover enabled.
+	 * By default, it will. Set this value to 'false' to disable it.
+	 * @param failover The failover boolean.
+	 */
+	public void setFailover(boolean failover) {
+		this.failover = failover;
+		getDispatcher().setFailover(failover);
+	}
+
+	/**
+	 * Provide a {@link LoadBalancingStrategy}; {@code null} disables load balancing.
+	 * Round-robin by default.
+	 * @param loadBalancingStrategy the strategy.
+	 */
+	public void setLoadBalancingStrategy(LoadBalancingStrategy loadBalancingStrategy) {
+		this.loadBalancingStrategy = loadBalancingStrategy;
+		getDispatcher().setLoadBalancingStrategy(loadBalancingStrategy);
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} invoked on the consumer thread when the dispatch fails.
+	 * A {@link MessagePublishingErrorHandler} by default.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Set the number of consumers draining the ring buffer. With more than one
+	 * consumer, message order across batches is not preserved. Default 1.
+	 * @param consumers the number of consumers.
+	 */
+	public void setConsumers(int consumers) {
+		Assert.isTrue(consumers > 0, "'consumers' must be greater than 0");
+		this.consumers = consumers;
+	}
+
+	/**
+	 * Set the maximum number of messages a consumer claims before it signals the end
+	 * of a batch. Default {@value #DEFAULT_MAX_BATCH_SIZE}.
+	 * @param maxBatchSize the maximum batch size.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set how long, in milliseconds, a consumer that has received a message keeps
+	 * waiting for more before it dispatches a batch smaller than
+	 * {@link #setMaxBatchSize(int) maxBatchSize}. Default 0: a batch is made of the
+	 * messages available at that time.
+	 * @param batchTimeout the batch timeout.
+	 */
+	public void setBatchTimeout(long batchTimeout) {
+		Assert.isTrue(batchTimeout >= 0, "'batchTimeout' must not be negative");
+		this.batchTimeout = batchTimeout;
+	}
+
+	/**
+	 * Set to true to hand each batch to the dispatcher at once, so that a subscribed
+	 * {@link org.springframework.integration.handler.BatchMessageHandler} receives the
+	 * whole batch in one call. The batch goes to a single subscriber, chosen by the
+	 * load-balancing strategy for the first message of the batch. Ignored while
+	 * {@link org.springframework.messaging.support.ExecutorChannelInterceptor}s are
+	 * present. Default false.
+	 * @param batchDispatch true to dispatch batches.
+	 * @see UnicastingDispatcher#dispatchBatch(List)
+	 */
+	public void setBatchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+	}
+
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	/**
+	 * Set the lifecycle phase. By default the channel starts after (and stops before)
+	 * the endpoints subscribed to it in the default phase {@code 0}.
+	 * @param phase the phase.
+	 */
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	/**
+	 * Set how long {@link #stop()} waits for the consumers to finish their current
+	 * batch. Default {@value #DEFAULT_STOP_TIMEOUT} milliseconds.
+	 * @param stopTimeout the timeout in milliseconds.
+	 */
+	public void setStopTimeout(long stopTimeout) {
+		this.stopTimeout = stopTimeout;
+	}
+
+	/**
+	 * Return the number of messages waiting in the ring buffer.
+	 * @return the number of messages.
+	 */
+	public int getQueueSize() {
+		return this.ringBuffer.size();
+	}
+
+	/**
+	 * Return the number of free slots in the ring buffer.
+	 * @return the remaining capacity.
+	 */
+	public int getRemainingCapacity() {
+		return this.ringBuffer.remainingCapacity();
+	}
+
+	@Override
+	protected UnicastingDispatcher getDispatcher() {
+		return (UnicastingDispatcher) this.dispatcher;
+	}
+
+	@Override
+	public boolean subscribe(MessageHandler handler) {
+		boolean added = super.subscribe(handler);
+		if (added && handler instanceof EndOfBatchListener) {
+			this.endOfBatchListeners.add((EndOfBatchListener) handler);
+		}
+		return added;
+	}
+
+	@Override
+	public boolean unsubscribe(MessageHandler handler) {
+		boolean removed = super.unsubscribe(handler);
+		if (removed && handler instanceof EndOfBatchListener) {
+			this.endOfBatchListeners.remove(handler);
+		}
+		return removed;
+	}
+
+	@Override
+	public final void onInit() throws Exception {
+		Assert.state(getDispatcher().getHandlerCount() == 0, "You cannot subscribe() until the channel "
+				+ "bean is fully initialized by the framework. Do not subscribe in a @Bean definition");
+		super.onInit();
+		if (this.errorHandler == null) {
+			this.errorHandler = createDefaultErrorHandler();
+		}
+		UnicastingDispatcher unicastingDispatcher = new UnicastingDispatcher();
+		unicastingDispatcher.setFailover(this.failover);
+		if (this.maxSubscribers == null) {
+			this.maxSubscribers =
+					getIntegrationProperty(IntegrationProperties.CHANNELS_MAX_UNICAST_SUBSCRIBERS, Integer.class);
+		}
+		unicastingDispatcher.setMaxSubscribers(this.maxSubscribers);
+		unicastingDispatcher.setLoadBalancingStrategy(this.loadBalancingStrategy);
+		this.dispatcher = unicastingDispatcher;
+	}
+
+	@Override
+	protected boolean doSend(Message<?> message, long timeout) {
+		Assert.notNull(message, "'message' must not be null");
+		try {
+			if (timeout > 0) {
+				return this.ringBuffer.offer(message, timeout, TimeUnit.MILLISECONDS);
+			}
+			if (timeout == 0) {
+				return this.ringBuffer.offer(message);
+			}
+			this.ringBuffer.put(message);
+			return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!this.running) {
+			if (this.executor == null) {
+				String name = getComponentName();
+				this.executor = new SimpleAsyncTaskExecutor((name != null ? name : "ringBufferChannel") + "-");
+			}
+			if (this.errorHandler == null) {
+				this.errorHandler = createDefaultErrorHandler();
+			}
+			int generation = ++this.generation;
+			this.consumersLatch = new CountDownLatch(this.consumers);
+			this.running = true;
+			for (int i = 0; i < this.consumers; i++) {
+				this.executor.execute(new RingBufferConsumer(generation));
+			}
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.running) {
+			this.running = false;
+			try {
+				if (!this.consumersLatch.await(this.stopTimeout, TimeUnit.MILLISECONDS)) {
+					logger.warn("Consumers of channel '" + getFullChannelName()
+							+ "' did not finish their batch within " + this.stopTimeout + "ms");
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	public void destroy() {
+		stop();
+	}
+
+	private ErrorHandler createDefaultErrorHandler() {
+		BeanFactory beanFactory = getBeanFactory();
+		return beanFactory != null
+				? new MessagePublishingErrorHandler(new BeanFactoryChannelResolver(beanFactory))
+				: new MessagePublishingErrorHandler();
+	}
+
+	private void handle(List<Message<?>> batch) {
+		if (this.batchDispatch && this.executorInterceptorsSize == 0) {
+			try {
+				getDispatcher().dispatchBatch(batch);
+			}
+			catch (Throwable t) { // NOSONAR
+				handleError(t);
+			}
+		}
+		else {
+			for (int i = 0; i < batch.size(); i++) {
+				handle(batch.get(i));
+			}
+		}
+	}
+
+	private void handle(Message<?> message) {
+		try {
+			if (this.executorInterceptorsSize > 0) {
+				new MessageHandlingTask(new DispatchTask(message)).run();
+			}
+			else {
+				getDispatcher().dispatch(message);
+			}
+		}
+		catch (Throwable t) { // NOSONAR
+			handleError(t);
+		}
+	}
+
+	private void signalEndOfBatch() {
+		for (EndOfBatchListener listener : this.endOfBatchListeners) {
+			try {
+				listener.onEndOfBatch();
+			}
+			catch (Throwable t) { // NOSONAR
+				handleError(t);
+			}
+		}
+	}
+
+	private void handleError(Throwable t) {
+		try {
+			this.errorHandler.handleError(t);
+		}
+		catch (Throwable ex) { // NOSONAR
+			logger.error("The error handler of channel '" + getFullChannelName() + "' failed to handle: " + t, ex);
+		}
+	}
+
+	private final class RingBufferConsumer implements Runnable {
+
+		private final int generation;
+
+		private final CountDownLatch latch = RingBufferChannel.this.consumersLatch;
+
+		private final List<Message<?>> batch = new ArrayList<>(RingBufferChannel.this.maxBatchSize);
+
+		private final List<Message<?>> unmodifiableBatch = Collections.unmodifiableList(this.batch);
+
+		RingBufferConsumer(int generation) {
+			this.generation = generation;
+		}
+
+		@Override
+		public void run() {
+			try {
+				consume();
+			}
+			finally {
+				this.latch.countDown();
+			}
+		}
+
+		private void consume() {
+			MpmcArrayBlockingQueue<Message<?>> ringBuffer = RingBufferChannel.this.ringBuffer;
+			while (isActive()) {
+				try {
+					Message<?> first = ringBuffer.poll(CONSUMER_IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					this.batch.add(first);
+					fillBatch(ringBuffer);
+					handle(this.unmodifiableBatch);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				finally {
+					if (!this.batch.isEmpty()) {
+						this.batch.clear();
+						signalEndOfBatch();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Fill the batch up to the max size, waiting for the batch timeout if any.
+		 * An interrupt while waiting stops filling, but the messages already taken from
+		 * the ring buffer are still dispatched; the consumer exits on its next poll.
+		 */
+		private void fillBatch(MpmcArrayBlockingQueue<Message<?>> ringBuffer) {
+			int max = RingBufferChannel.this.maxBatchSize;
+			ringBuffer.drainTo(this.batch, max - this.batch.size());
+			long batchTimeout = RingBufferChannel.this.batchTimeout;
+			if (batchTimeout > 0) {
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeout);
+				long remaining = deadline - System.nanoTime();
+				try {
+					while (this.batch.size() < max && remaining > 0) {
+						Message<?> next = ringBuffer.poll(remaining, TimeUnit.NANOSECONDS);
+						if (next == null) {
+							break;
+						}
+						this.batch.add(next);
+						ringBuffer.drainTo(this.batch, max - this.batch.size());
+						remaining = deadline - System.nanoTime();
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		private boolean isActive() {
+			return RingBufferChannel.this.running && this.generation == RingBufferChannel.this.generation;
+		}
+
+	}
+
+	private final class DispatchTask implements MessageHandlingRunnable {
+
+		private final Message<?> message;
+
+		DispatchTask(Message<?> message) {
+			this.message = message;
+		}
+
+		@Override
+		public void run() {
+			getDispatcher().dispatch(this.message);
+		}
+
+		@Override
+		public Message<?> getMessage() {
+			return this.message;
+		}
+
+		@Override
+		public MessageHandler getMessageHandler() {
+			return RingBufferChannel.this.dispatchingHandler;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.codec;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Interface for classes that perform both encode (serialize) and decode (deserialize) on multiple classes.
@@ -63,4 +64,35 @@ public interface Codec {
 	 */
 	<T> T decode(byte[] bytes, Class<T> type) throws IOException;
 
+	/**
+	 * Encode an object into a buffer, starting at its current position, which is
+	 * advanced past the encoded object.
+	 * The default implementation copies the result of {@link #encode(Object)}.
+	 * @param object the object to encode
+	 * @param buffer the buffer
+	 * @throws IOException if the operation fails
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough remaining space
+	 * @since 5.1
+	 */
+	default void encode(Object object, ByteBuffer buffer) throws IOException {
+		buffer.put(encode(object));
+	}
+
+	/**
+	 * Decode an object of a given type from a buffer, starting at its current position,
+	 * which is advanced past the bytes consumed.
+	 * The default implementation copies the remaining bytes and consumes all of them.
+	 * @param buffer the buffer containing the encoded object
+	 * @param type the object's class
+	 * @param <T> the object's type
+	 * @return the object
+	 * @throws IOException if the operation fails
+	 * @since 5.1
+	 */
+	default <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return decode(bytes, type);
+	}
+
 }
@@ -0,0 +1,440 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.store.MessageHolder;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.integration.support.MutableMessageHeaders;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * A schema-less, compact binary {@link Codec}. No class registration is needed:
+ * {@code null}, strings, boxed primitives, {@link UUID}s, {@link Date}s, byte arrays,
+ * {@link ArrayList}s, {@link HashMap}s, {@link HashSet}s (and their linked variants, read
+ * back as the linked variants) and
+ * {@link GenericMessage}s, {@link MutableMessage}s and {@link MessageHolder}s made of
+ * these are written as
+ * type-tagged values, with variable length integers and with the standard message
+ * headers written as a single byte. Any other {@link Serializable} value is embedded
+ * with Java serialization.
+ * <p>
+ * Messages keep their {@link MessageHeaders#ID} and {@link MessageHeaders#TIMESTAMP}.
+ * As with Java serialization, headers with a value which is not {@link Serializable}
+ * (for example a {@code replyChannel} instance) are dropped.
+ *
+ * @since 5.1
+ */
+public class CompactCodec implements Codec {
+
+	/*
+	 * Type tags and well known header names are part of the format:
+	 * new entries may only be appended.
+	 */
+
+	private static final int NULL = 0;
+
+	private static final int STRING = 1;
+
+	private static final int INTEGER = 2;
+
+	private static final int LONG = 3;
+
+	private static final int TRUE = 4;
+
+	private static final int FALSE = 5;
+
+	private static final int DOUBLE = 6;
+
+	private static final int FLOAT = 7;
+
+	private static final int SHORT = 8;
+
+	private static final int BYTE = 9;
+
+	private static final int CHARACTER = 10;
+
+	private static final int UUID_VALUE = 11;
+
+	private static final int BYTES = 12;
+
+	private static final int DATE = 13;
+
+	private static final int LIST = 14;
+
+	private static final int MAP = 15;
+
+	private static final int SET = 16;
+
+	private static final int MESSAGE = 17;
+
+	private static final int MUTABLE_MESSAGE = 18;
+
+	private static final int SERIALIZED = 19;
+
+	private static final int MESSAGE_HOLDER = 20;
+
+	private static final List<String> WELL_KNOWN_HEADERS = Arrays.asList(
+			MessageHeaders.ID,
+			MessageHeaders.TIMESTAMP,
+			MessageHeaders.CONTENT_TYPE,
+			MessageHeaders.REPLY_CHANNEL,
+			MessageHeaders.ERROR_CHANNEL,
+			IntegrationMessageHeaderAccessor.CORRELATION_ID,
+			IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER,
+			IntegrationMessageHeaderAccessor.SEQUENCE_SIZE,
+			IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS,
+			IntegrationMessageHeaderAccessor.PRIORITY,
+			IntegrationMessageHeaderAccessor.EXPIRATION_DATE,
+			IntegrationMessageHeaderAccessor.DELIVERY_ATTEMPT);
+
+	private final SerializingConverter serializingConverter = new SerializingConverter();
+
+	private final WhiteListDeserializingConverter deserializingConverter = new WhiteListDeserializingConverter();
+
+	/**
+	 * Add patterns for packages/classes that are allowed to be deserialized from the
+	 * values embedded with Java serialization. A class can be fully qualified or a
+	 * wildcard '*' is allowed at the beginning or end of the class name.
+	 * Examples: {@code com.foo.*}, {@code *.MyClass}.
+	 * @param patterns the patterns.
+	 */
+	public void addWhiteListPatterns(String... patterns) {
+		this.deserializingConverter.addWhiteListPatterns(patterns);
+	}
+
+	@Override
+	public void encode(Object object, OutputStream outputStream) throws IOException {
+		DataOutputStream output = new DataOutputStream(outputStream);
+		writeValue(output, object);
+		output.flush();
+	}
+
+	@Override
+	public byte[] encode(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		encode(object, bytes);
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+		Object value = readValue(new DataInputStream(inputStream));
+		if (value != null && !type.isInstance(value)) {
+			throw new IOException("Decoded " + value.getClass().getName() + " is not a " + type.getName());
+		}
+		return type.cast(value);
+	}
+
+	@Override
+	public <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+		return decode(new ByteArrayInputStream(bytes), type);
+	}
+
+	private void writeValue(DataOutputStream output, Object value) throws IOException {
+		if (value == null) {
+			output.writeByte(NULL);
+		}
+		else if (value instanceof String) {
+			output.writeByte(STRING);
+			writeString(output, (String) value);
+		}
+		else if (value instanceof Integer) {
+			output.writeByte(INTEGER);
+			writeVarLong(output, zigZag((Integer) value));
+		}
+		else if (value instanceof Long) {
+			output.writeByte(LONG);
+			writeVarLong(output, zigZag((Long) value));
+		}
+		else if (value instanceof Boolean) {
+			output.writeByte((Boolean) value ? TRUE : FALSE);
+		}
+		else if (value instanceof Double) {
+			output.writeByte(DOUBLE);
+			output.writeDouble((Double) value);
+		}
+		else if (value instanceof Float) {
+			output.writeByte(FLOAT);
+			output.writeFloat((Float) value);
+		}
+		else if (value instanceof Short) {
+			output.writeByte(SHORT);
+			output.writeShort((Short) value);
+		}
+		else if (value instanceof Byte) {
+			output.writeByte(BYTE);
+			output.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			output.writeByte(CHARACTER);
+			output.writeChar((Character) value);
+		}
+		else if (value instanceof UUID) {
+			output.writeByte(UUID_VALUE);
+			output.writeLong(((UUID) value).getMostSignificantBits());
+			output.writeLong(((UUID) value).getLeastSignificantBits());
+		}
+		else if (value instanceof byte[]) {
+			output.writeByte(BYTES);
+			writeVarLong(output, ((byte[]) value).length);
+			output.write((byte[]) value);
+		}
+		else if (value.getClass() == Date.class) {
+			output.writeByte(DATE);
+			output.writeLong(((Date) value).getTime());
+		}
+		else if (value.getClass() == ArrayList.class) {
+			output.writeByte(LIST);
+			writeElements(output, (Collection<?>) value);
+		}
+		else if (value.getClass() == HashSet.class || value.getClass() == LinkedHashSet.class) {
+			output.writeByte(SET);
+			writeElements(output, (Collection<?>) value);
+		}
+		else if (value.getClass() == HashMap.class || value.getClass() == LinkedHashMap.class) {
+			output.writeByte(MAP);
+			writeVarLong(output, ((Map<?, ?>) value).size());
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				writeValue(output, entry.getKey());
+				writeValue(output, entry.getValue());
+			}
+		}
+		else if (value.getClass() == GenericMessage.class || value.getClass() == MutableMessage.class) {
+			output.writeByte(value.getClass() == GenericMessage.class ? MESSAGE : MUTABLE_MESSAGE);
+			writeMessage(output, (Message<?>) value);
+		}
+		else if (value.getClass() == MessageHolder.class) {
+			output.writeByte(MESSAGE_HOLDER);
+			writeValue(output, ((MessageHolder) value).getMessage());
+			output.writeLong(((MessageHolder) value).getMessageMetadata().getTimestamp());
+		}
+		else if (value instanceof Serializable) {
+			output.writeByte(SERIALIZED);
+			byte[] bytes = this.serializingConverter.convert(value);
+			writeVarLong(output, bytes.length);
+			output.write(bytes);
+		}
+		else {
+			throw new IOException("Cannot encode " + value.getClass().getName()
+					+ ": it is not a supported type and is not Serializable");
+		}
+	}
+
+	private void writeElements(DataOutputStream output, Collection<?> elements) throws IOException {
+		writeVarLong(output, elements.size());
+		for (Object element : elements) {
+			writeValue(output, element);
+		}
+	}
+
+	private void writeMessage(DataOutputStream output, Message<?> message) throws IOException {
+		List<Map.Entry<String, Object>> headers = new ArrayList<>(message.getHeaders().size());
+		for (Map.Entry<String, Object> header : message.getHeaders().entrySet()) {
+			if (header.getValue() instanceof Serializable) {
+				headers.add(header);
+			}
+		}
+		writeVarLong(output, headers.size());
+		for (Map.Entry<String, Object> header : headers) {
+			int index = WELL_KNOWN_HEADERS.indexOf(header.getKey());
+			writeVarLong(output, index + 1);
+			if (index < 0) {
+				writeString(output, header.getKey());
+			}
+			writeValue(output, header.getValue());
+		}
+		writeValue(output, message.getPayload());
+	}
+
+	private Object readValue(DataInputStream input) throws IOException {
+		int tag = input.readUnsignedByte();
+		switch (tag) {
+			case NULL:
+				return null;
+			case STRING:
+				return readString(input);
+			case INTEGER:
+				return (int) unZigZag(readVarLong(input));
+			case LONG:
+				return unZigZag(readVarLong(input));
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case DOUBLE:
+				return input.readDouble();
+			case FLOAT:
+				return input.readFloat();
+			case SHORT:
+				return input.readShort();
+			case BYTE:
+				return input.readByte();
+			case CHARACTER:
+				return input.readChar();
+			case UUID_VALUE:
+				return new UUID(input.readLong(), input.readLong());
+			case BYTES:
+				return readBytes(input);
+			case DATE:
+				return new Date(input.readLong());
+			case LIST:
+				int listSize = readSize(input);
+				List<Object> list = new ArrayList<>(listSize);
+				for (int i = 0; i < listSize; i++) {
+					list.add(readValue(input));
+				}
+				return list;
+			case SET:
+				int setSize = readSize(input);
+				LinkedHashSet<Object> set = new LinkedHashSet<>(capacity(setSize));
+				for (int i = 0; i < setSize; i++) {
+					set.add(readValue(input));
+				}
+				return set;
+			case MAP:
+				return readMap(input);
+			case MESSAGE:
+				return readMessage(input, false);
+			case MUTABLE_MESSAGE:
+				return readMessage(input, true);
+			case SERIALIZED:
+				return this.deserializingConverter.convert(readBytes(input));
+			case MESSAGE_HOLDER:
+				MessageHolder holder = new MessageHolder((Message<?>) readValue(input));
+				holder.setTimestamp(input.readLong());
+				return holder;
+			default:
+				throw new IOException("Unknown type tag: " + tag);
+		}
+	}
+
+	private Map<Object, Object> readMap(DataInputStream input) throws IOException {
+		int size = readSize(input);
+		Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+		for (int i = 0; i < size; i++) {
+			map.put(readValue(input), readValue(input));
+		}
+		return map;
+	}
+
+	private Message<?> readMessage(DataInputStream input, boolean mutable) throws IOException {
+		int size = readSize(input);
+		Map<String, Object> headers = new HashMap<>(capacity(size));
+		for (int i = 0; i < size; i++) {
+			int index = readSize(input) - 1;
+			String name;
+			if (index < 0) {
+				name = readString(input);
+			}
+			else if (index < WELL_KNOWN_HEADERS.size()) {
+				name = WELL_KNOWN_HEADERS.get(index);
+			}
+			else {
+				throw new IOException("Unknown header index: " + index);
+			}
+			headers.put(name, readValue(input));
+		}
+		Object payload = readValue(input);
+		return mutable
+				? new MutableMessage<>(payload, headers)
+				: new GenericMessage<>(payload, new MutableMessageHeaders(headers));
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(output, bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		return new String(readBytes(input), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] readBytes(DataInputStream input) throws IOException {
+		byte[] bytes = new byte[readSize(input)];
+		input.readFully(bytes);
+		return bytes;
+	}
+
+	private static int readSize(DataInputStream input) throws IOException {
+		long size = readVarLong(input);
+		if (size < 0 || size > Integer.MAX_VALUE) {
+			throw new IOException("Invalid size: " + size);
+		}
+		return (int) size;
+	}
+
+	private static int capacity(int size) {
+		return Math.max((int) (size / .75f) + 1, 16);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			output.writeByte((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		output.writeByte((int) remaining);
+	}
+
+	private static long readVarLong(DataInputStream input) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.codec.kryo.MessageCodec;
+import org.springframework.integration.store.MessageHolder;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.integration.support.MutableMessageHeaders;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link Serializer} and {@link Deserializer} for message stores, writing messages
+ * (and any other stored object) in the selected {@link Format} and reading all of them.
+ * <p>
+ * The {@link Format#KRYO} and {@link Format#COMPACT} data starts with a three byte
+ * header: {@code 'S' 'I'} and the format id. The {@link Format#JAVA} data is plain Java
+ * serialization, which always starts with the {@code 0xACED} stream magic number
+ * instead. Consequently, a store switched to another format keeps reading the data
+ * written by previous versions, while the data it now writes can be read by any
+ * application using a {@code MessageStoreCodec}, whatever its own format; for a rolling
+ * upgrade, first deploy the codec with the {@link Format#JAVA} format everywhere.
+ * <p>
+ * The {@link Format#KRYO} format requires {@code com.esotericsoftware:kryo-shaded} on
+ * the class path; messages keep their id and timestamp, but only
+ * {@link GenericMessage}s and {@link MutableMessage}s (also within a
+ * {@link MessageHolder}) are encoded with Kryo, other messages (such as
+ * {@code ErrorMessage}s) are embedded with Java serialization.
+ *
+ * @since 5.1
+ */
+public class MessageStoreCodec implements Serializer<Object>, Deserializer<Object> {
+
+	private static final int MAGIC_1 = 'S';
+
+	private static final int MAGIC_2 = 'I';
+
+	private static final byte KRYO_MESSAGE = 0;
+
+	private static final byte KRYO_MUTABLE_MESSAGE = 1;
+
+	private static final byte KRYO_OBJECT = 2;
+
+	private static final byte KRYO_SERIALIZED = 3;
+
+	private static final byte KRYO_MESSAGE_HOLDER = 4;
+
+	private final Format format;
+
+	private final DefaultSerializer javaSerializer = new DefaultSerializer();
+
+	private final WhiteListDeserializingConverter javaDeserializer = new WhiteListDeserializingConverter();
+
+	private final CompactCodec compactCodec = new CompactCodec();
+
+	private volatile Codec kryoCodec;
+
+	/**
+	 * Create an instance writing the provided format.
+	 * @param format the format.
+	 */
+	public MessageStoreCodec(Format format) {
+		Assert.notNull(format, "'format' must not be null");
+		this.format = format;
+	}
+
+	/**
+	 * Set the codec for the {@link Format#KRYO} format, for example a
+	 * {@link MessageCodec} with custom registrations. Defaults to a
+	 * {@link MessageCodec}. The codec must be able to encode and decode an
+	 * {@code Object[]}.
+	 * @param kryoCodec the codec.
+	 */
+	public void setKryoCodec(Codec kryoCodec) {
+		Assert.notNull(kryoCodec, "'kryoCodec' must not be null");
+		this.kryoCodec = kryoCodec;
+	}
+
+	/**
+	 * Add patterns for packages/classes that are allowed to be deserialized with
+	 * Java serialization, for the {@link Format#JAVA} data as well as for values
+	 * embedded in the other formats. A class can be fully qualified or a wildcard
+	 * '*' is allowed at the beginning or end of the class name.
+	 * Examples: {@code com.foo.*}, {@code *.MyClass}.
+	 * @param patterns the patterns.
+	 */
+	public void addWhiteListPatterns(String... patterns) {
+		this.javaDeserializer.addWhiteListPatterns(patterns);
+		this.compactCodec.addWhiteListPatterns(patterns);
+	}
+
+	public Format getFormat() {
+		return this.format;
+	}
+
+	/**
+	 * Encode the object in the configured format.
+	 * @param object the object.
+	 * @return the bytes.
+	 * @throws IOException if the object cannot be encoded.
+	 */
+	public byte[] encode(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		serialize(object, bytes);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decode an object written in any format.
+	 * @param bytes the bytes.
+	 * @return the object.
+	 * @throws IOException if the bytes cannot be decoded.
+	 */
+	public Object decode(byte[] bytes) throws IOException {
+		return deserialize(new ByteArrayInputStream(bytes));
+	}
+
+	@Override
+	public void serialize(Object object, OutputStream outputStream) throws IOException {
+		switch (this.format) {
+			case KRYO:
+				writeHeader(outputStream);
+				getKryoCodec().encode(toKryoEnvelope(object), outputStream);
+				break;
+			case COMPACT:
+				writeHeader(outputStream);
+				this.compactCodec.encode(object, outputStream);
+				break;
+			default:
+				this.javaSerializer.serialize(object, outputStream);
+		}
+	}
+
+	@Override
+	public Object deserialize(InputStream inputStream) throws IOException {
+		PushbackInputStream input = new PushbackInputStream(inputStream, 2);
+		int first = input.read();
+		int second = input.read();
+		if (first == MAGIC_1 && second == MAGIC_2) {
+			switch (Format.of(input.read())) {
+				case KRYO:
+					return fromKryoEnvelope(getKryoCodec().decode(input, Object[].class));
+				case COMPACT:
+					return this.compactCodec.decode(input, Object.class);
+				default:
+					return this.javaDeserializer.convert(StreamUtils.copyToByteArray(input));
+			}
+		}
+		if (second >= 0) {
+			input.unread(second);
+		}
+		if (first >= 0) {
+			input.unread(first);
+		}
+		return this.javaDeserializer.convert(StreamUtils.copyToByteArray(input));
+	}
+
+	private void writeHeader(OutputStream outputStream) throws IOException {
+		outputStream.write(MAGIC_1);
+		outputStream.write(MAGIC_2);
+		outputStream.write(this.format.id);
+	}
+
+	private Codec getKryoCodec() {
+		if (this.kryoCodec == null) {
+			this.kryoCodec = new MessageCodec();
+		}
+		return this.kryoCodec;
+	}
+
+	private Object[] toKryoEnvelope(Object object) throws IOException {
+		if (object.getClass() == GenericMessage.class || object.getClass() == MutableMessage.class) {
+			Message<?> message = (Message<?>) object;
+			HashMap<String, Object> headers = new HashMap<>(message.getHeaders().size() * 2);
+			for (Map.Entry<String, Object> header : message.getHeaders().entrySet()) {
+				if (header.getValue() instanceof Serializable) {
+					headers.put(header.getKey(), header.getValue());
+				}
+			}
+			return new Object[] {
+					object.getClass() == GenericMessage.class ? KRYO_MESSAGE : KRYO_MUTABLE_MESSAGE,
+					headers,
+					message.getPayload() };
+		}
+		else if (object.getClass() == MessageHolder.class) {
+			MessageHolder holder = (MessageHolder) object;
+			return new Object[] {
+					KRYO_MESSAGE_HOLDER,
+					toKryoEnvelope(holder.getMessage()),
+					holder.getMessageMetadata().getTimestamp() };
+		}
+		else if (object instanceof Message) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+			this.javaSerializer.serialize(object, bytes);
+			return new Object[] { KRYO_SERIALIZED, bytes.toByteArray() };
+		}
+		else {
+			return new Object[] { KRYO_OBJECT, object };
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object fromKryoEnvelope(Object[] envelope) throws IOException {
+		switch ((Byte) envelope[0]) {
+			case KRYO_MESSAGE:
+				return new GenericMessage<>(envelope[2], new MutableMessageHeaders((Map<String, Object>) envelope[1]));
+			case KRYO_MUTABLE_MESSAGE:
+				return new MutableMessage<>(envelope[2], (Map<String, Object>) envelope[1]);
+			case KRYO_OBJECT:
+				return envelope[1];
+			case KRYO_SERIALIZED:
+				return this.javaDeserializer.convert((byte[]) envelope[1]);
+			case KRYO_MESSAGE_HOLDER:
+				MessageHolder holder = new MessageHolder((Message<?>) fromKryoEnvelope((Object[]) envelope[1]));
+				holder.setTimestamp((Long) envelope[2]);
+				return holder;
+			default:
+				throw new IOException("Unknown Kryo envelope type: " + envelope[0]);
+		}
+	}
+
+	/**
+	 * The formats written by a {@link MessageStoreCodec}.
+	 */
+	public enum Format {
+
+		/**
+		 * Java serialization, without header; compatible with previous versions.
+		 */
+		JAVA(0),
+
+		/**
+		 * Kryo, with the registrations of the
+		 * {@link org.springframework.integration.codec.kryo.MessageKryoRegistrar}.
+		 */
+		KRYO(1),
+
+		/**
+		 * The schema-less {@link CompactCodec} format.
+		 */
+		COMPACT(2);
+
+		private final int id;
+
+		Format(int id) {
+			this.id = id;
+		}
+
+		static Format of(int id) throws IOException {
+			for (Format format : values()) {
+				if (format.id == id) {
+					return format;
+				}
+			}
+			throw new IOException("Unknown message store format: " + id);
+		}
+
+	}
+
+}
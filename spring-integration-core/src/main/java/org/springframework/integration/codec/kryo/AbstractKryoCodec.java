@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,21 @@
 
 package org.springframework.integration.codec.kryo;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.springframework.integration.codec.Codec;
 import org.springframework.util.Assert;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.pool.KryoFactory;
@@ -32,15 +38,28 @@ import com.esotericsoftware.kryo.pool.KryoPool;
 
 /**
  * Base class for {@link Codec}s using {@link Kryo}.
- * Manages pooled {@link Kryo} instances.
+ * Manages pooled {@link Kryo} instances, as well as pooled {@link Output} and
+ * {@link Input} buffers, which are reused across calls.
+ * The {@link ByteBuffer} variants (heap or direct buffers) read and write the buffer
+ * in place, without intermediate arrays.
  *
  * @author David Turanski
  * @since 4.2
  */
 public abstract class AbstractKryoCodec implements Codec {
 
+	private static final int BUFFER_SIZE = 4096;
+
+	private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+	private static final int BUFFER_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
 	protected final KryoPool pool;
 
+	private final BlockingQueue<Output> outputs = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+
+	private final BlockingQueue<Input> inputs = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+
 	protected AbstractKryoCodec() {
 		KryoFactory factory = () -> {
 			Kryo kryo = new Kryo();
@@ -56,12 +75,28 @@ public abstract class AbstractKryoCodec implements Codec {
 	public void encode(final Object object, OutputStream outputStream) throws IOException {
 		Assert.notNull(object, "cannot encode a null object");
 		Assert.notNull(outputStream, "'outputSteam' cannot be null");
-		final Output output = (outputStream instanceof Output ? (Output) outputStream : new Output(outputStream));
-		this.pool.run(kryo -> {
-			doEncode(kryo, object, output);
-			return Void.class;
-		});
-		output.close();
+		if (outputStream instanceof Output) {
+			Output output = (Output) outputStream;
+			this.pool.run(kryo -> {
+				doEncode(kryo, object, output);
+				return Void.class;
+			});
+			output.close();
+		}
+		else {
+			Output output = obtainOutput();
+			try {
+				output.setOutputStream(outputStream);
+				this.pool.run(kryo -> {
+					doEncode(kryo, object, output);
+					return Void.class;
+				});
+				output.close();
+			}
+			finally {
+				releaseOutput(output);
+			}
+		}
 	}
 
 	@Override
@@ -80,24 +115,108 @@ public abstract class AbstractKryoCodec implements Codec {
 	public <T> T decode(InputStream inputStream, final Class<T> type) throws IOException {
 		Assert.notNull(inputStream, "'inputStream' cannot be null");
 		Assert.notNull(type, "'type' cannot be null");
-		final Input input = (inputStream instanceof Input ? (Input) inputStream : new Input(inputStream));
-		T result = null;
+		if (inputStream instanceof Input) {
+			Input input = (Input) inputStream;
+			try {
+				return this.pool.run(kryo -> doDecode(kryo, input, type));
+			}
+			finally {
+				input.close();
+			}
+		}
+		else {
+			Input input = obtainInput();
+			try {
+				input.setInputStream(inputStream);
+				return this.pool.run(kryo -> doDecode(kryo, input, type));
+			}
+			finally {
+				input.close();
+				releaseInput(input);
+			}
+		}
+	}
+
+	@Override
+	public byte[] encode(Object object) throws IOException {
+		Assert.notNull(object, "cannot encode a null object");
+		Output output = obtainOutput();
 		try {
-			result = this.pool.run(kryo -> doDecode(kryo, input, type));
+			output.setOutputStream(null);
+			this.pool.run(kryo -> {
+				doEncode(kryo, object, output);
+				return Void.class;
+			});
+			return output.toBytes();
 		}
 		finally {
-			input.close();
+			releaseOutput(output);
 		}
-		return result;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>The object is written directly into the buffer; if it doesn't fit, the buffer
+	 * position is left unchanged.
+	 */
 	@Override
-	public byte[] encode(Object object) throws IOException {
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		encode(object, bos);
-		byte[] bytes = bos.toByteArray();
-		bos.close();
-		return bytes;
+	public void encode(Object object, ByteBuffer buffer) throws IOException {
+		Assert.notNull(object, "cannot encode a null object");
+		Assert.notNull(buffer, "'buffer' cannot be null");
+		ByteBuffer target = buffer.slice();
+		ByteBufferOutput output = new ByteBufferOutput(target, target.capacity());
+		try {
+			this.pool.run(kryo -> {
+				doEncode(kryo, object, output);
+				return Void.class;
+			});
+		}
+		catch (KryoException e) {
+			if (e.getMessage() != null && e.getMessage().startsWith("Buffer overflow")) {
+				BufferOverflowException overflow = new BufferOverflowException();
+				overflow.initCause(e);
+				throw overflow;
+			}
+			throw e;
+		}
+		buffer.position(buffer.position() + output.position());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The object is read directly from the buffer, which is advanced past the bytes
+	 * of this object only; so several objects can be read from the same buffer.
+	 */
+	@Override
+	public <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException {
+		Assert.notNull(buffer, "'buffer' cannot be null");
+		Assert.notNull(type, "'type' cannot be null");
+		ByteBufferInput input = new ByteBufferInput(buffer.slice());
+		T result = this.pool.run(kryo -> doDecode(kryo, input, type));
+		buffer.position(buffer.position() + input.position());
+		return result;
+	}
+
+	private Output obtainOutput() {
+		Output output = this.outputs.poll();
+		return output != null ? output : new Output(BUFFER_SIZE, -1);
+	}
+
+	private void releaseOutput(Output output) {
+		output.setOutputStream(null);
+		if (output.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+			this.outputs.offer(output);
+		}
+	}
+
+	private Input obtainInput() {
+		Input input = this.inputs.poll();
+		return input != null ? input : new Input(BUFFER_SIZE);
+	}
+
+	private void releaseInput(Input input) {
+		input.setInputStream(null);
+		this.inputs.offer(input);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,10 @@ public final class RegistrationIds {
 
 	public static final int DEFAULT_MUTABLE_MESSAGEHEADERS_ID = 42;
 
+	public static final int DEFAULT_PERSISTENT_MESSAGEHEADERS_ID = 43;
+
+	public static final int DEFAULT_PERSISTENT_MUTABLE_MESSAGEHEADERS_ID = 44;
+
 	private RegistrationIds() { }
 
 }
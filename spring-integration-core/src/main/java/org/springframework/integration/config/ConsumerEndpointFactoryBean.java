@@ -225,6 +225,7 @@ public class ConsumerEndpointFactoryBean
 				if (!replyMessageHandler || advice instanceof HandleMessageAdvice) {
 					NameMatchMethodPointcutAdvisor handlerAdvice = new NameMatchMethodPointcutAdvisor(advice);
 					handlerAdvice.addMethodName("handleMessage");
+					handlerAdvice.addMethodName("handleMessages"); // BatchMessageHandler
 					if (this.handler instanceof Advised) {
 						((Advised) this.handler).addAdvisor(handlerAdvice);
 					}
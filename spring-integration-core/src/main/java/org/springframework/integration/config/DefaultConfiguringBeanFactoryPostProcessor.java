@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.parsing.BeanComponentDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
@@ -37,12 +38,15 @@ import org.springframework.integration.channel.PublishSubscribeChannel;
 import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.handler.LoggingHandler;
+import org.springframework.integration.scheduling.HashedWheelTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * A {@link BeanFactoryPostProcessor} implementation that provides default beans for the error handling and task
  * scheduling if those beans have not already been explicitly defined within the registry. It also registers a single
  * null channel with the bean name "nullChannel".
+ * It also registers the "integrationTimeoutTaskScheduler" {@link HashedWheelTaskScheduler} used by
+ * the aggregator group timeouts and the delayer.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -67,6 +71,9 @@ class DefaultConfiguringBeanFactoryPostProcessor implements BeanFactoryPostProce
 			if (!beanFactory.containsBean(IntegrationContextUtils.TASK_SCHEDULER_BEAN_NAME)) {
 				this.registerTaskScheduler(registry);
 			}
+			if (!beanFactory.containsBean(IntegrationContextUtils.TIMEOUT_TASK_SCHEDULER_BEAN_NAME)) {
+				this.registerTimeoutTaskScheduler(registry);
+			}
 			this.registerIdGeneratorConfigurer(registry);
 		}
 		else if (this.logger.isWarnEnabled()) {
@@ -168,4 +175,20 @@ class DefaultConfiguringBeanFactoryPostProcessor implements BeanFactoryPostProce
 		registry.registerBeanDefinition(IntegrationContextUtils.TASK_SCHEDULER_BEAN_NAME, scheduler);
 	}
 
+	/**
+	 * Register a {@link HashedWheelTaskScheduler} for the aggregator group timeouts and
+	 * the delayer in the given BeanDefinitionRegistry; its expired tasks run on the
+	 * "taskScheduler" bean. It is not an autowire candidate, so that it does not compete
+	 * with the "taskScheduler" for injection by type.
+	 */
+	private void registerTimeoutTaskScheduler(BeanDefinitionRegistry registry) {
+		AbstractBeanDefinition scheduler = BeanDefinitionBuilder.genericBeanDefinition(HashedWheelTaskScheduler.class)
+				.addPropertyValue("errorHandler", new RootBeanDefinition(MessagePublishingErrorHandler.class))
+				.setRole(BeanDefinition.ROLE_INFRASTRUCTURE)
+				.getBeanDefinition();
+		scheduler.setAutowireCandidate(false);
+
+		registry.registerBeanDefinition(IntegrationContextUtils.TIMEOUT_TASK_SCHEDULER_BEAN_NAME, scheduler);
+	}
+
 }
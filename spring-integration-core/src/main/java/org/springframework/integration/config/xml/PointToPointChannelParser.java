@@ -28,6 +28,7 @@ import org.springframework.integration.channel.PriorityChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.channel.RendezvousChannel;
 import org.springframework.integration.store.MessageGroupQueue;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
 import org.springframework.util.StringUtils;
 import org.springframework.util.xml.DomUtils;
 
@@ -56,7 +57,23 @@ public class PointToPointChannelParser extends AbstractChannelParser {
 			builder = BeanDefinitionBuilder.genericBeanDefinition(QueueChannel.class);
 			boolean hasStoreRef = this.parseStoreRef(builder, queueElement, channel, false);
 			boolean hasQueueRef = this.parseQueueRef(builder, queueElement);
-			if (!hasStoreRef || !hasQueueRef) {
+			String waitStrategy = queueElement.getAttribute("wait-strategy");
+			if (StringUtils.hasText(waitStrategy)) {
+				if (hasStoreRef || hasQueueRef) {
+					parserContext.getReaderContext().error(
+							"The 'wait-strategy' attribute is not allowed with a 'ref' or 'message-store'.",
+							element);
+				}
+				BeanDefinitionBuilder queueBuilder =
+						BeanDefinitionBuilder.genericBeanDefinition(MpmcArrayBlockingQueue.class);
+				if (!parseQueueCapacity(queueBuilder, queueElement)) {
+					parserContext.getReaderContext().error(
+							"The 'capacity' attribute is required with a 'wait-strategy'.", element);
+				}
+				queueBuilder.addConstructorArgValue(waitStrategy);
+				builder.addConstructorArgValue(queueBuilder.getBeanDefinition());
+			}
+			else if (!hasStoreRef || !hasQueueRef) {
 				boolean hasCapacity = this.parseQueueCapacity(builder, queueElement);
 				if (hasCapacity && hasQueueRef) {
 					parserContext.getReaderContext().error(
@@ -17,6 +17,7 @@
 package org.springframework.integration.context;
 
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.expression.spel.support.SimpleEvaluationContext;
@@ -39,6 +40,10 @@ public abstract class IntegrationContextUtils {
 
 	public static final String TASK_SCHEDULER_BEAN_NAME = "taskScheduler";
 
+	public static final String TASK_EXECUTOR_BEAN_NAME = "integrationTaskExecutor";
+
+	public static final String TIMEOUT_TASK_SCHEDULER_BEAN_NAME = "integrationTimeoutTaskScheduler";
+
 	public static final String ERROR_CHANNEL_BEAN_NAME = "errorChannel";
 
 	public static final String NULL_CHANNEL_BEAN_NAME = "nullChannel";
@@ -121,6 +126,24 @@ public abstract class IntegrationContextUtils {
 		return getBeanOfType(beanFactory, TASK_SCHEDULER_BEAN_NAME, TaskScheduler.class);
 	}
 
+	/**
+	 * @param beanFactory BeanFactory for lookup, must not be null.
+	 * @return The {@link TaskScheduler} bean whose name is "integrationTimeoutTaskScheduler" if available.
+	 * @since 5.1
+	 */
+	public static TaskScheduler getTimeoutTaskScheduler(BeanFactory beanFactory) {
+		return getBeanOfType(beanFactory, TIMEOUT_TASK_SCHEDULER_BEAN_NAME, TaskScheduler.class);
+	}
+
+	/**
+	 * @param beanFactory BeanFactory for lookup, must not be null.
+	 * @return The {@link Executor} bean whose name is "integrationTaskExecutor" if available.
+	 * @since 5.1
+	 */
+	public static Executor getTaskExecutor(BeanFactory beanFactory) {
+		return getBeanOfType(beanFactory, TASK_EXECUTOR_BEAN_NAME, Executor.class);
+	}
+
 	/**
 	 * @param beanFactory BeanFactory for lookup, must not be null.
 	 * @return The {@link TaskScheduler} bean whose name is "taskScheduler".
@@ -72,11 +72,26 @@ public final class IntegrationProperties {
 	 */
 	public static final String READ_ONLY_HEADERS = INTEGRATION_PROPERTIES_PREFIX + "readOnly.headers";
 
+	/**
+	 * Specifies the value of {@link org.springframework.integration.support.DefaultMessageBuilderFactory#persistentHeaders}.
+	 * @since 5.1
+	 */
+	public static final String PERSISTENT_HEADERS = INTEGRATION_PROPERTIES_PREFIX + "messageBuilder.persistentHeaders";
+
 	/**
 	 * Specifies the value of {@link org.springframework.integration.endpoint.AbstractEndpoint#autoStartup}.
 	 */
 	public static final String ENDPOINTS_NO_AUTO_STARTUP = INTEGRATION_PROPERTIES_PREFIX + "endpoints.noAutoStartup";
 
+	/**
+	 * Specifies whether polling endpoints without an explicit {@code taskExecutor} run their polls
+	 * on the {@code integrationTaskExecutor} bean, if the application defines one, or on a
+	 * {@link org.springframework.integration.util.VirtualThreadTaskExecutor}; without such a bean,
+	 * the polls stay on the scheduler thread when the JVM has no virtual threads.
+	 * @since 5.1
+	 */
+	public static final String TASK_EXECUTOR_VIRTUAL_THREADS = INTEGRATION_PROPERTIES_PREFIX + "taskExecutor.virtualThreads";
+
 	private static Properties defaults;
 
 	static {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.integration.dispatcher;
 
+import java.util.List;
+
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandler;
 
@@ -48,6 +50,22 @@ public interface MessageDispatcher {
 	 */
 	boolean dispatch(Message<?> message);
 
+	/**
+	 * Dispatch several messages at once. Dispatchers that support it hand the whole
+	 * list to a {@link org.springframework.integration.handler.BatchMessageHandler};
+	 * by default, each message is {@link #dispatch(Message) dispatched} in turn.
+	 * @param messages the messages.
+	 * @return true if dispatched.
+	 * @since 5.1
+	 */
+	default boolean dispatchBatch(List<Message<?>> messages) {
+		boolean dispatched = true;
+		for (Message<?> message : messages) {
+			dispatched &= dispatch(message);
+		}
+		return dispatched;
+	}
+
 	/**
 	 * Return the current handler count.
 	 * @return the handler count.
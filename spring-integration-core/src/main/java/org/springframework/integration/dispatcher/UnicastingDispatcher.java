@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.concurrent.Executor;
 
 import org.springframework.integration.MessageDispatchingException;
+import org.springframework.integration.handler.BatchMessageHandler;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageDeliveryException;
@@ -106,6 +107,53 @@ public class UnicastingDispatcher extends AbstractDispatcher {
 		return this.doDispatch(message);
 	}
 
+	/**
+	 * Dispatch the messages on the calling thread to a single handler, chosen for the
+	 * first message. A {@link BatchMessageHandler} receives the whole list (and, with
+	 * failover, the next handler receives the whole list again); otherwise each message is
+	 * dispatched in turn. With an {@link Executor}, each message is dispatched in its own
+	 * task as usual.
+	 * @param messages the messages.
+	 * @return true if dispatched.
+	 * @since 5.1
+	 */
+	@Override
+	public final boolean dispatchBatch(List<Message<?>> messages) {
+		if (this.executor != null || messages.size() < 2) {
+			boolean dispatched = true;
+			for (Message<?> message : messages) {
+				dispatched &= dispatch(message);
+			}
+			return dispatched;
+		}
+		Message<?> first = messages.get(0);
+		Iterator<MessageHandler> handlerIterator = this.getHandlerIterator(first);
+		if (!handlerIterator.hasNext()) {
+			throw new MessageDispatchingException(first, "Dispatcher has no subscribers");
+		}
+		List<RuntimeException> exceptions = new ArrayList<RuntimeException>();
+		while (handlerIterator.hasNext()) {
+			MessageHandler handler = handlerIterator.next();
+			if (!(handler instanceof BatchMessageHandler)) {
+				for (Message<?> message : messages) {
+					doDispatch(message);
+				}
+				return true;
+			}
+			try {
+				((BatchMessageHandler) handler).handleMessages(messages);
+				return true;
+			}
+			catch (Exception e) {
+				RuntimeException runtimeException = IntegrationUtils.wrapInDeliveryExceptionIfNecessary(first,
+						() -> "Dispatcher failed to deliver a batch of " + messages.size() + " messages", e);
+				exceptions.add(runtimeException);
+				this.handleExceptions(exceptions, first, !handlerIterator.hasNext());
+			}
+		}
+		return false;
+	}
+
 	private Runnable createMessageHandlingTask(final Message<?> message) {
 		MessageHandlingRunnable task = new MessageHandlingRunnable() {
 
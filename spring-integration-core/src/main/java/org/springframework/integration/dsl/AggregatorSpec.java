@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,17 @@
 
 package org.springframework.integration.dsl;
 
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import org.springframework.integration.aggregator.AggregatingMessageHandler;
 import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
 import org.springframework.integration.aggregator.ExpressionEvaluatingMessageGroupProcessor;
+import org.springframework.integration.aggregator.IncrementalAggregator;
 import org.springframework.integration.aggregator.MessageGroupProcessor;
 import org.springframework.integration.aggregator.MethodInvokingMessageGroupProcessor;
+import org.springframework.messaging.Message;
 
 /**
  * A {@link CorrelationHandlerSpec} for an {@link AggregatingMessageHandler}.
@@ -85,6 +91,63 @@ public class AggregatorSpec extends CorrelationHandlerSpec<AggregatorSpec, Aggre
 		return _this();
 	}
 
+	/**
+	 * Aggregate the messages into a running state as they arrive, instead of keeping
+	 * all of them in the group until release. Replaces the output processor.
+	 * @param incrementalAggregator the incremental aggregator.
+	 * @param <S> the state type.
+	 * @return the aggregator spec.
+	 * @since 5.1
+	 * @see AggregatingMessageHandler#setIncrementalAggregator(IncrementalAggregator)
+	 */
+	public <S> AggregatorSpec incremental(IncrementalAggregator<S> incrementalAggregator) {
+		this.handler.setIncrementalAggregator(incrementalAggregator);
+		return _this();
+	}
+
+	/**
+	 * Aggregate the messages into a running state as they arrive, instead of keeping
+	 * all of them in the group until release. Replaces the output processor.
+	 * @param initialState the supplier of the state for a new group.
+	 * @param accumulator the function to fold a message into the state.
+	 * @param finisher the function to produce the output from the final state.
+	 * @param <S> the state type.
+	 * @return the aggregator spec.
+	 * @since 5.1
+	 * @see IncrementalAggregator#of(Supplier, BiFunction, Function)
+	 */
+	public <S> AggregatorSpec incremental(Supplier<S> initialState, BiFunction<S, Message<?>, S> accumulator,
+			Function<S, ?> finisher) {
+
+		return incremental(IncrementalAggregator.of(initialState, accumulator, finisher));
+	}
+
+	/**
+	 * Aggregate on the given number of single-threaded partitions, selected by the
+	 * correlation key, instead of on the calling thread.
+	 * @param partitions the number of partitions.
+	 * @return the aggregator spec.
+	 * @since 5.1
+	 * @see AggregatingMessageHandler#setPartitions(int)
+	 */
+	public AggregatorSpec partitions(int partitions) {
+		this.handler.setPartitions(partitions);
+		return _this();
+	}
+
+	/**
+	 * Set the time, in milliseconds, to wait for the partitions to process their
+	 * queued messages when the aggregator is stopped.
+	 * @param partitionsShutdownTimeout the timeout.
+	 * @return the aggregator spec.
+	 * @since 5.1
+	 * @see AggregatingMessageHandler#setPartitionsShutdownTimeout(long)
+	 */
+	public AggregatorSpec partitionsShutdownTimeout(long partitionsShutdownTimeout) {
+		this.handler.setPartitionsShutdownTimeout(partitionsShutdownTimeout);
+		return _this();
+	}
+
 	/**
 	 * @param expireGroupsUponCompletion the expireGroupsUponCompletion.
 	 * @return the aggregator spec.
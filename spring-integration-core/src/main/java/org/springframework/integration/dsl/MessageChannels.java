@@ -21,6 +21,7 @@ import java.util.concurrent.Executor;
 
 import org.springframework.integration.store.ChannelMessageStore;
 import org.springframework.integration.store.PriorityCapableChannelMessageStore;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
 import org.springframework.messaging.Message;
 
 /**
@@ -63,6 +64,31 @@ public final class MessageChannels {
 		return queue(capacity).id(id);
 	}
 
+	/**
+	 * Create a {@link QueueChannelSpec} based on a lock-free
+	 * {@link MpmcArrayBlockingQueue}.
+	 * @param capacity the queue capacity.
+	 * @param waitStrategy the strategy for waiting on a full or empty queue.
+	 * @return the {@link QueueChannelSpec}.
+	 * @since 5.1
+	 */
+	public static QueueChannelSpec queue(int capacity, MpmcArrayBlockingQueue.WaitStrategy waitStrategy) {
+		return queue(new MpmcArrayBlockingQueue<Message<?>>(capacity, waitStrategy));
+	}
+
+	/**
+	 * Create a {@link QueueChannelSpec} based on a lock-free
+	 * {@link MpmcArrayBlockingQueue}.
+	 * @param id the channel bean name.
+	 * @param capacity the queue capacity.
+	 * @param waitStrategy the strategy for waiting on a full or empty queue.
+	 * @return the {@link QueueChannelSpec}.
+	 * @since 5.1
+	 */
+	public static QueueChannelSpec queue(String id, int capacity, MpmcArrayBlockingQueue.WaitStrategy waitStrategy) {
+		return queue(capacity, waitStrategy).id(id);
+	}
+
 	public static QueueChannelSpec.MessageStoreSpec queue(ChannelMessageStore messageGroupStore, Object groupId) {
 		return new QueueChannelSpec.MessageStoreSpec(messageGroupStore, groupId);
 	}
@@ -81,6 +107,50 @@ public final class MessageChannels {
 		return executor(executor).id(id);
 	}
 
+	/**
+	 * Create a {@link RingBufferChannelSpec} whose consumers run on a
+	 * {@link org.springframework.core.task.SimpleAsyncTaskExecutor}.
+	 * @return the spec.
+	 * @since 5.1
+	 */
+	public static RingBufferChannelSpec ringBuffer() {
+		return ringBuffer((Executor) null);
+	}
+
+	/**
+	 * Create a {@link RingBufferChannelSpec} whose consumers run on a
+	 * {@link org.springframework.core.task.SimpleAsyncTaskExecutor}.
+	 * @param id the channel bean name.
+	 * @return the spec.
+	 * @since 5.1
+	 */
+	public static RingBufferChannelSpec ringBuffer(String id) {
+		return ringBuffer().id(id);
+	}
+
+	/**
+	 * Create a {@link RingBufferChannelSpec} whose consumers run on the provided
+	 * {@link Executor}.
+	 * @param executor the executor.
+	 * @return the spec.
+	 * @since 5.1
+	 */
+	public static RingBufferChannelSpec ringBuffer(Executor executor) {
+		return new RingBufferChannelSpec(executor);
+	}
+
+	/**
+	 * Create a {@link RingBufferChannelSpec} whose consumers run on the provided
+	 * {@link Executor}.
+	 * @param id the channel bean name.
+	 * @param executor the executor.
+	 * @return the spec.
+	 * @since 5.1
+	 */
+	public static RingBufferChannelSpec ringBuffer(String id, Executor executor) {
+		return ringBuffer(executor).id(id);
+	}
+
 	public static RendezvousChannelSpec rendezvous() {
 		return new RendezvousChannelSpec();
 	}
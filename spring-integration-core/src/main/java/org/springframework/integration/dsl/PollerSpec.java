@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.springframework.integration.channel.MessagePublishingErrorHandler;
 import org.springframework.integration.scheduling.PollerMetadata;
 import org.springframework.integration.transaction.TransactionInterceptorBuilder;
 import org.springframework.integration.transaction.TransactionSynchronizationFactory;
+import org.springframework.integration.util.VirtualThreadTaskExecutor;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.scheduling.Trigger;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -187,6 +188,18 @@ public final class PollerSpec extends IntegrationComponentSpec<PollerSpec, Polle
 		return this;
 	}
 
+	/**
+	 * Perform each {@code pollingTask} on a new virtual thread (on a new platform
+	 * thread if the JVM has no virtual threads), so that a poll blocked in a long
+	 * {@code receiveTimeout} does not hold a thread of the task scheduler.
+	 * @return the spec.
+	 * @since 5.1
+	 * @see VirtualThreadTaskExecutor
+	 */
+	public PollerSpec virtualThreads() {
+		return taskExecutor(new VirtualThreadTaskExecutor("poller-"));
+	}
+
 	public PollerSpec sendTimeout(long sendTimeout) {
 		this.target.setSendTimeout(sendTimeout);
 		return this;
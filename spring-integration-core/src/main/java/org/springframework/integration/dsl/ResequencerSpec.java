@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,4 +40,15 @@ public class ResequencerSpec extends CorrelationHandlerSpec<ResequencerSpec, Res
 		return _this();
 	}
 
+	/**
+	 * @param sequenceWindowSize the sequence window capacity.
+	 * @return the handler spec.
+	 * @since 5.1
+	 * @see ResequencingMessageHandler#setSequenceWindowSize(int)
+	 */
+	public ResequencerSpec sequenceWindowSize(int sequenceWindowSize) {
+		this.handler.setSequenceWindowSize(sequenceWindowSize);
+		return _this();
+	}
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.dsl;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
+
+/**
+ * A {@link MessageChannelSpec} for a {@link RingBufferChannel}.
+ *
+ * @since 5.1
+ */
+public class RingBufferChannelSpec extends LoadBalancingChannelSpec<RingBufferChannelSpec, RingBufferChannel> {
+
+	private final Executor executor;
+
+	private int bufferSize = RingBufferChannel.DEFAULT_BUFFER_SIZE;
+
+	private MpmcArrayBlockingQueue.WaitStrategy waitStrategy = MpmcArrayBlockingQueue.WaitStrategy.BLOCK;
+
+	private Integer consumers;
+
+	private Integer maxBatchSize;
+
+	private Long batchTimeout;
+
+	private Boolean batchDispatch;
+
+	RingBufferChannelSpec(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @param bufferSize the number of slots in the ring buffer.
+	 * @return the spec.
+	 */
+	public RingBufferChannelSpec bufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	/**
+	 * @param waitStrategy how producers and consumers wait for a slot or a message.
+	 * @return the spec.
+	 */
+	public RingBufferChannelSpec waitStrategy(MpmcArrayBlockingQueue.WaitStrategy waitStrategy) {
+		this.waitStrategy = waitStrategy;
+		return this;
+	}
+
+	/**
+	 * @param consumers the number of consumers draining the ring buffer.
+	 * @return the spec.
+	 * @see RingBufferChannel#setConsumers(int)
+	 */
+	public RingBufferChannelSpec consumers(int consumers) {
+		this.consumers = consumers;
+		return this;
+	}
+
+	/**
+	 * @param maxBatchSize the maximum number of messages dispatched between two
+	 * end-of-batch signals.
+	 * @return the spec.
+	 * @see RingBufferChannel#setMaxBatchSize(int)
+	 */
+	public RingBufferChannelSpec maxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+		return this;
+	}
+
+	/**
+	 * @param batchTimeout how long a consumer waits to fill a batch.
+	 * @return the spec.
+	 * @see RingBufferChannel#setBatchTimeout(long)
+	 */
+	public RingBufferChannelSpec batchTimeout(long batchTimeout) {
+		this.batchTimeout = batchTimeout;
+		return this;
+	}
+
+	/**
+	 * @param batchDispatch true to hand whole batches to a
+	 * {@link org.springframework.integration.handler.BatchMessageHandler}.
+	 * @return the spec.
+	 * @see RingBufferChannel#setBatchDispatch(boolean)
+	 */
+	public RingBufferChannelSpec batchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+		return this;
+	}
+
+	@Override
+	protected RingBufferChannel doGet() {
+		this.channel = new RingBufferChannel(this.executor, this.bufferSize, this.waitStrategy);
+		this.channel.setLoadBalancingStrategy(this.loadBalancingStrategy);
+		if (this.failover != null) {
+			this.channel.setFailover(this.failover);
+		}
+		if (this.maxSubscribers != null) {
+			this.channel.setMaxSubscribers(this.maxSubscribers);
+		}
+		if (this.consumers != null) {
+			this.channel.setConsumers(this.consumers);
+		}
+		if (this.maxBatchSize != null) {
+			this.channel.setMaxBatchSize(this.maxBatchSize);
+		}
+		if (this.batchTimeout != null) {
+			this.channel.setBatchTimeout(this.batchTimeout);
+		}
+		if (this.batchDispatch != null) {
+			this.channel.setBatchDispatch(this.batchDispatch);
+		}
+		return super.doGet();
+	}
+
+}
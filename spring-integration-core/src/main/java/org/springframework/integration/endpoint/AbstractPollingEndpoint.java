@@ -16,6 +16,7 @@
 
 package org.springframework.integration.endpoint;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -30,6 +31,8 @@ import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.integration.channel.MessagePublishingErrorHandler;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.support.MessagingExceptionWrapper;
 import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
 import org.springframework.integration.transaction.ExpressionEvaluatingTransactionSynchronizationProcessor;
@@ -38,6 +41,7 @@ import org.springframework.integration.transaction.IntegrationResourceHolderSync
 import org.springframework.integration.transaction.PassThroughTransactionSynchronizationFactory;
 import org.springframework.integration.transaction.TransactionSynchronizationFactory;
 import org.springframework.integration.util.ErrorHandlingTaskExecutor;
+import org.springframework.integration.util.VirtualThreadTaskExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessagingException;
@@ -66,6 +70,8 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 
 	private boolean syncExecutor = true;
 
+	private boolean taskExecutorSet;
+
 	private ErrorHandler errorHandler;
 
 	private boolean errorHandlerIsDefault;
@@ -91,6 +97,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 	}
 
 	public void setTaskExecutor(Executor taskExecutor) {
+		this.taskExecutorSet = taskExecutor != null;
 		this.taskExecutor = (taskExecutor != null ? taskExecutor : new SyncTaskExecutor());
 		this.syncExecutor = this.taskExecutor instanceof SyncTaskExecutor
 				|| (this.taskExecutor instanceof ErrorHandlingTaskExecutor
@@ -174,6 +181,14 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 				return;
 			}
 			Assert.notNull(this.trigger, "Trigger is required");
+			if (!this.taskExecutorSet
+					&& Boolean.TRUE.equals(
+							getIntegrationProperty(IntegrationProperties.TASK_EXECUTOR_VIRTUAL_THREADS, Boolean.class))) {
+				Executor defaultTaskExecutor = obtainDefaultTaskExecutor();
+				if (defaultTaskExecutor != null) {
+					setTaskExecutor(defaultTaskExecutor);
+				}
+			}
 			if (this.taskExecutor != null) {
 				if (!(this.taskExecutor instanceof ErrorHandlingTaskExecutor)) {
 					if (this.errorHandler == null) {
@@ -200,6 +215,31 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		}
 	}
 
+	/**
+	 * Return the "integrationTaskExecutor" bean if the application defines one, otherwise
+	 * a {@link VirtualThreadTaskExecutor}; or null, so that the polls keep running on the
+	 * scheduler thread, when this JVM has no virtual threads: a new platform thread per
+	 * poll would be more expensive and would let the polls overlap.
+	 */
+	private Executor obtainDefaultTaskExecutor() {
+		if (getBeanFactory() != null) {
+			Executor executor = IntegrationContextUtils.getTaskExecutor(getBeanFactory());
+			if (executor != null) {
+				return executor;
+			}
+		}
+		String name = getComponentName();
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor((name != null ? name : "poller") + "-");
+		if (!executor.isVirtual()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Virtual threads are not supported by this JVM; " + this
+						+ " polls on the scheduler thread");
+			}
+			return null;
+		}
+		return executor;
+	}
+
 	@SuppressWarnings("unchecked")
 	private Runnable createPoller() throws Exception {
 		List<Advice> receiveOnlyAdviceChain = null;
@@ -209,7 +249,8 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 					.collect(Collectors.toList());
 		}
 
-		Callable<Boolean> pollingTask = this::doPoll;
+		boolean batchPoll = isBatchConsumer() && this.maxMessagesPerPoll > 1;
+		Callable<Boolean> pollingTask = batchPoll ? this::doBatchPoll : this::doPoll;
 
 		List<Advice> adviceChain = this.adviceChain;
 		if (!CollectionUtils.isEmpty(adviceChain)) {
@@ -224,7 +265,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		if (!CollectionUtils.isEmpty(receiveOnlyAdviceChain)) {
 			applyReceiveOnlyAdviceChain(receiveOnlyAdviceChain);
 		}
-		return new Poller(pollingTask);
+		return new Poller(pollingTask, batchPoll);
 	}
 
 	// LifecycleSupport implementation
@@ -302,6 +343,95 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		return result;
 	}
 
+	private boolean doBatchPoll() {
+		IntegrationResourceHolder holder = this.bindResourceHolderIfNecessary(
+				this.getResourceKey(), this.getResourceToBind());
+		List<Message<?>> messages;
+		try {
+			messages = this.receiveMessages((int) Math.min(this.maxMessagesPerPoll, Integer.MAX_VALUE));
+		}
+		catch (Exception e) {
+			if (Thread.interrupted()) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Poll interrupted - during stop()? : " + e.getMessage());
+				}
+				return false;
+			}
+			else {
+				throw (RuntimeException) e;
+			}
+		}
+		if (messages.isEmpty()) {
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Received no Message during the poll, returning 'false'");
+			}
+			return false;
+		}
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Poll resulted in " + messages.size() + " Messages: " + messages);
+		}
+		Message<?> first = messages.get(0);
+		if (holder != null) {
+			holder.setMessage(first);
+		}
+		try {
+			this.handleMessages(messages);
+		}
+		catch (Exception e) {
+			if (e instanceof MessagingException) {
+				throw new MessagingExceptionWrapper(first, (MessagingException) e);
+			}
+			else {
+				throw new MessagingException(first, e);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return true if this endpoint can handle all the messages of a poll in one
+	 * {@link #handleMessages(List)} call. When it does, and
+	 * {@link #setMaxMessagesPerPoll(long) maxMessagesPerPoll} is greater than 1, each
+	 * poll obtains up to that many messages from {@link #receiveMessages(int)} and
+	 * hands them over at once, within the same advice chain (e.g. transaction)
+	 * invocation.
+	 * @return true for batch polling.
+	 * @since 5.1
+	 */
+	protected boolean isBatchConsumer() {
+		return false;
+	}
+
+	/**
+	 * Obtain up to {@code maxMessages} messages for a batch poll. By default,
+	 * {@link #receiveMessage()} is invoked until it returns null.
+	 * @param maxMessages the maximum number of messages.
+	 * @return the messages; empty if none is available.
+	 * @since 5.1
+	 * @see #isBatchConsumer()
+	 */
+	protected List<Message<?>> receiveMessages(int maxMessages) {
+		List<Message<?>> messages = new ArrayList<>();
+		Message<?> message;
+		while (messages.size() < maxMessages && (message = receiveMessage()) != null) {
+			messages.add(message);
+		}
+		return messages;
+	}
+
+	/**
+	 * Handle the messages of a batch poll. By default, {@link #handleMessage(Message)}
+	 * is invoked for each message.
+	 * @param messages the messages; never empty.
+	 * @since 5.1
+	 * @see #isBatchConsumer()
+	 */
+	protected void handleMessages(List<Message<?>> messages) {
+		for (Message<?> message : messages) {
+			handleMessage(message);
+		}
+	}
+
 	/**
 	 * Obtain the next message (if one is available). MAY return null
 	 * if no message is immediately available.
@@ -376,8 +506,11 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 
 		private final Callable<Boolean> pollingTask;
 
-		Poller(Callable<Boolean> pollingTask) {
+		private final boolean batchPoll;
+
+		Poller(Callable<Boolean> pollingTask, boolean batchPoll) {
 			this.pollingTask = pollingTask;
+			this.batchPoll = batchPoll;
 		}
 
 		@Override
@@ -388,7 +521,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 						&& (AbstractPollingEndpoint.this.maxMessagesPerPoll <= 0
 						|| count < AbstractPollingEndpoint.this.maxMessagesPerPoll)) {
 					try {
-						if (!Poller.this.pollingTask.call()) {
+						if (!Poller.this.pollingTask.call() || Poller.this.batchPoll) {
 							break;
 						}
 						count++;
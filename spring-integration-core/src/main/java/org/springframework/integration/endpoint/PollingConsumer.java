@@ -17,13 +17,17 @@
 package org.springframework.integration.endpoint;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 
+import org.springframework.aop.support.AopUtils;
 import org.springframework.context.Lifecycle;
+import org.springframework.integration.channel.AbstractPollableChannel;
 import org.springframework.integration.channel.ExecutorChannelInterceptorAware;
 import org.springframework.integration.core.MessageProducer;
+import org.springframework.integration.handler.BatchMessageHandler;
 import org.springframework.integration.router.MessageRouter;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.integration.transaction.IntegrationResourceHolder;
@@ -40,6 +44,13 @@ import org.springframework.util.CollectionUtils;
 /**
  * Message Endpoint that connects any {@link MessageHandler} implementation
  * to a {@link PollableChannel}.
+ * <p>
+ * When the handler is a {@link BatchMessageHandler} and {@code maxMessagesPerPoll} is
+ * greater than 1, each poll hands all of its messages to
+ * {@link BatchMessageHandler#handleMessages(List)} at once: the first message is
+ * received with the {@code receiveTimeout}, the others only if they are immediately
+ * available. An endpoint advice chain, which proxies the handler, then applies to
+ * each batch.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -183,6 +194,56 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 		}
 	}
 
+	@Override
+	protected boolean isBatchConsumer() {
+		if (this.handler instanceof BatchMessageHandler) {
+			return true;
+		}
+		if (AopUtils.isAopProxy(this.handler)
+				&& BatchMessageHandler.class.isAssignableFrom(AopUtils.getTargetClass(this.handler))
+				&& logger.isWarnEnabled()) {
+			logger.warn("The proxy of the BatchMessageHandler in " + this + " does not implement that interface;"
+					+ " its messages are handled one at a time");
+		}
+		return false;
+	}
+
+	@Override
+	protected List<Message<?>> receiveMessages(int maxMessages) {
+		List<Message<?>> messages = new ArrayList<>();
+		Message<?> message = receiveMessage();
+		if (message != null) {
+			messages.add(message);
+			if (maxMessages > 1 && this.inputChannel instanceof AbstractPollableChannel) {
+				messages.addAll(((AbstractPollableChannel) this.inputChannel).receiveAvailable(maxMessages - 1));
+			}
+			else {
+				while (messages.size() < maxMessages && (message = this.inputChannel.receive(0)) != null) {
+					messages.add(message);
+				}
+			}
+		}
+		return messages;
+	}
+
+	@Override
+	protected void handleMessages(List<Message<?>> messages) {
+		if (this.channelInterceptors != null
+				&& ((ExecutorChannelInterceptorAware) this.inputChannel).hasExecutorInterceptors()) {
+			// ExecutorChannelInterceptors are applied per message
+			super.handleMessages(messages);
+			return;
+		}
+		try {
+			((BatchMessageHandler) this.handler).handleMessages(messages);
+		}
+		catch (Exception ex) {
+			throw IntegrationUtils.wrapInDeliveryExceptionIfNecessary(messages.get(0),
+					() -> "Failed to handle a batch of " + messages.size() + " messages to " + this
+							+ " in " + this.handler, ex);
+		}
+	}
+
 	@Override
 	protected Message<?> receiveMessage() {
 		return (this.receiveTimeout >= 0)
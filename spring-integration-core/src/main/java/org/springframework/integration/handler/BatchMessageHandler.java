@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.handler;
+
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * A {@link MessageHandler} that can also handle several messages in one call, for
+ * example to write them with a single bulk operation (JDBC batch update, Redis
+ * pipeline, one JMS or AMQP transaction).
+ * <p>
+ * Dispatchers and polling consumers that have several messages at hand pass them to
+ * {@link #handleMessages(List)}; otherwise {@link #handleMessage(Message)} is invoked
+ * as usual.
+ *
+ * @since 5.1
+ *
+ * @see org.springframework.integration.dispatcher.MessageDispatcher#dispatchBatch(List)
+ * @see org.springframework.integration.endpoint.PollingConsumer
+ */
+public interface BatchMessageHandler extends MessageHandler {
+
+	/**
+	 * Handle the messages, in order. The list must not be modified and is only
+	 * valid for the duration of the call.
+	 * @param messages the messages; never empty.
+	 */
+	void handleMessages(List<Message<?>> messages);
+
+}
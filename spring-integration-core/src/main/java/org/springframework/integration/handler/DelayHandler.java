@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.aopalliance.aop.Advice;
 
@@ -31,6 +33,7 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.store.MessageGroup;
@@ -86,6 +89,8 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 
 	private final String messageGroupId;
 
+	private final Lock lock = new ReentrantLock();
+
 	private volatile long defaultDelay;
 
 	private Expression delayExpression;
@@ -102,10 +107,13 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 
 	private EvaluationContext evaluationContext;
 
+	private TaskScheduler delayTaskScheduler;
+
 	/**
 	 * Create a DelayHandler with the given 'messageGroupId' that is used as 'key' for {@link MessageGroup}
 	 * to store delayed Messages in the {@link MessageGroupStore}. The sending of Messages after
-	 * the delay will be handled by registered in the ApplicationContext default {@link ThreadPoolTaskScheduler}.
+	 * the delay will be handled by the "integrationTimeoutTaskScheduler" registered in the ApplicationContext,
+	 * falling back to the default {@link ThreadPoolTaskScheduler}.
 	 *
 	 * @param messageGroupId The message group identifier.
 	 *
@@ -126,6 +134,7 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 	public DelayHandler(String messageGroupId, TaskScheduler taskScheduler) {
 		this(messageGroupId);
 		this.setTaskScheduler(taskScheduler);
+		this.delayTaskScheduler = taskScheduler;
 	}
 
 	/**
@@ -220,6 +229,9 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 		}
 		this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(this.getBeanFactory());
 		this.releaseHandler = this.createReleaseMessageTask();
+		if (this.delayTaskScheduler == null && getBeanFactory() != null) {
+			this.delayTaskScheduler = IntegrationContextUtils.getTimeoutTaskScheduler(getBeanFactory());
+		}
 	}
 
 	private MessageHandler createReleaseMessageTask() {
@@ -351,7 +363,11 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 			};
 		}
 
-		getTaskScheduler().schedule(releaseTask, new Date(messageWrapper.getRequestDate() + delay));
+		obtainDelayTaskScheduler().schedule(releaseTask, new Date(messageWrapper.getRequestDate() + delay));
+	}
+
+	private TaskScheduler obtainDelayTaskScheduler() {
+		return this.delayTaskScheduler != null ? this.delayTaskScheduler : getTaskScheduler();
 	}
 
 	private Message<?> getMessageById(UUID messageId) {
@@ -390,7 +406,8 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 
 	private boolean removeDelayedMessageFromMessageStore(Message<?> message) {
 		if (this.messageStore instanceof SimpleMessageStore) {
-			synchronized (this.messageGroupId) {
+			this.lock.lock();
+			try {
 				Collection<Message<?>> messages = this.messageStore.getMessageGroup(this.messageGroupId).getMessages();
 				if (messages.contains(message)) {
 					this.messageStore.removeMessagesFromGroup(this.messageGroupId, message);
@@ -400,6 +417,9 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 					return false;
 				}
 			}
+			finally {
+				this.lock.unlock();
+			}
 		}
 		else {
 			return ((MessageStore) this.messageStore).removeMessage(message.getHeaders().getId()) != null;
@@ -419,20 +439,26 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 	 * This behavior is dictated by the avoidance of invocation thread overload.
 	 */
 	@Override
-	public synchronized void reschedulePersistedMessages() {
-		MessageGroup messageGroup = this.messageStore.getMessageGroup(this.messageGroupId);
-		for (final Message<?> message : messageGroup.getMessages()) {
-			getTaskScheduler().schedule((Runnable) () -> {
-				// This is fine to keep the reference to the message,
-				// because the scheduled task is performed immediately.
-				long delay = determineDelayForMessage(message);
-				if (delay > 0) {
-					releaseMessageAfterDelay(message, delay);
-				}
-				else {
-					releaseMessage(message);
-				}
-			}, new Date());
+	public void reschedulePersistedMessages() {
+		this.lock.lock();
+		try {
+			MessageGroup messageGroup = this.messageStore.getMessageGroup(this.messageGroupId);
+			for (final Message<?> message : messageGroup.getMessages()) {
+				obtainDelayTaskScheduler().schedule((Runnable) () -> {
+					// This is fine to keep the reference to the message,
+					// because the scheduled task is performed immediately.
+					long delay = determineDelayForMessage(message);
+					if (delay > 0) {
+						releaseMessageAfterDelay(message, delay);
+					}
+					else {
+						releaseMessage(message);
+					}
+				}, new Date());
+			}
+		}
+		finally {
+			this.lock.unlock();
 		}
 	}
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.handler;
+
+/**
+ * Implemented by {@link org.springframework.messaging.MessageHandler}s that want to be
+ * notified when a channel has finished handing them a batch of messages, for example
+ * to flush buffered output in one I/O operation instead of once per message.
+ *
+ * @since 5.1
+ *
+ * @see org.springframework.integration.channel.RingBufferChannel
+ */
+@FunctionalInterface
+public interface EndOfBatchListener {
+
+	/**
+	 * Invoked on the consuming thread after the last message of a batch has been
+	 * dispatched.
+	 */
+	void onEndOfBatch();
+
+}
@@ -0,0 +1,525 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.scheduling;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link TaskScheduler} based on a hashed timing wheel, for large numbers of
+ * short-lived timeouts that are mostly cancelled before they expire: aggregator group
+ * timeouts, delayer releases and the like.
+ * <p>
+ * Scheduling and cancelling a task are both O(1): the task is handed to the wheel
+ * thread through a lock-free queue and, on the next tick, linked into (or unlinked
+ * from) the bucket for its deadline. Deadlines further away than one revolution of the
+ * wheel stay in their bucket with a count of the remaining revolutions. The price is
+ * precision: a task runs on the first tick after its deadline, so up to one
+ * {@code tickDuration} late.
+ * <p>
+ * The wheel thread only moves tasks around. Expired tasks are run on the configured
+ * {@link Executor}; when none is set and this scheduler is declared as a bean, the
+ * integration {@code taskScheduler} is used (if it is an {@link Executor}). Periodic
+ * and {@link Trigger}-based tasks are supported by putting the task back on the wheel
+ * after each execution.
+ *
+ * @since 5.1
+ */
+public class HashedWheelTaskScheduler implements TaskScheduler, BeanFactoryAware, DisposableBean {
+
+	/**
+	 * The default tick duration in milliseconds.
+	 */
+	public static final long DEFAULT_TICK_DURATION = 10;
+
+	/**
+	 * The default number of buckets.
+	 */
+	public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private static final int STATE_INIT = 0;
+
+	private static final int STATE_STARTED = 1;
+
+	private static final int STATE_SHUTDOWN = 2;
+
+	private static final Log logger = LogFactory.getLog(HashedWheelTaskScheduler.class);
+
+	private final Queue<WheelTask> pendingTasks = new ConcurrentLinkedQueue<>();
+
+	private final Queue<WheelTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+	private final long tickNanos;
+
+	private final Bucket[] wheel;
+
+	private final int mask;
+
+	private ThreadFactory threadFactory;
+
+	private Executor taskExecutor;
+
+	private ErrorHandler errorHandler;
+
+	private BeanFactory beanFactory;
+
+	private volatile long startTime;
+
+	private volatile Thread workerThread;
+
+	/**
+	 * Create a scheduler with a {@value #DEFAULT_TICK_DURATION} millisecond tick and
+	 * {@value #DEFAULT_TICKS_PER_WHEEL} buckets.
+	 */
+	public HashedWheelTaskScheduler() {
+		this(DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+	}
+
+	/**
+	 * Create a scheduler with the provided tick duration and number of buckets; the
+	 * latter is rounded up to a power of two.
+	 * @param tickDuration the tick duration.
+	 * @param unit the unit of the tick duration.
+	 * @param ticksPerWheel the number of buckets.
+	 */
+	public HashedWheelTaskScheduler(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+		Assert.notNull(unit, "'unit' must not be null");
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be greater than 0");
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= 1 << 20, "'ticksPerWheel' must be between 1 and 1048576");
+		this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+		int size = Integer.highestOneBit(ticksPerWheel);
+		if (size < ticksPerWheel) {
+			size <<= 1;
+		}
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			this.wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+		CustomizableThreadFactory defaultThreadFactory = new CustomizableThreadFactory("timing-wheel-");
+		defaultThreadFactory.setDaemon(true);
+		this.threadFactory = defaultThreadFactory;
+	}
+
+	/**
+	 * Set the {@link ThreadFactory} for the wheel thread.
+	 * @param threadFactory the thread factory.
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		Assert.notNull(threadFactory, "'threadFactory' must not be null");
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Set the {@link Executor} to run expired tasks on. When no executor is provided,
+	 * and none can be obtained from the bean factory, the tasks run on the wheel thread
+	 * and must then be short.
+	 * @param taskExecutor the executor.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} for exceptions thrown by the tasks. By default,
+	 * exceptions are logged.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		Assert.notNull(trigger, "'trigger' must not be null");
+		RepeatingTask repeatingTask = new RepeatingTask(decorate(task, true), trigger);
+		return repeatingTask.scheduleNext() ? repeatingTask : null;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		return enqueue(new WheelTask(decorate(task, false), deadlineFor(startTime)));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		Assert.isTrue(period > 0, "'period' must be greater than 0");
+		return enqueue(new RepeatingTask(decorate(task, true), deadlineFor(startTime), period));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		return scheduleAtFixedRate(task, new Date(), period);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		Assert.isTrue(delay > 0, "'delay' must be greater than 0");
+		return enqueue(new RepeatingTask(decorate(task, true), deadlineFor(startTime), -delay));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return scheduleWithFixedDelay(task, new Date(), delay);
+	}
+
+	/**
+	 * Stop the wheel thread and cancel all the tasks which have not run yet.
+	 */
+	@Override
+	public void destroy() {
+		if (this.state.getAndSet(STATE_SHUTDOWN) == STATE_STARTED) {
+			Thread thread = this.workerThread;
+			thread.interrupt();
+			if (thread != Thread.currentThread()) {
+				try {
+					thread.join(TimeUnit.NANOSECONDS.toMillis(this.tickNanos) * 10);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	private Runnable decorate(Runnable task, boolean repeating) {
+		Assert.notNull(task, "'task' must not be null");
+		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, repeating);
+	}
+
+	private static long deadlineFor(Date startTime) {
+		Assert.notNull(startTime, "'startTime' must not be null");
+		long delay = startTime.getTime() - System.currentTimeMillis();
+		return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0));
+	}
+
+	private WheelTask enqueue(WheelTask task) {
+		start();
+		this.pendingTasks.add(task);
+		if (this.state.get() == STATE_SHUTDOWN) {
+			task.cancel(false);
+			throw new TaskRejectedException("The scheduler has been shut down");
+		}
+		return task;
+	}
+
+	private void start() {
+		int currentState = this.state.get();
+		if (currentState == STATE_INIT) {
+			if (this.state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+				if (this.taskExecutor == null && this.beanFactory != null) {
+					TaskScheduler taskScheduler = IntegrationContextUtils.getTaskScheduler(this.beanFactory);
+					if (taskScheduler instanceof Executor) {
+						this.taskExecutor = (Executor) taskScheduler;
+					}
+				}
+				this.startTime = System.nanoTime();
+				Thread thread = this.threadFactory.newThread(this::runWheel);
+				this.workerThread = thread;
+				thread.start();
+			}
+		}
+		else if (currentState == STATE_SHUTDOWN) {
+			throw new TaskRejectedException("The scheduler has been shut down");
+		}
+	}
+
+	private void runWheel() {
+		long tick = 0;
+		while (this.state.get() == STATE_STARTED && waitForNextTick(tick)) {
+			processCancelledTasks();
+			transferPendingTasks(tick);
+			expireTasks(this.wheel[(int) (tick & this.mask)]);
+			tick++;
+		}
+		for (Bucket bucket : this.wheel) {
+			WheelTask task = bucket.head;
+			while (task != null) {
+				WheelTask next = bucket.remove(task);
+				task.cancel(false);
+				task = next;
+			}
+		}
+		WheelTask pending;
+		while ((pending = this.pendingTasks.poll()) != null) {
+			pending.cancel(false);
+		}
+		this.cancelledTasks.clear();
+	}
+
+	private boolean waitForNextTick(long tick) {
+		long deadline = this.startTime + this.tickNanos * (tick + 1);
+		while (true) {
+			long sleepNanos = deadline - System.nanoTime();
+			if (sleepNanos <= 0) {
+				return true;
+			}
+			try {
+				TimeUnit.NANOSECONDS.sleep(sleepNanos);
+			}
+			catch (InterruptedException e) {
+				if (this.state.get() == STATE_SHUTDOWN) {
+					return false;
+				}
+			}
+		}
+	}
+
+	private void processCancelledTasks() {
+		WheelTask task;
+		while ((task = this.cancelledTasks.poll()) != null) {
+			if (task.bucket != null) {
+				task.bucket.remove(task);
+			}
+		}
+	}
+
+	private void transferPendingTasks(long tick) {
+		for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+			WheelTask task = this.pendingTasks.poll();
+			if (task == null) {
+				break;
+			}
+			if (!task.isCancelled()) {
+				long dueTick = Math.max(task.deadline - this.startTime, 0) / this.tickNanos;
+				task.remainingRounds = (dueTick - tick) / this.wheel.length;
+				this.wheel[(int) (Math.max(dueTick, tick) & this.mask)].add(task);
+			}
+		}
+	}
+
+	private void expireTasks(Bucket bucket) {
+		WheelTask task = bucket.head;
+		while (task != null) {
+			WheelTask next = task.next;
+			if (task.remainingRounds <= 0) {
+				bucket.remove(task);
+				if (!task.isCancelled()) {
+					execute(task);
+				}
+			}
+			else if (task.isCancelled()) {
+				bucket.remove(task);
+			}
+			else {
+				task.remainingRounds--;
+			}
+			task = next;
+		}
+	}
+
+	private void execute(WheelTask task) {
+		Executor executor = this.taskExecutor;
+		if (executor != null) {
+			try {
+				executor.execute(task);
+			}
+			catch (RejectedExecutionException e) {
+				logger.error("Expired task rejected by the executor: " + task, e);
+				task.cancel(false);
+			}
+		}
+		else {
+			task.run();
+		}
+	}
+
+
+	/**
+	 * A doubly-linked list of the tasks in one slot of the wheel;
+	 * only accessed from the wheel thread.
+	 */
+	private static final class Bucket {
+
+		private WheelTask head;
+
+		private WheelTask tail;
+
+		void add(WheelTask task) {
+			task.bucket = this;
+			if (this.head == null) {
+				this.head = task;
+				this.tail = task;
+			}
+			else {
+				this.tail.next = task;
+				task.prev = this.tail;
+				this.tail = task;
+			}
+		}
+
+		WheelTask remove(WheelTask task) {
+			WheelTask next = task.next;
+			if (task.prev != null) {
+				task.prev.next = next;
+			}
+			if (next != null) {
+				next.prev = task.prev;
+			}
+			if (task == this.head) {
+				this.head = next;
+			}
+			if (task == this.tail) {
+				this.tail = task.prev;
+			}
+			task.prev = null;
+			task.next = null;
+			task.bucket = null;
+			return next;
+		}
+
+	}
+
+	private class WheelTask extends FutureTask<Object> implements ScheduledFuture<Object> {
+
+		protected long deadline;
+
+		private long remainingRounds;
+
+		private WheelTask next;
+
+		private WheelTask prev;
+
+		private Bucket bucket;
+
+		WheelTask(Runnable task, long deadline) {
+			super(task, null);
+			this.deadline = deadline;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				HashedWheelTaskScheduler.this.cancelledTasks.add(this);
+			}
+			return cancelled;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(this.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+		}
+
+	}
+
+	/**
+	 * A task which puts itself back on the wheel after each execution: at a fixed
+	 * rate for a positive period, with a fixed delay for a negative one, or as
+	 * told by a {@link Trigger}.
+	 */
+	private final class RepeatingTask extends WheelTask {
+
+		private final long period;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+
+		private Date scheduledExecutionTime;
+
+		RepeatingTask(Runnable task, long deadline, long period) {
+			super(task, deadline);
+			this.period = period;
+			this.trigger = null;
+		}
+
+		RepeatingTask(Runnable task, Trigger trigger) {
+			super(task, 0);
+			this.period = 0;
+			this.trigger = trigger;
+		}
+
+		@Override
+		public void run() {
+			Date actualExecutionTime = new Date();
+			if (runAndReset() && !isCancelled()) {
+				try {
+					if (this.trigger != null) {
+						this.triggerContext.update(this.scheduledExecutionTime, actualExecutionTime, new Date());
+						if (!scheduleNext()) {
+							set(null);
+						}
+					}
+					else {
+						this.deadline = this.period > 0
+								? this.deadline + TimeUnit.MILLISECONDS.toNanos(this.period)
+								: System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(-this.period);
+						enqueue(this);
+					}
+				}
+				catch (TaskRejectedException e) {
+					// the scheduler has been shut down and enqueue() has cancelled this task
+				}
+			}
+		}
+
+		boolean scheduleNext() {
+			this.scheduledExecutionTime = this.trigger.nextExecutionTime(this.triggerContext);
+			if (this.scheduledExecutionTime == null) {
+				return false;
+			}
+			this.deadline = deadlineFor(this.scheduledExecutionTime);
+			enqueue(this);
+			return true;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,8 @@ public abstract class AbstractBatchingMessageGroupStore implements BasicMessageG
 
 	private volatile int removeBatchSize = DEFAULT_REMOVE_BATCH_SIZE;
 
+	private volatile int messagePageSize;
+
 	private volatile MessageGroupFactory messageGroupFactory = new SimpleMessageGroupFactory();
 
 	/**
@@ -48,6 +50,25 @@ public abstract class AbstractBatchingMessageGroupStore implements BasicMessageG
 		return this.removeBatchSize;
 	}
 
+	/**
+	 * Set the number of messages fetched per query when iterating over the messages
+	 * of a lazy-loaded group, for message stores that support paging.
+	 * With a positive value, iterating over a large group doesn't require to load
+	 * the whole group in memory, but each iteration queries the store again.
+	 * Default 0 - the whole group is loaded on first access.
+	 * @param messagePageSize the page size.
+	 * @since 5.1
+	 * @see MessageGroupStore#iterateMessagesForGroup(Object)
+	 */
+	public void setMessagePageSize(int messagePageSize) {
+		Assert.isTrue(messagePageSize >= 0, "'messagePageSize' must not be negative");
+		this.messagePageSize = messagePageSize;
+	}
+
+	public int getMessagePageSize() {
+		return this.messagePageSize;
+	}
+
 	/**
 	 * Specify the {@link MessageGroupFactory} to create {@link MessageGroup} object where
 	 * it is necessary.
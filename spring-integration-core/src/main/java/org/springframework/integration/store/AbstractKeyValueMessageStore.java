@@ -18,6 +18,7 @@ package org.springframework.integration.store;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -44,6 +45,13 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	protected static final String MESSAGE_GROUP_KEY_PREFIX = "MESSAGE_GROUP_";
 
+	/**
+	 * The key prefix for the ids of the messages in a group when
+	 * {@link #setAppendOnlyGroups(boolean) appendOnlyGroups} is enabled.
+	 * @since 5.1
+	 */
+	protected static final String GROUP_MESSAGE_IDS_KEY_PREFIX = "GROUP_MESSAGE_IDS_";
+
 	/**
 	 * Represents the time when the message has been added to the store.
 	 * @deprecated since 5.0. This constant isn't used any more.
@@ -55,6 +63,10 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	private final String groupPrefix;
 
+	private final String groupMessageIdsPrefix;
+
+	private boolean appendOnlyGroups;
+
 	protected AbstractKeyValueMessageStore() {
 		this("");
 	}
@@ -71,6 +83,7 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 		Assert.notNull(prefix, "'prefix' must not be null");
 		this.messagePrefix = prefix + MESSAGE_KEY_PREFIX;
 		this.groupPrefix = prefix + MESSAGE_GROUP_KEY_PREFIX;
+		this.groupMessageIdsPrefix = prefix + GROUP_MESSAGE_IDS_KEY_PREFIX;
 	}
 
 	/**
@@ -95,6 +108,59 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 		return this.groupPrefix;
 	}
 
+	/**
+	 * Set to true to store the ids of the messages in a group apart from the rest of the
+	 * {@link MessageGroupMetadata}, under the {@value GROUP_MESSAGE_IDS_KEY_PREFIX} key
+	 * prefix, so that adding, removing or polling a message updates just that message's
+	 * id and a small, fixed-size metadata record instead of rewriting the whole group.
+	 * Implementations should override the {@code do*GroupMessageIds} operations with
+	 * native list operations of the target store; the defaults still rewrite the id list.
+	 * Groups stored with this option disabled must be migrated with
+	 * {@link #migrateToAppendOnlyGroups()} before they are accessed.
+	 * Unlike the default layout, the ids of a message added twice to a group may not be
+	 * de-duplicated. Defaults to false.
+	 * @param appendOnlyGroups true to store the message ids separately.
+	 * @since 5.1
+	 */
+	public void setAppendOnlyGroups(boolean appendOnlyGroups) {
+		this.appendOnlyGroups = appendOnlyGroups;
+	}
+
+	/**
+	 * Return true if the ids of the messages in a group are stored separately.
+	 * @return true for the append-only group layout.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	public boolean isAppendOnlyGroups() {
+		return this.appendOnlyGroups;
+	}
+
+	/**
+	 * Move the message ids of the groups stored with {@code appendOnlyGroups} disabled
+	 * to the append-only layout. Invoke it once, after enabling the option and before
+	 * using the store, while no other instance modifies the groups; accessing a group
+	 * which has not been migrated fails with an {@link IllegalStateException}.
+	 * @return the number of migrated groups.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	@SuppressWarnings("unchecked")
+	public int migrateToAppendOnlyGroups() {
+		Assert.state(this.appendOnlyGroups, "'appendOnlyGroups' must be enabled");
+		int migrated = 0;
+		for (String groupId : normalizeKeys((Collection<String>) doListKeys(this.groupPrefix + "*"))) {
+			Object mgm = doRetrieve(this.groupPrefix + groupId);
+			if (mgm instanceof MessageGroupMetadata && ((MessageGroupMetadata) mgm).size() > 0) {
+				MessageGroupMetadata metadata = (MessageGroupMetadata) mgm;
+				doAddGroupMessageIds(this.groupMessageIdsPrefix + groupId, metadata.getMessageIds());
+				doStore(this.groupPrefix + groupId, new MessageGroupMetadata(metadata, Collections.emptyList()));
+				migrated++;
+			}
+		}
+		return migrated;
+	}
+
 	// MessageStore methods
 
 	@Override
@@ -176,7 +242,7 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 	 */
 	@Override
 	public MessageGroup getMessageGroup(Object groupId) {
-		MessageGroupMetadata metadata = getGroupMetadata(groupId);
+		MessageGroupMetadata metadata = retrieveGroupMetadata(groupId);
 		if (metadata != null) {
 
 			MessageGroup messageGroup = getMessageGroupFactory()
@@ -192,11 +258,28 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	@Override
 	public MessageGroupMetadata getGroupMetadata(Object groupId) {
+		MessageGroupMetadata metadata = retrieveGroupMetadata(groupId);
+		if (metadata != null && this.appendOnlyGroups) {
+			List<UUID> messageIds = doListGroupMessageIds(this.groupMessageIdsPrefix + groupId);
+			metadata = new MessageGroupMetadata(metadata, messageIds);
+		}
+		return metadata;
+	}
+
+	/**
+	 * Retrieve the stored {@link MessageGroupMetadata}; with {@code appendOnlyGroups}
+	 * it does not contain the message ids.
+	 */
+	private MessageGroupMetadata retrieveGroupMetadata(Object groupId) {
 		Assert.notNull(groupId, "'groupId' must not be null");
 		Object mgm = this.doRetrieve(this.groupPrefix + groupId);
 		if (mgm != null) {
 			Assert.isInstanceOf(MessageGroupMetadata.class, mgm);
-			return (MessageGroupMetadata) mgm;
+			MessageGroupMetadata metadata = (MessageGroupMetadata) mgm;
+			Assert.state(!this.appendOnlyGroups || metadata.size() == 0,
+					() -> "The message group '" + groupId + "' was stored with 'appendOnlyGroups' disabled; "
+							+ "it must be migrated with migrateToAppendOnlyGroups()");
+			return metadata;
 		}
 		return null;
 	}
@@ -206,6 +289,11 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 		Assert.notNull(groupId, "'groupId' must not be null");
 		Assert.notNull(messages, "'messages' must not be null");
 
+		if (this.appendOnlyGroups) {
+			appendMessagesToGroup(groupId, messages);
+			return;
+		}
+
 		MessageGroupMetadata metadata = getGroupMetadata(groupId);
 		SimpleMessageGroup group = null;
 		if (metadata == null) {
@@ -236,22 +324,44 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 		doStore(this.groupPrefix + groupId, metadata);
 	}
 
+	private void appendMessagesToGroup(Object groupId, Message<?>... messages) {
+		MessageGroupMetadata metadata = retrieveGroupMetadata(groupId);
+		List<UUID> ids = new ArrayList<>(messages.length);
+		for (Message<?> message : messages) {
+			doAddMessage(message);
+			ids.add(message.getHeaders().getId());
+		}
+		doAddGroupMessageIds(this.groupMessageIdsPrefix + groupId, ids);
+
+		if (metadata == null) {
+			SimpleMessageGroup group = new SimpleMessageGroup(groupId);
+			metadata = new MessageGroupMetadata(group);
+			metadata.setLastModified(group.getTimestamp());
+		}
+		else {
+			metadata.setLastModified(System.currentTimeMillis());
+		}
+		doStore(this.groupPrefix + groupId, metadata);
+	}
+
 	@Override
 	public void removeMessagesFromGroup(Object groupId, Collection<Message<?>> messages) {
 		Assert.notNull(groupId, "'groupId' must not be null");
 		Assert.notNull(messages, "'messages' must not be null");
 
-		Object mgm = doRetrieve(this.groupPrefix + groupId);
-		if (mgm != null) {
-			Assert.isInstanceOf(MessageGroupMetadata.class, mgm);
-			MessageGroupMetadata messageGroupMetadata = (MessageGroupMetadata) mgm;
-
+		MessageGroupMetadata messageGroupMetadata = retrieveGroupMetadata(groupId);
+		if (messageGroupMetadata != null) {
 			List<UUID> ids =
 					messages.stream()
 							.map(messageToRemove -> messageToRemove.getHeaders().getId())
 							.collect(Collectors.toList());
 
-			messageGroupMetadata.removeAll(ids);
+			if (this.appendOnlyGroups) {
+				doRemoveGroupMessageIds(this.groupMessageIdsPrefix + groupId, ids);
+			}
+			else {
+				messageGroupMetadata.removeAll(ids);
+			}
 
 			List<Object> messageIds =
 					ids.stream()
@@ -268,7 +378,7 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 	@Override
 	public void completeGroup(Object groupId) {
 		Assert.notNull(groupId, "'groupId' must not be null");
-		MessageGroupMetadata metadata = getGroupMetadata(groupId);
+		MessageGroupMetadata metadata = retrieveGroupMetadata(groupId);
 		if (metadata != null) {
 			metadata.complete();
 			metadata.setLastModified(System.currentTimeMillis());
@@ -287,12 +397,20 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 			Assert.isInstanceOf(MessageGroupMetadata.class, mgm);
 			MessageGroupMetadata messageGroupMetadata = (MessageGroupMetadata) mgm;
 
+			List<UUID> ids = messageGroupMetadata.getMessageIds();
+			if (this.appendOnlyGroups) {
+				ids.addAll(doListGroupMessageIds(this.groupMessageIdsPrefix + groupId));
+			}
+
 			List<Object> messageIds =
-					messageGroupMetadata.getMessageIds()
-							.stream()
+					ids.stream()
 							.map(id -> this.messagePrefix + id)
 							.collect(Collectors.toList());
 
+			if (this.appendOnlyGroups) {
+				messageIds.add(this.groupMessageIdsPrefix + groupId);
+			}
+
 			doRemoveAll(messageIds);
 		}
 	}
@@ -300,7 +418,7 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 	@Override
 	public void setLastReleasedSequenceNumberForGroup(Object groupId, int sequenceNumber) {
 		Assert.notNull(groupId, "'groupId' must not be null");
-		MessageGroupMetadata metadata = getGroupMetadata(groupId);
+		MessageGroupMetadata metadata = retrieveGroupMetadata(groupId);
 		if (metadata == null) {
 			SimpleMessageGroup messageGroup = new SimpleMessageGroup(groupId);
 			metadata = new MessageGroupMetadata(messageGroup);
@@ -312,11 +430,19 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	@Override
 	public Message<?> pollMessageFromGroup(Object groupId) {
-		MessageGroupMetadata groupMetadata = getGroupMetadata(groupId);
+		MessageGroupMetadata groupMetadata = retrieveGroupMetadata(groupId);
 		if (groupMetadata != null) {
-			UUID firstId = groupMetadata.firstId();
+			UUID firstId;
+			if (this.appendOnlyGroups) {
+				firstId = doPollGroupMessageId(this.groupMessageIdsPrefix + groupId);
+			}
+			else {
+				firstId = groupMetadata.firstId();
+				if (firstId != null) {
+					groupMetadata.remove(firstId);
+				}
+			}
 			if (firstId != null) {
-				groupMetadata.remove(firstId);
 				groupMetadata.setLastModified(System.currentTimeMillis());
 				doStore(this.groupPrefix + groupId, groupMetadata);
 				return removeMessage(firstId);
@@ -327,9 +453,11 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	@Override
 	public Message<?> getOneMessageFromGroup(Object groupId) {
-		MessageGroupMetadata groupMetadata = getGroupMetadata(groupId);
+		MessageGroupMetadata groupMetadata = retrieveGroupMetadata(groupId);
 		if (groupMetadata != null) {
-			UUID messageId = groupMetadata.firstId();
+			UUID messageId = this.appendOnlyGroups
+					? doGetFirstGroupMessageId(this.groupMessageIdsPrefix + groupId)
+					: groupMetadata.firstId();
 			if (messageId != null) {
 				return getMessage(messageId);
 			}
@@ -376,9 +504,11 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	@Override
 	public int messageGroupSize(Object groupId) {
-		MessageGroupMetadata mgm = getGroupMetadata(groupId);
+		MessageGroupMetadata mgm = retrieveGroupMetadata(groupId);
 		if (mgm != null) {
-			return mgm.size();
+			return this.appendOnlyGroups
+					? doCountGroupMessageIds(this.groupMessageIdsPrefix + groupId)
+					: mgm.size();
 		}
 		else {
 			return 0;
@@ -397,6 +527,90 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	protected abstract Collection<?> doListKeys(String keyPattern);
 
+	/**
+	 * Append message ids to the list stored under the key, creating it if necessary.
+	 * This default implementation rewrites the whole list; override with a native
+	 * append operation.
+	 * @param key the key of the list.
+	 * @param messageIds the ids to append.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	protected void doAddGroupMessageIds(Object key, List<UUID> messageIds) {
+		List<UUID> ids = doListGroupMessageIds(key);
+		ids.addAll(messageIds);
+		doStore(key, ids);
+	}
+
+	/**
+	 * Remove message ids from the list stored under the key.
+	 * This default implementation rewrites the whole list; override with a native
+	 * remove operation.
+	 * @param key the key of the list.
+	 * @param messageIds the ids to remove.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	protected void doRemoveGroupMessageIds(Object key, Collection<UUID> messageIds) {
+		List<UUID> ids = doListGroupMessageIds(key);
+		if (ids.removeAll(new HashSet<>(messageIds))) {
+			doStore(key, ids);
+		}
+	}
+
+	/**
+	 * Remove and return the first message id from the list stored under the key.
+	 * @param key the key of the list.
+	 * @return the id or null if the list is empty.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	protected UUID doPollGroupMessageId(Object key) {
+		List<UUID> ids = doListGroupMessageIds(key);
+		if (ids.isEmpty()) {
+			return null;
+		}
+		UUID id = ids.remove(0);
+		doStore(key, ids);
+		return id;
+	}
+
+	/**
+	 * Return the first message id from the list stored under the key.
+	 * @param key the key of the list.
+	 * @return the id or null if the list is empty.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	protected UUID doGetFirstGroupMessageId(Object key) {
+		List<UUID> ids = doListGroupMessageIds(key);
+		return ids.isEmpty() ? null : ids.get(0);
+	}
+
+	/**
+	 * Return the size of the list stored under the key.
+	 * @param key the key of the list.
+	 * @return the number of message ids.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	protected int doCountGroupMessageIds(Object key) {
+		return doListGroupMessageIds(key).size();
+	}
+
+	/**
+	 * Return a mutable copy of the list stored under the key.
+	 * @param key the key of the list.
+	 * @return the message ids, in the order they were added.
+	 * @since 5.1
+	 * @see #setAppendOnlyGroups(boolean)
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<UUID> doListGroupMessageIds(Object key) {
+		Object ids = doRetrieve(key);
+		return ids != null ? new ArrayList<>((Collection<UUID>) ids) : new ArrayList<>();
+	}
+
 	private final class MessageGroupIterator implements Iterator<MessageGroup> {
 
 		private final Iterator<?> idIterator;
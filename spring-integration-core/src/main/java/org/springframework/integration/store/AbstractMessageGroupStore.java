@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -127,7 +127,7 @@ public abstract class AbstractMessageGroupStore extends AbstractBatchingMessageG
 
 			if (timestamp <= threshold) {
 				count++;
-				expire(copy(group));
+				invokeExpiryCallbacks(copy(group));
 			}
 		}
 		return count;
@@ -183,7 +183,13 @@ public abstract class AbstractMessageGroupStore extends AbstractBatchingMessageG
 		return getMessageGroup(groupId);
 	}
 
-	private void expire(MessageGroup group) {
+	/**
+	 * Invoke the registered expiry callbacks for the group; used by
+	 * {@link #expireMessageGroups(long)}.
+	 * @param group the group to expire.
+	 * @since 5.1
+	 */
+	protected void invokeExpiryCallbacks(MessageGroup group) {
 
 		RuntimeException exception = null;
 
@@ -65,6 +65,21 @@ public class MessageGroupMetadata implements Serializable {
 		this.lastModified = messageGroup.getLastModified();
 	}
 
+	/**
+	 * Copy the metadata with other message ids; used by stores which keep
+	 * the ids apart from the rest of the metadata.
+	 * @param metadata the metadata to copy.
+	 * @param messageIds the message ids.
+	 * @since 5.1
+	 */
+	MessageGroupMetadata(MessageGroupMetadata metadata, Collection<UUID> messageIds) {
+		this.messageIds.addAll(messageIds);
+		this.complete = metadata.complete;
+		this.timestamp = metadata.timestamp;
+		this.lastReleasedMessageSequenceNumber = metadata.lastReleasedMessageSequenceNumber;
+		this.lastModified = metadata.lastModified;
+	}
+
 	public void remove(UUID messageId) {
 		this.messageIds.remove(messageId);
 	}
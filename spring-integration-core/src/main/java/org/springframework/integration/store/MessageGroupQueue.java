@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.AbstractQueue;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -196,17 +197,23 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 	public int drainTo(Collection<? super Message<?>> collection, int maxElements) {
 		Assert.notNull(collection, "'collection' must not be null");
 		int originalSize = collection.size();
-		ArrayList<Message<?>> list = new ArrayList<Message<?>>();
+		List<Message<?>> list = new ArrayList<Message<?>>();
 		final Lock storeLock = this.storeLock;
 		try {
 			storeLock.lockInterruptibly();
 			try {
-				Message<?> message = this.messageGroupStore.pollMessageFromGroup(this.groupId);
-				for (int i = 0; i < maxElements && message != null; i++) {
-					list.add(message);
-					message = this.messageGroupStore.pollMessageFromGroup(this.groupId);
+				if (this.messageGroupStore instanceof ChannelMessageStore) {
+					list = ((ChannelMessageStore) this.messageGroupStore).pollMessagesFromGroup(this.groupId,
+							maxElements);
 				}
-				this.messageStoreNotFull.signal();
+				else {
+					Message<?> message;
+					while (list.size() < maxElements
+							&& (message = this.messageGroupStore.pollMessageFromGroup(this.groupId)) != null) {
+						list.add(message);
+					}
+				}
+				this.messageStoreNotFull.signalAll();
 			}
 			finally {
 				storeLock.unlock();
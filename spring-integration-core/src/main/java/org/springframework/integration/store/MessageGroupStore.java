@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.store;
 import java.util.Collection;
 import java.util.Iterator;
 
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.messaging.Message;
@@ -142,6 +143,37 @@ public interface MessageGroupStore extends BasicMessageGroupStore {
 	 */
 	Collection<Message<?>> getMessagesForGroup(Object groupId);
 
+	/**
+	 * Iterate over the messages for the provided group id. Implementations may fetch
+	 * the messages in pages, instead of all at once; the iterator should be
+	 * {@link CloseableIterator#close() closed} if it is not exhausted.
+	 * This default implementation iterates over {@link #getMessagesForGroup(Object)}.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.1
+	 */
+	default CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		Iterator<Message<?>> iterator = getMessagesForGroup(groupId).iterator();
+		return new CloseableIterator<Message<?>>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Message<?> next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void close() {
+				// nothing to release
+			}
+
+		};
+	}
+
 	/**
 	 * Invoked when a MessageGroupStore expires a group.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,13 +18,13 @@ package org.springframework.integration.store;
 
 import java.util.AbstractCollection;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.messaging.Message;
 
 /**
@@ -56,7 +56,7 @@ class PersistentMessageGroup implements MessageGroup {
 
 	@Override
 	public Collection<Message<?>> getMessages() {
-		return Collections.unmodifiableCollection(this.messages);
+		return this.messages;
 	}
 
 	@Override
@@ -168,6 +168,12 @@ class PersistentMessageGroup implements MessageGroup {
 	}
 
 
+	/**
+	 * An unmodifiable view of the group messages. When the store fetches messages in pages
+	 * (a positive {@link AbstractBatchingMessageGroupStore#setMessagePageSize(int) messagePageSize}),
+	 * each {@link #iterator()} streams the group from the store, as a {@link CloseableIterator},
+	 * unless the whole collection has already been loaded by some other operation.
+	 */
 	private final class PersistentCollection extends AbstractCollection<Message<?>> {
 
 		private volatile Collection<Message<?>> collection;
@@ -216,8 +222,22 @@ class PersistentMessageGroup implements MessageGroup {
 
 		@Override
 		public Iterator<Message<?>> iterator() {
+			if (this.collection == null && isPaged()) {
+				Object groupId = PersistentMessageGroup.this.original.getGroupId();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Streaming messages for messageGroup: " + groupId);
+				}
+				return new UnmodifiableIterator(
+						PersistentMessageGroup.this.messageGroupStore.iterateMessagesForGroup(groupId));
+			}
 			load();
-			return this.collection.iterator();
+			return new UnmodifiableIterator(this.collection.iterator());
+		}
+
+		private boolean isPaged() {
+			MessageGroupStore store = PersistentMessageGroup.this.messageGroupStore;
+			return store instanceof AbstractBatchingMessageGroupStore
+					&& ((AbstractBatchingMessageGroupStore) store).getMessagePageSize() > 0;
 		}
 
 		@Override
@@ -227,4 +247,31 @@ class PersistentMessageGroup implements MessageGroup {
 
 	}
 
+	private static final class UnmodifiableIterator implements CloseableIterator<Message<?>> {
+
+		private final Iterator<Message<?>> delegate;
+
+		UnmodifiableIterator(Iterator<Message<?>> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.delegate.hasNext();
+		}
+
+		@Override
+		public Message<?> next() {
+			return this.delegate.next();
+		}
+
+		@Override
+		public void close() {
+			if (this.delegate instanceof CloseableIterator) {
+				((CloseableIterator<?>) this.delegate).close();
+			}
+		}
+
+	}
+
 }
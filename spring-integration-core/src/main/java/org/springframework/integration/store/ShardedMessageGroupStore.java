@@ -0,0 +1,441 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * An in-memory {@link MessageGroupStore} and {@link ChannelMessageStore} for a large
+ * number of concurrently open groups.
+ * <p>
+ * The groups are spread over a power-of-two number of shards by the hash of their id.
+ * Each shard has its own lock (so operations on groups in different shards never
+ * contend), its own group and message counters (so {@link #getMessageGroupCount()} and
+ * {@link #getMessageCountForAllMessageGroups()} cost one read per shard, whatever the
+ * number of groups) and an index of its groups ordered by their expiry time (creation
+ * time, or last modification time when {@link #setTimeoutOnIdle(boolean) timeoutOnIdle}
+ * is true). {@link #expireMessageGroups(long)}, called by the
+ * {@link MessageGroupStoreReaper}, only visits the groups that are due, instead of all
+ * the groups in the store.
+ * <p>
+ * Like the {@link SimpleMessageStore}, the store returns the live groups from
+ * {@link #getMessageGroup(Object)}, and snapshots of the groups to the expiry callbacks.
+ * Unlike the {@link SimpleMessageStore}, it has no capacity limits.
+ *
+ * @since 5.1
+ */
+public class ShardedMessageGroupStore extends AbstractMessageGroupStore implements ChannelMessageStore {
+
+	/**
+	 * The default number of shards.
+	 */
+	public static final int DEFAULT_SHARDS = 256;
+
+	private final Shard[] shards;
+
+	private final int mask;
+
+	/**
+	 * Create a store with {@value #DEFAULT_SHARDS} shards.
+	 */
+	public ShardedMessageGroupStore() {
+		this(DEFAULT_SHARDS);
+	}
+
+	/**
+	 * Create a store with the provided number of shards, rounded up to a power of two.
+	 * @param shards the number of shards.
+	 */
+	public ShardedMessageGroupStore(int shards) {
+		super(false);
+		Assert.isTrue(shards > 0 && shards <= 1 << 16, "'shards' must be between 1 and 65536");
+		int size = Integer.highestOneBit(shards);
+		if (size < shards) {
+			size <<= 1;
+		}
+		this.shards = new Shard[size];
+		for (int i = 0; i < size; i++) {
+			this.shards[i] = new Shard();
+		}
+		this.mask = size - 1;
+	}
+
+	@Override
+	public void setLazyLoadMessageGroups(boolean lazyLoadMessageGroups) {
+		throw new UnsupportedOperationException(
+				"The lazy-load isn't supported for in-memory 'ShardedMessageGroupStore'");
+	}
+
+	@Override
+	public void setTimeoutOnIdle(boolean timeoutOnIdle) {
+		super.setTimeoutOnIdle(timeoutOnIdle);
+		for (Shard shard : this.shards) {
+			shard.lock.lock();
+			try {
+				shard.reindexAll();
+			}
+			finally {
+				shard.lock.unlock();
+			}
+		}
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageGroupCount() {
+		int count = 0;
+		for (Shard shard : this.shards) {
+			count += shard.groupCount;
+		}
+		return count;
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageCountForAllMessageGroups() {
+		int count = 0;
+		for (Shard shard : this.shards) {
+			count += shard.messageCount;
+		}
+		return count;
+	}
+
+	@Override
+	public MessageGroup getMessageGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		GroupEntry entry = shardFor(groupId).groups.get(groupId);
+		if (entry == null) {
+			return getMessageGroupFactory().create(groupId);
+		}
+		return entry.group;
+	}
+
+	@Override
+	public void addMessagesToGroup(Object groupId, Message<?>... messages) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		Assert.notNull(messages, "'messages' must not be null");
+		Shard shard = shardFor(groupId);
+		shard.lock.lock();
+		try {
+			GroupEntry entry = shard.groups.get(groupId);
+			if (entry == null) {
+				entry = shard.create(getMessageGroupFactory().create(groupId));
+			}
+			MessageGroup group = entry.group;
+			int size = group.size();
+			for (Message<?> message : messages) {
+				group.add(message);
+			}
+			shard.messageCount += group.size() - size;
+			shard.modified(entry);
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	@Override
+	public void removeMessagesFromGroup(Object groupId, Collection<Message<?>> messages) {
+		Shard shard = shardFor(groupId);
+		shard.lock.lock();
+		try {
+			GroupEntry entry = shard.groups.get(groupId);
+			Assert.notNull(entry, "MessageGroup for groupId '" + groupId + "' " +
+					"can not be located while attempting to remove Message(s) from the MessageGroup");
+			int removed = 0;
+			for (Message<?> messageToRemove : messages) {
+				if (entry.group.remove(messageToRemove)) {
+					removed++;
+				}
+			}
+			if (removed > 0) {
+				shard.messageCount -= removed;
+				shard.modified(entry);
+			}
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	@Override
+	public void removeMessageGroup(Object groupId) {
+		Shard shard = shardFor(groupId);
+		shard.lock.lock();
+		try {
+			shard.remove(groupId);
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	@Override
+	public void setLastReleasedSequenceNumberForGroup(Object groupId, int sequenceNumber) {
+		Shard shard = shardFor(groupId);
+		shard.lock.lock();
+		try {
+			GroupEntry entry = shard.groups.get(groupId);
+			Assert.notNull(entry, "MessageGroup for groupId '" + groupId + "' " +
+					"can not be located while attempting to set 'lastReleasedSequenceNumber'");
+			entry.group.setLastReleasedMessageSequenceNumber(sequenceNumber);
+			shard.modified(entry);
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	@Override
+	public void completeGroup(Object groupId) {
+		Shard shard = shardFor(groupId);
+		shard.lock.lock();
+		try {
+			GroupEntry entry = shard.groups.get(groupId);
+			Assert.notNull(entry, "MessageGroup for groupId '" + groupId + "' " +
+					"can not be located while attempting to complete the MessageGroup");
+			entry.group.complete();
+			shard.modified(entry);
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message<?> pollMessageFromGroup(Object groupId) {
+		Shard shard = shardFor(groupId);
+		shard.lock.lock();
+		try {
+			GroupEntry entry = shard.groups.get(groupId);
+			if (entry == null) {
+				return null;
+			}
+			Collection<Message<?>> messages = entry.group.getMessages();
+			if (CollectionUtils.isEmpty(messages)) {
+				return null;
+			}
+			Message<?> message = messages.iterator().next();
+			if (entry.group.remove(message)) {
+				shard.messageCount--;
+				shard.modified(entry);
+			}
+			return message;
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	@Override
+	public int messageGroupSize(Object groupId) {
+		GroupEntry entry = shardFor(groupId).groups.get(groupId);
+		return (entry != null ? entry.group.size() : 0);
+	}
+
+	@Override
+	public MessageGroupMetadata getGroupMetadata(Object groupId) {
+		return new MessageGroupMetadata(getMessageGroup(groupId));
+	}
+
+	@Override
+	public Message<?> getOneMessageFromGroup(Object groupId) {
+		return getMessageGroup(groupId).getOne();
+	}
+
+	@Override
+	public Collection<Message<?>> getMessagesForGroup(Object groupId) {
+		return getMessageGroup(groupId).getMessages();
+	}
+
+	@Override
+	public Iterator<MessageGroup> iterator() {
+		List<MessageGroup> groups = new ArrayList<>(getMessageGroupCount());
+		for (Shard shard : this.shards) {
+			for (GroupEntry entry : shard.groups.values()) {
+				groups.add(entry.group);
+			}
+		}
+		return groups.iterator();
+	}
+
+	/**
+	 * Expire the groups whose expiry time is at least {@code timeout} milliseconds ago;
+	 * only these groups are visited, in the order of their expiry time within each shard.
+	 * @param timeout the timeout.
+	 * @return the number of expired groups.
+	 */
+	@Override
+	@ManagedOperation
+	public synchronized int expireMessageGroups(long timeout) {
+		long threshold = System.currentTimeMillis() - timeout;
+		int count = 0;
+		for (Shard shard : this.shards) {
+			List<MessageGroup> dueGroups;
+			shard.lock.lock();
+			try {
+				dueGroups = shard.dueGroups(threshold);
+			}
+			finally {
+				shard.lock.unlock();
+			}
+			for (MessageGroup group : dueGroups) {
+				count++;
+				invokeExpiryCallbacks(group);
+			}
+		}
+		return count;
+	}
+
+	@Override
+	protected MessageGroup copy(MessageGroup group) {
+		Shard shard = shardFor(group.getGroupId());
+		shard.lock.lock();
+		try {
+			return doCopy(group);
+		}
+		finally {
+			shard.lock.unlock();
+		}
+	}
+
+	private MessageGroup doCopy(MessageGroup group) {
+		MessageGroup copy = getMessageGroupFactory()
+				.create(group.getMessages(), group.getGroupId(), group.getTimestamp(), group.isComplete());
+		copy.setLastModified(group.getLastModified());
+		copy.setLastReleasedMessageSequenceNumber(group.getLastReleasedMessageSequenceNumber());
+		return copy;
+	}
+
+	private Shard shardFor(Object groupId) {
+		int h = groupId.hashCode();
+		return this.shards[(h ^ (h >>> 16)) & this.mask];
+	}
+
+	/**
+	 * A group and its position in the expiry index of its shard.
+	 */
+	private static final class GroupEntry {
+
+		private final MessageGroup group;
+
+		private final long sequence;
+
+		private long expiryTime;
+
+		GroupEntry(MessageGroup group, long sequence) {
+			this.group = group;
+			this.sequence = sequence;
+		}
+
+	}
+
+	/**
+	 * The groups whose id hashes to one shard; all the modifications happen under the lock.
+	 */
+	private final class Shard {
+
+		private final Lock lock = new ReentrantLock();
+
+		private final Map<Object, GroupEntry> groups = new ConcurrentHashMap<>();
+
+		private final TreeSet<GroupEntry> expiryIndex = new TreeSet<>(
+				Comparator.<GroupEntry>comparingLong(entry -> entry.expiryTime)
+						.thenComparingLong(entry -> entry.sequence));
+
+		private volatile int groupCount;
+
+		private volatile int messageCount;
+
+		private long sequence;
+
+		GroupEntry create(MessageGroup group) {
+			GroupEntry entry = new GroupEntry(group, this.sequence++);
+			entry.expiryTime = expiryTime(group);
+			this.groups.put(group.getGroupId(), entry);
+			this.expiryIndex.add(entry);
+			this.groupCount++;
+			return entry;
+		}
+
+		void modified(GroupEntry entry) {
+			entry.group.setLastModified(System.currentTimeMillis());
+			reindex(entry);
+		}
+
+		void remove(Object groupId) {
+			GroupEntry entry = this.groups.remove(groupId);
+			if (entry != null) {
+				this.expiryIndex.remove(entry);
+				this.groupCount--;
+				this.messageCount -= entry.group.size();
+			}
+		}
+
+		List<MessageGroup> dueGroups(long threshold) {
+			List<MessageGroup> dueGroups = new ArrayList<>();
+			for (GroupEntry entry : this.expiryIndex) {
+				if (entry.expiryTime > threshold) {
+					break;
+				}
+				dueGroups.add(doCopy(entry.group));
+			}
+			return dueGroups;
+		}
+
+		void reindexAll() {
+			List<GroupEntry> entries = new ArrayList<>(this.expiryIndex);
+			for (GroupEntry entry : entries) {
+				reindex(entry);
+			}
+		}
+
+		private void reindex(GroupEntry entry) {
+			long expiryTime = expiryTime(entry.group);
+			if (expiryTime != entry.expiryTime) {
+				this.expiryIndex.remove(entry);
+				entry.expiryTime = expiryTime;
+				this.expiryIndex.add(entry);
+			}
+		}
+
+		private long expiryTime(MessageGroup group) {
+			if (isTimeoutOnIdle() && group.getLastModified() > 0) {
+				return group.getLastModified();
+			}
+			return group.getTimestamp();
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2017 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,8 @@ public class DefaultMessageBuilderFactory implements MessageBuilderFactory {
 
 	private String[] readOnlyHeaders;
 
+	private boolean persistentHeaders;
+
 	/**
 	 * Specify a list of headers which should be considered as a read only
 	 * and prohibited from the population to the message.
@@ -59,15 +61,27 @@ public class DefaultMessageBuilderFactory implements MessageBuilderFactory {
 		this.readOnlyHeaders = headers;
 	}
 
+	/**
+	 * Set to true to build messages with {@link PersistentMessageHeaders}, which share
+	 * the unchanged structure of the original message headers instead of copying them.
+	 * Messages built from a message with {@link PersistentMessageHeaders} always have
+	 * them.
+	 * @param persistentHeaders true for persistent headers.
+	 * @since 5.1
+	 */
+	public void setPersistentHeaders(boolean persistentHeaders) {
+		this.persistentHeaders = persistentHeaders;
+	}
+
 	@Override
 	public <T> MessageBuilder<T> fromMessage(Message<T> message) {
-		return MessageBuilder.fromMessage(message)
+		return MessageBuilder.fromMessage(message, this.persistentHeaders)
 				.readOnlyHeaders(this.readOnlyHeaders);
 	}
 
 	@Override
 	public <T> MessageBuilder<T> withPayload(T payload) {
-		return MessageBuilder.withPayload(payload)
+		return MessageBuilder.withPayload(payload, this.persistentHeaders)
 				.readOnlyHeaders(this.readOnlyHeaders);
 	}
 
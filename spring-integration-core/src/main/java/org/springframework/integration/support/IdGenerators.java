@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2015 the original author or authors.
+ * Copyright 2013-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.integration.support;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.util.IdGenerator;
@@ -78,4 +79,68 @@ public class IdGenerators {
 
 	}
 
+	/**
+	 * Generates time-ordered, version 7 style, {@link UUID}s: the 48 most significant bits
+	 * are the epoch milliseconds and the next 12 bits (after the version) a sequence within
+	 * the millisecond, so the ids (and their {@code toString()} values) sort by creation
+	 * time; the 62 least significant bits (after the variant) are a node identifier.
+	 * <p>
+	 * Ids are unique within the generator: the time and sequence are advanced with a
+	 * single compare-and-set, borrowing from the next millisecond if more than 4096 ids
+	 * are requested within a millisecond, and never go backwards, even if the system clock
+	 * does. The node identifier makes them unique across a cluster; by default it is
+	 * random, chosen once when the generator is created. No locks and no
+	 * {@code SecureRandom} calls are involved in {@link #generateId()}.
+	 * <p>
+	 * Besides being cheap, time-ordered ids are appended to the end of the indexes of
+	 * persistent message stores, rather than being scattered across them.
+	 * @since 5.1
+	 */
+	public static class TimeOrderedIdGenerator implements IdGenerator {
+
+		private static final int SEQUENCE_BITS = 12;
+
+		private static final long VERSION = 0x7000L;
+
+		private static final long VARIANT = 0x8000000000000000L;
+
+		private static final long NODE_MASK = 0x3fffffffffffffffL;
+
+		private final AtomicLong lastTick = new AtomicLong();
+
+		private final long leastSignificantBits;
+
+		/**
+		 * Create a generator with a random node identifier.
+		 */
+		public TimeOrderedIdGenerator() {
+			this(ThreadLocalRandom.current().nextLong());
+		}
+
+		/**
+		 * Create a generator with the provided node identifier; only its 62 least
+		 * significant bits are used.
+		 * @param nodeId the node identifier.
+		 */
+		public TimeOrderedIdGenerator(long nodeId) {
+			this.leastSignificantBits = VARIANT | (nodeId & NODE_MASK);
+		}
+
+		@Override
+		public UUID generateId() {
+			long now = System.currentTimeMillis() << SEQUENCE_BITS;
+			long last;
+			long tick;
+			do {
+				last = this.lastTick.get();
+				tick = (now > last ? now : last + 1);
+			}
+			while (!this.lastTick.compareAndSet(last, tick));
+			long sequence = tick & ((1L << SEQUENCE_BITS) - 1);
+			long millis = tick >>> SEQUENCE_BITS;
+			return new UUID((millis << 16) | VERSION | sequence, this.leastSignificantBits);
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -63,11 +63,18 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	/**
 	 * Private constructor to be invoked from the static factory methods only.
 	 */
-	private MessageBuilder(T payload, Message<T> originalMessage) {
+	private MessageBuilder(T payload, Message<T> originalMessage, boolean persistentHeaders) {
 		Assert.notNull(payload, "payload must not be null");
 		this.payload = payload;
 		this.originalMessage = originalMessage;
-		this.headerAccessor = new IntegrationMessageHeaderAccessor(originalMessage);
+		if (persistentHeaders || (originalMessage != null
+				&& (originalMessage.getHeaders() instanceof PersistentMessageHeaders
+						|| originalMessage.getHeaders() instanceof PersistentMutableMessageHeaders))) {
+			this.headerAccessor = new PersistentMessageHeaderAccessor(originalMessage);
+		}
+		else {
+			this.headerAccessor = new IntegrationMessageHeaderAccessor(originalMessage);
+		}
 		if (originalMessage != null) {
 			this.modified = (!this.payload.equals(originalMessage.getPayload()));
 		}
@@ -92,8 +99,24 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 * @return A MessageBuilder.
 	 */
 	public static <T> MessageBuilder<T> fromMessage(Message<T> message) {
+		return fromMessage(message, false);
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance pre-populated with all of the headers copied from the
+	 * provided message. The payload of the provided Message will also be used as the payload for the new message.
+	 * When {@code persistentHeaders} is true, or the message already has {@link PersistentMessageHeaders}, the
+	 * new message has {@link PersistentMessageHeaders} that share the unchanged structure of the provided
+	 * message headers.
+	 * @param message the Message from which the payload and all headers will be copied
+	 * @param persistentHeaders true to build {@link PersistentMessageHeaders}.
+	 * @param <T> The type of the payload.
+	 * @return A MessageBuilder.
+	 * @since 5.1
+	 */
+	public static <T> MessageBuilder<T> fromMessage(Message<T> message, boolean persistentHeaders) {
 		Assert.notNull(message, "message must not be null");
-		return new MessageBuilder<T>(message.getPayload(), message);
+		return new MessageBuilder<T>(message.getPayload(), message, persistentHeaders);
 	}
 
 	/**
@@ -104,7 +127,19 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 * @return A MessageBuilder.
 	 */
 	public static <T> MessageBuilder<T> withPayload(T payload) {
-		return new MessageBuilder<T>(payload, null);
+		return withPayload(payload, false);
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance with the provided payload.
+	 * @param payload the payload for the new message
+	 * @param persistentHeaders true to build {@link PersistentMessageHeaders}.
+	 * @param <T> The type of the payload.
+	 * @return A MessageBuilder.
+	 * @since 5.1
+	 */
+	public static <T> MessageBuilder<T> withPayload(T payload, boolean persistentHeaders) {
+		return new MessageBuilder<T>(payload, null, persistentHeaders);
 	}
 
 	/**
@@ -319,6 +354,13 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 				&& !containsReadOnly(this.originalMessage.getHeaders())) {
 			return this.originalMessage;
 		}
+		if (this.headerAccessor instanceof PersistentMessageHeaderAccessor) {
+			MessageHeaders headers = this.headerAccessor.toMessageHeaders();
+			if (this.payload instanceof Throwable) {
+				return (Message<T>) new ErrorMessage((Throwable) this.payload, headers);
+			}
+			return new GenericMessage<T>(this.payload, headers);
+		}
 		if (this.payload instanceof Throwable) {
 			return (Message<T>) new ErrorMessage((Throwable) this.payload, this.headerAccessor.toMap());
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2017 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -55,11 +55,15 @@ public final class MutableMessageBuilder<T> extends AbstractIntegrationMessageBu
 	/**
 	 * Private constructor to be invoked from the static factory methods only.
 	 */
-	private MutableMessageBuilder(Message<T> message) {
+	private MutableMessageBuilder(Message<T> message, boolean persistentHeaders) {
 		Assert.notNull(message, "message must not be null");
 		if (message instanceof MutableMessage) {
 			this.mutableMessage = (MutableMessage<T>) message;
 		}
+		else if (persistentHeaders || message.getHeaders() instanceof PersistentMessageHeaders) {
+			this.mutableMessage = new MutableMessage<T>(message.getPayload(),
+					new PersistentMutableMessageHeaders(message.getHeaders()));
+		}
 		else {
 			this.mutableMessage = new MutableMessage<T>(message.getPayload(), message.getHeaders());
 		}
@@ -98,8 +102,31 @@ public final class MutableMessageBuilder<T> extends AbstractIntegrationMessageBu
 	 * @since 5.0
 	 */
 	public static <T> MutableMessageBuilder<T> withPayload(T payload, boolean generateHeaders) {
+		return withPayload(payload, generateHeaders, false);
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance with the provided payload.
+	 * The {@code generateHeaders} flag allows to disable {@link MessageHeaders#ID}
+	 * and {@link MessageHeaders#TIMESTAMP} headers generation.
+	 * @param payload the payload for the new message
+	 * @param generateHeaders whether generate {@link MessageHeaders#ID}
+	 * and {@link MessageHeaders#TIMESTAMP} headers
+	 * @param persistentHeaders true to use {@link PersistentMutableMessageHeaders}.
+	 * @param <T> The type of the payload.
+	 * @return A MutableMessageBuilder.
+	 * @since 5.1
+	 */
+	public static <T> MutableMessageBuilder<T> withPayload(T payload, boolean generateHeaders,
+			boolean persistentHeaders) {
+
 		MutableMessage<T> message;
-		if (generateHeaders) {
+		if (persistentHeaders) {
+			message = new MutableMessage<>(payload, generateHeaders
+					? new PersistentMutableMessageHeaders(null)
+					: new PersistentMutableMessageHeaders(null, MessageHeaders.ID_VALUE_NONE, -1L));
+		}
+		else if (generateHeaders) {
 			message = new MutableMessage<>(payload);
 		}
 		else {
@@ -117,8 +144,24 @@ public final class MutableMessageBuilder<T> extends AbstractIntegrationMessageBu
 	 * @return A MutableMessageBuilder.
 	 */
 	public static <T> MutableMessageBuilder<T> fromMessage(Message<T> message) {
+		return fromMessage(message, false);
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance pre-populated with all of the headers copied from the
+	 * provided message. The payload of the provided Message will also be used as the payload for the new message.
+	 * When {@code persistentHeaders} is true, or the message has {@link PersistentMessageHeaders}, the headers
+	 * of a new {@link MutableMessage} are {@link PersistentMutableMessageHeaders} that share the structure of
+	 * the provided message headers.
+	 * @param message the Message from which the payload and all headers will be copied
+	 * @param persistentHeaders true to use {@link PersistentMutableMessageHeaders}.
+	 * @param <T> The type of the payload.
+	 * @return A MutableMessageBuilder.
+	 * @since 5.1
+	 */
+	public static <T> MutableMessageBuilder<T> fromMessage(Message<T> message, boolean persistentHeaders) {
 		Assert.notNull(message, "'message' must not be null");
-		return new MutableMessageBuilder<T>(message);
+		return new MutableMessageBuilder<T>(message, persistentHeaders);
 	}
 
 	@Override
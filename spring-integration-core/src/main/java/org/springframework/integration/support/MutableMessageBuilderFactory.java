@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,14 +25,26 @@ import org.springframework.messaging.Message;
  */
 public class MutableMessageBuilderFactory implements MessageBuilderFactory {
 
+	private boolean persistentHeaders;
+
+	/**
+	 * Set to true to build messages with {@link PersistentMutableMessageHeaders}, which
+	 * share the structure of the original message headers instead of copying them.
+	 * @param persistentHeaders true for persistent headers.
+	 * @since 5.1
+	 */
+	public void setPersistentHeaders(boolean persistentHeaders) {
+		this.persistentHeaders = persistentHeaders;
+	}
+
 	@Override
 	public <T> MutableMessageBuilder<T> fromMessage(Message<T> message) {
-		return MutableMessageBuilder.fromMessage(message);
+		return MutableMessageBuilder.fromMessage(message, this.persistentHeaders);
 	}
 
 	@Override
 	public <T> MutableMessageBuilder<T> withPayload(T payload) {
-		return MutableMessageBuilder.withPayload(payload);
+		return MutableMessageBuilder.withPayload(payload, true, this.persistentHeaders);
 	}
 
 }
@@ -74,7 +74,7 @@ public class MutableMessageHeaders extends MessageHeaders {
 		return super.getRawHeaders().remove(key);
 	}
 
-	private static UUID extractId(@Nullable Map<String, Object> headers) {
+	static UUID extractId(@Nullable Map<String, Object> headers) {
 		if (headers != null && headers.containsKey(MessageHeaders.ID)) {
 			Object id = headers.get(MessageHeaders.ID);
 			if (id instanceof String) {
@@ -92,7 +92,7 @@ public class MutableMessageHeaders extends MessageHeaders {
 		return null;
 	}
 
-	private static Long extractTimestamp(@Nullable Map<String, Object> headers) {
+	static Long extractTimestamp(@Nullable Map<String, Object> headers) {
 		if (headers != null && headers.containsKey(MessageHeaders.TIMESTAMP)) {
 			Object timestamp = headers.get(MessageHeaders.TIMESTAMP);
 			return (timestamp instanceof String) ? Long.parseLong((String) timestamp) : (Long) timestamp;
@@ -0,0 +1,537 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.support;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * An immutable hash array mapped trie (HAMT) of message headers.
+ * <p>
+ * {@link #with(String, Object)} and {@link #without(Object)} return a new map that
+ * shares all the nodes of this map except those on the path to the changed entry,
+ * so deriving a new set of headers costs a few small array copies instead of a copy
+ * of the whole map. {@code null} keys and values are not supported.
+ *
+ * @since 5.1
+ */
+final class PersistentHeaderMap extends AbstractMap<String, Object> {
+
+	static final PersistentHeaderMap EMPTY = new PersistentHeaderMap(BitmapNode.EMPTY, 0);
+
+	private static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static final int MAX_DEPTH = 10;
+
+	private final Node root;
+
+	private final int size;
+
+	private transient Set<Entry<String, Object>> entrySet;
+
+	private PersistentHeaderMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Create a map with the entries of the provided map, skipping {@code null} values
+	 * and the provided keys.
+	 * @param map the map to copy; may be null.
+	 * @param excludedKeys keys to skip.
+	 * @return the map.
+	 */
+	static PersistentHeaderMap copyOf(@Nullable Map<String, ?> map, String... excludedKeys) {
+		if (map instanceof PersistentHeaderMap) {
+			PersistentHeaderMap copy = (PersistentHeaderMap) map;
+			for (String excludedKey : excludedKeys) {
+				copy = copy.without(excludedKey);
+			}
+			return copy;
+		}
+		if (map == null || map.isEmpty()) {
+			return EMPTY;
+		}
+		int capacity = map.size();
+		int[] hashes = new int[capacity];
+		Object[] keyValues = new Object[capacity * 2];
+		int count = 0;
+		for (Entry<String, ?> entry : map.entrySet()) {
+			String key = entry.getKey();
+			Object value = entry.getValue();
+			if (key != null && value != null && !isExcluded(key, excludedKeys)) {
+				hashes[count] = hash(key);
+				keyValues[count * 2] = key;
+				keyValues[count * 2 + 1] = value;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return EMPTY;
+		}
+		return new PersistentHeaderMap(build(0, hashes, keyValues, count), count);
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		if (key == null) {
+			return null;
+		}
+		return this.root.find(0, hash(key), key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> entries = this.entrySet;
+		if (entries == null) {
+			entries = new EntrySet();
+			this.entrySet = entries;
+		}
+		return entries;
+	}
+
+	/**
+	 * Return a map with the provided entry added or replaced; a {@code null} value
+	 * removes the entry.
+	 * @param key the key.
+	 * @param value the value.
+	 * @return the new map, or this map if the entry is already present.
+	 */
+	PersistentHeaderMap with(String key, @Nullable Object value) {
+		if (value == null) {
+			return without(key);
+		}
+		boolean[] addedLeaf = new boolean[1];
+		Node newRoot = this.root.assoc(0, hash(key), key, value, addedLeaf);
+		if (newRoot == this.root) {
+			return this;
+		}
+		return new PersistentHeaderMap(newRoot, addedLeaf[0] ? this.size + 1 : this.size);
+	}
+
+	/**
+	 * Return a map without the provided key.
+	 * @param key the key.
+	 * @return the new map, or this map if the key is not present.
+	 */
+	PersistentHeaderMap without(Object key) {
+		if (key == null) {
+			return this;
+		}
+		Node newRoot = this.root.without(0, hash(key), key);
+		if (newRoot == this.root) {
+			return this;
+		}
+		if (newRoot == null) {
+			return EMPTY;
+		}
+		return new PersistentHeaderMap(newRoot, this.size - 1);
+	}
+
+	private static boolean isExcluded(String key, String[] excludedKeys) {
+		for (String excludedKey : excludedKeys) {
+			if (excludedKey.equals(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static Object[] cloneAndSet(Object[] array, int i, Object value) {
+		Object[] clone = array.clone();
+		clone[i] = value;
+		return clone;
+	}
+
+	private static Object[] removePair(Object[] array, int i) {
+		Object[] newArray = new Object[array.length - 2];
+		System.arraycopy(array, 0, newArray, 0, 2 * i);
+		System.arraycopy(array, 2 * (i + 1), newArray, 2 * i, newArray.length - 2 * i);
+		return newArray;
+	}
+
+	private static Node createNode(int shift, Object key1, Object value1, int hash2, String key2, Object value2) {
+		int hash1 = hash(key1);
+		if (hash1 == hash2) {
+			return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+		}
+		boolean[] addedLeaf = new boolean[1];
+		return BitmapNode.EMPTY
+				.assoc(shift, hash1, (String) key1, value1, addedLeaf)
+				.assoc(shift, hash2, key2, value2, addedLeaf);
+	}
+
+	/*
+	 * Build a trie level from unique keys in one pass per level, partitioning the
+	 * entries by their hash chunk at this shift.
+	 */
+	private static Node build(int shift, int[] hashes, Object[] keyValues, int count) {
+		if (allSameHash(hashes, count)) {
+			if (count == 1) {
+				return new BitmapNode(bitpos(hashes[0], shift), new Object[] { keyValues[0], keyValues[1] });
+			}
+			Object[] pairs = new Object[count * 2];
+			System.arraycopy(keyValues, 0, pairs, 0, pairs.length);
+			return new CollisionNode(hashes[0], pairs);
+		}
+		int[] counts = new int[MASK + 1];
+		int bitmap = 0;
+		for (int i = 0; i < count; i++) {
+			int chunk = (hashes[i] >>> shift) & MASK;
+			counts[chunk]++;
+			bitmap |= 1 << chunk;
+		}
+		Object[] array = new Object[Integer.bitCount(bitmap) * 2];
+		int slot = 0;
+		for (int chunk = 0; chunk <= MASK; chunk++) {
+			int chunkCount = counts[chunk];
+			if (chunkCount == 1) {
+				for (int i = 0; i < count; i++) {
+					if (((hashes[i] >>> shift) & MASK) == chunk) {
+						array[slot] = keyValues[i * 2];
+						array[slot + 1] = keyValues[i * 2 + 1];
+						break;
+					}
+				}
+				slot += 2;
+			}
+			else if (chunkCount > 1) {
+				int[] subHashes = new int[chunkCount];
+				Object[] subKeyValues = new Object[chunkCount * 2];
+				int j = 0;
+				for (int i = 0; i < count; i++) {
+					if (((hashes[i] >>> shift) & MASK) == chunk) {
+						subHashes[j] = hashes[i];
+						subKeyValues[j * 2] = keyValues[i * 2];
+						subKeyValues[j * 2 + 1] = keyValues[i * 2 + 1];
+						j++;
+					}
+				}
+				array[slot + 1] = build(shift + BITS, subHashes, subKeyValues, chunkCount);
+				slot += 2;
+			}
+		}
+		return new BitmapNode(bitmap, array);
+	}
+
+	private static boolean allSameHash(int[] hashes, int count) {
+		for (int i = 1; i < count; i++) {
+			if (hashes[i] != hashes[0]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A trie node; its array holds key/value pairs, where a {@code null} key means the
+	 * value is a child node.
+	 */
+	private interface Node {
+
+		Object find(int shift, int hash, Object key);
+
+		Node assoc(int shift, int hash, String key, Object value, boolean[] addedLeaf);
+
+		Node without(int shift, int hash, Object key);
+
+		Object[] array();
+
+	}
+
+	private static final class BitmapNode implements Node {
+
+		static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int bitmap;
+
+		private final Object[] array;
+
+		BitmapNode(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		@Override
+		public Object[] array() {
+			return this.array;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(this.bitmap & (bit - 1));
+		}
+
+		@Override
+		public Object find(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return null;
+			}
+			int idx = index(bit);
+			Object keyOrNull = this.array[2 * idx];
+			Object valueOrNode = this.array[2 * idx + 1];
+			if (keyOrNull == null) {
+				return ((Node) valueOrNode).find(shift + BITS, hash, key);
+			}
+			if (key.equals(keyOrNull)) {
+				return valueOrNode;
+			}
+			return null;
+		}
+
+		@Override
+		public Node assoc(int shift, int hash, String key, Object value, boolean[] addedLeaf) {
+			int bit = bitpos(hash, shift);
+			int idx = index(bit);
+			if ((this.bitmap & bit) != 0) {
+				Object keyOrNull = this.array[2 * idx];
+				Object valueOrNode = this.array[2 * idx + 1];
+				if (keyOrNull == null) {
+					Node node = ((Node) valueOrNode).assoc(shift + BITS, hash, key, value, addedLeaf);
+					if (node == valueOrNode) {
+						return this;
+					}
+					return new BitmapNode(this.bitmap, cloneAndSet(this.array, 2 * idx + 1, node));
+				}
+				if (key.equals(keyOrNull)) {
+					if (value == valueOrNode) {
+						return this;
+					}
+					return new BitmapNode(this.bitmap, cloneAndSet(this.array, 2 * idx + 1, value));
+				}
+				addedLeaf[0] = true;
+				Object[] newArray = cloneAndSet(this.array, 2 * idx, null);
+				newArray[2 * idx + 1] = createNode(shift + BITS, keyOrNull, valueOrNode, hash, key, value);
+				return new BitmapNode(this.bitmap, newArray);
+			}
+			else {
+				int n = Integer.bitCount(this.bitmap);
+				Object[] newArray = new Object[2 * (n + 1)];
+				System.arraycopy(this.array, 0, newArray, 0, 2 * idx);
+				newArray[2 * idx] = key;
+				newArray[2 * idx + 1] = value;
+				System.arraycopy(this.array, 2 * idx, newArray, 2 * (idx + 1), 2 * (n - idx));
+				addedLeaf[0] = true;
+				return new BitmapNode(this.bitmap | bit, newArray);
+			}
+		}
+
+		@Override
+		public Node without(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return this;
+			}
+			int idx = index(bit);
+			Object keyOrNull = this.array[2 * idx];
+			Object valueOrNode = this.array[2 * idx + 1];
+			if (keyOrNull == null) {
+				Node node = ((Node) valueOrNode).without(shift + BITS, hash, key);
+				if (node == valueOrNode) {
+					return this;
+				}
+				if (node != null) {
+					return new BitmapNode(this.bitmap, cloneAndSet(this.array, 2 * idx + 1, node));
+				}
+			}
+			else if (!key.equals(keyOrNull)) {
+				return this;
+			}
+			if (this.bitmap == bit) {
+				return null;
+			}
+			return new BitmapNode(this.bitmap ^ bit, removePair(this.array, idx));
+		}
+
+	}
+
+	private static final class CollisionNode implements Node {
+
+		private final int hash;
+
+		private final Object[] array;
+
+		CollisionNode(int hash, Object[] array) {
+			this.hash = hash;
+			this.array = array;
+		}
+
+		@Override
+		public Object[] array() {
+			return this.array;
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < this.array.length; i += 2) {
+				if (key.equals(this.array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public Object find(int shift, int hash, Object key) {
+			if (hash != this.hash) {
+				return null;
+			}
+			int i = indexOf(key);
+			return (i < 0 ? null : this.array[i + 1]);
+		}
+
+		@Override
+		public Node assoc(int shift, int hash, String key, Object value, boolean[] addedLeaf) {
+			if (hash == this.hash) {
+				int i = indexOf(key);
+				if (i >= 0) {
+					if (this.array[i + 1] == value) {
+						return this;
+					}
+					return new CollisionNode(hash, cloneAndSet(this.array, i + 1, value));
+				}
+				Object[] newArray = new Object[this.array.length + 2];
+				System.arraycopy(this.array, 0, newArray, 0, this.array.length);
+				newArray[this.array.length] = key;
+				newArray[this.array.length + 1] = value;
+				addedLeaf[0] = true;
+				return new CollisionNode(hash, newArray);
+			}
+			return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this })
+					.assoc(shift, hash, key, value, addedLeaf);
+		}
+
+		@Override
+		public Node without(int shift, int hash, Object key) {
+			if (hash != this.hash) {
+				return this;
+			}
+			int i = indexOf(key);
+			if (i < 0) {
+				return this;
+			}
+			if (this.array.length == 2) {
+				return null;
+			}
+			return new CollisionNode(hash, removePair(this.array, i / 2));
+		}
+
+	}
+
+	private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			return new EntryIterator(PersistentHeaderMap.this.root);
+		}
+
+		@Override
+		public int size() {
+			return PersistentHeaderMap.this.size;
+		}
+
+	}
+
+	private static final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+		private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+		private final int[] positions = new int[MAX_DEPTH];
+
+		private int depth;
+
+		private Entry<String, Object> next;
+
+		EntryIterator(Node root) {
+			this.arrays[0] = root.array();
+			advance();
+		}
+
+		private void advance() {
+			while (this.depth >= 0) {
+				Object[] array = this.arrays[this.depth];
+				int position = this.positions[this.depth];
+				if (position >= array.length) {
+					this.arrays[this.depth--] = null;
+					continue;
+				}
+				this.positions[this.depth] = position + 2;
+				Object key = array[position];
+				if (key == null) {
+					this.depth++;
+					this.arrays[this.depth] = ((Node) array[position + 1]).array();
+					this.positions[this.depth] = 0;
+				}
+				else {
+					this.next = new SimpleImmutableEntry<>((String) key, array[position + 1]);
+					return;
+				}
+			}
+			this.next = null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next != null;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			Entry<String, Object> entry = this.next;
+			if (entry == null) {
+				throw new NoSuchElementException();
+			}
+			advance();
+			return entry;
+		}
+
+	}
+
+}
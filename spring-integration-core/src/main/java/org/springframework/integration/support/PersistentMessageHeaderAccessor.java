@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * An {@link IntegrationMessageHeaderAccessor} that keeps the headers in a
+ * {@link PersistentHeaderMap}, so that the headers of the original message are shared,
+ * not copied, and {@link #toMessageHeaders()} produces {@link PersistentMessageHeaders}
+ * that share the structure of the original message headers.
+ *
+ * @since 5.1
+ */
+class PersistentMessageHeaderAccessor extends IntegrationMessageHeaderAccessor {
+
+	private PersistentHeaderMap headers;
+
+	private String[] readOnlyHeaders;
+
+	PersistentMessageHeaderAccessor(@Nullable Message<?> message) {
+		super(null);
+		this.headers = (message != null
+				? PersistentMessageHeaders.userHeadersOf(message.getHeaders())
+				: PersistentHeaderMap.EMPTY);
+	}
+
+	@Override
+	public void setReadOnlyHeaders(String... readOnlyHeaders) {
+		super.setReadOnlyHeaders(readOnlyHeaders);
+		if (!ObjectUtils.isEmpty(readOnlyHeaders)) {
+			this.readOnlyHeaders = readOnlyHeaders;
+		}
+	}
+
+	@Override
+	@Nullable
+	public Object getHeader(String headerName) {
+		return this.headers.get(headerName);
+	}
+
+	@Override
+	public void setHeader(String name, @Nullable Object value) {
+		if (isReadOnly(name)) {
+			throw new IllegalArgumentException("'" + name + "' header is read-only");
+		}
+		verifyType(name, value);
+		if (!ObjectUtils.nullSafeEquals(value, this.headers.get(name))) {
+			this.headers = this.headers.with(name, value);
+			setModified(true);
+		}
+	}
+
+	@Override
+	public void setHeaderIfAbsent(String name, Object value) {
+		if (!isReadOnly(name) && this.headers.get(name) == null) {
+			setHeader(name, value);
+		}
+	}
+
+	@Override
+	public void removeHeader(String headerName) {
+		if (StringUtils.hasLength(headerName) && !isReadOnly(headerName)) {
+			setHeader(headerName, null);
+		}
+	}
+
+	@Override
+	public void removeHeaders(String... headerPatterns) {
+		List<String> headersToRemove = new ArrayList<>();
+		for (String pattern : headerPatterns) {
+			if (StringUtils.hasLength(pattern)) {
+				if (pattern.contains("*")) {
+					for (String headerName : this.headers.keySet()) {
+						if (PatternMatchUtils.simpleMatch(pattern, headerName)) {
+							headersToRemove.add(headerName);
+						}
+					}
+				}
+				else {
+					headersToRemove.add(pattern);
+				}
+			}
+		}
+		for (String headerToRemove : headersToRemove) {
+			removeHeader(headerToRemove);
+		}
+	}
+
+	@Override
+	public void copyHeaders(@Nullable Map<String, ?> headersToCopy) {
+		if (headersToCopy != null) {
+			for (Map.Entry<String, ?> entry : headersToCopy.entrySet()) {
+				if (!isReadOnly(entry.getKey())) {
+					setHeader(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
+	@Override
+	public void copyHeadersIfAbsent(@Nullable Map<String, ?> headersToCopy) {
+		if (headersToCopy != null) {
+			for (Map.Entry<String, ?> entry : headersToCopy.entrySet()) {
+				if (!isReadOnly(entry.getKey())) {
+					setHeaderIfAbsent(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
+	@Override
+	public Map<String, Object> toMap() {
+		return new HashMap<>(withoutReadOnlyHeaders());
+	}
+
+	@Override
+	public MessageHeaders toMessageHeaders() {
+		return new PersistentMessageHeaders(withoutReadOnlyHeaders(), null, null);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [headers=" + this.headers + "]";
+	}
+
+	private PersistentHeaderMap withoutReadOnlyHeaders() {
+		PersistentHeaderMap headers = this.headers;
+		if (this.readOnlyHeaders != null) {
+			for (String readOnlyHeader : this.readOnlyHeaders) {
+				headers = headers.without(readOnlyHeader);
+			}
+		}
+		return headers;
+	}
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.support;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * An immutable {@link MessageHeaders} backed by a persistent hash trie.
+ * <p>
+ * A message derived from a message with {@code PersistentMessageHeaders} (for
+ * example by a {@link MessageBuilder} that sets one header) shares all the unchanged
+ * structure of its parent's headers, instead of copying the whole map. This
+ * considerably reduces allocation in flows that pass many headers through several
+ * header-modifying endpoints.
+ * <p>
+ * The instances behave as any other {@link MessageHeaders}, with one exception: a plain
+ * {@link MessageHeaders} compares its internal map in {@code equals()}, so it is never
+ * equal to {@code PersistentMessageHeaders}, although the reverse comparison works.
+ *
+ * @since 5.1
+ *
+ * @see DefaultMessageBuilderFactory#setPersistentHeaders(boolean)
+ */
+public class PersistentMessageHeaders extends MessageHeaders {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * All the headers except {@link #ID} and {@link #TIMESTAMP}, which are kept
+	 * by the super class.
+	 */
+	private final transient PersistentHeaderMap headers;
+
+	private transient Map<String, Object> view;
+
+	/**
+	 * Construct headers with the provided entries and a newly generated
+	 * {@link #ID} and {@link #TIMESTAMP}.
+	 * @param headers the headers; may be null.
+	 */
+	public PersistentMessageHeaders(@Nullable Map<String, Object> headers) {
+		this(headers, null, null);
+	}
+
+	/**
+	 * Construct headers with the provided entries, id and timestamp. The {@link #ID}
+	 * and {@link #TIMESTAMP} entries of the map are ignored.
+	 * @param headers the headers; may be null.
+	 * @param id the id; a new one is generated if null, none is set if
+	 * {@link #ID_VALUE_NONE}.
+	 * @param timestamp the timestamp; the current time if null, none is set if negative.
+	 */
+	protected PersistentMessageHeaders(@Nullable Map<String, Object> headers, @Nullable UUID id,
+			@Nullable Long timestamp) {
+
+		this(userHeadersOf(headers), id, timestamp);
+	}
+
+	PersistentMessageHeaders(PersistentHeaderMap headers, @Nullable UUID id, @Nullable Long timestamp) {
+		super(null, id, timestamp);
+		this.headers = headers;
+	}
+
+	/**
+	 * Return the headers, except {@link #ID} and {@link #TIMESTAMP}, as a persistent
+	 * map, sharing the structure of the provided map when it is persistent already.
+	 * @param headers the headers.
+	 * @return the persistent map.
+	 */
+	static PersistentHeaderMap userHeadersOf(@Nullable Map<String, ?> headers) {
+		if (headers instanceof PersistentMessageHeaders) {
+			return ((PersistentMessageHeaders) headers).headers;
+		}
+		if (headers instanceof PersistentMutableMessageHeaders) {
+			return PersistentHeaderMap.copyOf(((PersistentMutableMessageHeaders) headers).getPersistentHeaders(),
+					ID, TIMESTAMP);
+		}
+		return PersistentHeaderMap.copyOf(headers, ID, TIMESTAMP);
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		Object value = this.headers.get(key);
+		return (value != null ? value : super.get(key));
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		Object value = get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" +
+					key + "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (T) value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.headers.containsKey(key) || super.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return this.headers.containsValue(value) || super.containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		return this.headers.size() + super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return view().keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return view().values();
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return view().entrySet();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof MessageHeaders && view().equals(other)));
+	}
+
+	@Override
+	public int hashCode() {
+		return view().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return view().toString();
+	}
+
+	private Map<String, Object> view() {
+		Map<String, Object> view = this.view;
+		if (view == null) {
+			view = new HeadersView();
+			this.view = view;
+		}
+		return view;
+	}
+
+	private Object writeReplace() {
+		return new SerializedHeaders(this);
+	}
+
+	/**
+	 * A read-only view of all the headers, including {@link #ID} and {@link #TIMESTAMP}.
+	 */
+	private final class HeadersView extends AbstractMap<String, Object> {
+
+		private final Set<Entry<String, Object>> entrySet = new AbstractSet<Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				Iterator<Entry<String, Object>> first = PersistentMessageHeaders.super.entrySet().iterator();
+				Iterator<Entry<String, Object>> second = PersistentMessageHeaders.this.headers.entrySet().iterator();
+				return new Iterator<Entry<String, Object>>() {
+
+					@Override
+					public boolean hasNext() {
+						return first.hasNext() || second.hasNext();
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						return (first.hasNext() ? first.next() : second.next());
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return PersistentMessageHeaders.this.size();
+			}
+
+		};
+
+		@Override
+		public Object get(Object key) {
+			return PersistentMessageHeaders.this.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return PersistentMessageHeaders.this.containsKey(key);
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return this.entrySet;
+		}
+
+	}
+
+	/**
+	 * The serialized form: the serializable headers in a {@link HashMap}.
+	 */
+	private static final class SerializedHeaders implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final HashMap<String, Object> headers = new HashMap<>();
+
+		SerializedHeaders(PersistentMessageHeaders headers) {
+			for (Entry<String, Object> entry : headers.entrySet()) {
+				if (entry.getValue() instanceof Serializable) {
+					this.headers.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+
+		private Object readResolve() {
+			UUID id = (UUID) this.headers.get(ID);
+			Long timestamp = (Long) this.headers.get(TIMESTAMP);
+			return new PersistentMessageHeaders(this.headers, id != null ? id : ID_VALUE_NONE,
+					timestamp != null ? timestamp : -1L);
+		}
+
+	}
+
+}
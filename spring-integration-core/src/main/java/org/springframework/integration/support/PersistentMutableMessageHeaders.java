@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.support;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * A {@link MutableMessageHeaders} backed by a persistent hash trie: creating it from
+ * {@link PersistentMessageHeaders} shares their structure instead of copying the map,
+ * and each modification replaces the trie with a new version that shares all the
+ * unchanged nodes.
+ *
+ * @since 5.1
+ *
+ * @see MutableMessageBuilderFactory#setPersistentHeaders(boolean)
+ */
+public class PersistentMutableMessageHeaders extends MutableMessageHeaders {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient volatile PersistentHeaderMap headers;
+
+	private final transient Map<String, Object> rawHeaders = new RawHeaders();
+
+	public PersistentMutableMessageHeaders(@Nullable Map<String, Object> headers) {
+		this(headers, extractId(headers), extractTimestamp(headers));
+	}
+
+	protected PersistentMutableMessageHeaders(@Nullable Map<String, Object> headers, @Nullable UUID id,
+			@Nullable Long timestamp) {
+
+		super(null, id, timestamp);
+		Map<String, Object> generated = super.getRawHeaders();
+		PersistentHeaderMap persistentHeaders = PersistentMessageHeaders.userHeadersOf(headers);
+		for (Entry<String, Object> entry : generated.entrySet()) {
+			persistentHeaders = persistentHeaders.with(entry.getKey(), entry.getValue());
+		}
+		generated.clear();
+		this.headers = persistentHeaders;
+	}
+
+	PersistentHeaderMap getPersistentHeaders() {
+		return this.headers;
+	}
+
+	@Override
+	protected Map<String, Object> getRawHeaders() {
+		return this.rawHeaders;
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		return this.headers.get(key);
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		Object value = get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" +
+					key + "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (T) value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.headers.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return this.headers.containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		return this.headers.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.headers.isEmpty();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return this.headers.keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return this.headers.values();
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return this.headers.entrySet();
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		return this.rawHeaders.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> map) {
+		this.rawHeaders.putAll(map);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		return this.rawHeaders.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		this.rawHeaders.clear();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof MessageHeaders && this.headers.equals(other)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.headers.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.headers.toString();
+	}
+
+	private Object writeReplace() {
+		return new MutableMessageHeaders(new HashMap<>(this.headers));
+	}
+
+	/**
+	 * The mutable map exposed to the {@link MutableMessageBuilder}; each modification
+	 * replaces the trie.
+	 */
+	private final class RawHeaders extends AbstractMap<String, Object> {
+
+		@Override
+		public Object get(Object key) {
+			return PersistentMutableMessageHeaders.this.headers.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return PersistentMutableMessageHeaders.this.headers.containsKey(key);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			PersistentHeaderMap headers = PersistentMutableMessageHeaders.this.headers;
+			PersistentMutableMessageHeaders.this.headers = headers.with(key, value);
+			return headers.get(key);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			PersistentHeaderMap headers = PersistentMutableMessageHeaders.this.headers;
+			PersistentMutableMessageHeaders.this.headers = headers.without(key);
+			return headers.get(key);
+		}
+
+		@Override
+		public void clear() {
+			PersistentMutableMessageHeaders.this.headers = PersistentHeaderMap.EMPTY;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return PersistentMutableMessageHeaders.this.headers.entrySet();
+		}
+
+	}
+
+}
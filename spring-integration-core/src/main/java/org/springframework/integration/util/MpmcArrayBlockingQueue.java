@@ -0,0 +1,428 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, array-backed, lock-free multi-producer/multi-consumer {@link BlockingQueue}.
+ * <p>
+ * Each slot of the ring carries a sequence number, so producers and consumers only
+ * compete with a CAS on the tail and head counters respectively; no node is allocated
+ * per element. The {@link WaitStrategy} determines what a producer (consumer) does while
+ * the queue is full (empty) for the blocking operations.
+ * <p>
+ * {@link #remove(Object)} (used by the {@code QueueChannel} purge) marks the slot as
+ * removed; the slot is released when consumers reach it and, until then, still counts
+ * against the capacity: it is not included in {@link #size()}, nor in
+ * {@link #remainingCapacity()}. Iteration is weakly consistent.
+ *
+ * @param <E> the element type.
+ *
+ * @since 5.1
+ */
+public class MpmcArrayBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+	private static final Object REMOVED = new Object();
+
+	private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final int capacity;
+
+	private final int ringSize;
+
+	private final long mask;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicReferenceArray<Object> elements;
+
+	private final AtomicLong head = new AtomicLong();
+
+	private final AtomicLong tail = new AtomicLong();
+
+	private final AtomicInteger removed = new AtomicInteger();
+
+	private final WaitStrategy waitStrategy;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = this.lock.newCondition();
+
+	private final Condition notFull = this.lock.newCondition();
+
+	private final AtomicInteger waitingConsumers = new AtomicInteger();
+
+	private final AtomicInteger waitingProducers = new AtomicInteger();
+
+	/**
+	 * Create a queue with the provided capacity and the {@link WaitStrategy#PARK} strategy.
+	 * @param capacity the capacity.
+	 */
+	public MpmcArrayBlockingQueue(int capacity) {
+		this(capacity, WaitStrategy.PARK);
+	}
+
+	/**
+	 * Create a queue with the provided capacity and {@link WaitStrategy}.
+	 * @param capacity the capacity.
+	 * @param waitStrategy the strategy for waiting in the blocking operations.
+	 */
+	public MpmcArrayBlockingQueue(int capacity, WaitStrategy waitStrategy) {
+		Assert.isTrue(capacity > 0, "'capacity' must be a positive integer");
+		Assert.notNull(waitStrategy, "'waitStrategy' must not be null");
+		this.capacity = capacity;
+		// the slot sequences can't tell 'published' from 'released' in a single slot ring
+		this.ringSize = Math.max(capacity, 2);
+		this.mask = Integer.bitCount(this.ringSize) == 1 ? this.ringSize - 1 : -1;
+		this.sequences = new AtomicLongArray(this.ringSize);
+		for (int i = 0; i < this.ringSize; i++) {
+			this.sequences.set(i, i);
+		}
+		this.elements = new AtomicReferenceArray<>(this.ringSize);
+		this.waitStrategy = waitStrategy;
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return this.waitStrategy;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		if (e == null) {
+			throw new NullPointerException();
+		}
+		long position = this.tail.get();
+		int index;
+		while (true) {
+			index = index(position);
+			long diff = this.sequences.get(index) - position;
+			if (diff == 0) {
+				if (this.ringSize != this.capacity && position - this.head.get() >= this.capacity) {
+					return false;
+				}
+				if (this.tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+			}
+			else if (diff < 0) {
+				return false;
+			}
+			position = this.tail.get();
+		}
+		this.elements.lazySet(index, e);
+		this.sequences.set(index, position + 1);
+		signal(this.notEmpty, this.waitingConsumers);
+		return true;
+	}
+
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int attempt = 0;
+		while (!offer(e)) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return false;
+			}
+			await(false, remaining, attempt++);
+		}
+		return true;
+	}
+
+	@Override
+	public void put(E e) throws InterruptedException {
+		int attempt = 0;
+		while (!offer(e)) {
+			await(false, Long.MAX_VALUE, attempt++);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		while (true) {
+			Object e = dequeue();
+			if (e == null) {
+				return null;
+			}
+			signal(this.notFull, this.waitingProducers);
+			if (e != REMOVED) {
+				return (E) e;
+			}
+			this.removed.decrementAndGet();
+		}
+	}
+
+	@Override
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		E e;
+		int attempt = 0;
+		while ((e = poll()) == null) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return null;
+			}
+			await(true, remaining, attempt++);
+		}
+		return e;
+	}
+
+	@Override
+	public E take() throws InterruptedException {
+		E e;
+		int attempt = 0;
+		while ((e = poll()) == null) {
+			await(true, Long.MAX_VALUE, attempt++);
+		}
+		return e;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		long position = this.head.get();
+		long end = this.tail.get();
+		for (; position < end; position++) {
+			int index = index(position);
+			if (this.sequences.get(index) == position + 1) {
+				Object e = this.elements.get(index);
+				if (e != null && e != REMOVED) {
+					return (E) e;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o == null) {
+			return false;
+		}
+		long position = this.head.get();
+		long end = this.tail.get();
+		for (; position < end; position++) {
+			int index = index(position);
+			if (this.sequences.get(index) == position + 1) {
+				Object e = this.elements.get(index);
+				if (e != null && e != REMOVED && o.equals(e) && this.elements.compareAndSet(index, e, REMOVED)) {
+					this.removed.incrementAndGet();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		long size = this.tail.get() - this.head.get() - this.removed.get();
+		return (int) Math.max(0, Math.min(size, this.capacity));
+	}
+
+	@Override
+	public int remainingCapacity() {
+		// removed elements keep their slot until consumers reach it
+		long used = this.tail.get() - this.head.get();
+		return (int) Math.max(0, this.capacity - used);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		Assert.notNull(c, "'c' must not be null");
+		Assert.isTrue(c != this, "cannot drain to itself");
+		int drained = 0;
+		E e;
+		while (drained < maxElements && (e = poll()) != null) {
+			c.add(e);
+			drained++;
+		}
+		return drained;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Iterator<E> iterator() {
+		List<E> snapshot = new ArrayList<>(size());
+		long position = this.head.get();
+		long end = this.tail.get();
+		for (; position < end; position++) {
+			int index = index(position);
+			if (this.sequences.get(index) == position + 1) {
+				Object e = this.elements.get(index);
+				if (e != null && e != REMOVED) {
+					snapshot.add((E) e);
+				}
+			}
+		}
+		Iterator<E> iterator = snapshot.iterator();
+		return new Iterator<E>() {
+
+			private E last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public E next() {
+				this.last = iterator.next();
+				return this.last;
+			}
+
+			@Override
+			public void remove() {
+				Assert.state(this.last != null, "next() has not been called");
+				MpmcArrayBlockingQueue.this.remove(this.last);
+				this.last = null;
+			}
+
+		};
+	}
+
+	private Object dequeue() {
+		long position = this.head.get();
+		while (true) {
+			int index = index(position);
+			long diff = this.sequences.get(index) - (position + 1);
+			if (diff == 0) {
+				if (this.head.compareAndSet(position, position + 1)) {
+					Object e = this.elements.getAndSet(index, null);
+					this.sequences.set(index, position + this.ringSize);
+					return e;
+				}
+			}
+			else if (diff < 0) {
+				return null;
+			}
+			position = this.head.get();
+		}
+	}
+
+	private int index(long position) {
+		return (int) (this.mask >= 0 ? position & this.mask : position % this.ringSize);
+	}
+
+	private void await(boolean consumer, long nanos, int attempt) throws InterruptedException {
+		switch (this.waitStrategy) {
+			case SPIN:
+				break;
+			case YIELD:
+				Thread.yield();
+				break;
+			case PARK:
+				// exponential backoff, so that long waits don't wake the thread up every few microseconds
+				LockSupport.parkNanos(this, Math.min(nanos, Math.min(MIN_PARK_NANOS << Math.min(attempt, 7),
+						MAX_PARK_NANOS)));
+				break;
+			default:
+				block(consumer, nanos);
+		}
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+	}
+
+	private void block(boolean consumer, long nanos) throws InterruptedException {
+		AtomicInteger waiting = consumer ? this.waitingConsumers : this.waitingProducers;
+		waiting.incrementAndGet();
+		try {
+			this.lock.lockInterruptibly();
+			try {
+				// re-check under the lock: the opposite side signals only after seeing us waiting
+				long size = this.tail.get() - this.head.get();
+				if (consumer ? size == 0 : size >= this.capacity) {
+					(consumer ? this.notEmpty : this.notFull).awaitNanos(nanos);
+				}
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+		finally {
+			waiting.decrementAndGet();
+		}
+	}
+
+	private void signal(Condition condition, AtomicInteger waiting) {
+		if (this.waitStrategy == WaitStrategy.BLOCK && waiting.get() > 0) {
+			this.lock.lock();
+			try {
+				condition.signal();
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * What a thread does while waiting for space (or an element) in the blocking operations.
+	 */
+	public enum WaitStrategy {
+
+		/**
+		 * Busy spin; lowest latency, burns a CPU core per waiting thread.
+		 */
+		SPIN,
+
+		/**
+		 * {@link Thread#yield()} between the attempts.
+		 */
+		YIELD,
+
+		/**
+		 * {@link LockSupport#parkNanos(Object, long)} between the attempts, for a period
+		 * doubling from 10 microseconds up to 1 millisecond while the wait lasts; use
+		 * {@link #BLOCK} for threads that are expected to wait for long.
+		 */
+		PARK,
+
+		/**
+		 * Block on a condition until the opposite side signals; producers and consumers
+		 * take the lock only when somebody is actually waiting.
+		 */
+		BLOCK
+
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * A thread-per-task {@link SimpleAsyncTaskExecutor} that runs each task on a new
+ * virtual thread when the JVM supports them (Java 21 and later), and on a new
+ * platform thread otherwise.
+ * <p>
+ * Virtual threads are cheap to create and to block, so this executor suits endpoints
+ * that spend most of their time blocked in a receive or a socket read: pollers with a
+ * long {@code receiveTimeout}, {@code ExecutorChannel} subscribers, TCP connection
+ * readers, and so on. Thousands of such endpoints can run concurrently without a
+ * correspondingly sized thread pool.
+ * <p>
+ * The JDK API is looked up reflectively, so this class can be used, and falls back
+ * to platform threads, on older JVMs.
+ *
+ * @since 5.1
+ */
+@SuppressWarnings("serial")
+public class VirtualThreadTaskExecutor extends SimpleAsyncTaskExecutor {
+
+	private final boolean virtual;
+
+	/**
+	 * Create an executor whose threads are named {@code virtual-<n>}.
+	 */
+	public VirtualThreadTaskExecutor() {
+		this("virtual-");
+	}
+
+	/**
+	 * Create an executor with the provided thread name prefix.
+	 * @param threadNamePrefix the thread name prefix.
+	 */
+	public VirtualThreadTaskExecutor(String threadNamePrefix) {
+		super(threadNamePrefix);
+		ThreadFactory virtualThreadFactory = virtualThreadFactory(threadNamePrefix);
+		this.virtual = virtualThreadFactory != null;
+		if (this.virtual) {
+			setThreadFactory(virtualThreadFactory);
+		}
+	}
+
+	/**
+	 * Return true if the tasks run on virtual threads, false if this JVM does not
+	 * support them and platform threads are used instead.
+	 * @return true for virtual threads.
+	 */
+	public boolean isVirtual() {
+		return this.virtual;
+	}
+
+	private static ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+		Method ofVirtual = ReflectionUtils.findMethod(Thread.class, "ofVirtual");
+		if (ofVirtual == null) {
+			return null;
+		}
+		try {
+			Class<?> builderType = ClassUtils.forName("java.lang.Thread$Builder",
+					VirtualThreadTaskExecutor.class.getClassLoader());
+			Object builder = ofVirtual.invoke(null);
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 1L);
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		}
+		catch (Exception e) {
+			// e.g. virtual threads are a preview feature that is not enabled
+			return null;
+		}
+	}
+
+}
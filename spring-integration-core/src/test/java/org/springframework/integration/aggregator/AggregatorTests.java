@@ -17,19 +17,31 @@
 package org.springframework.integration.aggregator;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
@@ -41,6 +53,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.handler.AbstractMessageHandler;
@@ -52,6 +65,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.StopWatch;
 
@@ -264,6 +278,190 @@ public class AggregatorTests {
 		assertEquals(reply.getPayload(), 105);
 	}
 
+	@Test
+	public void testIncrementalAggregation() {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(),
+				this.store);
+		handler.setIncrementalAggregator(IncrementalAggregator.of(() -> 0,
+				(sum, message) -> sum + (Integer) message.getPayload(), sum -> sum));
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+
+		QueueChannel replyChannel = new QueueChannel();
+		handler.handleMessage(createMessage(3, "ABC", 3, 1, replyChannel, null));
+		handler.handleMessage(createMessage(5, "ABC", 3, 2, replyChannel, null));
+
+		MessageGroup group = this.store.getMessageGroup("ABC");
+		assertEquals(1, group.size());
+		assertEquals(8, group.getOne().getPayload());
+		assertEquals(2, group.getOne().getHeaders().get(IncrementalAggregatingMessageGroupProcessor.MESSAGE_COUNT));
+		assertNull(replyChannel.receive(0));
+
+		handler.handleMessage(createMessage(7, "ABC", 3, 3, replyChannel, null));
+
+		Message<?> reply = replyChannel.receive(10000);
+		assertNotNull(reply);
+		assertEquals(15, reply.getPayload());
+		assertEquals("ABC", new IntegrationMessageHeaderAccessor(reply).getCorrelationId());
+		assertFalse(reply.getHeaders().containsKey(IncrementalAggregatingMessageGroupProcessor.MESSAGE_COUNT));
+		assertEquals(0, this.store.getMessageGroup("ABC").size());
+	}
+
+	@Test
+	public void testIncrementalAggregationWithCustomReleaseStrategy() {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(),
+				this.store);
+		handler.setCorrelationStrategy(message -> "foo");
+		handler.setReleaseStrategy(new MessageCountReleaseStrategy(1000));
+		handler.setIncrementalAggregator(new IncrementalAggregator<List<Integer>>() {
+
+			@Override
+			public List<Integer> createState() {
+				return new ArrayList<>();
+			}
+
+			@Override
+			public List<Integer> accumulate(List<Integer> top, Message<?> message) {
+				top.add((Integer) message.getPayload());
+				top.sort(Collections.reverseOrder());
+				return top.size() > 3 ? new ArrayList<>(top.subList(0, 3)) : top;
+			}
+
+			@Override
+			public Object release(List<Integer> top) {
+				return top;
+			}
+
+		});
+		handler.setExpireGroupsUponCompletion(true);
+		QueueChannel outputChannel = new QueueChannel();
+		handler.setOutputChannel(outputChannel);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+
+		for (int i = 0; i < 1000; i++) {
+			handler.handleMessage(new GenericMessage<>((i * 7) % 1000));
+			if (i < 999) {
+				assertEquals(1, this.store.getMessageGroup("foo").getMessages().size());
+			}
+		}
+
+		Message<?> reply = outputChannel.receive(10000);
+		assertNotNull(reply);
+		assertEquals(Arrays.asList(999, 998, 997), reply.getPayload());
+		assertEquals(0, this.store.getMessageGroupCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testIncrementalAggregationNotSupportedWithSequenceSizeReleaseStrategy() {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor());
+		handler.setReleaseStrategy(new SequenceSizeReleaseStrategy());
+		handler.setIncrementalAggregator(IncrementalAggregator.of(() -> 0, (count, message) -> count + 1, c -> c));
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+	}
+
+	@Test
+	public void testPartitionedAggregation() throws Exception {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(new MultiplyingProcessor(), this.store);
+		handler.setPartitions(4);
+		handler.setBeanName("partitionedAggregator");
+		handler.setExpireGroupsUponCompletion(true);
+		DirectChannel outputChannel = new DirectChannel();
+		handler.setOutputChannel(outputChannel);
+		Map<Object, String> results = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(8);
+		outputChannel.subscribe(message -> {
+			results.put(message.getPayload(), Thread.currentThread().getName());
+			latch.countDown();
+		});
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+
+		for (int i = 1; i <= 3; i++) {
+			for (int group = 0; group < 8; group++) {
+				handler.handleMessage(createMessage(group + i, group, 3, i, null, null));
+			}
+		}
+
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals(8, results.size());
+		for (int group = 0; group < 8; group++) {
+			int product = (group + 1) * (group + 2) * (group + 3);
+			assertThat(results.get(product), startsWith("partitionedAggregator-partition-"));
+		}
+		assertEquals(0, this.store.getMessageGroupCount());
+		handler.destroy();
+	}
+
+	@Test
+	public void testPartitionsProcessQueuedMessagesOnStop() throws Exception {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(new MultiplyingProcessor(), this.store);
+		handler.setPartitions(1);
+		handler.setExpireGroupsUponCompletion(true);
+		QueueChannel outputChannel = new QueueChannel();
+		handler.setOutputChannel(outputChannel);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		handler.start();
+
+		for (int group = 0; group < 100; group++) {
+			handler.handleMessage(createMessage(group, group, 1, 1, null, null));
+		}
+		handler.stop();
+		assertEquals(100, outputChannel.clear().size());
+		try {
+			handler.handleMessage(createMessage(1, "late", 1, 1, null, null));
+			fail("MessageHandlingException expected");
+		}
+		catch (MessageHandlingException e) {
+			assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+		}
+
+		handler.start();
+		handler.handleMessage(createMessage(2, "restarted", 1, 1, null, null));
+		Message<?> result = outputChannel.receive(10000);
+		assertNotNull(result);
+		assertEquals(2, result.getPayload());
+		handler.destroy();
+	}
+
+	@Test
+	public void testPartitionsShutdownTimeoutSendsQueuedMessagesToErrorChannel() throws Exception {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(new MultiplyingProcessor(), this.store);
+		handler.setPartitions(1);
+		handler.setPartitionsShutdownTimeout(100);
+		DirectChannel outputChannel = new DirectChannel();
+		CountDownLatch release = new CountDownLatch(1);
+		outputChannel.subscribe(message -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		handler.setOutputChannel(outputChannel);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+
+		QueueChannel errorChannel = new QueueChannel();
+		for (int group = 0; group < 3; group++) {
+			handler.handleMessage(MessageBuilder.fromMessage(createMessage(group, group, 1, 1, null, null))
+					.setErrorChannel(errorChannel)
+					.build());
+		}
+		handler.destroy();
+		release.countDown();
+
+		// the partition is blocked on the first message, the others are still queued
+		for (int i = 0; i < 2; i++) {
+			Message<?> error = errorChannel.receive(10000);
+			assertNotNull(error);
+			assertThat(((MessagingException) error.getPayload()).getMessage(), containsString("not aggregated"));
+		}
+	}
+
 	@Test
 	public void testShouldNotSendPartialResultOnTimeoutByDefault() throws InterruptedException {
 		QueueChannel discardChannel = new QueueChannel();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -404,6 +404,71 @@ public class ResequencerTests {
 		assertNotNull(out3);
 	}
 
+	@Test
+	public void testSequenceWindow() {
+		this.resequencer = new ResequencingMessageHandler(processor, store, null, null);
+		this.resequencer.setSequenceWindowSize(4);
+		QueueChannel replyChannel = new QueueChannel();
+		this.resequencer.setOutputChannel(replyChannel);
+		QueueChannel discardChannel = new QueueChannel();
+		this.resequencer.setDiscardChannel(discardChannel);
+		this.resequencer.setBeanFactory(mock(BeanFactory.class));
+		this.resequencer.afterPropertiesSet();
+
+		this.resequencer.handleMessage(createMessage("3", "ABC", 0, 3, null));
+		this.resequencer.handleMessage(createMessage("2", "ABC", 0, 2, null));
+		assertNull(replyChannel.receive(0));
+		this.resequencer.handleMessage(createMessage("1", "ABC", 0, 1, null));
+		assertEquals("1", replyChannel.receive(0).getPayload());
+		assertEquals("2", replyChannel.receive(0).getPayload());
+		assertEquals("3", replyChannel.receive(0).getPayload());
+		assertNull(replyChannel.receive(0));
+
+		// 4 is missing; 9 slides the window to start at 6, releasing 5
+		this.resequencer.handleMessage(createMessage("5", "ABC", 0, 5, null));
+		this.resequencer.handleMessage(createMessage("9", "ABC", 0, 9, null));
+		assertEquals("5", replyChannel.receive(0).getPayload());
+		assertNull(replyChannel.receive(0));
+		assertEquals(1, this.store.getMessageGroup("ABC").size());
+
+		// 4 is now late, 9 is a duplicate
+		this.resequencer.handleMessage(createMessage("4", "ABC", 0, 4, null));
+		this.resequencer.handleMessage(createMessage("9", "ABC", 0, 9, null));
+		assertEquals("4", discardChannel.receive(0).getPayload());
+		assertEquals("9", discardChannel.receive(0).getPayload());
+
+		this.resequencer.handleMessage(createMessage("7", "ABC", 0, 7, null));
+		this.resequencer.handleMessage(createMessage("8", "ABC", 0, 8, null));
+		assertNull(replyChannel.receive(0));
+		this.resequencer.handleMessage(createMessage("6", "ABC", 0, 6, null));
+		assertEquals("6", replyChannel.receive(0).getPayload());
+		assertEquals("7", replyChannel.receive(0).getPayload());
+		assertEquals("8", replyChannel.receive(0).getPayload());
+		assertEquals("9", replyChannel.receive(0).getPayload());
+		assertNull(replyChannel.receive(0));
+		assertEquals(0, this.store.getMessageGroup("ABC").size());
+		assertEquals(9, this.store.getMessageGroup("ABC").getLastReleasedMessageSequenceNumber());
+	}
+
+	@Test
+	public void testSequenceWindowRemovesCompletedGroup() {
+		this.resequencer = new ResequencingMessageHandler(processor, store, null, null);
+		this.resequencer.setSequenceWindowSize(16);
+		QueueChannel replyChannel = new QueueChannel();
+		this.resequencer.setOutputChannel(replyChannel);
+		this.resequencer.setBeanFactory(mock(BeanFactory.class));
+		this.resequencer.afterPropertiesSet();
+
+		this.resequencer.handleMessage(createMessage("2", "ABC", 3, 2, null));
+		this.resequencer.handleMessage(createMessage("1", "ABC", 3, 1, null));
+		assertNotNull(replyChannel.receive(0));
+		assertNotNull(replyChannel.receive(0));
+		assertEquals(1, this.store.getMessageGroupCount());
+		this.resequencer.handleMessage(createMessage("3", "ABC", 3, 3, null));
+		assertEquals("3", replyChannel.receive(0).getPayload());
+		assertEquals(0, this.store.getMessageGroupCount());
+	}
+
 	private static Message<?> createMessage(String payload, Object correlationId, int sequenceSize, int sequenceNumber,
 			MessageChannel replyChannel) {
 		return MessageBuilder.withPayload(payload).setCorrelationId(correlationId).setSequenceSize(sequenceSize)
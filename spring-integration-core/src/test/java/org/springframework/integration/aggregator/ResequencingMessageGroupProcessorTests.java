@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.integration.aggregator;
 
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
@@ -70,4 +71,41 @@ public class ResequencingMessageGroupProcessorTests {
 		assertThat(processedMessages.size(), is(1));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldProcessSortedContiguousSequenceFromLowest() {
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		for (int sequenceNumber : new int[] { 7, 5, 3, 4 }) {
+			messages.add(MessageBuilder.withPayload(sequenceNumber)
+					.setCorrelationId("x")
+					.setSequenceNumber(sequenceNumber)
+					.setSequenceSize(7)
+					.build());
+		}
+		SimpleMessageGroup group = new SimpleMessageGroup(messages, "x");
+		List<Message<?>> processedMessages = (List<Message<?>>) processor.processMessageGroup(group);
+		assertThat(processedMessages.size(), is(3));
+		assertEquals(3, processedMessages.get(0).getPayload());
+		assertEquals(4, processedMessages.get(1).getPayload());
+		assertEquals(5, processedMessages.get(2).getPayload());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldProcessHighSequenceNumbers() {
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		int base = Integer.MAX_VALUE - 10;
+		for (int sequenceNumber : new int[] { base + 2, base, base + 1, base + 1, base + 9 }) {
+			messages.add(MessageBuilder.withPayload(sequenceNumber)
+					.setCorrelationId("x")
+					.setSequenceNumber(sequenceNumber)
+					.build());
+		}
+		SimpleMessageGroup group = new SimpleMessageGroup(messages, "x");
+		List<Message<?>> processedMessages = (List<Message<?>>) processor.processMessageGroup(group);
+		assertThat(processedMessages.size(), is(4));
+		assertEquals(base, processedMessages.get(0).getPayload());
+		assertEquals(base + 2, processedMessages.get(3).getPayload());
+	}
+
 }
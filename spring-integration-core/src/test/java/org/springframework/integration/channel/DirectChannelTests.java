@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.integration.channel;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.spy;
@@ -27,6 +29,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -41,10 +44,12 @@ import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.integration.dispatcher.RoundRobinLoadBalancingStrategy;
 import org.springframework.integration.dispatcher.UnicastingDispatcher;
 import org.springframework.integration.endpoint.EventDrivenConsumer;
+import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.ReflectionUtils;
 
@@ -79,6 +84,50 @@ public class DirectChannelTests {
 		assertThat(logs.get(1), startsWith("postSend"));
 	}
 
+	@Test
+	public void testSendPlanFollowsConfigurationChanges() {
+		DirectChannel channel = new DirectChannel();
+		channel.setBeanName("planChannel");
+		List<Message<?>> received = new ArrayList<>();
+		channel.subscribe(received::add);
+		assertTrue(channel.send(new GenericMessage<>("plain")));
+
+		List<String> calls = new ArrayList<>();
+		ChannelInterceptor interceptor = new ChannelInterceptor() {
+
+			@Override
+			public Message<?> preSend(Message<?> message, MessageChannel channel) {
+				calls.add("preSend");
+				return message;
+			}
+
+			@Override
+			public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent,
+					Exception ex) {
+
+				calls.add("afterSendCompletion");
+			}
+
+		};
+		channel.addInterceptor(interceptor);
+		assertTrue(channel.send(new GenericMessage<>("intercepted")));
+		assertEquals(2, calls.size());
+		assertEquals("afterSendCompletion", calls.get(1));
+
+		channel.removeInterceptor(interceptor);
+		channel.setShouldTrack(true);
+		assertTrue(channel.send(new GenericMessage<>("tracked")));
+		assertEquals(2, calls.size());
+
+		channel.setShouldTrack(false);
+		assertTrue(channel.send(new GenericMessage<>("untracked")));
+
+		assertEquals(4, received.size());
+		assertNull(MessageHistory.read(received.get(1)));
+		assertNotNull(MessageHistory.read(received.get(2)));
+		assertNull(MessageHistory.read(received.get(3)));
+	}
+
 	@Test
 	public void testSendPerfOneHandler() {
 		/*
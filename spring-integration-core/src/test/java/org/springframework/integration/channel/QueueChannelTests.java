@@ -27,14 +27,19 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import org.springframework.integration.selector.UnexpiredMessageSelector;
+import org.springframework.integration.store.MessageGroupQueue;
+import org.springframework.integration.store.SimpleMessageStore;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.GenericMessage;
 
 /**
@@ -224,6 +229,36 @@ public class QueueChannelTests {
 		assertTrue(channel.send(new GenericMessage<String>("roomAvailable"), 0));
 	}
 
+	@Test
+	public void testReceiveAvailable() {
+		QueueChannel channel = new QueueChannel(new MessageGroupQueue(new SimpleMessageStore(), "foo"));
+		channel.setCountsEnabled(true);
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<>(i));
+		}
+		List<Message<?>> messages = channel.receiveAvailable(3);
+		assertEquals(3, messages.size());
+		assertEquals(0, messages.get(0).getPayload());
+		assertEquals(2, messages.get(2).getPayload());
+		assertEquals(3, channel.getReceiveCount());
+
+		AtomicInteger intercepted = new AtomicInteger();
+		channel.addInterceptor(new ChannelInterceptor() {
+
+			@Override
+			public Message<?> postReceive(Message<?> message, MessageChannel channel) {
+				intercepted.incrementAndGet();
+				return message;
+			}
+
+		});
+		messages = channel.receiveAvailable(3);
+		assertEquals(2, messages.size());
+		assertEquals(4, messages.get(1).getPayload());
+		assertEquals(2, intercepted.get());
+		assertEquals(0, channel.receiveAvailable(3).size());
+	}
+
 	@Rule
 	public final TemporaryFolder tempFolder = new TemporaryFolder();
 
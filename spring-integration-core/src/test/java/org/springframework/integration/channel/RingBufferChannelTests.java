@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.handler.BatchMessageHandler;
+import org.springframework.integration.handler.EndOfBatchListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.1
+ */
+public class RingBufferChannelTests {
+
+	@Test
+	public void testBatchesAreDispatchedInOrderWithEndOfBatchSignals() throws Exception {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ring-");
+		RingBufferChannel channel = new RingBufferChannel(executor, 32);
+		channel.setMaxBatchSize(10);
+		BatchRecordingHandler handler = new BatchRecordingHandler(25);
+		channel.subscribe(handler);
+		for (int i = 0; i < 25; i++) {
+			assertThat(channel.send(new GenericMessage<>(i))).isTrue();
+		}
+		assertThat(channel.getQueueSize()).isEqualTo(25);
+		assertThat(channel.getRemainingCapacity()).isEqualTo(7);
+		channel.start();
+		assertThat(handler.latch.await(10, TimeUnit.SECONDS)).isTrue();
+		channel.stop();
+		assertThat(handler.payloads).hasSize(25);
+		for (int i = 0; i < 25; i++) {
+			assertThat(handler.payloads.get(i)).isEqualTo(i);
+		}
+		assertThat(handler.batchSizes).containsExactly(10, 10, 5);
+		assertThat(handler.thread.getName()).startsWith("ring-");
+		assertThat(channel.getQueueSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void testBatchDispatchWithBatchTimeout() throws Exception {
+		RingBufferChannel channel = new RingBufferChannel(new SimpleAsyncTaskExecutor());
+		channel.setMaxBatchSize(5);
+		channel.setBatchTimeout(10000);
+		channel.setBatchDispatch(true);
+		List<List<Object>> batches = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		channel.subscribe(new BatchMessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) {
+				throw new IllegalStateException("batch expected");
+			}
+
+			@Override
+			public void handleMessages(List<Message<?>> messages) {
+				batches.add(messages.stream().map(Message::getPayload).collect(Collectors.toList()));
+				latch.countDown();
+			}
+
+		});
+		channel.start();
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<>(i));
+			Thread.sleep(10);
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		channel.stop();
+		assertThat(batches).hasSize(1);
+		assertThat(batches.get(0)).containsExactly(0, 1, 2, 3, 4);
+	}
+
+	@Test
+	public void testStopLeavesMessagesInTheBuffer() throws Exception {
+		RingBufferChannel channel = new RingBufferChannel(new SimpleAsyncTaskExecutor());
+		BatchRecordingHandler handler = new BatchRecordingHandler(1);
+		channel.subscribe(handler);
+		channel.start();
+		assertThat(channel.isRunning()).isTrue();
+		channel.stop();
+		assertThat(channel.isRunning()).isFalse();
+		channel.send(new GenericMessage<>("foo"));
+		assertThat(channel.getQueueSize()).isEqualTo(1);
+		assertThat(handler.payloads).isEmpty();
+		channel.start();
+		assertThat(handler.latch.await(10, TimeUnit.SECONDS)).isTrue();
+		channel.stop();
+		assertThat(handler.payloads).containsExactly("foo");
+		assertThat(handler.batchSizes).containsExactly(1);
+	}
+
+	@Test
+	public void testSendTimesOutWhenBufferIsFull() {
+		RingBufferChannel channel = new RingBufferChannel(new SimpleAsyncTaskExecutor(), 2);
+		assertThat(channel.send(new GenericMessage<>("foo"), 0)).isTrue();
+		assertThat(channel.send(new GenericMessage<>("bar"), 0)).isTrue();
+		assertThat(channel.send(new GenericMessage<>("baz"), 10)).isFalse();
+	}
+
+	@Test
+	public void testHandlerExceptionGoesToErrorHandler() throws Exception {
+		RingBufferChannel channel = new RingBufferChannel(new SimpleAsyncTaskExecutor());
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		channel.setErrorHandler(t -> {
+			error.set(t);
+			latch.countDown();
+		});
+		channel.subscribe(message -> {
+			throw new IllegalStateException("planned");
+		});
+		channel.start();
+		channel.send(new GenericMessage<>("foo"));
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		channel.stop();
+		assertThat(error.get().getCause()).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void testPartialBatchIsDispatchedWhenInterrupted() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		RingBufferChannel channel = new RingBufferChannel(executor);
+		channel.setMaxBatchSize(10);
+		channel.setBatchTimeout(60000);
+		BatchRecordingHandler handler = new BatchRecordingHandler(3);
+		channel.subscribe(handler);
+		channel.start();
+		for (int i = 0; i < 3; i++) {
+			channel.send(new GenericMessage<>(i));
+		}
+		Thread.sleep(100);
+		executor.shutdownNow();
+		assertThat(handler.latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(handler.payloads).containsExactly(0, 1, 2);
+		assertThat(handler.batchSizes).containsExactly(3);
+		assertThat(channel.getQueueSize()).isEqualTo(0);
+		channel.stop();
+	}
+
+	@Test
+	public void testFailingErrorHandlerDoesNotStopConsumer() throws Exception {
+		RingBufferChannel channel = new RingBufferChannel(new SimpleAsyncTaskExecutor());
+		CountDownLatch latch = new CountDownLatch(2);
+		channel.setErrorHandler(t -> {
+			latch.countDown();
+			throw new IllegalStateException("error handler failed");
+		});
+		channel.subscribe(message -> {
+			throw new IllegalStateException("planned");
+		});
+		channel.start();
+		channel.send(new GenericMessage<>("foo"));
+		channel.send(new GenericMessage<>("bar"));
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		channel.stop();
+	}
+
+	@Test
+	public void testExecutorInterceptorRunsOnConsumerThread() throws Exception {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ring-");
+		RingBufferChannel channel = new RingBufferChannel(executor);
+		AtomicReference<Thread> interceptorThread = new AtomicReference<>();
+		channel.addInterceptor(new ExecutorChannelInterceptor() {
+
+			@Override
+			public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+				interceptorThread.set(Thread.currentThread());
+				return new GenericMessage<>("intercepted");
+			}
+
+		});
+		BatchRecordingHandler handler = new BatchRecordingHandler(1);
+		channel.subscribe(handler);
+		channel.start();
+		channel.send(new GenericMessage<>("foo"));
+		assertThat(handler.latch.await(10, TimeUnit.SECONDS)).isTrue();
+		channel.stop();
+		assertThat(handler.payloads).containsExactly("intercepted");
+		assertThat(interceptorThread.get()).isSameAs(handler.thread);
+	}
+
+	private static class BatchRecordingHandler implements MessageHandler, EndOfBatchListener {
+
+		private final List<Object> payloads = new ArrayList<>();
+
+		private final List<Integer> batchSizes = new ArrayList<>();
+
+		private final CountDownLatch latch;
+
+		private volatile Thread thread;
+
+		private int currentBatch;
+
+		BatchRecordingHandler(int expected) {
+			this.latch = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void handleMessage(Message<?> message) {
+			this.thread = Thread.currentThread();
+			this.payloads.add(message.getPayload());
+			this.currentBatch++;
+			this.latch.countDown();
+		}
+
+		@Override
+		public void onEndOfBatch() {
+			if (this.currentBatch > 0) {
+				this.batchSizes.add(this.currentBatch);
+				this.currentBatch = 0;
+			}
+		}
+
+	}
+
+}
@@ -49,6 +49,7 @@ import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.support.converter.DefaultDatatypeChannelMessageConverter;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.integration.util.ErrorHandlingTaskExecutor;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageDeliveryException;
@@ -94,6 +95,20 @@ public class ChannelParserTests {
 		assertFalse(channel.send(new GenericMessage<String>("test"), 3));
 	}
 
+	@Test
+	public void testChannelWithWaitStrategy() {
+		QueueChannel channel = context.getBean("lockFreeChannel", QueueChannel.class);
+		MpmcArrayBlockingQueue<?> queue = TestUtils.getPropertyValue(channel, "queue", MpmcArrayBlockingQueue.class);
+		assertEquals(MpmcArrayBlockingQueue.WaitStrategy.BLOCK, queue.getWaitStrategy());
+		for (int i = 0; i < 10; i++) {
+			assertTrue(channel.send(new GenericMessage<>("test"), 10));
+		}
+		assertFalse(channel.send(new GenericMessage<>("test"), 3));
+		assertEquals(10, channel.getQueueSize());
+		assertEquals(0, channel.getRemainingCapacity());
+		assertEquals(10, channel.clear().size());
+	}
+
 	@Test
 	public void testDirectChannelByDefault() throws InterruptedException {
 		MessageChannel channel = (MessageChannel) context.getBean("defaultChannel");
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.codec.MessageStoreCodec.Format;
+import org.springframework.integration.store.MessageHolder;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.1
+ */
+public class MessageStoreCodecTests {
+
+	@Test
+	public void testRoundTripInEachFormat() throws Exception {
+		for (Format format : Format.values()) {
+			MessageStoreCodec codec = new MessageStoreCodec(format);
+			Message<?> message = testMessage();
+			Message<?> decoded = (Message<?>) codec.decode(codec.encode(message));
+			assertThat(decoded).as(format.name()).isInstanceOf(GenericMessage.class);
+			assertThat(decoded.getPayload()).as(format.name()).isEqualTo(message.getPayload());
+			assertThat(decoded.getHeaders().getId()).as(format.name()).isEqualTo(message.getHeaders().getId());
+			assertThat(decoded.getHeaders().getTimestamp()).as(format.name())
+					.isEqualTo(message.getHeaders().getTimestamp());
+			assertThat(decoded.getHeaders().getReplyChannel()).as(format.name()).isNull();
+			Map<String, Object> expectedHeaders = new HashMap<>(message.getHeaders());
+			expectedHeaders.remove(MessageHeaders.REPLY_CHANNEL);
+			assertThat(new HashMap<>(decoded.getHeaders())).as(format.name()).isEqualTo(expectedHeaders);
+		}
+	}
+
+	@Test
+	public void testReadAnyFormat() throws Exception {
+		Message<?> message = testMessage();
+		List<byte[]> encoded = new ArrayList<>();
+		encoded.add(new SerializingConverter().convert(message));
+		for (Format format : Format.values()) {
+			encoded.add(new MessageStoreCodec(format).encode(message));
+		}
+		for (Format format : Format.values()) {
+			MessageStoreCodec codec = new MessageStoreCodec(format);
+			for (byte[] bytes : encoded) {
+				Message<?> decoded = (Message<?>) codec.decode(bytes);
+				assertThat(decoded.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+				assertThat(decoded.getPayload()).isEqualTo(message.getPayload());
+			}
+		}
+	}
+
+	@Test
+	public void testOtherStoredObjects() throws Exception {
+		for (Format format : Format.values()) {
+			MessageStoreCodec codec = new MessageStoreCodec(format);
+
+			MessageHolder holder = new MessageHolder(new MutableMessage<>("foo"));
+			holder.setTimestamp(42L);
+			MessageHolder decodedHolder = (MessageHolder) codec.decode(codec.encode(holder));
+			assertThat(decodedHolder.getMessage()).as(format.name()).isInstanceOf(MutableMessage.class);
+			assertThat(decodedHolder.getMessage().getHeaders().getId()).as(format.name())
+					.isEqualTo(holder.getMessage().getHeaders().getId());
+			assertThat(decodedHolder.getMessageMetadata().getTimestamp()).as(format.name()).isEqualTo(42L);
+
+			ErrorMessage errorMessage = new ErrorMessage(new RuntimeException("foo"));
+			ErrorMessage decodedError = (ErrorMessage) codec.decode(codec.encode(errorMessage));
+			assertThat(decodedError.getHeaders().getId()).as(format.name())
+					.isEqualTo(errorMessage.getHeaders().getId());
+			assertThat(decodedError.getPayload().getMessage()).as(format.name()).isEqualTo("foo");
+
+			List<UUID> ids = new ArrayList<>(Arrays.asList(UUID.randomUUID(), UUID.randomUUID()));
+			assertThat(codec.decode(codec.encode(ids))).as(format.name()).isEqualTo(ids);
+		}
+	}
+
+	@Test
+	public void testCompactIsSmaller() throws Exception {
+		Message<?> message = testMessage();
+		int java = new MessageStoreCodec(Format.JAVA).encode(message).length;
+		assertThat(new MessageStoreCodec(Format.COMPACT).encode(message).length).isLessThan(java / 2);
+		assertThat(new MessageStoreCodec(Format.KRYO).encode(message).length).isLessThan(java / 2);
+	}
+
+	private static Message<?> testMessage() {
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("name", "foo");
+		payload.put("count", 42);
+		payload.put("amount", 12.5d);
+		payload.put("tags", new ArrayList<>(Arrays.asList("bar", "baz")));
+		payload.put("date", new Date(1234567890L));
+		return MessageBuilder.withPayload(payload)
+				.setCorrelationId(UUID.randomUUID())
+				.setSequenceNumber(3)
+				.setSequenceSize(10)
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+				.setHeader("customer", "someCustomer")
+				.setHeader("attempt", 1L)
+				.setReplyChannel(new QueueChannel())
+				.build();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,26 @@
 
 package org.springframework.integration.codec.kryo;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -124,6 +135,77 @@ public class KryoCodecTests {
 		assertEquals(2, foo2.get("two"));
 	}
 
+	@Test
+	public void testByteBufferSerialization() throws IOException {
+		PojoCodec codec = new PojoCodec();
+		SomeClassWithNoDefaultConstructors foo = new SomeClassWithNoDefaultConstructors("foo", 123);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+		buffer.put((byte) 42);
+		codec.encode(foo, buffer);
+		int afterFirst = buffer.position();
+		codec.encode("hello", buffer);
+		assertArrayEquals(codec.encode(foo), bytesOf(buffer, 1, afterFirst));
+
+		buffer.flip();
+		assertEquals(42, buffer.get());
+		assertEquals(foo, codec.decode(buffer, SomeClassWithNoDefaultConstructors.class));
+		assertEquals(afterFirst, buffer.position());
+		assertEquals("hello", codec.decode(buffer, String.class));
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void testByteBufferOverflow() throws IOException {
+		PojoCodec codec = new PojoCodec();
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.put((byte) 42);
+		try {
+			codec.encode("a string longer than the buffer", buffer);
+			fail("Expected BufferOverflowException");
+		}
+		catch (BufferOverflowException e) {
+			assertEquals(1, buffer.position());
+		}
+	}
+
+	@Test
+	public void testPooledBuffersConcurrently() throws Exception {
+		PojoCodec codec = new PojoCodec();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			int thread = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 1000; i++) {
+					Map<String, Integer> map = new HashMap<>();
+					map.put("thread", thread);
+					map.put("i", i);
+					StringBuilder large = new StringBuilder();
+					for (int j = 0; j < i % 10 * 1000; j++) {
+						large.append('x');
+					}
+					ByteArrayOutputStream bos = new ByteArrayOutputStream();
+					codec.encode(map, bos);
+					assertEquals(map, codec.decode(new ByteArrayInputStream(bos.toByteArray()), HashMap.class));
+					assertEquals(large.toString(), codec.decode(codec.encode(large.toString()), String.class));
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+	}
+
+	private static byte[] bytesOf(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int i = from; i < to; i++) {
+			bytes[i - from] = buffer.get(i);
+		}
+		return bytes;
+	}
+
 	static class SomeClassWithNoDefaultConstructors {
 
 		private String val1;
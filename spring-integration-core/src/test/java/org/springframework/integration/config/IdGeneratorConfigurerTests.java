@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.UUID;
@@ -32,6 +33,7 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.integration.support.IdGenerators.JdkIdGenerator;
 import org.springframework.integration.support.IdGenerators.SimpleIncrementingIdGenerator;
+import org.springframework.integration.support.IdGenerators.TimeOrderedIdGenerator;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.IdGenerator;
@@ -204,6 +206,30 @@ public class IdGeneratorConfigurerTests {
 		context.close();
 	}
 
+	@Test
+	public void testTimeOrdered() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("bfpp", new RootBeanDefinition(DefaultConfiguringBeanFactoryPostProcessor.class));
+		RootBeanDefinition generator = new RootBeanDefinition(TimeOrderedIdGenerator.class);
+		generator.getConstructorArgumentValues().addGenericArgumentValue(42L);
+		context.registerBeanDefinition("foo", generator);
+		context.refresh();
+		long before = System.currentTimeMillis();
+		UUID previous = new MessageHeaders(null).getId();
+		assertEquals(7, previous.version());
+		assertEquals(2, previous.variant());
+		assertEquals(42, previous.getLeastSignificantBits() & 0x3fffffffffffffffL);
+		assertTrue((previous.getMostSignificantBits() >>> 16) >= before);
+		for (int i = 0; i < 10000; i++) {
+			UUID id = new MessageHeaders(null).getId();
+			assertTrue(id.compareTo(previous) > 0);
+			assertTrue(id.toString().compareTo(previous.toString()) > 0);
+			previous = id;
+		}
+
+		context.close();
+	}
+
 	public static class MyIdGenerator implements IdGenerator {
 
 		@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,18 @@
 package org.springframework.integration.dispatcher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.integration.gateway.RequestReplyExchanger;
+import org.springframework.integration.handler.BatchMessageHandler;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageDeliveryException;
@@ -56,4 +62,71 @@ public class UnicastingDispatcherTests {
 		context.close();
 	}
 
+	@Test
+	public void batchGoesToOneBatchHandlerWithLoadBalancing() {
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		dispatcher.setLoadBalancingStrategy(new RoundRobinLoadBalancingStrategy());
+		RecordingBatchHandler handler1 = new RecordingBatchHandler(false);
+		RecordingBatchHandler handler2 = new RecordingBatchHandler(false);
+		dispatcher.addHandler(handler1);
+		dispatcher.addHandler(handler2);
+		List<Message<?>> batch = Arrays.asList(new GenericMessage<>("foo"), new GenericMessage<>("bar"));
+		assertTrue(dispatcher.dispatchBatch(batch));
+		assertTrue(dispatcher.dispatchBatch(batch));
+		assertEquals(1, handler1.batches.size());
+		assertSame(batch, handler1.batches.get(0));
+		assertEquals(1, handler2.batches.size());
+		assertEquals(0, handler1.singles.size() + handler2.singles.size());
+	}
+
+	@Test
+	public void batchFailsOverToNextBatchHandler() {
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		RecordingBatchHandler failing = new RecordingBatchHandler(true);
+		RecordingBatchHandler handler = new RecordingBatchHandler(false);
+		dispatcher.addHandler(failing);
+		dispatcher.addHandler(handler);
+		List<Message<?>> batch = Arrays.asList(new GenericMessage<>("foo"), new GenericMessage<>("bar"));
+		assertTrue(dispatcher.dispatchBatch(batch));
+		assertEquals(1, failing.batches.size());
+		assertEquals(1, handler.batches.size());
+	}
+
+	@Test
+	public void batchIsDispatchedPerMessageToRegularHandler() {
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		List<Message<?>> received = new ArrayList<>();
+		dispatcher.addHandler(received::add);
+		List<Message<?>> batch = Arrays.asList(new GenericMessage<>("foo"), new GenericMessage<>("bar"));
+		assertTrue(dispatcher.dispatchBatch(batch));
+		assertEquals(batch, received);
+	}
+
+	private static class RecordingBatchHandler implements BatchMessageHandler {
+
+		private final List<List<Message<?>>> batches = new ArrayList<>();
+
+		private final List<Message<?>> singles = new ArrayList<>();
+
+		private final boolean fail;
+
+		RecordingBatchHandler(boolean fail) {
+			this.fail = fail;
+		}
+
+		@Override
+		public void handleMessage(Message<?> message) {
+			this.singles.add(message);
+		}
+
+		@Override
+		public void handleMessages(List<Message<?>> messages) {
+			this.batches.add(messages);
+			if (this.fail) {
+				throw new IllegalStateException("planned");
+			}
+		}
+
+	}
+
 }
@@ -19,6 +19,8 @@ package org.springframework.integration.endpoint;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
@@ -28,6 +30,7 @@ import org.mockito.Mockito;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.MessageRejectedException;
+import org.springframework.integration.handler.BatchMessageHandler;
 import org.springframework.integration.support.MessagingExceptionWrapper;
 import org.springframework.integration.test.util.OnlyOnceTrigger;
 import org.springframework.messaging.Message;
@@ -66,17 +69,22 @@ public class PollingConsumerEndpointTests {
 	@Before
 	public void init() {
 		this.channelMock = mock(PollableChannel.class);
-		this.endpoint = new PollingConsumer(this.channelMock, this.consumer);
-		this.taskScheduler.setPoolSize(5);
-		this.endpoint.setErrorHandler(this.errorHandler);
-		this.endpoint.setTaskScheduler(this.taskScheduler);
-		this.endpoint.setTrigger(this.trigger);
-		this.endpoint.setBeanFactory(mock(BeanFactory.class));
-		this.endpoint.setReceiveTimeout(-1);
-		this.endpoint.afterPropertiesSet();
+		this.endpoint = createEndpoint(this.consumer);
 		this.taskScheduler.afterPropertiesSet();
 	}
 
+	private PollingConsumer createEndpoint(MessageHandler handler) {
+		PollingConsumer endpoint = new PollingConsumer(this.channelMock, handler);
+		this.taskScheduler.setPoolSize(5);
+		endpoint.setErrorHandler(this.errorHandler);
+		endpoint.setTaskScheduler(this.taskScheduler);
+		endpoint.setTrigger(this.trigger);
+		endpoint.setBeanFactory(mock(BeanFactory.class));
+		endpoint.setReceiveTimeout(-1);
+		endpoint.afterPropertiesSet();
+		return endpoint;
+	}
+
 	@After
 	public void stop() {
 		taskScheduler.destroy();
@@ -169,6 +177,50 @@ public class PollingConsumerEndpointTests {
 		assertEquals(1, this.consumer.counter.get());
 	}
 
+	@Test
+	public void batchHandlerReceivesWholePoll() {
+		TestBatchConsumer batchConsumer = new TestBatchConsumer();
+		PollingConsumer batchEndpoint = createEndpoint(batchConsumer);
+		Mockito.when(this.channelMock.receive()).thenReturn(this.message);
+		Mockito.when(this.channelMock.receive(0L)).thenReturn(this.message, this.message, null);
+		batchEndpoint.setMaxMessagesPerPoll(10);
+		batchEndpoint.start();
+		this.trigger.await();
+		batchEndpoint.stop();
+		assertEquals(1, batchConsumer.batchSizes.size());
+		assertEquals(3, batchConsumer.batchSizes.get(0).intValue());
+		assertEquals(0, batchConsumer.counter.get());
+	}
+
+	@Test
+	public void batchIsLimitedByMaxMessagesPerPoll() {
+		TestBatchConsumer batchConsumer = new TestBatchConsumer();
+		PollingConsumer batchEndpoint = createEndpoint(batchConsumer);
+		Mockito.when(this.channelMock.receive()).thenReturn(this.message);
+		Mockito.when(this.channelMock.receive(0L)).thenReturn(this.message);
+		batchEndpoint.setMaxMessagesPerPoll(4);
+		batchEndpoint.start();
+		this.trigger.await();
+		batchEndpoint.stop();
+		assertEquals(1, batchConsumer.batchSizes.size());
+		assertEquals(4, batchConsumer.batchSizes.get(0).intValue());
+	}
+
+
+	private static class TestBatchConsumer extends TestConsumer implements BatchMessageHandler {
+
+		private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+		TestBatchConsumer() {
+			super();
+		}
+
+		@Override
+		public void handleMessages(List<Message<?>> messages) {
+			this.batchSizes.add(messages.size());
+		}
+
+	}
 
 	private static class TestConsumer implements MessageHandler {
 
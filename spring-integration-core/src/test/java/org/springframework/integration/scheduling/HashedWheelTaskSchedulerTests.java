@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * @since 5.1
+ */
+public class HashedWheelTaskSchedulerTests {
+
+	@Test
+	public void testScheduleAndCancel() throws Exception {
+		HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler(5, TimeUnit.MILLISECONDS, 8);
+		try {
+			CountDownLatch latch = new CountDownLatch(1);
+			AtomicInteger cancelledRuns = new AtomicInteger();
+			long start = System.currentTimeMillis();
+			ScheduledFuture<?> cancelled = scheduler.schedule(cancelledRuns::incrementAndGet,
+					new Date(start + 100));
+			// 200ms is more than one revolution of this 40ms wheel
+			ScheduledFuture<?> future = scheduler.schedule(latch::countDown, new Date(start + 200));
+			assertThat(cancelled.cancel(false)).isTrue();
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(200);
+			future.get(10, TimeUnit.SECONDS);
+			assertThat(future.isDone()).isTrue();
+			assertThat(cancelled.isCancelled()).isTrue();
+			assertThat(cancelledRuns.get()).isEqualTo(0);
+		}
+		finally {
+			scheduler.destroy();
+		}
+	}
+
+	@Test
+	public void testRepeatingTasks() throws Exception {
+		HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler();
+		try {
+			CountDownLatch fixedRate = new CountDownLatch(3);
+			CountDownLatch fixedDelay = new CountDownLatch(3);
+			AtomicInteger triggered = new AtomicInteger();
+			ScheduledFuture<?> rateFuture = scheduler.scheduleAtFixedRate(fixedRate::countDown, 20);
+			ScheduledFuture<?> delayFuture = scheduler.scheduleWithFixedDelay(fixedDelay::countDown, 20);
+			ScheduledFuture<?> triggerFuture = scheduler.schedule(triggered::incrementAndGet,
+					triggerContext -> triggered.get() < 3 ? new Date(System.currentTimeMillis() + 10) : null);
+			assertThat(fixedRate.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(fixedDelay.await(10, TimeUnit.SECONDS)).isTrue();
+			triggerFuture.get(10, TimeUnit.SECONDS);
+			assertThat(triggered.get()).isEqualTo(3);
+			rateFuture.cancel(false);
+			delayFuture.cancel(false);
+			assertThat(rateFuture.isCancelled()).isTrue();
+			assertThat(delayFuture.isCancelled()).isTrue();
+		}
+		finally {
+			scheduler.destroy();
+		}
+	}
+
+	@Test
+	public void testDestroyCancelsPendingTasks() {
+		HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler();
+		ScheduledFuture<?> future = scheduler.schedule(() -> { }, new Date(System.currentTimeMillis() + 60000));
+		scheduler.destroy();
+		assertThat(future.isCancelled()).isTrue();
+		try {
+			scheduler.schedule(() -> { }, new Date());
+			fail("TaskRejectedException expected");
+		}
+		catch (TaskRejectedException e) {
+			assertThat(e.getMessage()).contains("shut down");
+		}
+	}
+
+	@Test
+	public void testAggregatorUsesTimeoutSchedulerByDefault() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class);
+		TaskScheduler timeoutScheduler =
+				context.getBean(IntegrationContextUtils.TIMEOUT_TASK_SCHEDULER_BEAN_NAME, TaskScheduler.class);
+		assertThat(timeoutScheduler).isInstanceOf(HashedWheelTaskScheduler.class);
+		assertThat(context.getBean(TaskScheduler.class))
+				.isSameAs(context.getBean(IntegrationContextUtils.TASK_SCHEDULER_BEAN_NAME));
+		assertThat(TestUtils.getPropertyValue(context.getBean(AggregatingMessageHandler.class), "timeoutTaskScheduler"))
+				.isSameAs(timeoutScheduler);
+		context.close();
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public AggregatingMessageHandler aggregator() {
+			return new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor());
+		}
+
+	}
+
+}
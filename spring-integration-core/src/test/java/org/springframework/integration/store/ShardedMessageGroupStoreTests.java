@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.1
+ */
+public class ShardedMessageGroupStoreTests {
+
+	@Test
+	public void testCounters() {
+		ShardedMessageGroupStore store = new ShardedMessageGroupStore(4);
+		Message<String> foo = new GenericMessage<>("foo");
+		Message<String> bar = new GenericMessage<>("bar");
+		store.addMessagesToGroup("a", foo, bar);
+		store.addMessageToGroup("b", new GenericMessage<>("baz"));
+		assertThat(store.getMessageGroupCount()).isEqualTo(2);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(3);
+		store.removeMessagesFromGroup("a", foo);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(2);
+		assertThat(store.pollMessageFromGroup("a")).isSameAs(bar);
+		assertThat(store.pollMessageFromGroup("a")).isNull();
+		assertThat(store.messageGroupSize("a")).isEqualTo(0);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(1);
+		store.removeMessageGroup("b");
+		store.removeMessageGroup("b");
+		assertThat(store.getMessageGroupCount()).isEqualTo(1);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(0);
+		assertThat(store).hasSize(1);
+	}
+
+	@Test
+	public void testOnlyDueGroupsAreExpired() throws Exception {
+		ShardedMessageGroupStore store = new ShardedMessageGroupStore();
+		List<Object> expired = new ArrayList<>();
+		store.registerMessageGroupExpiryCallback((messageGroupStore, group) -> {
+			expired.add(group.getGroupId());
+			messageGroupStore.removeMessageGroup(group.getGroupId());
+		});
+		store.addMessageToGroup("old", new GenericMessage<>("foo"));
+		Thread.sleep(100);
+		store.addMessageToGroup("new", new GenericMessage<>("bar"));
+		assertThat(store.expireMessageGroups(50)).isEqualTo(1);
+		assertThat(expired).containsExactly("old");
+		assertThat(store.getMessageGroupCount()).isEqualTo(1);
+		assertThat(store.expireMessageGroups(-1000)).isEqualTo(1);
+		assertThat(expired).containsExactly("old", "new");
+		assertThat(store.getMessageGroupCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testTimeoutOnIdle() throws Exception {
+		ShardedMessageGroupStore store = new ShardedMessageGroupStore();
+		List<Object> expired = new ArrayList<>();
+		store.registerMessageGroupExpiryCallback((messageGroupStore, group) -> expired.add(group.getGroupId()));
+		store.addMessageToGroup("idle", new GenericMessage<>("foo"));
+		store.addMessageToGroup("busy", new GenericMessage<>("bar"));
+		Thread.sleep(100);
+		store.addMessageToGroup("busy", new GenericMessage<>("baz"));
+		assertThat(store.expireMessageGroups(50)).isEqualTo(2);
+		expired.clear();
+		store.setTimeoutOnIdle(true);
+		assertThat(store.expireMessageGroups(50)).isEqualTo(1);
+		assertThat(expired).containsExactly("idle");
+	}
+
+	@Test
+	public void testConcurrentGroups() throws Exception {
+		ShardedMessageGroupStore store = new ShardedMessageGroupStore(8);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch latch = new CountDownLatch(4);
+		for (int t = 0; t < 4; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 1000; i++) {
+					store.addMessageToGroup(i % 100, new GenericMessage<>(i));
+				}
+				latch.countDown();
+			});
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		executor.shutdown();
+		assertThat(store.getMessageGroupCount()).isEqualTo(100);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(4000);
+		assertThat(store.messageGroupSize(42)).isEqualTo(40);
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * @since 5.1
+ */
+public class PersistentMessageHeadersTests {
+
+	@Test
+	public void testDerivedMessageSharesStructure() {
+		DefaultMessageBuilderFactory factory = new DefaultMessageBuilderFactory();
+		factory.setPersistentHeaders(true);
+		MessageBuilder<String> builder = factory.withPayload("foo");
+		for (int i = 0; i < 40; i++) {
+			builder.setHeader("header" + i, i);
+		}
+		Message<String> parent = builder.build();
+		assertThat(parent.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(parent.getHeaders()).hasSize(42);
+
+		Message<String> child = MessageBuilder.fromMessage(parent)
+				.setHeader("header0", "changed")
+				.removeHeaders("header1*")
+				.setCorrelationId("bar")
+				.build();
+
+		assertThat(child.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(child.getHeaders().getId()).isNotEqualTo(parent.getHeaders().getId());
+		assertThat(child.getHeaders().get("header0")).isEqualTo("changed");
+		assertThat(child.getHeaders().get("header2", Integer.class)).isEqualTo(2);
+		assertThat(child.getHeaders()).doesNotContainKeys("header1", "header10", "header19");
+		assertThat(new IntegrationMessageHeaderAccessor(child).getCorrelationId()).isEqualTo("bar");
+		assertThat(child.getHeaders()).hasSize(42 - 11 + 1);
+		assertThat(parent.getHeaders().get("header0")).isEqualTo(0);
+		assertThat(parent.getHeaders()).containsKeys("header1", "header19");
+
+		Map<String, Object> copy = new HashMap<>(child.getHeaders());
+		assertThat(child.getHeaders()).isEqualTo(copy);
+		assertThat(child.getHeaders().hashCode()).isEqualTo(copy.hashCode());
+		assertThat(copy).containsKeys(MessageHeaders.ID, MessageHeaders.TIMESTAMP);
+	}
+
+	@Test
+	public void testUnmodifiedMessageIsReturned() {
+		Message<String> message = MessageBuilder.withPayload("foo", true).setHeader("foo", "bar").build();
+		assertThat(MessageBuilder.fromMessage(message).setHeader("foo", "bar").build()).isSameAs(message);
+	}
+
+	@Test
+	public void testReadOnlyHeadersAreNotCopied() {
+		Message<String> message = MessageBuilder.withPayload("foo", true)
+				.setHeader("foo", "bar")
+				.setHeader("baz", "qux")
+				.build();
+		Message<String> copy = MessageBuilder.fromMessage(message)
+				.readOnlyHeaders("baz")
+				.build();
+		assertThat(copy.getHeaders()).containsEntry("foo", "bar").doesNotContainKey("baz");
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		Message<String> message = MessageBuilder.withPayload("foo", true)
+				.setHeader("foo", "bar")
+				.setHeader("notSerializable", new Object())
+				.build();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(message);
+		out.close();
+		Message<?> deserialized = (Message<?>) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+				.readObject();
+		assertThat(deserialized.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(deserialized.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+		assertThat(deserialized.getHeaders().getTimestamp()).isEqualTo(message.getHeaders().getTimestamp());
+		assertThat(deserialized.getHeaders()).containsEntry("foo", "bar").doesNotContainKey("notSerializable");
+	}
+
+	@Test
+	public void testMutableMessageSharesStructure() {
+		Message<String> message = MessageBuilder.withPayload("foo", true).setHeader("foo", "bar").build();
+		MutableMessageBuilderFactory factory = new MutableMessageBuilderFactory();
+		factory.setPersistentHeaders(true);
+		Message<String> mutable = factory.fromMessage(message)
+				.setHeader("baz", "qux")
+				.removeHeader("foo")
+				.build();
+		assertThat(mutable.getHeaders()).isInstanceOf(PersistentMutableMessageHeaders.class);
+		assertThat(mutable.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+		assertThat(mutable.getHeaders()).containsEntry("baz", "qux").doesNotContainKey("foo");
+		assertThat(message.getHeaders()).containsEntry("foo", "bar").doesNotContainKey("baz");
+
+		Message<String> immutable = MessageBuilder.fromMessage(mutable).setHeader("foo", "again").build();
+		assertThat(immutable.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(immutable.getHeaders()).containsEntry("foo", "again").containsEntry("baz", "qux");
+	}
+
+}
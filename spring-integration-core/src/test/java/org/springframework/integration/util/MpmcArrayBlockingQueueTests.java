@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.1
+ */
+public class MpmcArrayBlockingQueueTests {
+
+	@Test
+	public void testFifoAndCapacity() throws InterruptedException {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(3);
+		assertThat(queue.offer(1)).isTrue();
+		assertThat(queue.offer(2)).isTrue();
+		assertThat(queue.offer(3)).isTrue();
+		assertThat(queue.offer(4)).isFalse();
+		assertThat(queue.offer(4, 10, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(queue.size()).isEqualTo(3);
+		assertThat(queue.remainingCapacity()).isEqualTo(0);
+		assertThat(queue.peek()).isEqualTo(1);
+		assertThat(queue.poll()).isEqualTo(1);
+		assertThat(queue.offer(4)).isTrue();
+		assertThat(queue).containsExactly(2, 3, 4);
+		assertThat(queue.take()).isEqualTo(2);
+		assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isEqualTo(3);
+		assertThat(queue.poll()).isEqualTo(4);
+		assertThat(queue.poll()).isNull();
+		assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(queue.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testSingleSlotSpin() throws Exception {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(1, MpmcArrayBlockingQueue.WaitStrategy.SPIN);
+		assertThat(queue.offer(1)).isTrue();
+		assertThat(queue.offer(2)).isFalse();
+		assertThat(queue.remainingCapacity()).isEqualTo(0);
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		exec.execute(() -> {
+			try {
+				for (int i = 2; i <= 100; i++) {
+					queue.put(i);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		for (int i = 1; i <= 100; i++) {
+			assertThat(queue.poll(10, TimeUnit.SECONDS)).isEqualTo(i);
+		}
+		exec.shutdownNow();
+	}
+
+	@Test
+	public void testRemoveAndDrain() {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(4);
+		for (int i = 0; i < 4; i++) {
+			queue.offer(i);
+		}
+		assertThat(queue.remove(1)).isTrue();
+		assertThat(queue.remove(1)).isFalse();
+		assertThat(queue.size()).isEqualTo(3);
+		// the removed element keeps its slot until it is consumed
+		assertThat(queue.remainingCapacity()).isEqualTo(0);
+		assertThat(queue.offer(4)).isFalse();
+		assertThat(queue).containsExactly(0, 2, 3);
+		List<Integer> drained = new ArrayList<>();
+		assertThat(queue.drainTo(drained)).isEqualTo(3);
+		assertThat(drained).containsExactly(0, 2, 3);
+		assertThat(queue.size()).isEqualTo(0);
+		assertThat(queue.remainingCapacity()).isEqualTo(4);
+	}
+
+	@Test
+	public void testQueueChannelOperations() {
+		QueueChannel channel =
+				new QueueChannel(new MpmcArrayBlockingQueue<>(10, MpmcArrayBlockingQueue.WaitStrategy.YIELD));
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<>(i));
+		}
+		assertThat(channel.getQueueSize()).isEqualTo(5);
+		assertThat(channel.getRemainingCapacity()).isEqualTo(5);
+		List<Message<?>> purged = channel.purge(message -> ((Integer) message.getPayload()) % 2 == 0);
+		assertThat(purged).hasSize(2);
+		assertThat(channel.getQueueSize()).isEqualTo(3);
+		assertThat(channel.receive(0).getPayload()).isEqualTo(0);
+		assertThat(channel.clear()).hasSize(2);
+		assertThat(channel.getQueueSize()).isEqualTo(0);
+		assertThat(channel.receive(10)).isNull();
+	}
+
+	@Test
+	public void testConcurrentProducersAndConsumers() throws Exception {
+		// SPIN is not included: busy waiters starve each other on small build machines
+		for (MpmcArrayBlockingQueue.WaitStrategy waitStrategy : new MpmcArrayBlockingQueue.WaitStrategy[] {
+				MpmcArrayBlockingQueue.WaitStrategy.YIELD,
+				MpmcArrayBlockingQueue.WaitStrategy.PARK,
+				MpmcArrayBlockingQueue.WaitStrategy.BLOCK }) {
+
+			MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(16, waitStrategy);
+			int threads = 4;
+			int perProducer = 10000;
+			ExecutorService exec = Executors.newFixedThreadPool(threads * 2);
+			Set<Integer> received = Collections.newSetFromMap(new ConcurrentHashMap<>());
+			CountDownLatch latch = new CountDownLatch(threads * 2);
+			for (int t = 0; t < threads; t++) {
+				int base = t * perProducer;
+				exec.execute(() -> {
+					try {
+						for (int i = 0; i < perProducer; i++) {
+							queue.put(base + i);
+						}
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					latch.countDown();
+				});
+				exec.execute(() -> {
+					try {
+						for (int i = 0; i < perProducer; i++) {
+							received.add(queue.take());
+						}
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					latch.countDown();
+				});
+			}
+			assertThat(latch.await(30, TimeUnit.SECONDS)).as(waitStrategy.name()).isTrue();
+			assertThat(received).as(waitStrategy.name()).hasSize(threads * perProducer);
+			assertThat(queue.isEmpty()).isTrue();
+			exec.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * @since 5.1
+ */
+public class VirtualThreadTaskExecutorTests {
+
+	@Test
+	public void testTaskRunsOnNamedThread() throws Exception {
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("vtTest-");
+		AtomicReference<String> threadName = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.execute(() -> {
+			threadName.set(Thread.currentThread().getName());
+			latch.countDown();
+		});
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(threadName.get()).startsWith("vtTest-");
+		if (ReflectionUtils.findMethod(Thread.class, "ofVirtual") == null) {
+			assertThat(executor.isVirtual()).isFalse();
+		}
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.integration.gemfire.store;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 import org.apache.geode.cache.Region;
 
@@ -30,7 +31,10 @@ import org.springframework.util.PatternMatchUtils;
 
 /**
  * Gemfire implementation of the key/value style {@link MessageStore} and
- * {@link MessageGroupStore}
+ * {@link MessageGroupStore}.
+ * With {@link #setAppendOnlyGroups(boolean) appendOnlyGroups}, the ids of the messages
+ * in a group are kept in a separate entry which supports delta propagation, so that
+ * adding or removing a message only ships that message's id.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -115,4 +119,79 @@ public class GemfireMessageStore extends AbstractKeyValueMessageStore {
 		return keyList;
 	}
 
+	@Override
+	protected void doAddGroupMessageIds(Object key, List<UUID> messageIds) {
+		MessageGroupIds ids = retrieveGroupMessageIds(key);
+		if (ids == null) {
+			ids = new MessageGroupIds();
+		}
+		synchronized (ids) {
+			if (ids.addAll(messageIds)) {
+				storeGroupMessageIds(key, ids);
+			}
+		}
+	}
+
+	@Override
+	protected void doRemoveGroupMessageIds(Object key, Collection<UUID> messageIds) {
+		MessageGroupIds ids = retrieveGroupMessageIds(key);
+		if (ids != null) {
+			synchronized (ids) {
+				if (ids.removeAll(messageIds)) {
+					storeGroupMessageIds(key, ids);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected UUID doPollGroupMessageId(Object key) {
+		MessageGroupIds ids = retrieveGroupMessageIds(key);
+		UUID messageId = null;
+		if (ids != null) {
+			synchronized (ids) {
+				messageId = ids.poll();
+				if (messageId != null) {
+					storeGroupMessageIds(key, ids);
+				}
+			}
+		}
+		return messageId;
+	}
+
+	@Override
+	protected UUID doGetFirstGroupMessageId(Object key) {
+		MessageGroupIds ids = retrieveGroupMessageIds(key);
+		return ids != null ? ids.first() : null;
+	}
+
+	@Override
+	protected int doCountGroupMessageIds(Object key) {
+		MessageGroupIds ids = retrieveGroupMessageIds(key);
+		return ids != null ? ids.size() : 0;
+	}
+
+	@Override
+	protected List<UUID> doListGroupMessageIds(Object key) {
+		MessageGroupIds ids = retrieveGroupMessageIds(key);
+		return ids != null ? ids.toList() : new ArrayList<>();
+	}
+
+	private MessageGroupIds retrieveGroupMessageIds(Object key) {
+		Object ids = this.messageStoreRegion.get(key);
+		if (ids != null) {
+			Assert.isInstanceOf(MessageGroupIds.class, ids);
+		}
+		return (MessageGroupIds) ids;
+	}
+
+	private void storeGroupMessageIds(Object key, MessageGroupIds ids) {
+		try {
+			this.messageStoreRegion.put(key, ids);
+		}
+		finally {
+			ids.resetDelta();
+		}
+	}
+
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.gemfire.store;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.geode.Delta;
+
+/**
+ * The ordered ids of the messages in a group, stored apart from the group metadata by the
+ * {@link GemfireMessageStore} with {@code appendOnlyGroups}. Implements {@link Delta} so
+ * that an update only ships the added and removed ids to the other members and servers.
+ * <p>A local region without copy-on-read hands the same instance to every thread, so all
+ * access is synchronized on the instance; the {@link GemfireMessageStore} also holds that
+ * monitor across a change and its {@code put()} to keep the recorded delta per update.
+ *
+ * @since 5.1
+ */
+final class MessageGroupIds implements Delta, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Set<UUID> ids = new LinkedHashSet<>();
+
+	private transient List<Object[]> changes;
+
+	synchronized boolean addAll(Collection<UUID> messageIds) {
+		boolean modified = false;
+		for (UUID messageId : messageIds) {
+			if (this.ids.add(messageId)) {
+				changes().add(new Object[] { true, messageId });
+				modified = true;
+			}
+		}
+		return modified;
+	}
+
+	synchronized boolean removeAll(Collection<UUID> messageIds) {
+		boolean modified = false;
+		for (UUID messageId : messageIds) {
+			if (this.ids.remove(messageId)) {
+				changes().add(new Object[] { false, messageId });
+				modified = true;
+			}
+		}
+		return modified;
+	}
+
+	synchronized UUID poll() {
+		Iterator<UUID> iterator = this.ids.iterator();
+		if (!iterator.hasNext()) {
+			return null;
+		}
+		UUID first = iterator.next();
+		iterator.remove();
+		changes().add(new Object[] { false, first });
+		return first;
+	}
+
+	synchronized UUID first() {
+		Iterator<UUID> iterator = this.ids.iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	synchronized int size() {
+		return this.ids.size();
+	}
+
+	synchronized List<UUID> toList() {
+		return new ArrayList<>(this.ids);
+	}
+
+	synchronized void resetDelta() {
+		this.changes = null;
+	}
+
+	@Override
+	public synchronized boolean hasDelta() {
+		return this.changes != null && !this.changes.isEmpty();
+	}
+
+	@Override
+	public synchronized void toDelta(DataOutput out) throws IOException {
+		List<Object[]> delta = changes();
+		out.writeInt(delta.size());
+		for (Object[] change : delta) {
+			UUID messageId = (UUID) change[1];
+			out.writeBoolean((Boolean) change[0]);
+			out.writeLong(messageId.getMostSignificantBits());
+			out.writeLong(messageId.getLeastSignificantBits());
+		}
+	}
+
+	@Override
+	public synchronized void fromDelta(DataInput in) throws IOException {
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			boolean added = in.readBoolean();
+			UUID messageId = new UUID(in.readLong(), in.readLong());
+			if (added) {
+				this.ids.add(messageId);
+			}
+			else {
+				this.ids.remove(messageId);
+			}
+		}
+	}
+
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+	}
+
+	private List<Object[]> changes() {
+		if (this.changes == null) {
+			this.changes = new ArrayList<>();
+		}
+		return this.changes;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2007-2017 the original author or authors.
+ * Copyright 2007-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,27 @@
 
 package org.springframework.integration.gemfire.store;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +56,7 @@ import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.MessageGroupMetadata;
 import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
@@ -344,6 +356,60 @@ public class GemfireGroupStoreTests {
 		context.close();
 	}
 
+	@Test
+	public void testAppendOnlyGroups() throws Exception {
+		GemfireMessageStore store = new GemfireMessageStore(region);
+		Message<?> message1 = new GenericMessage<>("1");
+		store.addMessageToGroup(1, message1);
+
+		store.setAppendOnlyGroups(true);
+		try {
+			store.messageGroupSize(1);
+			fail("IllegalStateException expected");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("migrateToAppendOnlyGroups()"));
+		}
+		assertTrue(store.migrateToAppendOnlyGroups() > 0);
+		assertEquals(0, store.migrateToAppendOnlyGroups());
+		Message<?> message2 = new GenericMessage<>("2");
+		Message<?> message3 = new GenericMessage<>("3");
+		store.addMessagesToGroup(1, message2, message3);
+		assertEquals(0, ((MessageGroupMetadata) region.get("MESSAGE_GROUP_1")).size());
+		assertTrue(region.get("GROUP_MESSAGE_IDS_1") instanceof MessageGroupIds);
+		assertEquals(3, store.messageGroupSize(1));
+		assertEquals(3, store.getGroupMetadata(1).size());
+		assertEquals("1", store.getOneMessageFromGroup(1).getPayload());
+
+		store.removeMessagesFromGroup(1, message2);
+		assertEquals("1", store.pollMessageFromGroup(1).getPayload());
+		MessageGroup messageGroup = store.getMessageGroup(1);
+		assertEquals(1, messageGroup.size());
+		assertEquals("3", messageGroup.getOne().getPayload());
+
+		store.removeMessageGroup(1);
+		assertNull(region.get("GROUP_MESSAGE_IDS_1"));
+		assertNull(store.getMessage(message3.getHeaders().getId()));
+		assertEquals(0, store.messageGroupSize(1));
+	}
+
+	@Test
+	public void testMessageGroupIdsDelta() throws Exception {
+		MessageGroupIds ids = new MessageGroupIds();
+		MessageGroupIds copy = new MessageGroupIds();
+		UUID id1 = UUID.randomUUID();
+		UUID id2 = UUID.randomUUID();
+		ids.addAll(Arrays.asList(id1, id2));
+		ids.poll();
+		assertTrue(ids.hasDelta());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ids.toDelta(new DataOutputStream(bytes));
+		copy.fromDelta(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(Collections.singletonList(id2), copy.toList());
+		ids.resetDelta();
+		assertFalse(ids.hasDelta());
+	}
+
 	@Before
 	public void prepare() {
 		if (region != null) {
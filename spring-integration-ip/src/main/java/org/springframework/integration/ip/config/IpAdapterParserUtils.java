@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -72,6 +72,20 @@ public abstract class IpAdapterParserUtils {
 
 	static final String USING_DIRECT_BUFFERS = "using-direct-buffers";
 
+	static final String PUSH_FRAMING = "push-framing";
+
+	static final String BYTE_BUFFER_POOL = "byte-buffer-pool";
+
+	static final String GATHERING_WRITES = "gathering-writes";
+
+	static final String WRITE_COALESCING_SIZE = "write-coalescing-size";
+
+	static final String WRITE_COALESCING_DELAY = "write-coalescing-delay";
+
+	static final String WORKER_SELECTORS = "worker-selectors";
+
+	static final String WORKER_ASSIGNMENT = "worker-assignment";
+
 	static final String SO_LINGER = "so-linger";
 
 	static final String SO_TCP_NODELAY = "so-tcp-no-delay";
@@ -100,6 +114,10 @@ public abstract class IpAdapterParserUtils {
 
 	public static final String REMOTE_TIMEOUT_EXPRESSION = "remote-timeout-expression";
 
+	static final String CORRELATION_STRATEGY = "correlation-strategy";
+
+	static final String REQUEST_CORRELATION_STRATEGY = "request-correlation-strategy";
+
 	public static final String REPLY_TIMEOUT = "reply-timeout";
 
 	public static final String REPLY_CHANNEL = "reply-channel";
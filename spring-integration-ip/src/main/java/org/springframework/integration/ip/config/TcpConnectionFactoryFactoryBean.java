@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.context.Lifecycle;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.ip.tcp.connection.AbstractClientConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.AbstractConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.AbstractServerConnectionFactory;
@@ -48,6 +49,7 @@ import org.springframework.integration.ip.tcp.connection.TcpSSLContextSupport;
 import org.springframework.integration.ip.tcp.connection.TcpSocketFactorySupport;
 import org.springframework.integration.ip.tcp.connection.TcpSocketSupport;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
+import org.springframework.integration.ip.util.ByteBufferPool;
 import org.springframework.util.Assert;
 
 /**
@@ -106,6 +108,20 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean pushFraming;
+
+	private volatile ByteBufferPool byteBufferPool;
+
+	private volatile boolean gatheringWrites;
+
+	private volatile int writeCoalescingSize;
+
+	private volatile long writeCoalescingDelay;
+
+	private volatile int workerSelectors;
+
+	private volatile TcpNioServerConnectionFactory.WorkerAssignment workerAssignment;
+
 	private volatile String beanName;
 
 	private volatile boolean applySequence;
@@ -161,6 +177,15 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 				this.setCommonAttributes(connectionFactory);
 				this.setServerAttributes(connectionFactory);
 				connectionFactory.setUsingDirectBuffers(this.usingDirectBuffers);
+				connectionFactory.setPushFraming(this.pushFraming);
+				connectionFactory.setByteBufferPool(this.byteBufferPool);
+				connectionFactory.setGatheringWrites(this.gatheringWrites);
+				connectionFactory.setWriteCoalescingSize(this.writeCoalescingSize);
+				connectionFactory.setWriteCoalescingDelay(this.writeCoalescingDelay);
+				connectionFactory.setWorkerSelectors(this.workerSelectors);
+				if (this.workerAssignment != null) {
+					connectionFactory.setWorkerAssignment(this.workerAssignment);
+				}
 				connectionFactory.setTcpNioConnectionSupport(this.obtainNioConnectionSupport());
 				this.connectionFactory = connectionFactory;
 			}
@@ -169,12 +194,20 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 						this.host, this.port);
 				this.setCommonAttributes(connectionFactory);
 				connectionFactory.setUsingDirectBuffers(this.usingDirectBuffers);
+				connectionFactory.setPushFraming(this.pushFraming);
+				connectionFactory.setByteBufferPool(this.byteBufferPool);
+				connectionFactory.setGatheringWrites(this.gatheringWrites);
+				connectionFactory.setWriteCoalescingSize(this.writeCoalescingSize);
+				connectionFactory.setWriteCoalescingDelay(this.writeCoalescingDelay);
 				connectionFactory.setTcpNioConnectionSupport(this.obtainNioConnectionSupport());
 				this.connectionFactory = connectionFactory;
 			}
 			if (this.sslHandshakeTimeout != null) {
 				this.connectionFactory.setSslHandshakeTimeout(this.sslHandshakeTimeout);
 			}
+			if (this.writeCoalescingDelay > 0 && this.beanFactory != null) {
+				this.connectionFactory.setTaskScheduler(IntegrationContextUtils.getTaskScheduler(this.beanFactory));
+			}
 		}
 		else {
 			if (isServer()) {
@@ -362,6 +395,69 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * @param pushFraming true to decode frames as the data is received.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setPushFraming(boolean)
+	 */
+	public void setPushFraming(boolean pushFraming) {
+		this.pushFraming = pushFraming;
+	}
+
+	/**
+	 * @param byteBufferPool the buffer pool.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setByteBufferPool(ByteBufferPool)
+	 */
+	public void setByteBufferPool(ByteBufferPool byteBufferPool) {
+		this.byteBufferPool = byteBufferPool;
+	}
+
+	/**
+	 * @param gatheringWrites true for gathering writes.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setGatheringWrites(boolean)
+	 */
+	public void setGatheringWrites(boolean gatheringWrites) {
+		this.gatheringWrites = gatheringWrites;
+	}
+
+	/**
+	 * @param writeCoalescingSize the number of bytes.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setWriteCoalescingSize(int)
+	 */
+	public void setWriteCoalescingSize(int writeCoalescingSize) {
+		this.writeCoalescingSize = writeCoalescingSize;
+	}
+
+	/**
+	 * @param writeCoalescingDelay the delay in microseconds.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setWriteCoalescingDelay(long)
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * @param workerSelectors the number of worker selectors.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setWorkerSelectors(int)
+	 */
+	public void setWorkerSelectors(int workerSelectors) {
+		this.workerSelectors = workerSelectors;
+	}
+
+	/**
+	 * @param workerAssignment the assignment of connections to worker selectors.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setWorkerAssignment(TcpNioServerConnectionFactory.WorkerAssignment)
+	 */
+	public void setWorkerAssignment(TcpNioServerConnectionFactory.WorkerAssignment workerAssignment) {
+		this.workerAssignment = workerAssignment;
+	}
+
 	/**
 	 * @param taskExecutor The task executor.
 	 * @see AbstractConnectionFactory#setTaskExecutor(java.util.concurrent.Executor)
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.function.Function;
 
+import org.springframework.integration.aggregator.CorrelationStrategy;
 import org.springframework.integration.dsl.ComponentsRegistration;
 import org.springframework.integration.dsl.MessageHandlerSpec;
 import org.springframework.integration.expression.FunctionExpression;
@@ -89,6 +90,30 @@ public class TcpOutboundGatewaySpec extends MessageHandlerSpec<TcpOutboundGatewa
 		return _this();
 	}
 
+	/**
+	 * @param correlationStrategy the strategy determining the correlation key of replies
+	 * (and requests, unless a request strategy is provided).
+	 * @return the spec.
+	 * @since 5.1
+	 * @see TcpOutboundGateway#setCorrelationStrategy(CorrelationStrategy)
+	 */
+	public TcpOutboundGatewaySpec correlationStrategy(CorrelationStrategy correlationStrategy) {
+		this.target.setCorrelationStrategy(correlationStrategy);
+		return _this();
+	}
+
+	/**
+	 * @param requestCorrelationStrategy the strategy determining the correlation key of
+	 * requests.
+	 * @return the spec.
+	 * @since 5.1
+	 * @see TcpOutboundGateway#setRequestCorrelationStrategy(CorrelationStrategy)
+	 */
+	public TcpOutboundGatewaySpec requestCorrelationStrategy(CorrelationStrategy requestCorrelationStrategy) {
+		this.target.setRequestCorrelationStrategy(requestCorrelationStrategy);
+		return _this();
+	}
+
 	@Override
 	public Map<Object, String> getComponentsToRegister() {
 		return this.connectionFactory != null
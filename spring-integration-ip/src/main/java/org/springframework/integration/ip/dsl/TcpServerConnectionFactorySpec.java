@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.ip.dsl;
 import org.springframework.integration.ip.tcp.connection.AbstractServerConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.TcpNetServerConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory;
+import org.springframework.util.Assert;
 
 /**
  * An {@link AbstractConnectionFactorySpec} for {@link AbstractServerConnectionFactory}s.
@@ -58,4 +59,34 @@ public class TcpServerConnectionFactorySpec
 		return _this();
 	}
 
+	/**
+	 * @param workerSelectors the number of worker selectors.
+	 * @return the spec.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setWorkerSelectors(int)
+	 */
+	public TcpServerConnectionFactorySpec workerSelectors(int workerSelectors) {
+		nioServer().setWorkerSelectors(workerSelectors);
+		return _this();
+	}
+
+	/**
+	 * @param workerAssignment the assignment of connections to worker selectors.
+	 * @return the spec.
+	 * @since 5.1
+	 * @see TcpNioServerConnectionFactory#setWorkerAssignment(TcpNioServerConnectionFactory.WorkerAssignment)
+	 */
+	public TcpServerConnectionFactorySpec workerAssignment(
+			TcpNioServerConnectionFactory.WorkerAssignment workerAssignment) {
+
+		nioServer().setWorkerAssignment(workerAssignment);
+		return _this();
+	}
+
+	private TcpNioServerConnectionFactory nioServer() {
+		Assert.state(this.target instanceof TcpNioServerConnectionFactory,
+				"Worker selectors are only supported by NIO server connection factories");
+		return (TcpNioServerConnectionFactory) this.target;
+	}
+
 }
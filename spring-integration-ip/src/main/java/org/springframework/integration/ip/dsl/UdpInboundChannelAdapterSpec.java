@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.concurrent.Executor;
 import org.springframework.integration.dsl.MessageProducerSpec;
 import org.springframework.integration.ip.udp.MulticastReceivingChannelAdapter;
 import org.springframework.integration.ip.udp.UnicastReceivingChannelAdapter;
+import org.springframework.integration.ip.util.ByteBufferPool;
 import org.springframework.scheduling.TaskScheduler;
 
 /**
@@ -152,4 +153,15 @@ public class UdpInboundChannelAdapterSpec
 		return _this();
 	}
 
+	/**
+	 * @param byteBufferPool the pool of heap buffers for received packets.
+	 * @return the spec.
+	 * @since 5.1
+	 * @see UnicastReceivingChannelAdapter#setByteBufferPool(ByteBufferPool)
+	 */
+	public UdpInboundChannelAdapterSpec byteBufferPool(ByteBufferPool byteBufferPool) {
+		this.target.setByteBufferPool(byteBufferPool);
+		return _this();
+	}
+
 }
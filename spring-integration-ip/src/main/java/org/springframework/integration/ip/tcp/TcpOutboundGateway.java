@@ -1,5 +1,5 @@
 /*
- * Copyright 2001-2017 the original author or authors.
+ * Copyright 2001-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.aggregator.CorrelationStrategy;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
 import org.springframework.integration.ip.IpHeaders;
@@ -49,8 +50,14 @@ import org.springframework.util.Assert;
  * TCP outbound gateway that uses a client connection factory. If the factory is configured
  * for single-use connections, each request is sent on a new connection; if the factory does not use
  * single use connections, each request is blocked until the previous response is received
- * (or times out). Asynchronous requests/responses over the same connection are not
- * supported - use a pair of outbound/inbound adapters for that use case.
+ * (or times out).
+ * <p>
+ * When the protocol carries a request identifier in the replies, a
+ * {@link #setCorrelationStrategy(CorrelationStrategy) correlation strategy} can be
+ * provided to multiplex the requests instead; concurrent requests are then sent on the
+ * same connection without waiting for the previous reply, and replies are correlated by
+ * their key, in any order. Otherwise, use a pair of outbound/inbound adapters for
+ * asynchronous requests/responses over the same connection.
  * <p>
  * {@link SmartLifecycle} methods delegate to the underlying {@link AbstractConnectionFactory}
  *
@@ -75,6 +82,12 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	private volatile EvaluationContext evaluationContext = new StandardEvaluationContext();
 
+	private volatile CorrelationStrategy correlationStrategy;
+
+	private volatile CorrelationStrategy requestCorrelationStrategy;
+
+	private final Map<String, Map<Object, AsyncReply>> correlatedReplies = new ConcurrentHashMap<>();
+
 	/**
 	 * @param requestTimeout the requestTimeout to set
 	 */
@@ -100,6 +113,33 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		this.evaluationContext = evaluationContext;
 	}
 
+	/**
+	 * Set a strategy to determine the correlation key of a reply, for protocols where
+	 * each reply carries the identifier of its request. The gateway then sends
+	 * concurrent requests on the same connection without waiting for the previous reply
+	 * and the replies can arrive in any order; a request that times out does not
+	 * close the connection. Unless a
+	 * {@link #setRequestCorrelationStrategy(CorrelationStrategy) request correlation strategy}
+	 * is provided, this strategy also determines the key of each request. Requires a
+	 * connection factory that does not use single-use connections.
+	 * @param correlationStrategy the strategy.
+	 * @since 5.1
+	 */
+	public void setCorrelationStrategy(CorrelationStrategy correlationStrategy) {
+		this.correlationStrategy = correlationStrategy;
+	}
+
+	/**
+	 * Set a strategy to determine the correlation key of a request, when it differs
+	 * from the {@link #setCorrelationStrategy(CorrelationStrategy) reply strategy};
+	 * the key must be unique among the requests pending on the connection.
+	 * @param requestCorrelationStrategy the strategy.
+	 * @since 5.1
+	 */
+	public void setRequestCorrelationStrategy(CorrelationStrategy requestCorrelationStrategy) {
+		this.requestCorrelationStrategy = requestCorrelationStrategy;
+	}
+
 	@Override
 	protected void doInit() {
 		super.doInit();
@@ -113,6 +153,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 	protected Object handleRequestMessage(Message<?> requestMessage) {
 		Assert.notNull(this.connectionFactory, this.getClass().getName() +
 				" requires a client connection factory");
+		if (this.correlationStrategy != null) {
+			return handleCorrelatedRequestMessage(requestMessage);
+		}
 		boolean haveSemaphore = false;
 		TcpConnection connection = null;
 		String connectionId = null;
@@ -176,6 +219,69 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		}
 	}
 
+	private Object handleCorrelatedRequestMessage(Message<?> requestMessage) {
+		Assert.state(!this.isSingleUse, "A correlation strategy requires a connection factory that "
+				+ "does not use single-use connections");
+		CorrelationStrategy requestStrategy = this.requestCorrelationStrategy != null
+				? this.requestCorrelationStrategy
+				: this.correlationStrategy;
+		Object correlationKey = null;
+		TcpConnection connection = null;
+		Map<Object, AsyncReply> replies = null;
+		try {
+			correlationKey = requestStrategy.getCorrelationKey(requestMessage);
+			if (correlationKey == null) {
+				throw new MessagingException(requestMessage, "No correlation key for request");
+			}
+			connection = this.connectionFactory.getConnection();
+			AsyncReply reply = new AsyncReply(this.remoteTimeoutExpression.getValue(this.evaluationContext,
+					requestMessage, Long.class));
+			Map<Object, AsyncReply> connectionReplies = this.correlatedReplies
+					.computeIfAbsent(connection.getConnectionId(), k -> new ConcurrentHashMap<>());
+			if (connectionReplies.putIfAbsent(correlationKey, reply) != null) {
+				throw new MessagingException(requestMessage,
+						"A request with correlation key '" + correlationKey + "' is already pending");
+			}
+			replies = connectionReplies;
+			if (!connection.isOpen()) {
+				// a socket error may have been conveyed before this reply was registered
+				throw new MessagingException(requestMessage,
+						"Connection " + connection.getConnectionId() + " closed before the request was sent");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Added pending reply " + correlationKey + " on " + connection.getConnectionId());
+			}
+			connection.send(requestMessage);
+			Message<?> replyMessage = reply.getReply();
+			if (replyMessage == null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Remote Timeout for " + correlationKey + " on " + connection.getConnectionId());
+				}
+				// The connection is not dirty - a late reply is discarded.
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for response");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Response " + replyMessage);
+			}
+			return replyMessage;
+		}
+		catch (Exception e) {
+			logger.error("Tcp Gateway exception", e);
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessagingException("Failed to send or receive", e);
+		}
+		finally {
+			if (replies != null) {
+				replies.remove(correlationKey);
+				if (!connection.isOpen()) {
+					this.correlatedReplies.remove(connection.getConnectionId());
+				}
+			}
+		}
+	}
+
 	@Override
 	public boolean onMessage(Message<?> message) {
 		String connectionId = (String) message.getHeaders().get(IpHeaders.CONNECTION_ID);
@@ -187,6 +293,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		if (logger.isTraceEnabled()) {
 			logger.trace("onMessage: " + connectionId + "(" + message + ")");
 		}
+		if (this.correlationStrategy != null) {
+			return onCorrelatedMessage(message, connectionId);
+		}
 		AsyncReply reply = this.pendingReplies.get(connectionId);
 		if (reply == null) {
 			if (message instanceof ErrorMessage) {
@@ -207,6 +316,41 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		return false;
 	}
 
+	private boolean onCorrelatedMessage(Message<?> message, String connectionId) {
+		if (message instanceof ErrorMessage) {
+			// Socket errors are conveyed to all the requests waiting on the connection.
+			Map<Object, AsyncReply> replies = this.correlatedReplies.remove(connectionId);
+			if (replies != null) {
+				for (AsyncReply reply : replies.values()) {
+					reply.setReply(message);
+				}
+			}
+			return false;
+		}
+		Map<Object, AsyncReply> replies = this.correlatedReplies.get(connectionId);
+		Object correlationKey;
+		try {
+			correlationKey = this.correlationStrategy.getCorrelationKey(message);
+		}
+		catch (Exception e) {
+			String errorMessage = "Cannot correlate response - failed to determine the correlation key for "
+					+ connectionId;
+			logger.error(errorMessage, e);
+			publishNoConnectionEvent(message, connectionId, errorMessage);
+			return false;
+		}
+		AsyncReply reply = replies != null && correlationKey != null ? replies.get(correlationKey) : null;
+		if (reply == null) {
+			String errorMessage = "Cannot correlate response - no pending reply for " + correlationKey
+					+ " on " + connectionId;
+			logger.error(errorMessage);
+			publishNoConnectionEvent(message, connectionId, errorMessage);
+			return false;
+		}
+		reply.setReply(message);
+		return false;
+	}
+
 	private void publishNoConnectionEvent(Message<?> message, String connectionId, String errorMessage) {
 		ApplicationEventPublisher applicationEventPublisher = this.connectionFactory.getApplicationEventPublisher();
 		if (applicationEventPublisher != null) {
@@ -224,12 +368,13 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	@Override
 	public void addNewConnection(TcpConnection connection) {
-		// do nothing - no asynchronous multiplexing supported
+		// do nothing - a connection is obtained from the factory for each request
 	}
 
 	@Override
 	public void removeDeadConnection(TcpConnection connection) {
-		// do nothing - no asynchronous multiplexing supported
+		// forget the replies correlated on that connection, if any; the others are per request
+		this.correlatedReplies.remove(connection.getConnectionId());
 	}
 
 	/**
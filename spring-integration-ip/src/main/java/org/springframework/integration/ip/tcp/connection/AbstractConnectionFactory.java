@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,7 @@ import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
 
 /**
@@ -375,6 +376,11 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		this.taskExecutor = taskExecutor;
 	}
 
+	@Override // super class is protected
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		super.setTaskScheduler(taskScheduler);
+	}
+
 	/**
 	 *
 	 * @param deserializer the deserializer to set
@@ -612,12 +618,36 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 	 */
 	protected void processNioSelections(int selectionCount, final Selector selector, ServerSocketChannel server,
 			Map<SocketChannel, TcpNioConnection> connections) throws IOException {
+
+		this.nextCheckForClosedNioConnections = processNioSelections(selectionCount, selector, server, connections,
+				this.nextCheckForClosedNioConnections);
+	}
+
+	/**
+	 * Same as {@link #processNioSelections(int, Selector, ServerSocketChannel, Map)},
+	 * for a caller keeping its own time of the next check for closed connections,
+	 * such as each of several threads running their own selector.
+	 *
+	 * @param selectionCount Number of IO Events, if 0 we were probably woken up by a close.
+	 * @param selector The selector.
+	 * @param server The server socket channel.
+	 * @param connections Map of connections.
+	 * @param nextCheckForClosedConnections The time of the next check for closed connections.
+	 * @return The time of the next check for closed connections.
+	 * @throws IOException Any IOException.
+	 * @since 5.1
+	 */
+	protected long processNioSelections(int selectionCount, final Selector selector, ServerSocketChannel server,
+			Map<SocketChannel, TcpNioConnection> connections, long nextCheckForClosedConnections)
+			throws IOException {
+
+		long nextCheck = nextCheckForClosedConnections;
 		final long now = System.currentTimeMillis();
 		rescheduleDelayedReads(selector, now);
 		if (this.soTimeout > 0 ||
-				now >= this.nextCheckForClosedNioConnections ||
+				now >= nextCheck ||
 				selectionCount == 0) {
-			this.nextCheckForClosedNioConnections = now + this.nioHarvestInterval;
+			nextCheck = now + this.nioHarvestInterval;
 			Iterator<Entry<SocketChannel, TcpNioConnection>> it = connections.entrySet().iterator();
 			while (it.hasNext()) {
 				SocketChannel channel = it.next().getKey();
@@ -735,6 +765,7 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 				}
 			}
 		}
+		return nextCheck;
 	}
 
 	protected void delayRead(Selector selector, long now, final SelectionKey key) {
@@ -762,11 +793,21 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		boolean wakeSelector = false;
 		try {
 			while (this.delayedReads.size() > 0) {
-				if (this.delayedReads.peek().failedAt + this.readDelay < now) {
-					PendingIO pendingRead = this.delayedReads.take();
+				PendingIO nextRead = this.delayedReads.peek();
+				if (nextRead != null && nextRead.failedAt + this.readDelay < now) {
+					// the delayed reads can be shared by several selectors (worker selectors)
+					PendingIO pendingRead = this.delayedReads.poll();
+					if (pendingRead == null) {
+						break;
+					}
 					if (pendingRead.key.channel().isOpen()) {
 						pendingRead.key.interestOps(SelectionKey.OP_READ);
-						wakeSelector = true;
+						if (pendingRead.key.selector() == selector) {
+							wakeSelector = true;
+						}
+						else {
+							pendingRead.key.selector().wakeup();
+						}
 						if (logger.isDebugEnabled()) {
 							logger.debug("Rescheduling delayed read for " + ((TcpNioConnection) pendingRead.key.attachment()).getConnectionId());
 						}
@@ -781,9 +822,6 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 				}
 			}
 		}
-		catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
 		finally {
 			if (wakeSelector) {
 				selector.wakeup();
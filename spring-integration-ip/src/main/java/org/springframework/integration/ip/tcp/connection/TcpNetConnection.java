@@ -1,5 +1,5 @@
 /*
- * Copyright 2001-2017 the original author or authors.
+ * Copyright 2001-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,8 @@ import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
@@ -46,6 +48,8 @@ public class TcpNetConnection extends TcpConnectionSupport implements Scheduling
 
 	private final Socket socket;
 
+	private final Lock sendLock = new ReentrantLock();
+
 	private volatile OutputStream socketOutputStream;
 
 	private volatile long lastRead = System.currentTimeMillis();
@@ -95,8 +99,18 @@ public class TcpNetConnection extends TcpConnectionSupport implements Scheduling
 	}
 
 	@Override
+	public void send(Message<?> message) throws Exception {
+		this.sendLock.lock();
+		try {
+			doSend(message);
+		}
+		finally {
+			this.sendLock.unlock();
+		}
+	}
+
 	@SuppressWarnings("unchecked")
-	public synchronized void send(Message<?> message) throws Exception {
+	private void doSend(Message<?> message) throws Exception {
 		if (this.socketOutputStream == null) {
 			int writeBufferSize = this.socket.getSendBufferSize();
 			this.socketOutputStream = new BufferedOutputStream(this.socket.getOutputStream(),
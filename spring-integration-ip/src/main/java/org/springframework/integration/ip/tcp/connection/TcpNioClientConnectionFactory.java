@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.springframework.integration.ip.util.ByteBufferPool;
 import org.springframework.scheduling.SchedulingAwareRunnable;
 import org.springframework.util.Assert;
 
@@ -46,6 +47,16 @@ public class TcpNioClientConnectionFactory extends
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean pushFraming;
+
+	private volatile ByteBufferPool byteBufferPool;
+
+	private volatile boolean gatheringWrites;
+
+	private volatile int writeCoalescingSize;
+
+	private volatile long writeCoalescingDelay;
+
 	private volatile Selector selector;
 
 	private final Map<SocketChannel, TcpNioConnection> channelMap = new ConcurrentHashMap<SocketChannel, TcpNioConnection>();
@@ -87,6 +98,17 @@ public class TcpNioClientConnectionFactory extends
 		TcpNioConnection connection = this.tcpNioConnectionSupport.createNewConnection(
 				socketChannel, false, this.isLookupHost(), this.getApplicationEventPublisher(), getComponentName());
 		connection.setUsingDirectBuffers(this.usingDirectBuffers);
+		connection.setPushFraming(this.pushFraming);
+		if (this.byteBufferPool != null) {
+			connection.setByteBufferPool(this.byteBufferPool);
+		}
+		connection.setGatheringWrites(this.gatheringWrites);
+		connection.setWriteCoalescingSize(this.writeCoalescingSize);
+		connection.setWriteCoalescingDelay(this.writeCoalescingDelay);
+		if (this.writeCoalescingSize > 0 && this.writeCoalescingDelay > 0) {
+			Assert.state(getTaskScheduler() != null, "A task scheduler is required for a write coalescing delay");
+			connection.setTaskScheduler(getTaskScheduler());
+		}
 		connection.setTaskExecutor(this.getTaskExecutor());
 		if (getSslHandshakeTimeout() != null && connection instanceof TcpNioSSLConnection) {
 			((TcpNioSSLConnection) connection).setHandshakeTimeout(getSslHandshakeTimeout());
@@ -113,6 +135,65 @@ public class TcpNioClientConnectionFactory extends
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * Set to true to decode the incoming data on the reading thread, without an
+	 * assembler thread per connection, when the deserializer is a
+	 * {@link org.springframework.integration.ip.tcp.serializer.FramingDeserializer}.
+	 * @param pushFraming true to decode frames as the data is received.
+	 * @since 5.1
+	 * @see TcpNioConnection#setPushFraming(boolean)
+	 */
+	public void setPushFraming(boolean pushFraming) {
+		this.pushFraming = pushFraming;
+	}
+
+	/**
+	 * Set a pool, possibly shared with other factories, from which connections obtain
+	 * their read, write and SSL buffers, instead of allocating their own; the pool
+	 * determines whether direct buffers are used.
+	 * @param byteBufferPool the pool.
+	 * @since 5.1
+	 * @see TcpNioConnection#setByteBufferPool(ByteBufferPool)
+	 */
+	public void setByteBufferPool(ByteBufferPool byteBufferPool) {
+		this.byteBufferPool = byteBufferPool;
+	}
+
+	/**
+	 * Set to true to write each message with a single gathering write of the buffers
+	 * provided by the serializer, when it is a
+	 * {@link org.springframework.integration.ip.tcp.serializer.GatheringSerializer}.
+	 * @param gatheringWrites true for gathering writes.
+	 * @since 5.1
+	 * @see TcpNioConnection#setGatheringWrites(boolean)
+	 */
+	public void setGatheringWrites(boolean gatheringWrites) {
+		this.gatheringWrites = gatheringWrites;
+	}
+
+	/**
+	 * Set to a positive value to coalesce the messages sent on a connection until this
+	 * number of bytes is pending, the {@link #setWriteCoalescingDelay(long) delay}
+	 * expires or, with no delay, no other thread is waiting to send.
+	 * @param writeCoalescingSize the number of bytes.
+	 * @since 5.1
+	 * @see TcpNioConnection#setWriteCoalescingSize(int)
+	 */
+	public void setWriteCoalescingSize(int writeCoalescingSize) {
+		this.writeCoalescingSize = writeCoalescingSize;
+	}
+
+	/**
+	 * Set the maximum time (in microseconds) messages are kept when coalescing writes;
+	 * requires a task scheduler.
+	 * @param writeCoalescingDelay the delay in microseconds.
+	 * @since 5.1
+	 * @see TcpNioConnection#setWriteCoalescingDelay(long)
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
 	public void setTcpNioConnectionSupport(TcpNioConnectionSupport tcpNioSupport) {
 		Assert.notNull(tcpNioSupport, "TcpNioSupport must not be null");
 		this.tcpNioConnectionSupport = tcpNioSupport;
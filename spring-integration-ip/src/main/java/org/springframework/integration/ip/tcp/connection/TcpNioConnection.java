@@ -17,6 +17,7 @@
 package org.springframework.integration.ip.tcp.connection;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -26,6 +27,9 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -33,17 +37,28 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.SSLSession;
 
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.ip.tcp.serializer.FrameDecoder;
+import org.springframework.integration.ip.tcp.serializer.FramingDeserializer;
+import org.springframework.integration.ip.tcp.serializer.GatheringSerializer;
 import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+import org.springframework.integration.ip.util.ByteBufferPool;
+import org.springframework.integration.ip.util.PooledByteBuffer;
 import org.springframework.integration.util.CompositeExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.Assert;
 
 /**
@@ -74,6 +89,10 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private volatile ByteBuffer rawBuffer;
 
+	private volatile PooledByteBuffer pooledRawBuffer;
+
+	private volatile ByteBufferPool byteBufferPool;
+
 	private volatile int maxMessageSize = 60 * 1024;
 
 	private volatile long lastRead;
@@ -82,6 +101,14 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private final AtomicInteger executionControl = new AtomicInteger();
 
+	private final Lock executionLock = new ReentrantLock();
+
+	private final ReentrantLock sendLock = new ReentrantLock();
+
+	private final Lock assemblerLock = new ReentrantLock();
+
+	private final ReentrantLock rawBufferLock = new ReentrantLock();
+
 	private volatile boolean writingToPipe;
 
 	private volatile CountDownLatch writingLatch;
@@ -90,6 +117,28 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private volatile boolean timedOut;
 
+	private volatile boolean pushFraming;
+
+	private volatile boolean frameDecoderResolved;
+
+	private volatile FrameDecoder<?> frameDecoder;
+
+	private Object framedPayload;
+
+	private volatile boolean gatheringWrites;
+
+	private volatile int writeCoalescingSize;
+
+	private volatile long writeCoalescingDelay;
+
+	private volatile TaskScheduler taskScheduler;
+
+	private final List<ByteBuffer> pendingWrites = new ArrayList<>();
+
+	private long pendingBytes;
+
+	private ScheduledFuture<?> pendingFlush;
+
 	/**
 	 * Constructs a TcpNetConnection for the SocketChannel.
 	 * @param socketChannel The socketChannel.
@@ -116,6 +165,84 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		this.pipeTimeout = pipeTimeout;
 	}
 
+	/**
+	 * Set to true to decode the frames on the thread reading the data, as it is
+	 * received, when the deserializer is a {@link FramingDeserializer}; the resulting
+	 * messages are sent to the listener on that thread, in order, before the connection
+	 * reads more data. Otherwise, the data is handed to an assembler thread, which
+	 * blocks in the deserializer until a message is complete. Default false.
+	 * @param pushFraming true to decode frames as the data is received.
+	 * @since 5.1
+	 */
+	public void setPushFraming(boolean pushFraming) {
+		this.pushFraming = pushFraming;
+	}
+
+	/**
+	 * Set a pool from which to obtain the buffers used to read from and write to the
+	 * socket, instead of allocating them for each connection. The read buffer is only
+	 * held while data is read, or while a partial SSL packet is pending; when set,
+	 * the pool determines whether direct buffers are used.
+	 * @param byteBufferPool the pool.
+	 * @since 5.1
+	 */
+	public void setByteBufferPool(ByteBufferPool byteBufferPool) {
+		this.byteBufferPool = byteBufferPool;
+	}
+
+	protected ByteBufferPool getByteBufferPool() {
+		return this.byteBufferPool;
+	}
+
+	/**
+	 * Set to true to write each message with a single gathering write of the buffers
+	 * (such as header, payload and terminator) provided by the serializer, when it is
+	 * a {@link GatheringSerializer}, instead of writing them to an output stream.
+	 * Default false.
+	 * @param gatheringWrites true for gathering writes.
+	 * @since 5.1
+	 */
+	public void setGatheringWrites(boolean gatheringWrites) {
+		this.gatheringWrites = gatheringWrites;
+	}
+
+	/**
+	 * Set to a positive value to coalesce the messages sent on this connection: the
+	 * serialized messages are kept until this number of bytes is pending, until the
+	 * {@link #setWriteCoalescingDelay(long) delay} expires or, with no delay, until
+	 * no other thread is waiting to send, and are then written together.
+	 * Default 0 (each message is written when it is sent).
+	 * @param writeCoalescingSize the number of bytes.
+	 * @since 5.1
+	 */
+	public void setWriteCoalescingSize(int writeCoalescingSize) {
+		this.writeCoalescingSize = writeCoalescingSize;
+	}
+
+	/**
+	 * Set the maximum time (in microseconds) pending messages are kept when coalescing
+	 * writes; requires a {@link #setTaskScheduler(TaskScheduler) task scheduler}.
+	 * When a message cannot be written after {@link #send(Message)} returns, the
+	 * connection is closed and a {@link TcpConnectionExceptionEvent} is published.
+	 * Default 0: pending messages are written as soon as no other thread is waiting
+	 * to send.
+	 * @param writeCoalescingDelay the delay in microseconds.
+	 * @since 5.1
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * Set the scheduler used to write pending messages when the
+	 * {@link #setWriteCoalescingDelay(long) write coalescing delay} expires.
+	 * @param taskScheduler the task scheduler.
+	 * @since 5.1
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		this.taskScheduler = taskScheduler;
+	}
+
 	@Override
 	public void close() {
 		this.setNoReadErrorOnClose(true);
@@ -123,6 +250,19 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	}
 
 	private void doClose() {
+		if (this.writeCoalescingSize > 0 && this.socketChannel.isOpen() && this.sendLock.tryLock()) {
+			try {
+				flushPendingWrites();
+			}
+			catch (Exception e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug(getConnectionId() + " Failed to write pending messages on close", e);
+				}
+			}
+			finally {
+				this.sendLock.unlock();
+			}
+		}
 		try {
 			this.channelInputStream.close();
 		}
@@ -133,6 +273,7 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 		catch (Exception e) {
 		}
+		releaseBuffersIfClosed();
 		super.close();
 	}
 
@@ -144,17 +285,27 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	@Override
 	@SuppressWarnings("unchecked")
 	public void send(Message<?> message) throws Exception {
-		synchronized (this.socketChannel) {
-			if (this.bufferedOutputStream == null) {
-				int writeBufferSize = this.socketChannel.socket().getSendBufferSize();
-				this.bufferedOutputStream = new BufferedOutputStream(this.getChannelOutputStream(),
-						writeBufferSize > 0 ? writeBufferSize : 8192);
-			}
+		this.sendLock.lock();
+		try {
 			Object object = this.getMapper().fromMessage(message);
 			this.lastSend = System.currentTimeMillis();
 			try {
-				((Serializer<Object>) this.getSerializer()).serialize(object, this.bufferedOutputStream);
-				this.bufferedOutputStream.flush();
+				ByteBuffer[] frame = toFrame(object);
+				if (frame == null) {
+					if (this.bufferedOutputStream == null) {
+						int writeBufferSize = this.socketChannel.socket().getSendBufferSize();
+						this.bufferedOutputStream = new BufferedOutputStream(this.getChannelOutputStream(),
+								writeBufferSize > 0 ? writeBufferSize : 8192);
+					}
+					((Serializer<Object>) this.getSerializer()).serialize(object, this.bufferedOutputStream);
+					this.bufferedOutputStream.flush();
+				}
+				else if (this.writeCoalescingSize > 0) {
+					coalesce(frame);
+				}
+				else {
+					getChannelOutputStream().doWrite(frame);
+				}
 			}
 			catch (Exception e) {
 				this.publishConnectionExceptionEvent(new MessagingException(message, "Failed TCP serialization", e));
@@ -165,10 +316,95 @@ public class TcpNioConnection extends TcpConnectionSupport {
 				logger.debug(getConnectionId() + " Message sent " + message);
 			}
 		}
+		finally {
+			this.sendLock.unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private ByteBuffer[] toFrame(Object object) throws IOException {
+		Serializer<?> serializer = getSerializer();
+		if (this.gatheringWrites && serializer instanceof GatheringSerializer) {
+			ByteBuffer[] frame = ((GatheringSerializer<Object>) serializer).toByteBuffers(object);
+			if (frame != null) {
+				return frame;
+			}
+		}
+		if (this.writeCoalescingSize > 0) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+			((Serializer<Object>) serializer).serialize(object, bytes);
+			return new ByteBuffer[] { ByteBuffer.wrap(bytes.toByteArray()) };
+		}
+		return null;
+	}
+
+	private void coalesce(ByteBuffer[] frame) throws IOException {
+		for (ByteBuffer buffer : frame) {
+			this.pendingWrites.add(buffer);
+			this.pendingBytes += buffer.remaining();
+		}
+		if (this.pendingBytes >= this.writeCoalescingSize) {
+			flushPendingWrites();
+		}
+		else if (this.writeCoalescingDelay > 0) {
+			if (this.pendingFlush == null) {
+				this.pendingFlush = scheduleFlush();
+			}
+		}
+		else if (!this.sendLock.hasQueuedThreads()) {
+			flushPendingWrites();
+		}
+	}
+
+	private ScheduledFuture<?> scheduleFlush() {
+		TaskScheduler scheduler = this.taskScheduler;
+		Assert.state(scheduler != null, "A task scheduler is required for a write coalescing delay");
+		if (scheduler instanceof ThreadPoolTaskScheduler) {
+			return ((ThreadPoolTaskScheduler) scheduler).getScheduledExecutor()
+					.schedule(this::scheduledFlush, this.writeCoalescingDelay, TimeUnit.MICROSECONDS);
+		}
+		long delay = (this.writeCoalescingDelay + 999) / 1000;
+		return scheduler.schedule(this::scheduledFlush, new Date(System.currentTimeMillis() + delay));
+	}
+
+	private void scheduledFlush() {
+		this.sendLock.lock();
+		try {
+			this.pendingFlush = null;
+			flushPendingWrites();
+		}
+		catch (Exception e) {
+			logger.error(getConnectionId() + " Failed to write pending messages", e);
+			publishConnectionExceptionEvent(e);
+			closeConnection(true);
+		}
+		finally {
+			this.sendLock.unlock();
+		}
+	}
+
+	/*
+	 * Must be called while holding the send lock.
+	 */
+	private void flushPendingWrites() throws IOException {
+		if (this.pendingFlush != null) {
+			this.pendingFlush.cancel(false);
+			this.pendingFlush = null;
+		}
+		if (!this.pendingWrites.isEmpty()) {
+			ByteBuffer[] buffers = this.pendingWrites.toArray(new ByteBuffer[this.pendingWrites.size()]);
+			this.pendingWrites.clear();
+			this.pendingBytes = 0;
+			getChannelOutputStream().doWrite(buffers);
+		}
 	}
 
 	@Override
 	public Object getPayload() throws Exception {
+		Object frame = this.framedPayload;
+		if (frame != null) {
+			return frame;
+		}
 		return this.getDeserializer().deserialize(inputStream());
 	}
 
@@ -288,7 +524,8 @@ public class TcpNioConnection extends TcpConnectionSupport {
 				// a new one wasn't run
 				try {
 					if (dataAvailable()) {
-						synchronized (this.executionControl) {
+						this.executionLock.lock();
+						try {
 							if (this.executionControl.incrementAndGet() <= 1) {
 								// only continue if we don't already have another assembler running
 								this.executionControl.set(1);
@@ -299,6 +536,9 @@ public class TcpNioConnection extends TcpConnectionSupport {
 								this.executionControl.decrementAndGet();
 							}
 						}
+						finally {
+							this.executionLock.unlock();
+						}
 					}
 					if (moreDataAvailable) {
 						if (logger.isTraceEnabled()) {
@@ -328,11 +568,22 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	/**
 	 * Blocks until a complete message has been assembled.
-	 * Synchronized to avoid concurrency.
+	 * Guarded by a lock to avoid concurrency; unlike {@code synchronized}, the lock
+	 * does not pin a virtual thread to its carrier while it blocks.
 	 * @return The Message or null if no data is available.
 	 * @throws IOException
 	 */
-	private synchronized Message<?> convert() throws Exception {
+	private Message<?> convert() throws Exception {
+		this.assemblerLock.lock();
+		try {
+			return doConvert();
+		}
+		finally {
+			this.assemblerLock.unlock();
+		}
+	}
+
+	private Message<?> doConvert() throws Exception {
 		if (logger.isTraceEnabled()) {
 			logger.trace(getConnectionId() + " checking data avail (convert): " + this.channelInputStream.available() +
 					" pending: " + (this.writingToPipe));
@@ -400,19 +651,29 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	}
 
 	private void doRead() throws Exception {
-		if (this.rawBuffer == null) {
-			this.rawBuffer = allocate(this.maxMessageSize);
-		}
-
+		this.rawBufferLock.lock();
 		this.writingLatch = new CountDownLatch(1);
 		this.writingToPipe = true;
 		try {
+			if (this.rawBuffer == null) {
+				ByteBufferPool pool = this.byteBufferPool;
+				if (pool != null) {
+					this.pooledRawBuffer = pool.acquire(this.maxMessageSize);
+					this.rawBuffer = this.pooledRawBuffer.getBuffer();
+				}
+				else {
+					this.rawBuffer = allocate(this.maxMessageSize);
+				}
+			}
 			if (this.taskExecutor == null) {
 				ExecutorService executor = Executors.newCachedThreadPool();
 				this.taskExecutor = new CompositeExecutor(executor, executor);
 			}
-			// If there is no assembler running, start one
-			checkForAssembler();
+			FrameDecoder<?> decoder = frameDecoder();
+			if (decoder == null) {
+				// If there is no assembler running, start one
+				checkForAssembler();
+			}
 
 			if (logger.isTraceEnabled()) {
 				logger.trace("Before read:" + this.rawBuffer.position() + "/" + this.rawBuffer.limit());
@@ -420,6 +681,9 @@ public class TcpNioConnection extends TcpConnectionSupport {
 			int len = this.socketChannel.read(this.rawBuffer);
 			if (len < 0) {
 				this.writingToPipe = false;
+				if (decoder != null) {
+					endOfFrames(decoder, false);
+				}
 				this.closeConnection(true);
 			}
 			if (logger.isTraceEnabled()) {
@@ -444,11 +708,59 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		finally {
 			this.writingToPipe = false;
 			this.writingLatch.countDown();
+			if (!isOpen()) {
+				releaseBuffers();
+			}
+			else if (this.pooledRawBuffer != null && this.rawBuffer.position() == 0) {
+				releaseRawBuffer();
+			}
+			this.rawBufferLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the pooled buffers to the {@link ByteBufferPool} when the connection is
+	 * closed and no read is in progress.
+	 * @since 5.1
+	 */
+	protected void releaseBuffersIfClosed() {
+		if (!isOpen() && !this.rawBufferLock.isHeldByCurrentThread() && this.rawBufferLock.tryLock()) {
+			try {
+				releaseBuffers();
+			}
+			finally {
+				this.rawBufferLock.unlock();
+			}
 		}
 	}
 
+	/**
+	 * Return the pooled buffers to the {@link ByteBufferPool}; invoked on a closed
+	 * connection with no read in progress. Subclasses holding pooled buffers must
+	 * call {@code super.releaseBuffers()}.
+	 * @since 5.1
+	 */
+	protected void releaseBuffers() {
+		if (this.pooledRawBuffer != null) {
+			releaseRawBuffer();
+		}
+	}
+
+	private void releaseRawBuffer() {
+		PooledByteBuffer pooled = this.pooledRawBuffer;
+		this.pooledRawBuffer = null;
+		this.rawBuffer = null;
+		pooled.release();
+	}
+
 	protected void sendToPipe(ByteBuffer rawBuffer) throws IOException {
 		Assert.notNull(rawBuffer, "rawBuffer cannot be null");
+		FrameDecoder<?> decoder = this.frameDecoder;
+		if (decoder != null) {
+			decodeFrames(decoder, rawBuffer);
+			rawBuffer.clear();
+			return;
+		}
 		if (logger.isTraceEnabled()) {
 			logger.trace(this.getConnectionId() + " Sending " + rawBuffer.limit() + " to pipe");
 		}
@@ -456,8 +768,81 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		rawBuffer.clear();
 	}
 
+	private FrameDecoder<?> frameDecoder() {
+		if (this.pushFraming && !this.frameDecoderResolved) {
+			Deserializer<?> deserializer = getDeserializer();
+			if (deserializer instanceof FramingDeserializer) {
+				this.frameDecoder = ((FramingDeserializer<?>) deserializer).createFrameDecoder();
+			}
+			this.frameDecoderResolved = true;
+		}
+		return this.frameDecoder;
+	}
+
+	private void decodeFrames(FrameDecoder<?> decoder, ByteBuffer buffer) throws IOException {
+		if (logger.isTraceEnabled()) {
+			logger.trace(this.getConnectionId() + " Decoding " + buffer.remaining() + " bytes");
+		}
+		this.assemblerLock.lock();
+		try {
+			Object frame;
+			while ((frame = decoder.decode(buffer)) != null) {
+				sendFrame(frame);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			closeConnection(true);
+			sendExceptionToListener(e);
+			throw e;
+		}
+		finally {
+			this.assemblerLock.unlock();
+		}
+	}
+
+	private void endOfFrames(FrameDecoder<?> decoder, boolean timedOut) {
+		this.assemblerLock.lock();
+		try {
+			Object frame = decoder.endOfStream(timedOut);
+			if (frame != null) {
+				sendFrame(frame);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			if (!this.isNoReadErrorOnClose()) {
+				logger.error("Read exception " + this.getConnectionId() + " " + e.getClass().getSimpleName() +
+						":" + e.getCause() + ":" + e.getMessage());
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("Read exception " + this.getConnectionId() + " " + e.getClass().getSimpleName() +
+						":" + e.getCause() + ":" + e.getMessage());
+			}
+			closeConnection(true);
+			sendExceptionToListener(e);
+		}
+		finally {
+			this.assemblerLock.unlock();
+		}
+	}
+
+	private void sendFrame(Object frame) {
+		Message<?> message;
+		this.framedPayload = frame;
+		try {
+			message = getMapper().toMessage(this);
+		}
+		catch (Exception e) {
+			throw new MessagingException("Failed to map frame from connection " + getConnectionId(), e);
+		}
+		finally {
+			this.framedPayload = null;
+		}
+		sendToChannel(message);
+	}
+
 	private void checkForAssembler() {
-		synchronized (this.executionControl) {
+		this.executionLock.lock();
+		try {
 			if (this.executionControl.incrementAndGet() <= 1) {
 				// only execute run() if we don't already have one running
 				this.executionControl.set(1);
@@ -480,6 +865,9 @@ public class TcpNioConnection extends TcpConnectionSupport {
 				this.executionControl.decrementAndGet();
 			}
 		}
+		finally {
+			this.executionLock.unlock();
+		}
 	}
 
 	/**
@@ -514,6 +902,16 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	 */
 	void timeout() {
 		this.timedOut = true;
+		FrameDecoder<?> decoder = this.frameDecoder;
+		// don't wait for a reader which is still sending a message
+		if (decoder != null && this.assemblerLock.tryLock()) {
+			try {
+				endOfFrames(decoder, true);
+			}
+			finally {
+				this.assemblerLock.unlock();
+			}
+		}
 		this.closeConnection(true);
 	}
 
@@ -576,6 +974,8 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	 */
 	class ChannelOutputStream extends OutputStream {
 
+		protected final ReentrantLock writeLock = new ReentrantLock();
+
 		private Selector selector;
 
 		private int soTimeout;
@@ -609,12 +1009,81 @@ public class TcpNioConnection extends TcpConnectionSupport {
 			doWrite(buffer);
 		}
 
-		protected synchronized void doWrite(ByteBuffer buffer) throws IOException {
+		protected void doWrite(ByteBuffer buffer) throws IOException {
+			this.writeLock.lock();
+			try {
+				writeFully(buffer);
+			}
+			finally {
+				this.writeLock.unlock();
+			}
+		}
+
+		/**
+		 * Write the buffers, in order, with gathering writes.
+		 * @param buffers the buffers.
+		 * @throws IOException Any IOException.
+		 * @since 5.1
+		 */
+		protected void doWrite(ByteBuffer[] buffers) throws IOException {
+			this.writeLock.lock();
+			try {
+				writeFully(buffers);
+			}
+			finally {
+				this.writeLock.unlock();
+			}
+		}
+
+		private void writeFully(ByteBuffer... buffers) throws IOException {
 			if (logger.isDebugEnabled()) {
-				logger.debug(getConnectionId() + " writing " + buffer.remaining());
+				logger.debug(getConnectionId() + " writing " + remaining(buffers));
+			}
+			ByteBufferPool pool = TcpNioConnection.this.byteBufferPool;
+			if (pool != null && pool.isDirect() && !allDirect(buffers)) {
+				writeThroughPool(pool, buffers);
+			}
+			else {
+				writeToChannel(buffers);
+			}
+		}
+
+		/*
+		 * Copy heap data to pooled direct buffers; otherwise, the channel copies it
+		 * to a temporary direct buffer, cached per thread.
+		 */
+		private void writeThroughPool(ByteBufferPool pool, ByteBuffer[] buffers) throws IOException {
+			PooledByteBuffer pooled = pool.acquire((int) Math.min(remaining(buffers), pool.getMaxBufferSize()));
+			try {
+				ByteBuffer direct = pooled.getBuffer();
+				int index = 0;
+				while (index < buffers.length) {
+					direct.clear();
+					while (index < buffers.length && direct.hasRemaining()) {
+						ByteBuffer buffer = buffers[index];
+						if (buffer.remaining() <= direct.remaining()) {
+							direct.put(buffer);
+							index++;
+						}
+						else {
+							ByteBuffer chunk = buffer.duplicate();
+							chunk.limit(chunk.position() + direct.remaining());
+							direct.put(chunk);
+							buffer.position(chunk.position());
+						}
+					}
+					direct.flip();
+					writeToChannel(direct);
+				}
+			}
+			finally {
+				pooled.release();
 			}
-			TcpNioConnection.this.socketChannel.write(buffer);
-			int remaining = buffer.remaining();
+		}
+
+		private void writeToChannel(ByteBuffer... buffers) throws IOException {
+			TcpNioConnection.this.socketChannel.write(buffers);
+			long remaining = remaining(buffers);
 			if (remaining == 0) {
 				return;
 			}
@@ -629,9 +1098,26 @@ public class TcpNioConnection extends TcpConnectionSupport {
 					throw new SocketTimeoutException("Timeout on write");
 				}
 				this.selector.selectedKeys().clear();
-				TcpNioConnection.this.socketChannel.write(buffer);
-				remaining = buffer.remaining();
+				TcpNioConnection.this.socketChannel.write(buffers);
+				remaining = remaining(buffers);
+			}
+		}
+
+		private long remaining(ByteBuffer[] buffers) {
+			long remaining = 0;
+			for (ByteBuffer buffer : buffers) {
+				remaining += buffer.remaining();
 			}
+			return remaining;
+		}
+
+		private boolean allDirect(ByteBuffer[] buffers) {
+			for (ByteBuffer buffer : buffers) {
+				if (!buffer.isDirect()) {
+					return false;
+				}
+			}
+			return true;
 		}
 
 	}
@@ -655,6 +1141,8 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 		private final AtomicInteger available = new AtomicInteger();
 
+		private final Lock readLock = new ReentrantLock();
+
 		private volatile boolean isClosed;
 
 		@Override
@@ -685,7 +1173,17 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 
 		@Override
-		public synchronized int read() throws IOException {
+		public int read() throws IOException {
+			this.readLock.lock();
+			try {
+				return doRead();
+			}
+			finally {
+				this.readLock.unlock();
+			}
+		}
+
+		private int doRead() throws IOException {
 			if (this.isClosed && this.available.get() == 0) {
 				if (TcpNioConnection.this.timedOut) {
 					throw new SocketTimeoutException("Connection has timed out");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,9 +18,12 @@ package org.springframework.integration.ip.tcp.connection;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
@@ -31,6 +34,8 @@ import javax.net.ssl.SSLHandshakeException;
 import javax.net.ssl.SSLSession;
 
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.integration.ip.util.ByteBufferPool;
+import org.springframework.integration.ip.util.PooledByteBuffer;
 import org.springframework.messaging.MessagingException;
 import org.springframework.util.Assert;
 
@@ -62,11 +67,15 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 
 	private volatile ByteBuffer encoded;
 
+	private volatile PooledByteBuffer pooledDecoded;
+
+	private volatile PooledByteBuffer pooledEncoded;
+
 	private volatile SSLChannelOutputStream sslChannelOutputStream;
 
 	private final Semaphore semaphore = new Semaphore(0);
 
-	private final Object monitorLock = new Object();
+	private final Lock monitorLock = new ReentrantLock();
 
 	private volatile boolean writerActive;
 
@@ -92,6 +101,18 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 		this.handshakeTimeout = handshakeTimeout;
 	}
 
+	/**
+	 * Also moves the encryption buffers, allocated by {@link #init()}, to the pool.
+	 */
+	@Override
+	public void setByteBufferPool(ByteBufferPool byteBufferPool) {
+		super.setByteBufferPool(byteBufferPool);
+		if (this.decoded != null && this.pooledDecoded == null) {
+			newDecodedBuffer(this.decoded.capacity());
+			newEncodedBuffer(this.encoded.capacity());
+		}
+	}
+
 	@Override
 	public SSLSession getSslSession() {
 		return this.sslEngine.getSession();
@@ -155,6 +176,9 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 		case NEED_UNWRAP:
 		case FINISHED:
 		case NOT_HANDSHAKING:
+			if (this.decoded == null) {
+				throw new ClosedChannelException();
+			}
 			this.decoded.clear();
 			result = this.sslEngine.unwrap(networkBuffer, this.decoded);
 			if (logger.isDebugEnabled()) {
@@ -162,7 +186,7 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 			}
 			Status status = result.getStatus();
 			if (status == Status.BUFFER_OVERFLOW) {
-				this.decoded = this.allocateEncryptionBuffer(this.sslEngine.getSession().getApplicationBufferSize());
+				newDecodedBuffer(this.sslEngine.getSession().getApplicationBufferSize());
 			}
 			if (result.bytesProduced() > 0) {
 				this.decoded.flip();
@@ -171,13 +195,16 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 			break;
 		case NEED_WRAP:
 			if (!resumeWriterIfNeeded()) {
+				if (this.encoded == null) {
+					throw new ClosedChannelException();
+				}
 				this.encoded.clear();
 				result = this.sslEngine.wrap(networkBuffer, this.encoded);
 				if (logger.isDebugEnabled()) {
 					logger.debug("After wrap: " + resultToString(result));
 				}
 				if (result.getStatus() == Status.BUFFER_OVERFLOW) {
-					this.encoded = this.allocateEncryptionBuffer(this.sslEngine.getSession().getPacketBufferSize());
+					newEncodedBuffer(this.sslEngine.getSession().getPacketBufferSize());
 				}
 				else {
 					this.encoded.flip();
@@ -252,12 +279,77 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 	 */
 	public void init() throws IOException {
 		if (this.decoded == null) {
-			this.decoded = allocateEncryptionBuffer(2048);
-			this.encoded = allocateEncryptionBuffer(2048);
+			newDecodedBuffer(2048);
+			newEncodedBuffer(2048);
 			initilizeEngine();
 		}
 	}
 
+	private void newDecodedBuffer(int size) {
+		PooledByteBuffer previous = this.pooledDecoded;
+		ByteBufferPool pool = getByteBufferPool();
+		if (pool != null) {
+			this.pooledDecoded = pool.acquire(size);
+			this.decoded = this.pooledDecoded.getBuffer();
+		}
+		else {
+			this.decoded = allocateEncryptionBuffer(size);
+		}
+		if (previous != null) {
+			previous.release();
+		}
+	}
+
+	private void newEncodedBuffer(int size) {
+		PooledByteBuffer previous = this.pooledEncoded;
+		ByteBufferPool pool = getByteBufferPool();
+		if (pool != null) {
+			this.pooledEncoded = pool.acquire(size);
+			this.encoded = this.pooledEncoded.getBuffer();
+		}
+		else {
+			this.encoded = allocateEncryptionBuffer(size);
+		}
+		if (previous != null) {
+			previous.release();
+		}
+	}
+
+	/**
+	 * Also returns the pooled encryption buffers, unless data is being written.
+	 */
+	@Override
+	protected void releaseBuffers() {
+		super.releaseBuffers();
+		if (this.pooledDecoded == null && this.pooledEncoded == null) {
+			return;
+		}
+		SSLChannelOutputStream outputStream = this.sslChannelOutputStream;
+		if (outputStream != null && (outputStream.writeLock.isHeldByCurrentThread()
+				|| !outputStream.writeLock.tryLock())) {
+			return;
+		}
+		try {
+			PooledByteBuffer pooled = this.pooledDecoded;
+			if (pooled != null) {
+				this.pooledDecoded = null;
+				this.decoded = null;
+				pooled.release();
+			}
+			pooled = this.pooledEncoded;
+			if (pooled != null) {
+				this.pooledEncoded = null;
+				this.encoded = null;
+				pooled.release();
+			}
+		}
+		finally {
+			if (outputStream != null) {
+				outputStream.writeLock.unlock();
+			}
+		}
+	}
+
 	private ByteBuffer allocateEncryptionBuffer(int size) {
 		if (isUsingDirectBuffers()) {
 			return ByteBuffer.allocateDirect(size);
@@ -274,12 +366,16 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 
 	@Override
 	protected ChannelOutputStream getChannelOutputStream() {
-		synchronized (this.monitorLock) {
+		this.monitorLock.lock();
+		try {
 			if (this.sslChannelOutputStream == null) {
 				this.sslChannelOutputStream = new SSLChannelOutputStream(super.getChannelOutputStream());
 			}
 			return this.sslChannelOutputStream;
 		}
+		finally {
+			this.monitorLock.unlock();
+		}
 	}
 
 	protected SSLChannelOutputStream getSSLChannelOutputStream() {
@@ -322,8 +418,48 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 		 * and multiple writes will be necessary.
 		 */
 		@Override
-		protected synchronized void doWrite(ByteBuffer plainText)
-				throws IOException {
+		protected void doWrite(ByteBuffer plainText) throws IOException {
+			this.writeLock.lock();
+			try {
+				encodeAndWrite(plainText);
+			}
+			finally {
+				this.writeLock.unlock();
+				releaseBuffersIfClosed();
+			}
+		}
+
+		@Override
+		protected void doWrite(ByteBuffer[] buffers) throws IOException {
+			this.writeLock.lock();
+			try {
+				if (buffers.length == 1) {
+					encodeAndWrite(buffers[0]);
+				}
+				else {
+					// a single record rather than one per buffer
+					int length = 0;
+					for (ByteBuffer buffer : buffers) {
+						length += buffer.remaining();
+					}
+					ByteBuffer plainText = ByteBuffer.allocate(length);
+					for (ByteBuffer buffer : buffers) {
+						plainText.put(buffer);
+					}
+					plainText.flip();
+					encodeAndWrite(plainText);
+				}
+			}
+			finally {
+				this.writeLock.unlock();
+				releaseBuffersIfClosed();
+			}
+		}
+
+		private void encodeAndWrite(ByteBuffer plainText) throws IOException {
+			if (TcpNioSSLConnection.this.encoded == null) {
+				throw new ClosedChannelException();
+			}
 			try {
 				TcpNioSSLConnection.this.writerActive = true;
 				int remaining = plainText.remaining();
@@ -429,7 +565,7 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 						+ " Plaintext buffer @" + plainText.position() + "/" + plainText.limit());
 			}
 			if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
-				TcpNioSSLConnection.this.encoded = allocateEncryptionBuffer(TcpNioSSLConnection.this.sslEngine.getSession().getPacketBufferSize());
+				newEncodedBuffer(TcpNioSSLConnection.this.sslEngine.getSession().getPacketBufferSize());
 				result = TcpNioSSLConnection.this.sslEngine.wrap(plainText, TcpNioSSLConnection.this.encoded);
 			}
 			return result;
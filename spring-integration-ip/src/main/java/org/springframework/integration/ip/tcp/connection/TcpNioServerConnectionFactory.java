@@ -29,13 +29,21 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.springframework.integration.ip.util.ByteBufferPool;
 import org.springframework.util.Assert;
 
-/**
 /**
  * Implements a server connection factory that produces {@link TcpNioConnection}s using
  * a {@link ServerSocketChannel}. Must have a {@link TcpListener} registered.
+ * <p>
+ * By default, a single selector accepts the connections and detects the data to read
+ * on all of them. With {@link #setWorkerSelectors(int) worker selectors}, the accepting
+ * selector hands each new connection to one of the workers, each with its own selector
+ * and thread.
  *
  * @author Gary Russell
  * @author Artem Bilan
@@ -48,12 +56,30 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean pushFraming;
+
+	private volatile ByteBufferPool byteBufferPool;
+
+	private volatile boolean gatheringWrites;
+
+	private volatile int writeCoalescingSize;
+
+	private volatile long writeCoalescingDelay;
+
 	private final Map<SocketChannel, TcpNioConnection> channelMap = new HashMap<SocketChannel, TcpNioConnection>();
 
 	private volatile Selector selector;
 
 	private volatile TcpNioConnectionSupport tcpNioConnectionSupport = new DefaultTcpNioConnectionSupport();
 
+	private volatile int workerSelectors;
+
+	private volatile WorkerAssignment workerAssignment = WorkerAssignment.ROUND_ROBIN;
+
+	private volatile SelectorWorker[] workers;
+
+	private int nextWorker;
+
 	/**
 	 * Listens for incoming connections on the port.
 	 * @param port The port.
@@ -131,6 +157,7 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				}
 			}
 			else {
+				startWorkers();
 				this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 				setListening(true);
 				publishServerListeningEvent(getPort());
@@ -164,17 +191,9 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	 */
 	private void doSelect(ServerSocketChannel server, final Selector selector) throws IOException {
 		while (isActive()) {
-			int soTimeout = getSoTimeout();
 			int selectionCount = 0;
 			try {
-				long timeout = soTimeout < 0 ? 0 : soTimeout;
-				if (getDelayedReads().size() > 0 && (timeout == 0 || getReadDelay() < timeout)) {
-					timeout = getReadDelay();
-				}
-				if (logger.isTraceEnabled()) {
-					logger.trace("Delayed reads: " + getDelayedReads().size() + " timeout " + timeout);
-				}
-				selectionCount = selector.select(timeout);
+				selectionCount = selector.select(selectTimeout());
 				processNioSelections(selectionCount, selector, server, this.channelMap);
 			}
 			catch (CancelledKeyException cke) {
@@ -190,6 +209,53 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		}
 	}
 
+	private long selectTimeout() {
+		int soTimeout = getSoTimeout();
+		long timeout = soTimeout < 0 ? 0 : soTimeout;
+		if (getDelayedReads().size() > 0 && (timeout == 0 || getReadDelay() < timeout)) {
+			timeout = getReadDelay();
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Delayed reads: " + getDelayedReads().size() + " timeout " + timeout);
+		}
+		return timeout;
+	}
+
+	private void startWorkers() throws IOException {
+		if (this.workerSelectors > 0) {
+			SelectorWorker[] workers = new SelectorWorker[this.workerSelectors];
+			for (int i = 0; i < workers.length; i++) {
+				workers[i] = new SelectorWorker(Selector.open());
+			}
+			this.workers = workers;
+			if (!isActive()) {
+				// stopped concurrently, possibly before the workers were published
+				for (SelectorWorker worker : workers) {
+					worker.close();
+				}
+				this.workers = null;
+				return;
+			}
+			for (SelectorWorker worker : workers) {
+				getTaskExecutor().execute(worker);
+			}
+		}
+	}
+
+	private SelectorWorker nextWorker(SelectorWorker[] workers) {
+		if (this.workerAssignment == WorkerAssignment.LEAST_CONNECTIONS) {
+			SelectorWorker leastLoaded = workers[0];
+			for (int i = 1; i < workers.length; i++) {
+				if (workers[i].getLoad() < leastLoaded.getLoad()) {
+					leastLoaded = workers[i];
+				}
+			}
+			return leastLoaded;
+		}
+		this.nextWorker = (this.nextWorker + 1) % workers.length;
+		return workers[this.nextWorker];
+	}
+
 	/**
 	 * @param selector The selector.
 	 * @param server The server socket channel.
@@ -222,9 +288,15 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				if (getSslHandshakeTimeout() != null && connection instanceof TcpNioSSLConnection) {
 					((TcpNioSSLConnection) connection).setHandshakeTimeout(getSslHandshakeTimeout());
 				}
-				this.channelMap.put(channel, connection);
-				channel.register(selector, SelectionKey.OP_READ, connection);
-				connection.publishConnectionOpenEvent();
+				SelectorWorker[] workers = this.workers;
+				if (workers != null) {
+					nextWorker(workers).register(channel, connection);
+				}
+				else {
+					this.channelMap.put(channel, connection);
+					channel.register(selector, SelectionKey.OP_READ, connection);
+					connection.publishConnectionOpenEvent();
+				}
 			}
 			catch (Exception e) {
 				logger.error("Exception accepting new connection from "
@@ -240,6 +312,17 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 			TcpNioConnection connection = this.tcpNioConnectionSupport.createNewConnection(socketChannel, true,
 							isLookupHost(), getApplicationEventPublisher(), getComponentName());
 			connection.setUsingDirectBuffers(this.usingDirectBuffers);
+			connection.setPushFraming(this.pushFraming);
+			if (this.byteBufferPool != null) {
+				connection.setByteBufferPool(this.byteBufferPool);
+			}
+			connection.setGatheringWrites(this.gatheringWrites);
+			connection.setWriteCoalescingSize(this.writeCoalescingSize);
+			connection.setWriteCoalescingDelay(this.writeCoalescingDelay);
+			if (this.writeCoalescingSize > 0 && this.writeCoalescingDelay > 0) {
+				Assert.state(getTaskScheduler() != null, "A task scheduler is required for a write coalescing delay");
+				connection.setTaskScheduler(getTaskScheduler());
+			}
 			TcpConnectionSupport wrappedConnection = wrapConnection(connection);
 			initializeConnection(wrappedConnection, socketChannel.socket());
 			return connection;
@@ -261,6 +344,13 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				logger.error("Error closing selector", e);
 			}
 		}
+		SelectorWorker[] workers = this.workers;
+		if (workers != null) {
+			for (SelectorWorker worker : workers) {
+				worker.close();
+			}
+			this.workers = null;
+		}
 		if (this.serverChannel != null) {
 			try {
 				this.serverChannel.close();
@@ -279,6 +369,93 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * Set to true to decode the incoming data on the reading thread, without an
+	 * assembler thread per connection, when the deserializer is a
+	 * {@link org.springframework.integration.ip.tcp.serializer.FramingDeserializer}.
+	 * @param pushFraming true to decode frames as the data is received.
+	 * @since 5.1
+	 * @see TcpNioConnection#setPushFraming(boolean)
+	 */
+	public void setPushFraming(boolean pushFraming) {
+		this.pushFraming = pushFraming;
+	}
+
+	/**
+	 * Set a pool, possibly shared with other factories, from which connections obtain
+	 * their read, write and SSL buffers, instead of allocating their own; the pool
+	 * determines whether direct buffers are used.
+	 * @param byteBufferPool the pool.
+	 * @since 5.1
+	 * @see TcpNioConnection#setByteBufferPool(ByteBufferPool)
+	 */
+	public void setByteBufferPool(ByteBufferPool byteBufferPool) {
+		this.byteBufferPool = byteBufferPool;
+	}
+
+	/**
+	 * Set to true to write each message with a single gathering write of the buffers
+	 * provided by the serializer, when it is a
+	 * {@link org.springframework.integration.ip.tcp.serializer.GatheringSerializer}.
+	 * @param gatheringWrites true for gathering writes.
+	 * @since 5.1
+	 * @see TcpNioConnection#setGatheringWrites(boolean)
+	 */
+	public void setGatheringWrites(boolean gatheringWrites) {
+		this.gatheringWrites = gatheringWrites;
+	}
+
+	/**
+	 * Set to a positive value to coalesce the messages sent on a connection until this
+	 * number of bytes is pending, the {@link #setWriteCoalescingDelay(long) delay}
+	 * expires or, with no delay, no other thread is waiting to send.
+	 * @param writeCoalescingSize the number of bytes.
+	 * @since 5.1
+	 * @see TcpNioConnection#setWriteCoalescingSize(int)
+	 */
+	public void setWriteCoalescingSize(int writeCoalescingSize) {
+		this.writeCoalescingSize = writeCoalescingSize;
+	}
+
+	/**
+	 * Set the maximum time (in microseconds) messages are kept when coalescing writes;
+	 * requires a task scheduler.
+	 * @param writeCoalescingDelay the delay in microseconds.
+	 * @since 5.1
+	 * @see TcpNioConnection#setWriteCoalescingDelay(long)
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * Set the number of worker selectors. When greater than 0, the accepting selector
+	 * only accepts connections and each new connection is assigned to one of the
+	 * workers (according to the {@link #setWorkerAssignment(WorkerAssignment)
+	 * assignment}), which detects the data to read on its connections; the reads are
+	 * still performed by the task executor. Each worker runs on a thread of the task
+	 * executor for the life of the factory. Default 0: the accepting selector also
+	 * handles the connections.
+	 * @param workerSelectors the number of worker selectors.
+	 * @since 5.1
+	 */
+	public void setWorkerSelectors(int workerSelectors) {
+		Assert.isTrue(workerSelectors >= 0, "'workerSelectors' must not be negative");
+		this.workerSelectors = workerSelectors;
+	}
+
+	/**
+	 * Set how new connections are assigned to the
+	 * {@link #setWorkerSelectors(int) worker selectors}. Default
+	 * {@link WorkerAssignment#ROUND_ROBIN}.
+	 * @param workerAssignment the assignment.
+	 * @since 5.1
+	 */
+	public void setWorkerAssignment(WorkerAssignment workerAssignment) {
+		Assert.notNull(workerAssignment, "'workerAssignment' must not be null");
+		this.workerAssignment = workerAssignment;
+	}
+
 	public void setTcpNioConnectionSupport(TcpNioConnectionSupport tcpNioSupport) {
 		Assert.notNull(tcpNioSupport, "TcpNioSupport must not be null");
 		this.tcpNioConnectionSupport = tcpNioSupport;
@@ -299,10 +476,121 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	}
 
 	/**
-	 * @return the connections
+	 * @return the connections; a snapshot of the connections of all the workers when
+	 * using {@link #setWorkerSelectors(int) worker selectors}.
 	 */
 	protected Map<SocketChannel, TcpNioConnection> getConnections() {
-		return this.channelMap;
+		SelectorWorker[] workers = this.workers;
+		if (workers == null) {
+			return this.channelMap;
+		}
+		Map<SocketChannel, TcpNioConnection> connections = new HashMap<>();
+		for (SelectorWorker worker : workers) {
+			connections.putAll(worker.channelMap);
+		}
+		return connections;
+	}
+
+	/**
+	 * How new connections are assigned to worker selectors.
+	 * @since 5.1
+	 */
+	public enum WorkerAssignment {
+
+		/**
+		 * Assign the connections to each worker in turn.
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * Assign each connection to the worker with the fewest connections.
+		 */
+		LEAST_CONNECTIONS
+
+	}
+
+	/**
+	 * Selects the connections assigned to it, on its own thread; connections are
+	 * registered on that thread because registration blocks while the selector is
+	 * selecting. As with the acceptor, an error on the selector stops the factory, so
+	 * that no connection is assigned to a dead worker and its connections are closed.
+	 */
+	private final class SelectorWorker implements Runnable {
+
+		private final Selector selector;
+
+		private final Map<SocketChannel, TcpNioConnection> channelMap = new ConcurrentHashMap<>();
+
+		private final Queue<Runnable> pendingRegistrations = new ConcurrentLinkedQueue<>();
+
+		private long nextCheckForClosedConnections; // only used by the worker thread
+
+		SelectorWorker(Selector selector) {
+			this.selector = selector;
+		}
+
+		int getLoad() {
+			return this.channelMap.size() + this.pendingRegistrations.size();
+		}
+
+		void register(SocketChannel channel, TcpNioConnection connection) {
+			this.pendingRegistrations.add(() -> {
+				try {
+					this.channelMap.put(channel, connection);
+					channel.register(this.selector, SelectionKey.OP_READ, connection);
+					connection.publishConnectionOpenEvent();
+				}
+				catch (Exception e) {
+					logger.error("Failed to register connection " + connection.getConnectionId(), e);
+					connection.close();
+				}
+			});
+			this.selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (isActive()) {
+					Runnable registration;
+					while ((registration = this.pendingRegistrations.poll()) != null) {
+						registration.run();
+					}
+					try {
+						int selectionCount = this.selector.select(selectTimeout());
+						this.nextCheckForClosedConnections = processNioSelections(selectionCount, this.selector,
+								null, this.channelMap, this.nextCheckForClosedConnections);
+					}
+					catch (CancelledKeyException cke) {
+						logger.debug("CancelledKeyException during Selector.select()");
+					}
+				}
+			}
+			catch (ClosedSelectorException cse) {
+				if (isActive()) {
+					logger.error("Worker selector closed", cse);
+					publishServerExceptionEvent(cse);
+					stop();
+				}
+			}
+			catch (IOException e) {
+				if (isActive()) {
+					logger.error("Error on worker selector; port = " + getPort(), e);
+					publishServerExceptionEvent(e);
+					stop();
+				}
+			}
+		}
+
+		void close() {
+			try {
+				this.selector.close();
+			}
+			catch (Exception e) {
+				logger.error("Error closing worker selector", e);
+			}
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.integration.ip.tcp.serializer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -85,4 +87,93 @@ public abstract class AbstractByteArraySerializer implements
 		}
 	}
 
+	/**
+	 * Base {@link FrameDecoder} accumulating the bytes of the current frame, in a buffer
+	 * growing up to the max message size.
+	 * @since 5.1
+	 */
+	protected abstract class ByteArrayFrameDecoder implements FrameDecoder<byte[]> {
+
+		private byte[] buffer = new byte[Math.min(256, getMaxMessageSize())];
+
+		private int count;
+
+		/**
+		 * Return the number of bytes accumulated for the current frame.
+		 * @return the count.
+		 */
+		protected int count() {
+			return this.count;
+		}
+
+		/**
+		 * Return the last byte accumulated for the current frame.
+		 * @return the byte.
+		 */
+		protected byte lastByte() {
+			return this.buffer[this.count - 1];
+		}
+
+		/**
+		 * Append a byte to the current frame.
+		 * @param bite the byte.
+		 */
+		protected void append(byte bite) {
+			ensureCapacity(this.count + 1);
+			this.buffer[this.count++] = bite;
+		}
+
+		/**
+		 * Append the remaining bytes of the source to the current frame.
+		 * @param source the source.
+		 */
+		protected void append(ByteBuffer source) {
+			int length = source.remaining();
+			ensureCapacity(this.count + length);
+			source.get(this.buffer, this.count, length);
+			this.count += length;
+		}
+
+		/**
+		 * Complete the current frame.
+		 * @param trim the number of trailing bytes to remove.
+		 * @return the frame.
+		 */
+		protected byte[] frame(int trim) {
+			byte[] frame = Arrays.copyOf(this.buffer, this.count - trim);
+			this.count = 0;
+			return frame;
+		}
+
+		/**
+		 * Publish a {@link TcpDeserializationExceptionEvent} with the current frame,
+		 * which is then discarded.
+		 * @param exception the exception.
+		 * @param <E> the exception type.
+		 * @return the exception.
+		 */
+		protected <E extends Exception> E failure(E exception) {
+			publishEvent(exception, this.buffer, this.count);
+			this.count = 0;
+			return exception;
+		}
+
+		@Override
+		public byte[] endOfStream(boolean timedOut) throws IOException {
+			if (this.count > 0 && !timedOut) {
+				throw failure(new IOException("Socket closed during message assembly"));
+			}
+			this.count = 0;
+			return null;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > this.buffer.length) {
+				int newLength = Math.max(capacity, Math.min(this.buffer.length * 2, getMaxMessageSize()));
+				this.buffer = Arrays.copyOf(this.buffer, newLength);
+			}
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,16 +19,20 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Reads data in an InputStream to a byte[]; data must be terminated by \r\n
  * (not included in resulting byte[]).
  * Writes a byte[] to an OutputStream and adds \r\n.
+ * Also supports incremental decoding and gathering writes by NIO connections (see
+ * {@link FramingDeserializer} and {@link GatheringSerializer}).
  *
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerializer
+		implements FramingDeserializer<byte[]>, GatheringSerializer<byte[]> {
 
 	/**
 	 * A single reusable instance.
@@ -94,4 +98,32 @@ public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerial
 		outputStream.write(CRLF);
 	}
 
+	@Override
+	public ByteBuffer[] toByteBuffers(byte[] bytes) {
+		return new ByteBuffer[] { ByteBuffer.wrap(bytes), ByteBuffer.wrap(CRLF) };
+	}
+
+	@Override
+	public FrameDecoder<byte[]> createFrameDecoder() {
+		return new ByteArrayFrameDecoder() {
+
+			@Override
+			public byte[] decode(ByteBuffer buffer) throws IOException {
+				while (buffer.hasRemaining()) {
+					byte bite = buffer.get();
+					if (bite == '\n' && count() > 0 && lastByte() == '\r') {
+						return frame(1);
+					}
+					append(bite);
+					if (count() >= ByteArrayCrLfSerializer.this.maxMessageSize) {
+						throw failure(new IOException("CRLF not found before max message length: "
+								+ ByteArrayCrLfSerializer.this.maxMessageSize));
+					}
+				}
+				return null;
+			}
+
+		};
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.integration.ip.tcp.serializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -40,10 +42,15 @@ import org.apache.commons.logging.LogFactory;
  * For other header formats, override {@link #readHeader(InputStream)} and
  * {@link #writeHeader(OutputStream, int)}.
  *
+ * Also supports incremental decoding by NIO connections (see {@link FramingDeserializer});
+ * the header bytes are then passed to {@link #readHeader(InputStream)} once received.
+ * Gathering writes (see {@link GatheringSerializer}) use {@link #writeHeader(OutputStream, int)}.
+ *
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer {
+public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
+		implements FramingDeserializer<byte[]>, GatheringSerializer<byte[]> {
 
 
 	/**
@@ -136,6 +143,22 @@ public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
 		outputStream.write(bytes);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>The header is written by {@link #writeHeader(OutputStream, int)}.
+	 */
+	@Override
+	public ByteBuffer[] toByteBuffers(byte[] bytes) throws IOException {
+		ByteArrayOutputStream header = new ByteArrayOutputStream(this.headerSize);
+		writeHeader(header, bytes.length);
+		return new ByteBuffer[] { ByteBuffer.wrap(header.toByteArray()), ByteBuffer.wrap(bytes) };
+	}
+
+	@Override
+	public FrameDecoder<byte[]> createFrameDecoder() {
+		return new LengthHeaderFrameDecoder();
+	}
+
 	/**
 	 * Reads data from the socket and puts the data in buffer. Blocks until
 	 * buffer is full or a socket timeout occurs.
@@ -254,4 +277,60 @@ public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
 		}
 	}
 
+	private final class LengthHeaderFrameDecoder implements FrameDecoder<byte[]> {
+
+		private final byte[] header = new byte[ByteArrayLengthHeaderSerializer.this.headerSize];
+
+		private int headerCount;
+
+		private byte[] data;
+
+		private int dataCount;
+
+		@Override
+		public byte[] decode(ByteBuffer buffer) throws IOException {
+			if (this.data == null) {
+				int length = Math.min(buffer.remaining(), this.header.length - this.headerCount);
+				buffer.get(this.header, this.headerCount, length);
+				this.headerCount += length;
+				if (this.headerCount < this.header.length) {
+					return null;
+				}
+				this.headerCount = 0;
+				int messageLength = readHeader(new ByteArrayInputStream(this.header));
+				if (messageLength > ByteArrayLengthHeaderSerializer.this.maxMessageSize) {
+					IOException e = new IOException("Message length " + messageLength +
+							" exceeds max message length: " + ByteArrayLengthHeaderSerializer.this.maxMessageSize);
+					publishEvent(e, this.header, -1);
+					throw e;
+				}
+				this.data = new byte[messageLength];
+				this.dataCount = 0;
+			}
+			int length = Math.min(buffer.remaining(), this.data.length - this.dataCount);
+			buffer.get(this.data, this.dataCount, length);
+			this.dataCount += length;
+			if (this.dataCount < this.data.length) {
+				return null;
+			}
+			byte[] frame = this.data;
+			this.data = null;
+			return frame;
+		}
+
+		@Override
+		public byte[] endOfStream(boolean timedOut) throws IOException {
+			boolean inFrame = this.headerCount > 0 || this.data != null;
+			int received = this.data != null ? this.dataCount : this.headerCount;
+			int needed = this.data != null ? this.data.length : this.header.length;
+			this.headerCount = 0;
+			this.data = null;
+			if (inFrame && !timedOut) {
+				throw new IOException("Stream closed after " + received + " of " + needed);
+			}
+			return null;
+		}
+
+	}
+
 }
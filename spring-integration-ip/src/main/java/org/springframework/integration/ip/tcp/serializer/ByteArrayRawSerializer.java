@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 
 /**
  * A byte array (de)serializer that does nothing with the payload; sends it raw.
@@ -36,12 +37,16 @@ import java.net.SocketTimeoutException;
  * <p>
  * Now, a {@link SocketTimeoutException} is thrown. To revert to the previous
  * behavior, set the {@code treatTimeoutAsEndOfMessage} constructor argument to true.
+ * <p>
+ * Also supports incremental decoding and gathering writes by NIO connections (see
+ * {@link FramingDeserializer} and {@link GatheringSerializer}).
  *
  * @author Gary Russell
  * @since 2.0.3
  *
  */
-public class ByteArrayRawSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArrayRawSerializer extends AbstractPooledBufferByteArraySerializer
+		implements FramingDeserializer<byte[]>, GatheringSerializer<byte[]> {
 
 	/**
 	 * A single reusable instance that does not treat timeouts as end of message.
@@ -70,6 +75,36 @@ public class ByteArrayRawSerializer extends AbstractPooledBufferByteArraySeriali
 		outputStream.write(bytes);
 	}
 
+	@Override
+	public ByteBuffer[] toByteBuffers(byte[] bytes) {
+		return new ByteBuffer[] { ByteBuffer.wrap(bytes) };
+	}
+
+	@Override
+	public FrameDecoder<byte[]> createFrameDecoder() {
+		return new ByteArrayFrameDecoder() {
+
+			@Override
+			public byte[] decode(ByteBuffer buffer) throws IOException {
+				if (count() + buffer.remaining() > ByteArrayRawSerializer.this.maxMessageSize) {
+					throw failure(new IOException("Socket was not closed before max message length: "
+							+ ByteArrayRawSerializer.this.maxMessageSize));
+				}
+				append(buffer);
+				return null;
+			}
+
+			@Override
+			public byte[] endOfStream(boolean timedOut) throws IOException {
+				if (count() == 0 || (timedOut && !ByteArrayRawSerializer.this.treatTimeoutAsEndOfMessage)) {
+					return super.endOfStream(true);
+				}
+				return frame(0);
+			}
+
+		};
+	}
+
 	@Override
 	protected byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
 		int n = 0;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,16 +19,20 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Reads data in an InputStream to a byte[]; data must be terminated by a single
  * byte (not included in resulting byte[]).
  * Writes a byte[] to an OutputStream and adds the terminator.
+ * Also supports incremental decoding and gathering writes by NIO connections (see
+ * {@link FramingDeserializer} and {@link GatheringSerializer}).
  *
  * @author Gary Russell
  * @since 2.2
  */
-public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByteArraySerializer
+		implements FramingDeserializer<byte[]>, GatheringSerializer<byte[]> {
 
 	private final byte terminator;
 
@@ -90,4 +94,34 @@ public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByt
 		outputStream.write(this.terminator);
 	}
 
+	@Override
+	public ByteBuffer[] toByteBuffers(byte[] bytes) {
+		return new ByteBuffer[] { ByteBuffer.wrap(bytes), ByteBuffer.wrap(new byte[] { this.terminator }) };
+	}
+
+	@Override
+	public FrameDecoder<byte[]> createFrameDecoder() {
+		return new ByteArrayFrameDecoder() {
+
+			@Override
+			public byte[] decode(ByteBuffer buffer) throws IOException {
+				byte terminator = ByteArraySingleTerminatorSerializer.this.terminator;
+				int maxMessageSize = ByteArraySingleTerminatorSerializer.this.maxMessageSize;
+				while (buffer.hasRemaining()) {
+					byte bite = buffer.get();
+					if (bite == terminator) {
+						return frame(0);
+					}
+					append(bite);
+					if (count() >= maxMessageSize) {
+						throw failure(new IOException("Terminator '0x" + Integer.toHexString(terminator & 0xff)
+								+ "' not found before max message length: " + maxMessageSize));
+					}
+				}
+				return null;
+			}
+
+		};
+	}
+
 }
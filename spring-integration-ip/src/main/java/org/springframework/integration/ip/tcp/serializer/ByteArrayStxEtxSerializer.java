@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.springframework.integration.mapping.MessageMappingException;
 
@@ -26,11 +27,14 @@ import org.springframework.integration.mapping.MessageMappingException;
  * Reads data in an InputStream to a byte[]; data must be prefixed by &lt;stx&gt; and
  * terminated by &lt;etx&gt; (not included in resulting byte[]).
  * Writes a byte[] to an OutputStream prefixed by &lt;stx&gt; terminated by &lt;etx&gt;
+ * Also supports incremental decoding and gathering writes by NIO connections (see
+ * {@link FramingDeserializer} and {@link GatheringSerializer}).
  *
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySerializer
+		implements FramingDeserializer<byte[]>, GatheringSerializer<byte[]> {
 
 	/**
 	 * A single reusable instance.
@@ -91,4 +95,55 @@ public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySeri
 		outputStream.write(ETX);
 	}
 
+	@Override
+	public ByteBuffer[] toByteBuffers(byte[] bytes) {
+		return new ByteBuffer[] {
+				ByteBuffer.wrap(new byte[] { STX }), ByteBuffer.wrap(bytes), ByteBuffer.wrap(new byte[] { ETX }) };
+	}
+
+	@Override
+	public FrameDecoder<byte[]> createFrameDecoder() {
+		return new ByteArrayFrameDecoder() {
+
+			private boolean started;
+
+			@Override
+			public byte[] decode(ByteBuffer buffer) throws IOException {
+				while (buffer.hasRemaining()) {
+					byte bite = buffer.get();
+					if (!this.started) {
+						if (bite != STX) {
+							throw failure(new MessageMappingException("Expected STX to begin message"));
+						}
+						this.started = true;
+					}
+					else if (bite == ETX) {
+						this.started = false;
+						return frame(0);
+					}
+					else {
+						append(bite);
+						if (count() >= ByteArrayStxEtxSerializer.this.maxMessageSize) {
+							this.started = false;
+							throw failure(new IOException("ETX not found before max message length: "
+									+ ByteArrayStxEtxSerializer.this.maxMessageSize));
+						}
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public byte[] endOfStream(boolean timedOut) throws IOException {
+				boolean inFrame = this.started;
+				this.started = false;
+				if (inFrame && !timedOut) {
+					throw failure(new IOException("Socket closed during message assembly"));
+				}
+				return super.endOfStream(timedOut);
+			}
+
+		};
+	}
+
 }
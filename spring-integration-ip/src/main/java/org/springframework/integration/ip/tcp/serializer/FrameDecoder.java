@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Decodes frames incrementally from the data received on one connection, as it is
+ * pushed by the connection; an instance is created for each connection by a
+ * {@link FramingDeserializer} and is not used concurrently.
+ *
+ * @param <T> the frame type.
+ *
+ * @since 5.1
+ */
+public interface FrameDecoder<T> {
+
+	/**
+	 * Consume the data in the buffer until a frame is complete, or the buffer has no
+	 * remaining data. The bytes of an incomplete frame are retained by the decoder until
+	 * more data is received.
+	 * @param buffer the received data; its position is advanced past the consumed bytes.
+	 * @return the frame, or null if more data is needed.
+	 * @throws IOException if the data is invalid.
+	 */
+	@Nullable
+	T decode(ByteBuffer buffer) throws IOException;
+
+	/**
+	 * Invoked when the connection is closed by the peer, or timed out.
+	 * @param timedOut true if the connection timed out.
+	 * @return a last frame that the end of stream completes, or null.
+	 * @throws IOException if the stream ended in the middle of a frame.
+	 */
+	@Nullable
+	default T endOfStream(boolean timedOut) throws IOException {
+		return null;
+	}
+
+}
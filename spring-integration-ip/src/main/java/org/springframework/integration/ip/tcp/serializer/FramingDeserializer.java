@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.lang.Nullable;
+
+/**
+ * A {@link Deserializer} that can also decode frames as the data is received by a
+ * connection, without blocking a thread on an {@link java.io.InputStream}; used by the
+ * NIO connections when {@code pushFraming} is enabled.
+ *
+ * @param <T> the frame type.
+ *
+ * @since 5.1
+ */
+public interface FramingDeserializer<T> extends Deserializer<T> {
+
+	/**
+	 * Create a decoder for a new connection.
+	 * @return the decoder, or null if this instance cannot decode incrementally, in
+	 * which case the connection uses {@link #deserialize(java.io.InputStream)}.
+	 */
+	@Nullable
+	FrameDecoder<T> createFrameDecoder();
+
+}
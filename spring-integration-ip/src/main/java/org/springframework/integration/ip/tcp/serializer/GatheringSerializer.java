@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.springframework.core.serializer.Serializer;
+import org.springframework.lang.Nullable;
+
+/**
+ * A {@link Serializer} that can also provide the frame for an object as a number of
+ * buffers (such as header, payload and terminator), without copying the payload, so
+ * that NIO connections can write it with a single gathering write.
+ *
+ * @param <T> the object type.
+ *
+ * @since 5.1
+ */
+public interface GatheringSerializer<T> extends Serializer<T> {
+
+	/**
+	 * Return the buffers to write for the object.
+	 * @param object the object.
+	 * @return the buffers, or null if the object must be written with
+	 * {@link #serialize(Object, java.io.OutputStream)}.
+	 * @throws IOException if the object cannot be framed.
+	 */
+	@Nullable
+	ByteBuffer[] toByteBuffers(T object) throws IOException;
+
+}
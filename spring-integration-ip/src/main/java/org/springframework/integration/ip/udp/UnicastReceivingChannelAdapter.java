@@ -23,6 +23,8 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Matcher;
@@ -31,9 +33,12 @@ import java.util.regex.Pattern;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.integration.ip.AbstractInternetProtocolReceivingChannelAdapter;
 import org.springframework.integration.ip.IpHeaders;
+import org.springframework.integration.ip.util.ByteBufferPool;
+import org.springframework.integration.ip.util.PooledByteBuffer;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
 
 /**
  * A channel adapter to receive incoming UDP packets. Packets can optionally be preceded by a
@@ -51,6 +56,10 @@ public class UnicastReceivingChannelAdapter extends AbstractInternetProtocolRece
 
 	private volatile int soSendBufferSize = -1;
 
+	private volatile ByteBufferPool byteBufferPool;
+
+	private final Map<byte[], PooledByteBuffer> pooledBuffers = new ConcurrentHashMap<>();
+
 	private static Pattern addressPattern = Pattern.compile("([^:]*):([0-9]*)");
 
 
@@ -84,6 +93,18 @@ public class UnicastReceivingChannelAdapter extends AbstractInternetProtocolRece
 		this.mapper.setLengthCheck(lengthCheck);
 	}
 
+	/**
+	 * Set a pool of heap buffers from which to obtain the packet buffers, instead of
+	 * allocating one for each packet; the buffer is returned to the pool once the
+	 * packet is converted to a message.
+	 * @param byteBufferPool the pool.
+	 * @since 5.1
+	 */
+	public void setByteBufferPool(ByteBufferPool byteBufferPool) {
+		Assert.isTrue(!byteBufferPool.isDirect(), "A pool of heap buffers is required for DatagramPackets");
+		this.byteBufferPool = byteBufferPool;
+	}
+
 	@Override
 	public boolean isLongLived() {
 		return true;
@@ -199,6 +220,12 @@ public class UnicastReceivingChannelAdapter extends AbstractInternetProtocolRece
 		catch (Exception e) {
 			logger.error("Failed to map packet to message ", e);
 		}
+		finally {
+			PooledByteBuffer pooled = this.pooledBuffers.remove(packet.getData());
+			if (pooled != null) {
+				pooled.release();
+			}
+		}
 		if (message != null) {
 			if (message.getHeaders().containsKey(IpHeaders.ACK_ADDRESS)) {
 				sendAck(message);
@@ -209,9 +236,24 @@ public class UnicastReceivingChannelAdapter extends AbstractInternetProtocolRece
 
 	protected DatagramPacket receive() throws Exception {
 		DatagramSocket socket = this.getSocket();
-		final byte[] buffer = new byte[this.getReceiveBufferSize()];
-		DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-		socket.receive(packet);
+		ByteBufferPool pool = this.byteBufferPool;
+		if (pool == null) {
+			final byte[] buffer = new byte[this.getReceiveBufferSize()];
+			DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+			socket.receive(packet);
+			return packet;
+		}
+		PooledByteBuffer pooled = pool.acquire(this.getReceiveBufferSize());
+		byte[] buffer = pooled.getBuffer().array();
+		DatagramPacket packet = new DatagramPacket(buffer, this.getReceiveBufferSize());
+		try {
+			socket.receive(packet);
+		}
+		catch (Exception e) {
+			pooled.release();
+			throw e;
+		}
+		this.pooledBuffers.put(buffer, pooled);
 		return packet;
 	}
 
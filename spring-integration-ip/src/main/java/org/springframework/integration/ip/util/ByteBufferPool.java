@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.ip.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * A pool of {@link ByteBuffer}s, in power of two size classes, that can be shared
+ * by many connections and channel adapters. Buffers are obtained with
+ * {@link #acquire(int)} and are returned to the pool when the last reference to the
+ * {@link PooledByteBuffer} is released. Requests larger than the maximum buffer size
+ * are allocated with the exact size and are not pooled.
+ * <p>
+ * With leak detection enabled (typically in tests), the pool records where each
+ * outstanding buffer was acquired; see {@link #reportLeaks()}.
+ *
+ * @since 5.1
+ */
+public class ByteBufferPool implements DisposableBean {
+
+	/**
+	 * The default size of the smallest size class.
+	 */
+	public static final int DEFAULT_MIN_BUFFER_SIZE = 1024;
+
+	/**
+	 * The default size of the largest size class.
+	 */
+	public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * The default maximum number of bytes retained by the pool for each size class.
+	 */
+	public static final int DEFAULT_MAX_POOLED_BYTES_PER_SIZE = 16 * 1024 * 1024;
+
+	private static final Log logger = LogFactory.getLog(ByteBufferPool.class);
+
+	private final boolean direct;
+
+	private final int minBufferSize;
+
+	private final int maxBufferSize;
+
+	private final BlockingQueue<ByteBuffer>[] pools;
+
+	private final AtomicInteger outstanding = new AtomicInteger();
+
+	private final Map<PooledByteBuffer, Throwable> leakTraces = new ConcurrentHashMap<>();
+
+	private volatile boolean leakDetection;
+
+	/**
+	 * Create a pool of direct buffers with the default sizes.
+	 */
+	public ByteBufferPool() {
+		this(true);
+	}
+
+	/**
+	 * Create a pool of direct or heap buffers with the default sizes.
+	 * @param direct true for direct buffers.
+	 */
+	public ByteBufferPool(boolean direct) {
+		this(direct, DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_POOLED_BYTES_PER_SIZE);
+	}
+
+	/**
+	 * Create a pool of direct or heap buffers.
+	 * @param direct true for direct buffers.
+	 * @param minBufferSize the smallest size class, rounded up to a power of two.
+	 * @param maxBufferSize the largest size class, rounded up to a power of two.
+	 * @param maxPooledBytesPerSize the maximum number of bytes retained for each size
+	 * class; at least one buffer of each size is retained.
+	 */
+	@SuppressWarnings("unchecked")
+	public ByteBufferPool(boolean direct, int minBufferSize, int maxBufferSize, int maxPooledBytesPerSize) {
+		Assert.isTrue(minBufferSize > 0, "'minBufferSize' must be greater than 0");
+		Assert.isTrue(maxBufferSize >= minBufferSize, "'maxBufferSize' must not be less than 'minBufferSize'");
+		Assert.isTrue(maxBufferSize <= 1 << 30, "'maxBufferSize' must not be greater than 2^30");
+		this.direct = direct;
+		this.minBufferSize = roundUp(minBufferSize);
+		this.maxBufferSize = roundUp(maxBufferSize);
+		int sizes = Integer.numberOfTrailingZeros(this.maxBufferSize)
+				- Integer.numberOfTrailingZeros(this.minBufferSize) + 1;
+		this.pools = new BlockingQueue[sizes];
+		for (int i = 0; i < sizes; i++) {
+			this.pools[i] = new ArrayBlockingQueue<>(Math.max(1, maxPooledBytesPerSize / (this.minBufferSize << i)));
+		}
+	}
+
+	/**
+	 * Set to true to record where each buffer is acquired, so that buffers that are
+	 * never released can be reported by {@link #reportLeaks()}. Intended for tests;
+	 * default false.
+	 * @param leakDetection true to enable leak detection.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	public boolean isDirect() {
+		return this.direct;
+	}
+
+	public int getMaxBufferSize() {
+		return this.maxBufferSize;
+	}
+
+	/**
+	 * Return the number of buffers acquired and not yet released.
+	 * @return the number of buffers.
+	 */
+	public int getOutstandingCount() {
+		return this.outstanding.get();
+	}
+
+	/**
+	 * Return the number of buffers available in the pool.
+	 * @return the number of buffers.
+	 */
+	public int getPooledCount() {
+		int count = 0;
+		for (BlockingQueue<ByteBuffer> pool : this.pools) {
+			count += pool.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Obtain a cleared buffer with a capacity of at least the requested size; release
+	 * the returned {@link PooledByteBuffer} when the buffer is no longer used.
+	 * @param size the size.
+	 * @return the buffer.
+	 */
+	public PooledByteBuffer acquire(int size) {
+		Assert.isTrue(size >= 0, "'size' must not be negative");
+		ByteBuffer buffer;
+		int sizeClass = -1;
+		if (size > this.maxBufferSize) {
+			buffer = allocate(size);
+		}
+		else {
+			sizeClass = sizeClass(size);
+			buffer = this.pools[sizeClass].poll();
+			if (buffer == null) {
+				buffer = allocate(this.minBufferSize << sizeClass);
+			}
+			else {
+				buffer.clear();
+			}
+		}
+		PooledByteBuffer pooled = new PooledByteBuffer(this, buffer, sizeClass);
+		this.outstanding.incrementAndGet();
+		if (this.leakDetection) {
+			this.leakTraces.put(pooled, new Throwable("Buffer of " + buffer.capacity() + " bytes acquired here"));
+		}
+		return pooled;
+	}
+
+	/**
+	 * Log (at WARN) where each outstanding buffer was acquired, when leak detection is
+	 * enabled.
+	 * @return the number of outstanding buffers.
+	 */
+	public int reportLeaks() {
+		List<Throwable> traces = new ArrayList<>(this.leakTraces.values());
+		for (Throwable trace : traces) {
+			logger.warn("Buffer not released", trace);
+		}
+		return this.outstanding.get();
+	}
+
+	@Override
+	public void destroy() {
+		int leaks = reportLeaks();
+		if (leaks > 0 && !this.leakDetection) {
+			logger.warn(leaks + " buffer(s) not released; enable leak detection to find out where they are acquired");
+		}
+		for (BlockingQueue<ByteBuffer> pool : this.pools) {
+			pool.clear();
+		}
+	}
+
+	void recycle(PooledByteBuffer pooled) {
+		this.outstanding.decrementAndGet();
+		if (this.leakDetection) {
+			this.leakTraces.remove(pooled);
+		}
+		if (pooled.sizeClass >= 0) {
+			this.pools[pooled.sizeClass].offer(pooled.buffer);
+		}
+	}
+
+	private ByteBuffer allocate(int size) {
+		return this.direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+	}
+
+	private int sizeClass(int size) {
+		if (size <= this.minBufferSize) {
+			return 0;
+		}
+		return Integer.numberOfTrailingZeros(roundUp(size)) - Integer.numberOfTrailingZeros(this.minBufferSize);
+	}
+
+	private static int roundUp(int size) {
+		int highest = Integer.highestOneBit(size);
+		return highest == size ? size : highest << 1;
+	}
+
+}
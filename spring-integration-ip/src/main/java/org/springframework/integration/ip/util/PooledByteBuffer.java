@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.ip.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted {@link ByteBuffer} obtained from a {@link ByteBufferPool}; the
+ * buffer is returned to the pool when the count drops to zero. The count is initially
+ * one; each {@link #retain()} must be matched by a {@link #release()}.
+ *
+ * @since 5.1
+ */
+public final class PooledByteBuffer {
+
+	final ByteBuffer buffer; // NOSONAR
+
+	final int sizeClass; // NOSONAR
+
+	private final ByteBufferPool pool;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	PooledByteBuffer(ByteBufferPool pool, ByteBuffer buffer, int sizeClass) {
+		this.pool = pool;
+		this.buffer = buffer;
+		this.sizeClass = sizeClass;
+	}
+
+	/**
+	 * Return the buffer; it must not be used after the last reference is released.
+	 * @return the buffer.
+	 */
+	public ByteBuffer getBuffer() {
+		if (this.refCount.get() <= 0) {
+			throw new IllegalStateException("The buffer has been released");
+		}
+		return this.buffer;
+	}
+
+	public int refCount() {
+		return this.refCount.get();
+	}
+
+	/**
+	 * Add a reference to the buffer.
+	 * @return this.
+	 */
+	public PooledByteBuffer retain() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("The buffer has been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	/**
+	 * Remove a reference to the buffer, returning it to the pool if it was the last one.
+	 * @return true if the buffer was returned to the pool.
+	 */
+	public boolean release() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("The buffer has already been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count - 1));
+		if (count == 1) {
+			this.pool.recycle(this);
+			return true;
+		}
+		return false;
+	}
+
+}
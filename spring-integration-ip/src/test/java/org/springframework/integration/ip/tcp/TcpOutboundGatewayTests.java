@@ -28,10 +28,13 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.BufferedReader;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
@@ -66,6 +69,7 @@ import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.aggregator.CorrelationStrategy;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.ip.tcp.connection.AbstractClientConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.CachingClientConnectionFactory;
@@ -221,6 +225,110 @@ public class TcpOutboundGatewayTests {
 		serverSocket.get().close();
 	}
 
+	@Test
+	public void testCorrelatedRepliesOutOfOrderOnOneConnection() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicReference<ServerSocket> serverSocket = new AtomicReference<>();
+		final Set<Socket> accepted = Collections.synchronizedSet(new HashSet<>());
+		this.executor.execute(() -> {
+			try {
+				ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0, 10);
+				serverSocket.set(server);
+				latch.countDown();
+				Socket socket = server.accept();
+				accepted.add(socket);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				OutputStream out = socket.getOutputStream();
+				int batchSize = 10;
+				List<String> batch = new ArrayList<>();
+				String line;
+				while ((line = reader.readLine()) != null) {
+					String id = line.substring(0, line.indexOf(':'));
+					if (id.equals("ignored")) {
+						continue;
+					}
+					batch.add(id);
+					if (batch.size() == batchSize) {
+						// reply in the reverse order
+						Collections.reverse(batch);
+						for (String reply : batch) {
+							out.write((reply + ":Reply\r\n").getBytes());
+						}
+						out.flush();
+						batch.clear();
+						batchSize = 1;
+					}
+				}
+			}
+			catch (Exception e) {
+				if (!done.get()) {
+					e.printStackTrace();
+				}
+			}
+		});
+		assertTrue(latch.await(10000, TimeUnit.MILLISECONDS));
+		AbstractClientConnectionFactory ccf = new TcpNetClientConnectionFactory("localhost",
+				serverSocket.get().getLocalPort());
+		ccf.setSoTimeout(10000);
+		ccf.setSingleUse(false);
+		ccf.start();
+		TcpOutboundGateway gateway = new TcpOutboundGateway();
+		gateway.setConnectionFactory(ccf);
+		CorrelationStrategy correlationStrategy = message -> {
+			Object payload = message.getPayload();
+			String frame = payload instanceof byte[] ? new String((byte[]) payload) : (String) payload;
+			return frame.substring(0, frame.indexOf(':'));
+		};
+		gateway.setCorrelationStrategy(correlationStrategy);
+		gateway.setRemoteTimeout(10000);
+		QueueChannel replyChannel = new QueueChannel();
+		gateway.setRequiresReply(true);
+		gateway.setOutputChannel(replyChannel);
+		for (int i = 0; i < 10; i++) {
+			final int id = i;
+			this.executor.execute(() ->
+					gateway.handleMessage(MessageBuilder.withPayload(id + ":Test").build()));
+		}
+		Set<String> replies = new HashSet<>();
+		for (int i = 0; i < 10; i++) {
+			Message<?> m = replyChannel.receive(10000);
+			assertNotNull(m);
+			assertEquals(correlationStrategy.getCorrelationKey(m) + ":Reply", new String((byte[]) m.getPayload()));
+			replies.add(new String((byte[]) m.getPayload()));
+		}
+		assertEquals(10, replies.size());
+
+		gateway.setRemoteTimeout(100);
+		try {
+			gateway.handleMessage(MessageBuilder.withPayload("ignored:Test").build());
+			fail("expected timeout");
+		}
+		catch (MessageTimeoutException e) {
+			// expected
+		}
+		gateway.setRemoteTimeout(10000);
+		gateway.handleMessage(MessageBuilder.withPayload("after:Test").build());
+		Message<?> m = replyChannel.receive(10000);
+		assertNotNull(m);
+		assertEquals("after:Reply", new String((byte[]) m.getPayload()));
+		assertEquals(1, accepted.size());
+
+		// the connection's entry is removed when it closes, even with no pending request
+		Map<?, ?> correlatedReplies = TestUtils.getPropertyValue(gateway, "correlatedReplies", Map.class);
+		assertEquals(1, correlatedReplies.size());
+		done.set(true);
+		accepted.iterator().next().close();
+		int n = 0;
+		while (n++ < 100 && !correlatedReplies.isEmpty()) {
+			Thread.sleep(100);
+		}
+		assertTrue(correlatedReplies.isEmpty());
+		gateway.stop();
+		ccf.stop();
+		serverSocket.get().close();
+	}
+
 	@Test
 	public void testGoodNetTimeout() throws Exception {
 		final CountDownLatch latch = new CountDownLatch(1);
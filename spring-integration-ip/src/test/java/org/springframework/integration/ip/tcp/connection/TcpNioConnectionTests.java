@@ -20,6 +20,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -47,10 +48,12 @@ import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -58,6 +61,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ServerSocketFactory;
@@ -79,9 +83,11 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.ip.tcp.connection.TcpNioConnection.ChannelInputStream;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.MapJsonSerializer;
+import org.springframework.integration.ip.util.ByteBufferPool;
 import org.springframework.integration.ip.util.TestingUtilities;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.support.converter.MapMessageConverter;
@@ -91,6 +97,7 @@ import org.springframework.integration.util.CompositeExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StopWatch;
 
@@ -689,6 +696,260 @@ public class TcpNioConnectionTests {
 		cleanupCompositeExecutor(compositeExec);
 	}
 
+	@Test
+	public void testPushFramingDeliversAllMessagesInOrder() throws Exception {
+		final int numberOfSockets = 10;
+		TcpNioServerConnectionFactory factory = new TcpNioServerConnectionFactory(0);
+		factory.setApplicationEventPublisher(nullPublisher);
+		factory.setPushFraming(true);
+
+		ExecutorService ioExec = Executors.newCachedThreadPool();
+		AtomicInteger assemblers = new AtomicInteger();
+		factory.setTaskExecutor(new CompositeExecutor(ioExec, task -> {
+			assemblers.incrementAndGet();
+			ioExec.execute(task);
+		}));
+		final CountDownLatch latch = new CountDownLatch(numberOfSockets * 4);
+		final Map<Object, List<String>> received = new ConcurrentHashMap<>();
+		factory.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				received.computeIfAbsent(message.getHeaders().get(IpHeaders.CONNECTION_ID), k -> new ArrayList<>())
+						.add(new String((byte[]) message.getPayload()));
+				latch.countDown();
+			}
+			return false;
+		});
+		factory.start();
+		TestingUtilities.waitListening(factory, null);
+		int port = factory.getPort();
+
+		Socket[] sockets = new Socket[numberOfSockets];
+		for (int i = 0; i < numberOfSockets; i++) {
+			sockets[i] = SocketFactory.getDefault().createSocket("localhost", port);
+		}
+		String[] parts = { "foo1 and...", "...foo2\r\nbar1 and...", "...bar2\r\n", "foo3 and...",
+				"...foo4\r\nbar3 and...", "...bar4\r\n" };
+		for (String part : parts) {
+			for (int i = 0; i < numberOfSockets; i++) {
+				sockets[i].getOutputStream().write(part.getBytes());
+				sockets[i].getOutputStream().flush();
+			}
+			Thread.sleep(1);
+		}
+		for (int i = 0; i < numberOfSockets; i++) {
+			sockets[i].close();
+		}
+
+		assertTrue("latch is still " + latch.getCount(), latch.await(60, TimeUnit.SECONDS));
+		assertEquals(numberOfSockets, received.size());
+		for (List<String> payloads : received.values()) {
+			assertEquals(Arrays.asList("foo1 and......foo2", "bar1 and......bar2", "foo3 and......foo4",
+					"bar3 and......bar4"), payloads);
+		}
+		assertEquals(0, assemblers.get());
+
+		factory.stop();
+		ioExec.shutdownNow();
+	}
+
+	@Test
+	public void testPooledBuffersAreOnlyHeldWhileReading() throws Exception {
+		ByteBufferPool pool = new ByteBufferPool();
+		pool.setLeakDetection(true);
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(0);
+		server.setApplicationEventPublisher(nullPublisher);
+		server.setByteBufferPool(pool);
+		final CountDownLatch latch = new CountDownLatch(20);
+		final List<String> received = Collections.synchronizedList(new ArrayList<>());
+		server.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				received.add(new String((byte[]) message.getPayload()));
+				latch.countDown();
+			}
+			return false;
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+		TcpNioClientConnectionFactory client = new TcpNioClientConnectionFactory("localhost", server.getPort());
+		client.setApplicationEventPublisher(nullPublisher);
+		client.setByteBufferPool(pool);
+		client.registerListener(message -> false);
+		client.start();
+		TcpConnection connection = client.getConnection();
+		for (int i = 0; i < 20; i++) {
+			connection.send(MessageBuilder.withPayload("foo" + i).build());
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("foo0", received.get(0));
+		assertEquals("foo19", received.get(19));
+		int n = 0;
+		while (pool.getOutstandingCount() > 0 && n++ < 100) {
+			Thread.sleep(100);
+		}
+		assertEquals(0, pool.reportLeaks());
+		assertTrue(pool.getPooledCount() > 0);
+		assertTrue(connection.isOpen());
+		connection.close();
+		client.stop();
+		server.stop();
+		assertEquals(0, pool.reportLeaks());
+	}
+
+	@Test
+	public void testCoalescedGatheringWritesAreDeliveredInOrder() throws Exception {
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(0);
+		server.setApplicationEventPublisher(nullPublisher);
+		final CountDownLatch latch = new CountDownLatch(400);
+		final Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+		server.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				String[] payload = new String((byte[]) message.getPayload()).split(":");
+				received.computeIfAbsent(payload[0], k -> Collections.synchronizedList(new ArrayList<>()))
+						.add(Integer.parseInt(payload[1]));
+				latch.countDown();
+			}
+			return false;
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.initialize();
+		TcpNioClientConnectionFactory client = new TcpNioClientConnectionFactory("localhost", server.getPort());
+		client.setApplicationEventPublisher(nullPublisher);
+		client.setGatheringWrites(true);
+		client.setWriteCoalescingSize(256);
+		client.setWriteCoalescingDelay(500);
+		client.setTaskScheduler(scheduler);
+		client.registerListener(message -> false);
+		client.start();
+		TcpConnection connection = client.getConnection();
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			final String sender = "sender" + i;
+			exec.execute(() -> {
+				for (int j = 0; j < 100; j++) {
+					try {
+						connection.send(MessageBuilder.withPayload(sender + ":" + j).build());
+					}
+					catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			});
+		}
+		assertTrue("latch is still " + latch.getCount(), latch.await(10, TimeUnit.SECONDS));
+		assertEquals(4, received.size());
+		for (List<Integer> sequence : received.values()) {
+			assertEquals(100, sequence.size());
+			for (int j = 0; j < 100; j++) {
+				assertEquals(Integer.valueOf(j), sequence.get(j));
+			}
+		}
+		exec.shutdownNow();
+		connection.close();
+		client.stop();
+		server.stop();
+		scheduler.destroy();
+	}
+
+	@Test
+	public void testWorkerSelectors() throws Exception {
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(0);
+		final CountDownLatch openLatch = new CountDownLatch(4);
+		server.setApplicationEventPublisher(new ApplicationEventPublisher() {
+
+			@Override
+			public void publishEvent(ApplicationEvent event) {
+				if (event instanceof TcpConnectionOpenEvent) {
+					openLatch.countDown();
+				}
+			}
+
+			@Override
+			public void publishEvent(Object event) {
+
+			}
+
+		});
+		server.setWorkerSelectors(2);
+		final CountDownLatch latch = new CountDownLatch(8);
+		final Map<Object, List<String>> received = new ConcurrentHashMap<>();
+		server.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				received.computeIfAbsent(message.getHeaders().get(IpHeaders.CONNECTION_ID),
+						k -> Collections.synchronizedList(new ArrayList<>()))
+						.add(new String((byte[]) message.getPayload()));
+				latch.countDown();
+			}
+			return false;
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+		Socket[] sockets = new Socket[4];
+		for (int i = 0; i < sockets.length; i++) {
+			sockets[i] = SocketFactory.getDefault().createSocket("localhost", server.getPort());
+		}
+		assertTrue(openLatch.await(10, TimeUnit.SECONDS));
+		for (Socket socket : sockets) {
+			socket.getOutputStream().write("foo\r\nbar\r\n".getBytes());
+		}
+		assertTrue("latch is still " + latch.getCount(), latch.await(10, TimeUnit.SECONDS));
+		assertEquals(4, received.size());
+		for (List<String> payloads : received.values()) {
+			assertEquals(Arrays.asList("foo", "bar"), payloads);
+		}
+		assertEquals(4, server.getConnections().size());
+		Object[] workers = TestUtils.getPropertyValue(server, "workers", Object[].class);
+		assertEquals(2, workers.length);
+		for (Object worker : workers) {
+			assertEquals(2, TestUtils.getPropertyValue(worker, "channelMap", Map.class).size());
+		}
+		// the accepting selector does not select the connections
+		assertEquals(0, TestUtils.getPropertyValue(server, "channelMap", Map.class).size());
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		server.stop();
+	}
+
+	@Test
+	public void testWorkerSelectorFailureStopsTheFactory() throws Exception {
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(0);
+		final CountDownLatch openLatch = new CountDownLatch(1);
+		server.setApplicationEventPublisher(new ApplicationEventPublisher() {
+
+			@Override
+			public void publishEvent(ApplicationEvent event) {
+				if (event instanceof TcpConnectionOpenEvent) {
+					openLatch.countDown();
+				}
+			}
+
+			@Override
+			public void publishEvent(Object event) {
+
+			}
+
+		});
+		server.setWorkerSelectors(1);
+		server.registerListener(message -> false);
+		server.start();
+		TestingUtilities.waitListening(server, null);
+		Socket socket = SocketFactory.getDefault().createSocket("localhost", server.getPort());
+		assertTrue(openLatch.await(10, TimeUnit.SECONDS));
+		Object[] workers = TestUtils.getPropertyValue(server, "workers", Object[].class);
+		TestUtils.getPropertyValue(workers[0], "selector", Selector.class).close();
+		int n = 0;
+		while (n++ < 200 && server.isRunning()) {
+			Thread.sleep(50);
+		}
+		assertFalse(server.isRunning());
+		socket.setSoTimeout(10000);
+		assertEquals(-1, socket.getInputStream().read());
+		socket.close();
+		server.stop();
+	}
+
 	private CompositeExecutor compositeExecutor() {
 		ThreadPoolTaskExecutor ioExec = new ThreadPoolTaskExecutor();
 		ioExec.setCorePoolSize(2);
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.integration.mapping.MessageMappingException;
+
+/**
+ * @since 5.1
+ */
+public class FrameDecoderTests {
+
+	private static final String[] PAYLOADS = { "foo", "", "bar\rbaz", "qux" };
+
+	@Test
+	public void testCrLf() throws Exception {
+		assertFrames(ByteArrayCrLfSerializer.INSTANCE);
+	}
+
+	@Test
+	public void testLf() throws Exception {
+		assertFrames(new ByteArrayLfSerializer());
+	}
+
+	@Test
+	public void testStxEtx() throws Exception {
+		assertFrames(ByteArrayStxEtxSerializer.INSTANCE);
+	}
+
+	@Test
+	public void testLengthHeader() throws Exception {
+		assertFrames(new ByteArrayLengthHeaderSerializer());
+		assertFrames(new ByteArrayLengthHeaderSerializer(ByteArrayLengthHeaderSerializer.HEADER_SIZE_UNSIGNED_BYTE));
+		assertFrames(new ByteArrayLengthHeaderSerializer(ByteArrayLengthHeaderSerializer.HEADER_SIZE_UNSIGNED_SHORT));
+	}
+
+	@Test
+	public void testRaw() throws Exception {
+		FrameDecoder<byte[]> decoder = new ByteArrayRawSerializer().createFrameDecoder();
+		assertNull(decoder.decode(ByteBuffer.wrap("foo".getBytes())));
+		assertNull(decoder.decode(ByteBuffer.wrap("bar".getBytes())));
+		assertEquals("foobar", new String(decoder.endOfStream(false)));
+		assertNull(decoder.endOfStream(false));
+
+		assertNull(decoder.decode(ByteBuffer.wrap("foo".getBytes())));
+		assertNull(decoder.endOfStream(true));
+
+		decoder = new ByteArrayRawSerializer(true).createFrameDecoder();
+		assertNull(decoder.decode(ByteBuffer.wrap("foo".getBytes())));
+		assertEquals("foo", new String(decoder.endOfStream(true)));
+	}
+
+	@Test
+	public void testMaxMessageSize() throws Exception {
+		ByteArrayCrLfSerializer serializer = new ByteArrayCrLfSerializer();
+		serializer.setMaxMessageSize(5);
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		serializer.setApplicationEventPublisher(publisher);
+		FrameDecoder<byte[]> decoder = serializer.createFrameDecoder();
+		try {
+			decoder.decode(ByteBuffer.wrap("foobar\r\n".getBytes()));
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("CRLF not found before max message length: 5"));
+		}
+		verify(publisher).publishEvent(any(TcpDeserializationExceptionEvent.class));
+
+		ByteArrayLengthHeaderSerializer lengthHeader = new ByteArrayLengthHeaderSerializer();
+		lengthHeader.setMaxMessageSize(5);
+		decoder = lengthHeader.createFrameDecoder();
+		try {
+			decoder.decode(ByteBuffer.wrap(new byte[] { 0, 0, 0, 6 }));
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			assertEquals("Message length 6 exceeds max message length: 5", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testStxExpected() throws Exception {
+		try {
+			ByteArrayStxEtxSerializer.INSTANCE.createFrameDecoder().decode(ByteBuffer.wrap("foo".getBytes()));
+			fail("Expected MessageMappingException");
+		}
+		catch (MessageMappingException e) {
+			assertEquals("Expected STX to begin message", e.getMessage());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void assertFrames(AbstractByteArraySerializer serializer) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String payload : PAYLOADS) {
+			serializer.serialize(payload.getBytes(), out);
+		}
+		byte[] data = out.toByteArray();
+		FramingDeserializer<byte[]> framing = (FramingDeserializer<byte[]>) serializer;
+
+		// all at once, then in chunks of every size
+		for (int chunk = data.length; chunk > 0; chunk--) {
+			FrameDecoder<byte[]> decoder = framing.createFrameDecoder();
+			List<String> frames = new ArrayList<>();
+			for (int offset = 0; offset < data.length; offset += chunk) {
+				ByteBuffer buffer = ByteBuffer.wrap(data, offset, Math.min(chunk, data.length - offset));
+				byte[] frame;
+				while ((frame = decoder.decode(buffer)) != null) {
+					frames.add(new String(frame));
+				}
+				assertEquals(0, buffer.remaining());
+			}
+			assertArrayEquals(serializer.getClass().getSimpleName() + " chunk " + chunk,
+					PAYLOADS, frames.toArray());
+			assertNull(decoder.endOfStream(false));
+		}
+
+		FrameDecoder<byte[]> decoder = framing.createFrameDecoder();
+		assertNull(decoder.decode(ByteBuffer.wrap(data, 0, 2)));
+		try {
+			decoder.endOfStream(false);
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			// expected: closed in the middle of a frame
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * @since 5.1
+ */
+public class GatheringSerializerTests {
+
+	private static final String[] PAYLOADS = { "foo", "", "bar\rbaz" };
+
+	@Test
+	public void testBuffersMatchSerializedBytes() throws Exception {
+		assertGathered(ByteArrayCrLfSerializer.INSTANCE);
+		assertGathered(ByteArrayLfSerializer.INSTANCE);
+		assertGathered(ByteArrayStxEtxSerializer.INSTANCE);
+		assertGathered(ByteArrayRawSerializer.INSTANCE);
+		assertGathered(new ByteArrayLengthHeaderSerializer());
+		assertGathered(new ByteArrayLengthHeaderSerializer(ByteArrayLengthHeaderSerializer.HEADER_SIZE_UNSIGNED_BYTE));
+		assertGathered(new ByteArrayLengthHeaderSerializer(ByteArrayLengthHeaderSerializer.HEADER_SIZE_UNSIGNED_SHORT));
+	}
+
+	private void assertGathered(GatheringSerializer<byte[]> serializer) throws Exception {
+		for (String payload : PAYLOADS) {
+			ByteArrayOutputStream expected = new ByteArrayOutputStream();
+			serializer.serialize(payload.getBytes(), expected);
+			ByteArrayOutputStream gathered = new ByteArrayOutputStream();
+			for (ByteBuffer buffer : serializer.toByteBuffers(payload.getBytes())) {
+				byte[] bytes = new byte[buffer.remaining()];
+				buffer.get(bytes);
+				gathered.write(bytes);
+			}
+			assertArrayEquals(expected.toByteArray(), gathered.toByteArray());
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.ip.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * @since 5.1
+ */
+public class ByteBufferPoolTests {
+
+	@Test
+	public void testSizeClassesAndReuse() {
+		ByteBufferPool pool = new ByteBufferPool(true, 1000, 4096, 1024 * 1024);
+		PooledByteBuffer small = pool.acquire(10);
+		assertThat(small.getBuffer().capacity()).isEqualTo(1024);
+		assertThat(small.getBuffer().isDirect()).isTrue();
+		PooledByteBuffer medium = pool.acquire(1025);
+		assertThat(medium.getBuffer().capacity()).isEqualTo(2048);
+		PooledByteBuffer large = pool.acquire(8192);
+		assertThat(large.getBuffer().capacity()).isEqualTo(8192);
+		assertThat(pool.getOutstandingCount()).isEqualTo(3);
+
+		ByteBuffer buffer = medium.getBuffer();
+		buffer.put((byte) 1);
+		assertThat(medium.release()).isTrue();
+		assertThat(large.release()).isTrue();
+		assertThat(pool.getPooledCount()).isEqualTo(1);
+		PooledByteBuffer again = pool.acquire(2000);
+		assertThat(again.getBuffer()).isSameAs(buffer);
+		assertThat(again.getBuffer().position()).isEqualTo(0);
+		assertThat(again.getBuffer().remaining()).isEqualTo(2048);
+		assertThat(pool.acquire(8192).getBuffer()).isNotSameAs(large.buffer);
+	}
+
+	@Test
+	public void testReferenceCounting() {
+		ByteBufferPool pool = new ByteBufferPool(false);
+		PooledByteBuffer pooled = pool.acquire(100);
+		assertThat(pooled.getBuffer().hasArray()).isTrue();
+		pooled.retain();
+		assertThat(pooled.refCount()).isEqualTo(2);
+		assertThat(pooled.release()).isFalse();
+		assertThat(pool.getPooledCount()).isEqualTo(0);
+		assertThat(pooled.release()).isTrue();
+		assertThat(pool.getPooledCount()).isEqualTo(1);
+		assertThat(pool.getOutstandingCount()).isEqualTo(0);
+		assertThatThrownBy(pooled::release).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(pooled::getBuffer).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(pooled::retain).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void testPoolIsBounded() {
+		ByteBufferPool pool = new ByteBufferPool(false, 1024, 1024, 2048);
+		PooledByteBuffer one = pool.acquire(1);
+		PooledByteBuffer two = pool.acquire(1);
+		PooledByteBuffer three = pool.acquire(1);
+		one.release();
+		two.release();
+		three.release();
+		assertThat(pool.getPooledCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testLeakDetection() {
+		ByteBufferPool pool = new ByteBufferPool();
+		pool.setLeakDetection(true);
+		pool.acquire(100).release();
+		pool.acquire(100);
+		assertThat(pool.reportLeaks()).isEqualTo(1);
+		pool.destroy();
+		assertThat(pool.getPooledCount()).isEqualTo(0);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import java.util.Map;
 import javax.sql.DataSource;
 
 import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.integration.handler.BatchMessageHandler;
 import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.PreparedStatementCallback;
@@ -55,12 +56,15 @@ import org.springframework.util.LinkedCaseInsensitiveMap;
  *
  * N.B. do not use quotes to escape the header keys. The default SQL parameter source (from Spring JDBC) can also handle
  * headers with dotted names (e.g. <code>business.id</code>)
+ * <p>
+ * As a {@link BatchMessageHandler}, it executes the update for several messages (for example
+ * all the messages of a poll) with a single JDBC batch update, unless the keys are generated.
  *
  * @author Dave Syer
  * @author Artem Bilan
  * @since 2.0
  */
-public class JdbcMessageHandler extends AbstractMessageHandler {
+public class JdbcMessageHandler extends AbstractMessageHandler implements BatchMessageHandler {
 
 	private final ResultSetExtractor<List<Map<String, Object>>> generatedKeysResultSetExtractor =
 			new RowMapperResultSetExtractor<Map<String, Object>>(new ColumnMapRowMapper(), 1);
@@ -156,6 +160,31 @@ public class JdbcMessageHandler extends AbstractMessageHandler {
 		}
 	}
 
+	/**
+	 * Execute the update for all the messages with a single JDBC batch update; when the
+	 * keys are generated, each message is handled in turn.
+	 * @since 5.1
+	 */
+	@Override
+	public void handleMessages(List<Message<?>> messages) {
+		if (this.keysGenerated) {
+			for (Message<?> message : messages) {
+				handleMessage(message);
+			}
+		}
+		else if (this.preparedStatementSetter != null) {
+			this.jdbcOperations.getJdbcOperations().batchUpdate(this.updateSql, messages, messages.size(),
+					(ps, message) -> JdbcMessageHandler.this.preparedStatementSetter.setValues(ps, message));
+		}
+		else {
+			SqlParameterSource[] parameterSources = new SqlParameterSource[messages.size()];
+			for (int i = 0; i < parameterSources.length; i++) {
+				parameterSources[i] = this.sqlParameterSourceFactory.createParameterSource(messages.get(i));
+			}
+			this.jdbcOperations.batchUpdate(this.updateSql, parameterSources);
+		}
+	}
+
 	protected List<? extends Map<String, Object>> executeUpdateQuery(final Message<?> message, boolean keysGenerated) {
 		SqlParameterSource updateParameterSource = EmptySqlParameterSource.INSTANCE;
 		if (this.preparedStatementSetter == null) {
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.util.UUIDConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Holds a dedicated PostgreSQL connection which {@code LISTEN}s for the notifications
+ * sent when messages are added to a {@code JdbcChannelMessageStore} table, and wakes
+ * up the {@link Subscription}s for the affected message groups.
+ * <p>
+ * Notifications are delivered with very low latency, but they are not durable: they
+ * are lost while the connection is down and they are not sent for messages inserted by
+ * other means than {@link #sendNotification(String, Object)}. Therefore all
+ * subscriptions are also woken up periodically ({@link #setPollingInterval(long)}),
+ * as well as after every (re)connection.
+ * <p>
+ * The {@link DataSource} must be the one used by the message store, so that the
+ * {@code NOTIFY} is sent in the same transaction as the insert and is only delivered
+ * once the message is visible to consumers.
+ *
+ * @since 5.1
+ */
+public class PostgresChannelMessageTableSubscriber implements SmartLifecycle {
+
+	/**
+	 * The default notification channel name.
+	 */
+	public static final String DEFAULT_NOTIFICATION_CHANNEL = "int_channel_message_notify";
+
+	public static final long DEFAULT_POLLING_INTERVAL = 10000L;
+
+	public static final long DEFAULT_RECOVERY_INTERVAL = 5000L;
+
+	public static final long DEFAULT_STOP_TIMEOUT = 5000L;
+
+	private static final long MAX_NOTIFICATION_WAIT = 1000L;
+
+	private static final Log logger = LogFactory.getLog(PostgresChannelMessageTableSubscriber.class);
+
+	private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+	private final Object lifecycleMonitor = new Object();
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private String notificationChannel = DEFAULT_NOTIFICATION_CHANNEL;
+
+	private long pollingInterval = DEFAULT_POLLING_INTERVAL;
+
+	private long recoveryInterval = DEFAULT_RECOVERY_INTERVAL;
+
+	private AsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("postgres-channel-notifications-");
+
+	private boolean autoStartup = true;
+
+	private int phase;
+
+	private long stopTimeout = DEFAULT_STOP_TIMEOUT;
+
+	private volatile boolean running;
+
+	private Future<?> listener;
+
+	private CountDownLatch listenerExited;
+
+	/**
+	 * Create an instance listening on connections obtained from the provided
+	 * {@link DataSource}; its connections must be (or unwrap to) {@link PGConnection}s.
+	 * @param dataSource the data source.
+	 */
+	public PostgresChannelMessageTableSubscriber(DataSource dataSource) {
+		Assert.notNull(dataSource, "'dataSource' must not be null");
+		this.dataSource = dataSource;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Set the name of the PostgreSQL notification channel; it must be a valid SQL
+	 * identifier. Defaults to {@value #DEFAULT_NOTIFICATION_CHANNEL}.
+	 * @param notificationChannel the notification channel.
+	 */
+	public void setNotificationChannel(String notificationChannel) {
+		Assert.isTrue(notificationChannel != null && notificationChannel.matches("[A-Za-z_][A-Za-z0-9_]*"),
+				"'notificationChannel' must be a valid SQL identifier");
+		this.notificationChannel = notificationChannel;
+	}
+
+	/**
+	 * Set the interval, in milliseconds, at which all subscriptions are woken up
+	 * regardless of notifications, as a safety net for lost notifications.
+	 * Defaults to {@value #DEFAULT_POLLING_INTERVAL}.
+	 * @param pollingInterval the polling interval.
+	 */
+	public void setPollingInterval(long pollingInterval) {
+		Assert.isTrue(pollingInterval > 0, "'pollingInterval' must be greater than 0");
+		this.pollingInterval = pollingInterval;
+	}
+
+	/**
+	 * Set the time, in milliseconds, to wait before reconnecting after the listening
+	 * connection failed. Defaults to {@value #DEFAULT_RECOVERY_INTERVAL}.
+	 * @param recoveryInterval the recovery interval.
+	 */
+	public void setRecoveryInterval(long recoveryInterval) {
+		this.recoveryInterval = recoveryInterval;
+	}
+
+	/**
+	 * Set the executor running the listening loop; it occupies one thread for as long
+	 * as this subscriber is running.
+	 * @param taskExecutor the task executor.
+	 */
+	public void setTaskExecutor(AsyncTaskExecutor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the time, in milliseconds, {@link #stop()} waits for the listening loop to
+	 * exit; the loop checks whether it should exit at least every second.
+	 * Defaults to {@value #DEFAULT_STOP_TIMEOUT}.
+	 * @param stopTimeout the stop timeout.
+	 */
+	public void setStopTimeout(long stopTimeout) {
+		this.stopTimeout = stopTimeout;
+	}
+
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Register a subscription to be woken up when messages are added to its group.
+	 * @param subscription the subscription.
+	 * @return true if the subscription was not already registered.
+	 */
+	public boolean subscribe(Subscription subscription) {
+		return this.subscriptions.computeIfAbsent(key(subscription.getRegion(), subscription.getGroupId()),
+				k -> new CopyOnWriteArraySet<>())
+				.add(subscription);
+	}
+
+	/**
+	 * Remove a subscription.
+	 * @param subscription the subscription.
+	 * @return true if the subscription was registered.
+	 */
+	public boolean unsubscribe(Subscription subscription) {
+		Set<Subscription> groupSubscriptions =
+				this.subscriptions.get(key(subscription.getRegion(), subscription.getGroupId()));
+		return groupSubscriptions != null && groupSubscriptions.remove(subscription);
+	}
+
+	/**
+	 * Send a {@code NOTIFY} for the given message group. When called within a
+	 * transaction on the same {@link DataSource}, the notification is delivered on
+	 * commit only.
+	 * @param region the message store region.
+	 * @param groupId the message group id (the channel).
+	 */
+	public void sendNotification(String region, Object groupId) {
+		this.jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, this.notificationChannel,
+				key(region, groupId));
+	}
+
+	@Override
+	public void start() {
+		synchronized (this.lifecycleMonitor) {
+			if (!this.running) {
+				if (!awaitListenerExit()) {
+					throw new IllegalStateException("The previous listening loop has not exited yet");
+				}
+				this.running = true;
+				CountDownLatch exited = new CountDownLatch(1);
+				this.listenerExited = exited;
+				this.listener = this.taskExecutor.submit(() -> {
+					try {
+						listen();
+					}
+					finally {
+						exited.countDown();
+					}
+				});
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.running) {
+				this.running = false;
+				// interrupts the recovery sleep; a pending wait for notifications ends within a second
+				this.listener.cancel(true);
+				if (!awaitListenerExit()) {
+					logger.warn("The listening loop on channel '" + this.notificationChannel
+							+ "' did not exit within " + this.stopTimeout + "ms");
+				}
+			}
+		}
+	}
+
+	/*
+	 * Must be called while holding the lifecycle monitor.
+	 */
+	private boolean awaitListenerExit() {
+		CountDownLatch exited = this.listenerExited;
+		if (exited == null) {
+			return true;
+		}
+		try {
+			return exited.await(this.stopTimeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return exited.getCount() == 0;
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	private void listen() {
+		while (this.running) {
+			try (Connection connection = this.dataSource.getConnection()) {
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + this.notificationChannel);
+				}
+				try {
+					receiveNotifications(pgConnection);
+				}
+				finally {
+					try (Statement statement = connection.createStatement()) {
+						statement.execute("UNLISTEN " + this.notificationChannel);
+					}
+				}
+			}
+			catch (Exception e) {
+				if (this.running) {
+					logger.error("Failed to listen for notifications on channel '" + this.notificationChannel
+							+ "', retrying in " + this.recoveryInterval + "ms", e);
+					try {
+						Thread.sleep(this.recoveryInterval);
+					}
+					catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	private void receiveNotifications(PGConnection pgConnection) throws Exception {
+		// Catch up with whatever was inserted while we were not listening
+		wakeUpAll();
+		long lastWakeUp = System.currentTimeMillis();
+		while (this.running) {
+			long wait = Math.max(1L, Math.min(MAX_NOTIFICATION_WAIT,
+					lastWakeUp + this.pollingInterval - System.currentTimeMillis()));
+			PGNotification[] notifications = pgConnection.getNotifications((int) wait);
+			if (notifications != null) {
+				for (PGNotification notification : notifications) {
+					Set<Subscription> groupSubscriptions = this.subscriptions.get(notification.getParameter());
+					if (groupSubscriptions != null) {
+						groupSubscriptions.forEach(this::wakeUp);
+					}
+				}
+			}
+			if (System.currentTimeMillis() - lastWakeUp >= this.pollingInterval) {
+				wakeUpAll();
+				lastWakeUp = System.currentTimeMillis();
+			}
+		}
+	}
+
+	private void wakeUpAll() {
+		this.subscriptions.values().forEach(groupSubscriptions -> groupSubscriptions.forEach(this::wakeUp));
+	}
+
+	private void wakeUp(Subscription subscription) {
+		try {
+			subscription.notifyUpdate();
+		}
+		catch (Exception e) {
+			logger.error("Failed to notify subscription " + subscription, e);
+		}
+	}
+
+	private static String key(String region, Object groupId) {
+		return region + " " + UUIDConverter.getUUID(groupId);
+	}
+
+	/**
+	 * A subscription to notifications for a message group.
+	 */
+	public interface Subscription {
+
+		/**
+		 * Indicate that messages might have been added to the group; must not block.
+		 */
+		void notifyUpdate();
+
+		/**
+		 * Return the message store region of the group.
+		 * @return the region.
+		 */
+		String getRegion();
+
+		/**
+		 * Return the message group id (the channel).
+		 * @return the group id.
+		 */
+		Object getGroupId();
+
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.MessageDispatchingException;
+import org.springframework.integration.channel.AbstractSubscribableChannel;
+import org.springframework.integration.channel.MessagePublishingErrorHandler;
+import org.springframework.integration.dispatcher.UnicastingDispatcher;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link org.springframework.messaging.SubscribableChannel} persisting its messages
+ * in a {@link JdbcChannelMessageStore} on PostgreSQL. Instead of being polled, the
+ * table is drained as soon as a {@link PostgresChannelMessageTableSubscriber} receives
+ * a {@code NOTIFY} for the channel's message group, which every send issues. Messages
+ * are therefore delivered to the subscribers of any channel instance, on any node,
+ * using the same store, region and group id, within a few milliseconds, while the
+ * database only sees the (periodic) fallback polls when the channel is idle.
+ *
+ * @since 5.1
+ */
+public class PostgresSubscribableChannel extends AbstractSubscribableChannel
+		implements PostgresChannelMessageTableSubscriber.Subscription {
+
+	private final JdbcChannelMessageStore messageStore;
+
+	private final Object groupId;
+
+	private final PostgresChannelMessageTableSubscriber messageTableSubscriber;
+
+	private final UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+
+	private final AtomicInteger pendingUpdates = new AtomicInteger();
+
+	private Executor executor = new SimpleAsyncTaskExecutor();
+
+	private TransactionTemplate transactionTemplate;
+
+	private ErrorHandler errorHandler;
+
+	/**
+	 * Create an instance storing messages in the provided group.
+	 * @param messageStore the message store; it must use the same data source as the subscriber.
+	 * @param groupId the message group id, typically the channel name.
+	 * @param messageTableSubscriber the subscriber receiving the notifications.
+	 */
+	public PostgresSubscribableChannel(JdbcChannelMessageStore messageStore, Object groupId,
+			PostgresChannelMessageTableSubscriber messageTableSubscriber) {
+
+		Assert.notNull(messageStore, "'messageStore' must not be null");
+		Assert.notNull(groupId, "'groupId' must not be null");
+		Assert.notNull(messageTableSubscriber, "'messageTableSubscriber' must not be null");
+		this.messageStore = messageStore;
+		this.groupId = groupId;
+		this.messageTableSubscriber = messageTableSubscriber;
+	}
+
+	/**
+	 * Set the executor used to drain the table and dispatch messages to the
+	 * subscribers. Defaults to a {@link SimpleAsyncTaskExecutor}.
+	 * @param executor the executor.
+	 */
+	public void setDispatcherExecutor(Executor executor) {
+		Assert.notNull(executor, "'executor' must not be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * Set a transaction manager to poll and dispatch each message in a transaction;
+	 * a message whose handling fails is then rolled back to the table, and is
+	 * redelivered on the next notification or fallback poll.
+	 * <p>Without a transaction manager, a message is deleted from the table when it is
+	 * polled, before it is dispatched: if its dispatch fails, it is only passed to the
+	 * {@link #setErrorHandler(ErrorHandler) error handler}.
+	 * @param transactionManager the transaction manager.
+	 */
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		Assert.notNull(transactionManager, "'transactionManager' must not be null");
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Set the handler for dispatching errors. Defaults to a
+	 * {@link MessagePublishingErrorHandler}.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	@Override
+	public String getRegion() {
+		return this.messageStore.getRegion();
+	}
+
+	@Override
+	public Object getGroupId() {
+		return this.groupId;
+	}
+
+	@Override
+	protected UnicastingDispatcher getDispatcher() {
+		return this.dispatcher;
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (this.errorHandler == null) {
+			this.errorHandler = getBeanFactory() != null
+					? new MessagePublishingErrorHandler(new BeanFactoryChannelResolver(getBeanFactory()))
+					: new MessagePublishingErrorHandler();
+		}
+	}
+
+	@Override
+	public boolean subscribe(MessageHandler handler) {
+		boolean subscribed = super.subscribe(handler);
+		if (subscribed && getSubscriberCount() == 1) {
+			this.messageTableSubscriber.subscribe(this);
+			notifyUpdate();
+		}
+		return subscribed;
+	}
+
+	@Override
+	public boolean unsubscribe(MessageHandler handler) {
+		boolean unsubscribed = super.unsubscribe(handler);
+		if (unsubscribed && getSubscriberCount() == 0) {
+			this.messageTableSubscriber.unsubscribe(this);
+		}
+		return unsubscribed;
+	}
+
+	@Override
+	protected boolean doSend(Message<?> message, long timeout) {
+		this.messageStore.addMessageToGroup(this.groupId, message);
+		this.messageTableSubscriber.sendNotification(getRegion(), this.groupId);
+		if (getSubscriberCount() > 0) {
+			// Don't wait for the notification round trip when we can consume locally
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+					@Override
+					public void afterCommit() {
+						notifyUpdate();
+					}
+
+				});
+			}
+			else {
+				notifyUpdate();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Drain the table on the dispatcher executor, unless a drain is already in
+	 * progress; that drain then makes another pass before completing.
+	 */
+	@Override
+	public void notifyUpdate() {
+		if (this.pendingUpdates.getAndIncrement() == 0) {
+			try {
+				this.executor.execute(this::drain);
+			}
+			catch (RuntimeException e) {
+				// the messages stay in the table for the next notification or fallback poll
+				this.pendingUpdates.set(0);
+				logger.error("Failed to schedule the drain of channel '" + getFullChannelName() + "'", e);
+			}
+		}
+	}
+
+	private void drain() {
+		int updates = 0;
+		boolean completed = false;
+		try {
+			do {
+				updates = this.pendingUpdates.get();
+				while (getSubscriberCount() > 0 && pollAndDispatch()) {
+					// keep going until the group is empty
+				}
+			}
+			while (!this.pendingUpdates.compareAndSet(updates, 0));
+			completed = true;
+		}
+		finally {
+			if (!completed && this.pendingUpdates.getAndSet(0) != updates) {
+				// the next notification schedules a drain again; don't wait for it
+				// if some arrived during this one
+				notifyUpdate();
+			}
+		}
+	}
+
+	private boolean pollAndDispatch() {
+		try {
+			Message<?> message =
+					this.transactionTemplate == null
+							? doPollAndDispatch()
+							: this.transactionTemplate.execute(status -> doPollAndDispatch());
+			return message != null;
+		}
+		catch (Exception e) {
+			if (this.errorHandler != null) {
+				this.errorHandler.handleError(e);
+			}
+			else {
+				logger.error("Failed to dispatch message from channel '" + getFullChannelName() + "'", e);
+			}
+			return false;
+		}
+	}
+
+	private Message<?> doPollAndDispatch() {
+		Message<?> message = this.messageStore.pollMessageFromGroup(this.groupId);
+		if (message != null) {
+			try {
+				this.dispatcher.dispatch(message);
+			}
+			catch (MessageDispatchingException e) {
+				throw new MessageDeliveryException(message,
+						e.getMessage() + " for channel '" + getFullChannelName() + "'.", e);
+			}
+		}
+		return message;
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides JDBC-backed message channels.
+ */
+package org.springframework.integration.jdbc.channel;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.integration.jdbc.store;
 
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -37,6 +39,7 @@ import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.integration.jdbc.store.channel.ChannelMessageStorePreparedStatementSetter;
 import org.springframework.integration.jdbc.store.channel.ChannelMessageStoreQueryProvider;
 import org.springframework.integration.jdbc.store.channel.MessageRowMapper;
@@ -209,6 +212,21 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		this.deserializer.addWhiteListPatterns(patterns);
 	}
 
+	/**
+	 * Serialize messages with the provided codec, and deserialize them in any of its
+	 * formats, including the Java serialization of existing rows. The white list
+	 * patterns must then be added to the codec instead of this store.
+	 * Replaces the {@link #setSerializer(Serializer) serializer} and
+	 * {@link #setDeserializer(Deserializer) deserializer}.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageStoreCodec(MessageStoreCodec messageStoreCodec) {
+		Assert.notNull(messageStoreCodec, "'messageStoreCodec' must not be null");
+		this.serializer = new SerializingConverter(messageStoreCodec);
+		this.deserializer = new WhiteListDeserializingConverter(messageStoreCodec);
+	}
+
 	/**
 	 * The {@link JdbcOperations} to use when interacting with the database. Either
 	 * this property can be set or the {@link #setDataSource(DataSource) dataSource}.
@@ -280,6 +298,16 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		this.region = region;
 	}
 
+	/**
+	 * Return the region of the messages persisted with this store.
+	 * @return the region.
+	 * @since 5.1
+	 * @see #setRegion(String)
+	 */
+	public String getRegion() {
+		return this.region;
+	}
+
 	/**
 	 * A converter for serializing messages to byte arrays for storage.
 	 * @param serializer The serializer to set
@@ -307,8 +335,11 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 	 * oldest entry for a giving channel (groupKey) and region ({@link #setRegion(String)}).
 	 * If you do that with multiple threads and you are using transactions, other
 	 * threads may be waiting for that same locked row.</p>
-	 * <p>If using the provided {@link OracleChannelMessageStoreQueryProvider}, don't set {@link #usingIdCache}
-	 * to true, as the Oracle query will ignore locked rows.</p>
+	 * <p>The id cache is not needed, and is ignored, with query providers which skip
+	 * locked rows ({@link ChannelMessageStoreQueryProvider#isSkipLockedSupported()}), such as the
+	 * provided {@link OracleChannelMessageStoreQueryProvider}, {@code PostgresChannelMessageStoreQueryProvider},
+	 * {@code MySql8ChannelMessageStoreQueryProvider} and {@code SqlServerChannelMessageStoreQueryProvider}:
+	 * their queries never select rows locked by other pollers, even in other processes.</p>
 	 * <p>Using the id cache, the {@link JdbcChannelMessageStore} will store each
 	 * message id in an in-memory collection for the duration of processing. With
 	 * that, any polling threads will explicitly exclude those messages from
@@ -396,6 +427,15 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 			this.preparedStatementSetter = new ChannelMessageStorePreparedStatementSetter(this.serializer,
 					this.lobHandler);
 		}
+
+		if (this.usingIdCache && this.channelMessageStoreQueryProvider.isSkipLockedSupported()) {
+			if (logger.isInfoEnabled()) {
+				logger.info("The id cache is not used: the "
+						+ this.channelMessageStoreQueryProvider.getClass().getSimpleName()
+						+ " queries skip locked rows.");
+			}
+			this.usingIdCache = false;
+		}
 		this.jdbcTemplate.afterPropertiesSet();
 	}
 
@@ -422,6 +462,28 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return getMessageGroup(groupId);
 	}
 
+	/**
+	 * Store messages in the database with one JDBC batch
+	 * ({@link JdbcTemplate#batchUpdate(String, org.springframework.jdbc.core.BatchPreparedStatementSetter)}).
+	 * The groupId identifies the channel for which the messages are to be stored.
+	 * Unlike {@link #addMessageToGroup(Object, Message)}, a duplicate message id fails the
+	 * whole batch.
+	 * @param groupId the group id to store the messages under
+	 * @param messages the messages
+	 * @since 5.1
+	 */
+	public void addMessagesToGroup(Object groupId, Message<?>... messages) {
+		Assert.notNull(messages, "'messages' must not be null");
+		if (messages.length == 1) {
+			addMessageToGroup(groupId, messages[0]);
+			return;
+		}
+		this.jdbcTemplate.batchUpdate(getQuery(this.channelMessageStoreQueryProvider.getCreateMessageQuery()),
+				Arrays.asList(messages), messages.length,
+				(ps, message) -> this.preparedStatementSetter.setValues(ps, message, groupId, this.region,
+						this.priorityEnabled));
+	}
+
 	/**
 	 * Helper method that converts the channel id to a UUID using
 	 * {@link UUIDConverter#getUUID(Object)}.
@@ -508,6 +570,42 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return polledMessage;
 	}
 
+	/**
+	 * Polls the database for up to {@code maxMessages} messages persisted for the given
+	 * group id, with the {@link ChannelMessageStoreQueryProvider#getPollMessagesFromGroupQuery()}
+	 * query, and deletes them with one JDBC batch. Falls back to polling them one by one
+	 * when the query provider doesn't support bulk polling or when the id cache is used.
+	 * @since 5.1
+	 */
+	@Override
+	public List<Message<?>> pollMessagesFromGroup(Object groupId, int maxMessages) {
+		String query = this.priorityEnabled
+				? this.channelMessageStoreQueryProvider.getPriorityPollMessagesFromGroupQuery()
+				: this.channelMessageStoreQueryProvider.getPollMessagesFromGroupQuery();
+		if (maxMessages < 2 || query == null || this.usingIdCache) {
+			return PriorityCapableChannelMessageStore.super.pollMessagesFromGroup(groupId, maxMessages);
+		}
+
+		final MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("region", this.region);
+		parameters.addValue("group_key", getKey(groupId));
+		parameters.addValue("max_rows", maxMessages);
+
+		List<Message<?>> polledMessages = new NamedParameterJdbcTemplate(this.jdbcTemplate)
+				.query(getQuery(query), parameters, rs -> {
+					List<Message<?>> messages = new ArrayList<>();
+					while (messages.size() < maxMessages && rs.next()) {
+						messages.add(this.messageRowMapper.mapRow(rs, messages.size()));
+					}
+					return messages;
+				});
+
+		if (polledMessages.isEmpty()) {
+			return polledMessages;
+		}
+		return doRemoveMessagesFromGroup(groupId, polledMessages);
+	}
+
 	/**
 	 * This method executes a call to the DB to get the oldest Message in the
 	 * MessageGroup which in the context of the {@link JdbcChannelMessageStore}
@@ -597,6 +695,33 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return result;
 	}
 
+	private List<Message<?>> doRemoveMessagesFromGroup(Object groupId, List<Message<?>> messagesToRemove) {
+		final String groupKey = getKey(groupId);
+		List<Object[]> batchArgs = new ArrayList<>(messagesToRemove.size());
+		for (Message<?> message : messagesToRemove) {
+			batchArgs.add(new Object[] { getKey(message.getHeaders().getId()), groupKey, this.region });
+		}
+
+		int[] updated = this.jdbcTemplate.batchUpdate(
+				getQuery(this.channelMessageStoreQueryProvider.getDeleteMessageQuery()), batchArgs,
+				new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR });
+
+		List<Message<?>> removed = new ArrayList<>(messagesToRemove.size());
+		for (int i = 0; i < messagesToRemove.size(); i++) {
+			if (updated[i] != 0) {
+				removed.add(messagesToRemove.get(i));
+			}
+			else {
+				logger.warn(String.format("Message with id '%s' was not deleted.",
+						messagesToRemove.get(i).getHeaders().getId()));
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("%d messages were deleted.", removed.size()));
+		}
+		return removed;
+	}
+
 	/**
 	 * <p>Remove a Message Id from the idCache. Should be used in conjunction
 	 * with the Spring Integration Transaction Synchronization feature to remove
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,20 @@
 
 package org.springframework.integration.jdbc.store;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -38,12 +42,14 @@ import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.integration.store.AbstractMessageGroupStore;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageMetadata;
 import org.springframework.integration.store.MessageStore;
 import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.integration.util.UUIDConverter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -108,6 +114,17 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 				"(SELECT MESSAGE_ID from %PREFIX%GROUP_TO_MESSAGE where GROUP_KEY = ? and REGION = ?) and REGION = ? " +
 				"ORDER BY CREATED_DATE"),
 
+		LIST_MESSAGES_BY_GROUP_KEY_FIRST_PAGE("SELECT MESSAGE_ID, MESSAGE_BYTES, CREATED_DATE " +
+				"from %PREFIX%MESSAGE where MESSAGE_ID in " +
+				"(SELECT MESSAGE_ID from %PREFIX%GROUP_TO_MESSAGE where GROUP_KEY = ? and REGION = ?) and REGION = ? " +
+				"ORDER BY CREATED_DATE, MESSAGE_ID"),
+
+		LIST_MESSAGES_BY_GROUP_KEY_NEXT_PAGE("SELECT MESSAGE_ID, MESSAGE_BYTES, CREATED_DATE " +
+				"from %PREFIX%MESSAGE where MESSAGE_ID in " +
+				"(SELECT MESSAGE_ID from %PREFIX%GROUP_TO_MESSAGE where GROUP_KEY = ? and REGION = ?) and REGION = ? " +
+				"and (CREATED_DATE > ? or (CREATED_DATE = ? and MESSAGE_ID > ?)) " +
+				"ORDER BY CREATED_DATE, MESSAGE_ID"),
+
 		POLL_FROM_GROUP("SELECT %PREFIX%MESSAGE.MESSAGE_ID, %PREFIX%MESSAGE.MESSAGE_BYTES from %PREFIX%MESSAGE " +
 				"where %PREFIX%MESSAGE.MESSAGE_ID = " +
 				"(SELECT min(m.MESSAGE_ID) from %PREFIX%MESSAGE m " +
@@ -277,6 +294,21 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		this.deserializer.addWhiteListPatterns(patterns);
 	}
 
+	/**
+	 * Serialize messages with the provided codec, and deserialize them in any of its
+	 * formats, including the Java serialization of existing rows. The white list
+	 * patterns must then be added to the codec instead of this store.
+	 * Replaces the {@link #setSerializer(Serializer) serializer} and
+	 * {@link #setDeserializer(Deserializer) deserializer}.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageStoreCodec(MessageStoreCodec messageStoreCodec) {
+		Assert.notNull(messageStoreCodec, "'messageStoreCodec' must not be null");
+		this.serializer = new SerializingConverter(messageStoreCodec);
+		this.deserializer = new WhiteListDeserializingConverter(messageStoreCodec);
+	}
+
 	@Override
 	public Message<?> removeMessage(UUID id) {
 		Message<?> message = getMessage(id);
@@ -456,22 +488,40 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		if (logger.isDebugEnabled()) {
 			logger.debug("Removing messages from group with group key=" + groupKey);
 		}
+		/*
+		 * The messages are iterated only once, since they might be streamed from this store
+		 * (a lazy-loaded group), which would not return the already unlinked ones again.
+		 */
+		List<String> messageIds = new ArrayList<>();
+		for (Message<?> messageToRemove : messages) {
+			messageIds.add(getKey(messageToRemove.getHeaders().getId()));
+			if (messageIds.size() >= getRemoveBatchSize()) {
+				removeMessageIdsFromGroup(groupKey, messageIds);
+				messageIds.clear();
+			}
+		}
+		if (messageIds.size() > 0) {
+			removeMessageIdsFromGroup(groupKey, messageIds);
+		}
+		this.updateMessageGroup(groupKey);
+	}
+
+	private void removeMessageIdsFromGroup(String groupKey, List<String> messageIds) {
 		this.jdbcTemplate.batchUpdate(getQuery(Query.REMOVE_MESSAGE_FROM_GROUP),
-				messages,
-				getRemoveBatchSize(),
-				(ps, messageToRemove) -> {
+				messageIds,
+				messageIds.size(),
+				(ps, messageId) -> {
 					ps.setString(1, groupKey);
-					ps.setString(2, getKey(messageToRemove.getHeaders().getId()));
+					ps.setString(2, messageId);
 					ps.setString(3, JdbcMessageStore.this.region);
 				});
 		this.jdbcTemplate.batchUpdate(getQuery(Query.DELETE_MESSAGE),
-				messages,
-				getRemoveBatchSize(),
-				(ps, messageToRemove) -> {
-					ps.setString(1, getKey(messageToRemove.getHeaders().getId()));
+				messageIds,
+				messageIds.size(),
+				(ps, messageId) -> {
+					ps.setString(1, messageId);
 					ps.setString(2, JdbcMessageStore.this.region);
 				});
-		this.updateMessageGroup(groupKey);
 	}
 
 	@Override
@@ -557,6 +607,23 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 				this.region, this.region);
 	}
 
+	/**
+	 * Iterate over the messages for the provided group id, fetching them in pages of
+	 * {@link #setMessagePageSize(int) messagePageSize} (or {@link #setRemoveBatchSize(int)
+	 * removeBatchSize} if not set) messages, ordered by their creation date.
+	 * Each page is selected with a separate query (restricted with
+	 * {@link PreparedStatement#setMaxRows(int)}), so no connection is held between pages.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.1
+	 */
+	@Override
+	public CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		int pageSize = getMessagePageSize() > 0 ? getMessagePageSize() : getRemoveBatchSize();
+		return new PagedMessageIterator(getKey(groupId), pageSize);
+	}
+
 	@Override
 	public Iterator<MessageGroup> iterator() {
 
@@ -667,6 +734,80 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		return input == null ? null : UUIDConverter.getUUID(input).toString();
 	}
 
+	/**
+	 * Iterates over the messages of a group, fetching them a page at a time, keyed by
+	 * the creation date and id of the last message of the previous page.
+	 */
+	private final class PagedMessageIterator implements CloseableIterator<Message<?>> {
+
+		private final String groupKey;
+
+		private final int pageSize;
+
+		private Iterator<Message<?>> page = Collections.emptyIterator();
+
+		private boolean lastPage;
+
+		private Timestamp lastCreatedDate;
+
+		private String lastMessageId;
+
+		PagedMessageIterator(String groupKey, int pageSize) {
+			this.groupKey = groupKey;
+			this.pageSize = pageSize;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (!this.page.hasNext() && !this.lastPage) {
+				fetchPage();
+			}
+			return this.page.hasNext();
+		}
+
+		@Override
+		public Message<?> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.page.next();
+		}
+
+		@Override
+		public void close() {
+			this.lastPage = true;
+			this.page = Collections.emptyIterator();
+		}
+
+		private void fetchPage() {
+			boolean firstPage = this.lastCreatedDate == null;
+			String query = getQuery(firstPage
+					? Query.LIST_MESSAGES_BY_GROUP_KEY_FIRST_PAGE
+					: Query.LIST_MESSAGES_BY_GROUP_KEY_NEXT_PAGE);
+			List<Message<?>> messages = JdbcMessageStore.this.jdbcTemplate.query(con -> {
+				PreparedStatement ps = con.prepareStatement(query);
+				ps.setString(1, this.groupKey);
+				ps.setString(2, JdbcMessageStore.this.region);
+				ps.setString(3, JdbcMessageStore.this.region);
+				if (!firstPage) {
+					ps.setTimestamp(4, this.lastCreatedDate);
+					ps.setTimestamp(5, this.lastCreatedDate);
+					ps.setString(6, this.lastMessageId);
+				}
+				ps.setMaxRows(this.pageSize);
+				ps.setFetchSize(this.pageSize);
+				return ps;
+			}, (rs, rowNum) -> {
+				this.lastCreatedDate = rs.getTimestamp("CREATED_DATE");
+				this.lastMessageId = rs.getString("MESSAGE_ID");
+				return JdbcMessageStore.this.mapper.mapRow(rs, rowNum);
+			});
+			this.lastPage = messages.size() < this.pageSize;
+			this.page = messages.iterator();
+		}
+
+	}
+
 	/**
 	 * Convenience class to be used to unpack a message from a result set row. Uses column named in the result set to
 	 * extract the required data, so that select clause ordering is unimportant.
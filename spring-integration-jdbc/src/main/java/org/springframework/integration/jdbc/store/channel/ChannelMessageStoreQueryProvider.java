@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -67,6 +67,42 @@ public interface ChannelMessageStoreQueryProvider {
 	 */
 	String getPriorityPollFromGroupQuery();
 
+	/**
+	 * Return true if the poll queries lock the selected rows and skip the rows locked
+	 * by other transactions (e.g. {@code FOR UPDATE SKIP LOCKED}), so that concurrent
+	 * pollers, in this or other processes, never select the same message. The
+	 * {@link JdbcChannelMessageStore#setUsingIdCache(boolean) id cache} is not used
+	 * with such providers.
+	 * @return true if locked rows are skipped.
+	 * @since 5.1
+	 */
+	default boolean isSkipLockedSupported() {
+		return false;
+	}
+
+	/**
+	 * Get the query used to retrieve the oldest messages for a channel at once, for
+	 * {@link JdbcChannelMessageStore#pollMessagesFromGroup(Object, int)}. The query may
+	 * use the {@code :max_rows} parameter to limit the number of rows; at most that many
+	 * rows are read from the result in any case. The rows must be locked against
+	 * concurrent pollers, skipping rows locked by other transactions.
+	 * @return Sql Query, or null if bulk polling is not supported.
+	 * @since 5.1
+	 */
+	default String getPollMessagesFromGroupQuery() {
+		return null;
+	}
+
+	/**
+	 * Get the query used to retrieve the oldest messages by priority for a channel at
+	 * once; see {@link #getPollMessagesFromGroupQuery()}.
+	 * @return Sql Query, or null if bulk polling is not supported.
+	 * @since 5.1
+	 */
+	default String getPriorityPollMessagesFromGroupQuery() {
+		return null;
+	}
+
 	/**
 	 * Query that retrieves a message for the provided message id, channel and
 	 * region.
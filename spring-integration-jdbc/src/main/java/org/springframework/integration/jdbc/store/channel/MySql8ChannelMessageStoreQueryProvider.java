@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.jdbc.store.channel;
+
+/**
+ * Contains MySQL-specific queries for the
+ * {@link org.springframework.integration.jdbc.store.JdbcChannelMessageStore}, which
+ * select the polled rows with {@code FOR UPDATE SKIP LOCKED}, so that concurrent
+ * pollers, on any node, skip each other's rows instead of waiting for them.
+ * Also provides the bulk poll queries.
+ * Requires MySQL 8.0 or later; use the {@link MySqlChannelMessageStoreQueryProvider}
+ * with earlier versions and with MariaDB before 10.6.
+ *
+ * @since 5.1
+ */
+public class MySql8ChannelMessageStoreQueryProvider extends MySqlChannelMessageStoreQueryProvider {
+
+	@Override
+	public boolean isSkipLockedSupported() {
+		return true;
+	}
+
+	@Override
+	public String getPollFromGroupExcludeIdsQuery() {
+		return super.getPollFromGroupExcludeIdsQuery() + " FOR UPDATE SKIP LOCKED";
+	}
+
+	@Override
+	public String getPollFromGroupQuery() {
+		return super.getPollFromGroupQuery() + " FOR UPDATE SKIP LOCKED";
+	}
+
+	@Override
+	public String getPriorityPollFromGroupExcludeIdsQuery() {
+		return super.getPriorityPollFromGroupExcludeIdsQuery() + " FOR UPDATE SKIP LOCKED";
+	}
+
+	@Override
+	public String getPriorityPollFromGroupQuery() {
+		return super.getPriorityPollFromGroupQuery() + " FOR UPDATE SKIP LOCKED";
+	}
+
+	@Override
+	public String getPollMessagesFromGroupQuery() {
+		return "SELECT %PREFIX%CHANNEL_MESSAGE.MESSAGE_ID, %PREFIX%CHANNEL_MESSAGE.MESSAGE_BYTES from %PREFIX%CHANNEL_MESSAGE " +
+				"where %PREFIX%CHANNEL_MESSAGE.GROUP_KEY = :group_key and %PREFIX%CHANNEL_MESSAGE.REGION = :region " +
+				"order by CREATED_DATE, MESSAGE_SEQUENCE LIMIT :max_rows FOR UPDATE SKIP LOCKED";
+	}
+
+	@Override
+	public String getPriorityPollMessagesFromGroupQuery() {
+		return "SELECT %PREFIX%CHANNEL_MESSAGE.MESSAGE_ID, %PREFIX%CHANNEL_MESSAGE.MESSAGE_BYTES from %PREFIX%CHANNEL_MESSAGE " +
+				"where %PREFIX%CHANNEL_MESSAGE.GROUP_KEY = :group_key and %PREFIX%CHANNEL_MESSAGE.REGION = :region " +
+				"order by MESSAGE_PRIORITY DESC, CREATED_DATE, MESSAGE_SEQUENCE LIMIT :max_rows FOR UPDATE SKIP LOCKED";
+	}
+
+}
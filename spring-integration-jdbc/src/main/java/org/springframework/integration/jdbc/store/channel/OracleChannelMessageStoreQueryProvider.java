@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,11 @@ import org.springframework.jdbc.core.JdbcTemplate;
  */
 public class OracleChannelMessageStoreQueryProvider extends AbstractChannelMessageStoreQueryProvider {
 
+	@Override
+	public boolean isSkipLockedSupported() {
+		return true;
+	}
+
 	@Override
 	public String getCreateMessageQuery() {
 		return "INSERT into %PREFIX%CHANNEL_MESSAGE(MESSAGE_ID, GROUP_KEY, REGION, CREATED_DATE, MESSAGE_PRIORITY, MESSAGE_SEQUENCE, MESSAGE_BYTES)"
@@ -66,4 +71,23 @@ public class OracleChannelMessageStoreQueryProvider extends AbstractChannelMessa
 				"order by MESSAGE_PRIORITY DESC NULLS LAST, CREATED_DATE, MESSAGE_SEQUENCE FOR UPDATE SKIP LOCKED";
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>The same as {@link #getPollFromGroupQuery()}: Oracle locks the rows as they are
+	 * fetched, so only the rows read (up to {@code max_rows}) are locked.
+	 */
+	@Override
+	public String getPollMessagesFromGroupQuery() {
+		return getPollFromGroupQuery();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The same as {@link #getPriorityPollFromGroupQuery()}.
+	 */
+	@Override
+	public String getPriorityPollMessagesFromGroupQuery() {
+		return getPriorityPollFromGroupQuery();
+	}
+
 }
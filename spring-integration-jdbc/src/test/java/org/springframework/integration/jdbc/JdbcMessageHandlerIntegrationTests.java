@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.integration.jdbc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -105,6 +107,36 @@ public class JdbcMessageHandlerIntegrationTests {
 		assertTrue(setterInvoked.get());
 	}
 
+	@Test
+	public void testBatchDynamicInsert() {
+		JdbcMessageHandler handler = new JdbcMessageHandler(jdbcTemplate,
+				"insert into foos (id, status, name) values (:headers[n], 0, :payload)");
+		handler.afterPropertiesSet();
+		List<Message<?>> messages = Arrays.asList(
+				MessageBuilder.withPayload("foo").setHeader("n", "1").build(),
+				MessageBuilder.withPayload("bar").setHeader("n", "2").build());
+		handler.handleMessages(messages);
+		assertEquals("foo", jdbcTemplate.queryForObject("SELECT NAME FROM FOOS WHERE ID=?", String.class, 1));
+		assertEquals("bar", jdbcTemplate.queryForObject("SELECT NAME FROM FOOS WHERE ID=?", String.class, 2));
+	}
+
+	@Test
+	public void testBatchInsertWithMessagePreparedStatementSetter() {
+		JdbcMessageHandler handler = new JdbcMessageHandler(jdbcTemplate,
+				"insert into foos (id, status, name) values (?, 0, ?)");
+		handler.setPreparedStatementSetter((ps, requestMessage) -> {
+			ps.setObject(1, requestMessage.getHeaders().get("n"));
+			ps.setObject(2, requestMessage.getPayload());
+		});
+		handler.afterPropertiesSet();
+		List<Message<?>> messages = Arrays.asList(
+				MessageBuilder.withPayload("foo").setHeader("n", "1").build(),
+				MessageBuilder.withPayload("bar").setHeader("n", "2").build());
+		handler.handleMessages(messages);
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FOOS", Integer.class).intValue());
+		assertEquals("bar", jdbcTemplate.queryForObject("SELECT NAME FROM FOOS WHERE ID=?", String.class, 2));
+	}
+
 	@Test
 	public void testIdHeaderDynamicInsert() {
 		JdbcMessageHandler handler = new JdbcMessageHandler(jdbcTemplate,
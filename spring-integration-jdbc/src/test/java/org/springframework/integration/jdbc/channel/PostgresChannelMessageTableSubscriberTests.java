@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.jdbc.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+import java.sql.Connection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Runs the real {@code LISTEN}/{@code NOTIFY} loop; skipped unless a PostgreSQL
+ * server is reachable on {@code jdbc:postgresql:integration} (user and password
+ * {@code postgres}), as used by the other PostgreSQL tests.
+ *
+ * @since 5.1
+ */
+public class PostgresChannelMessageTableSubscriberTests {
+
+	private static final String NOTIFICATION_CHANNEL = "int_subscriber_tests";
+
+	private static final String LISTENING_SESSIONS =
+			"SELECT count(*) FROM pg_stat_activity WHERE query = 'LISTEN " + NOTIFICATION_CHANNEL + "'";
+
+	private static DriverManagerDataSource dataSource;
+
+	private PostgresChannelMessageTableSubscriber subscriber;
+
+	private final BlockingQueue<Object> updates = new LinkedBlockingQueue<>();
+
+	@BeforeClass
+	public static void checkDatabase() throws Exception {
+		dataSource = new DriverManagerDataSource("jdbc:postgresql:integration", "postgres", "postgres");
+		try (Connection connection = dataSource.getConnection()) {
+			connection.isValid(1);
+		}
+		catch (Exception e) {
+			assumeNoException(e);
+		}
+	}
+
+	@Before
+	public void setup() {
+		this.subscriber = new PostgresChannelMessageTableSubscriber(dataSource);
+		this.subscriber.setNotificationChannel(NOTIFICATION_CHANNEL);
+		this.subscriber.setPollingInterval(60000);
+		this.subscriber.setRecoveryInterval(100);
+		this.subscriber.subscribe(new PostgresChannelMessageTableSubscriber.Subscription() {
+
+			@Override
+			public void notifyUpdate() {
+				PostgresChannelMessageTableSubscriberTests.this.updates.add(this);
+			}
+
+			@Override
+			public String getRegion() {
+				return "DEFAULT";
+			}
+
+			@Override
+			public Object getGroupId() {
+				return "foo";
+			}
+
+		});
+	}
+
+	@After
+	public void tearDown() {
+		this.subscriber.stop();
+	}
+
+	@Test
+	public void testNotificationWakesUpSubscription() throws Exception {
+		this.subscriber.start();
+		// catch-up wake up once listening
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+		this.subscriber.sendNotification("DEFAULT", "foo");
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+		this.subscriber.sendNotification("DEFAULT", "bar");
+		assertThat(this.updates.poll(2, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void testReconnectsWhenConnectionIsLost() throws Exception {
+		this.subscriber.start();
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = 'LISTEN "
+				+ NOTIFICATION_CHANNEL + "'");
+		// catch-up wake up once listening again
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+		this.subscriber.sendNotification("DEFAULT", "foo");
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+	}
+
+	@Test
+	public void testRestartRunsSingleListeningLoop() throws Exception {
+		this.subscriber.start();
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+		this.subscriber.stop();
+		assertThat(this.subscriber.isRunning()).isFalse();
+		this.subscriber.start();
+		assertThat(this.updates.poll(10, TimeUnit.SECONDS)).isNotNull();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		assertThat(jdbcTemplate.queryForObject(LISTENING_SESSIONS, Integer.class)).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.jdbc.store.channel.H2ChannelMessageStoreQueryProvider;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * The notification round trip needs a PostgreSQL server, so these tests mock the
+ * subscriber and run the channel against an embedded database.
+ *
+ * @since 5.1
+ */
+public class PostgresSubscribableChannelTests {
+
+	private static final String GROUP = "PostgresSubscribableChannelTests";
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcChannelMessageStore messageStore;
+
+	private PostgresChannelMessageTableSubscriber messageTableSubscriber;
+
+	private PostgresSubscribableChannel channel;
+
+	private final BlockingQueue<Throwable> errors = new LinkedBlockingQueue<>();
+
+	@Before
+	public void setup() throws Exception {
+		this.dataSource = new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.H2)
+				.generateUniqueName(true)
+				.addScript("classpath:org/springframework/integration/jdbc/schema-h2.sql")
+				.build();
+		this.messageStore = new JdbcChannelMessageStore(this.dataSource);
+		this.messageStore.setChannelMessageStoreQueryProvider(new H2ChannelMessageStoreQueryProvider());
+		this.messageStore.afterPropertiesSet();
+		this.messageTableSubscriber = mock(PostgresChannelMessageTableSubscriber.class);
+		this.channel = new PostgresSubscribableChannel(this.messageStore, GROUP, this.messageTableSubscriber);
+		this.channel.setBeanFactory(mock(BeanFactory.class));
+		this.channel.setErrorHandler(this.errors::add);
+		this.channel.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		this.dataSource.shutdown();
+	}
+
+	@Test
+	public void testSendDispatchesAndNotifies() throws Exception {
+		BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+		this.channel.subscribe(received::add);
+		verify(this.messageTableSubscriber).subscribe(this.channel);
+
+		this.channel.send(MessageBuilder.withPayload("foo").build());
+		Message<?> message = received.poll(10, TimeUnit.SECONDS);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("foo");
+		verify(this.messageTableSubscriber).sendNotification(this.messageStore.getRegion(), GROUP);
+		assertThat(this.messageStore.messageGroupSize(GROUP)).isEqualTo(0);
+	}
+
+	@Test
+	public void testNotificationDrainsMessagesAddedElsewhere() throws Exception {
+		List<Object> received = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(3);
+		this.channel.subscribe(message -> {
+			received.add(message.getPayload());
+			latch.countDown();
+		});
+		this.messageStore.addMessagesToGroup(GROUP, MessageBuilder.withPayload(1).build(),
+				MessageBuilder.withPayload(2).build(), MessageBuilder.withPayload(3).build());
+		this.channel.notifyUpdate();
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void testWithoutBeanFactory() throws Exception {
+		PostgresSubscribableChannel channel =
+				new PostgresSubscribableChannel(this.messageStore, GROUP, this.messageTableSubscriber);
+		channel.afterPropertiesSet();
+		BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+		channel.subscribe(received::add);
+		channel.send(MessageBuilder.withPayload("foo").build());
+		Message<?> message = received.poll(10, TimeUnit.SECONDS);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("foo");
+	}
+
+	@Test
+	public void testFailedDispatchIsRolledBack() throws Exception {
+		this.channel.setTransactionManager(new DataSourceTransactionManager(this.dataSource));
+		this.channel.setDispatcherExecutor(Runnable::run);
+		AtomicBoolean fail = new AtomicBoolean(true);
+		BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+		this.channel.subscribe(message -> {
+			if (fail.getAndSet(false)) {
+				throw new MessagingException(message, "planned failure");
+			}
+			received.add(message);
+		});
+
+		this.channel.send(MessageBuilder.withPayload("foo").build());
+		assertThat(this.errors.poll()).isInstanceOf(MessagingException.class);
+		assertThat(received).isEmpty();
+		assertThat(this.messageStore.messageGroupSize(GROUP)).isEqualTo(1);
+
+		this.channel.notifyUpdate();
+		assertThat(received).hasSize(1);
+		assertThat(received.poll().getPayload()).isEqualTo("foo");
+		assertThat(this.messageStore.messageGroupSize(GROUP)).isEqualTo(0);
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.integration.jdbc.store;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -28,8 +29,11 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +50,7 @@ import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.integration.util.UUIDConverter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementSetter;
@@ -237,6 +242,39 @@ public class JdbcMessageStoreTests {
 		assertEquals(0, group.size());
 	}
 
+	@Test
+	public void testPagedMessageGroup() throws Exception {
+		String groupId = "X";
+		this.messageStore.setMessagePageSize(10);
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		for (int i = 0; i < 25; i++) {
+			messages.add(MessageBuilder.withPayload(i).setCorrelationId(groupId).build());
+		}
+		this.messageStore.addMessagesToGroup(groupId, messages.toArray(new Message<?>[messages.size()]));
+
+		Set<Object> payloads = new HashSet<>();
+		try (CloseableIterator<Message<?>> iterator = this.messageStore.iterateMessagesForGroup(groupId)) {
+			while (iterator.hasNext()) {
+				assertTrue(payloads.add(iterator.next().getPayload()));
+			}
+		}
+		assertEquals(25, payloads.size());
+
+		MessageGroup group = this.messageStore.getMessageGroup(groupId);
+		Iterator<Message<?>> iterator = group.getMessages().iterator();
+		assertTrue(iterator instanceof CloseableIterator);
+		payloads.clear();
+		while (iterator.hasNext()) {
+			payloads.add(iterator.next().getPayload());
+		}
+		assertEquals(25, payloads.size());
+		((CloseableIterator<?>) iterator).close();
+		assertFalse(iterator.hasNext());
+
+		this.messageStore.removeMessagesFromGroup(groupId, group.getMessages());
+		assertEquals(0, this.messageStore.getMessageGroup(groupId).size());
+	}
+
 	@Test
 	public void testRemoveMessageGroup() throws Exception {
 		JdbcTemplate template = new JdbcTemplate(this.dataSource);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertNull;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 
 import javax.sql.DataSource;
 
@@ -133,6 +134,27 @@ public abstract class AbstractJdbcChannelMessageStoreTests {
 		assertEquals(message.getHeaders().getId(), messageFromDb.getHeaders().getId());
 	}
 
+	@Test
+	public void testAddAndPollMessages() {
+		Message<?>[] messages = new Message<?>[5];
+		for (int i = 0; i < messages.length; i++) {
+			messages[i] = MessageBuilder.withPayload("foo" + i).build();
+		}
+		this.messageStore.addMessagesToGroup(TEST_MESSAGE_GROUP, messages);
+		assertEquals(5, this.messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+
+		List<Message<?>> polled = this.messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 3);
+		assertEquals(3, polled.size());
+		assertEquals(messages[0].getHeaders().getId(), polled.get(0).getHeaders().getId());
+		assertEquals(messages[2].getHeaders().getId(), polled.get(2).getHeaders().getId());
+		assertEquals(2, this.messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+
+		polled = this.messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 3);
+		assertEquals(2, polled.size());
+		assertEquals(messages[4].getHeaders().getId(), polled.get(1).getHeaders().getId());
+		assertEquals(0, this.messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 3).size());
+	}
+
 	private ChannelMessageStorePreparedStatementSetter getMessageGroupPreparedStatementSetter() {
 		return new ChannelMessageStorePreparedStatementSetter() {
 
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.store.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Rule;
+
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.support.LongRunningIntegrationTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Several "nodes", each with its own connection pool, message store and polling
+ * threads, competing for the messages of one channel in a shared database; each
+ * run asserts that no message is consumed twice and reports the messages consumed
+ * per second.
+ *
+ * @since 5.1
+ */
+public abstract class AbstractMultiNodeChannelMessageStoreTests {
+
+	protected static final String GROUP = "MultiNodeChannelMessageStoreTests";
+
+	private static final int NODES = 3;
+
+	private static final int THREADS_PER_NODE = 4;
+
+	private static final int MESSAGES = 3000;
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	@Rule
+	public LongRunningIntegrationTest longTests = new LongRunningIntegrationTest();
+
+	/**
+	 * Consume the messages of the group with competing nodes.
+	 * @param dataSourceFactory creates the connection pool of each node.
+	 * @param queryProvider the query provider of the nodes.
+	 * @param messagesPerPoll the messages polled in a transaction.
+	 * @param schema the scripts creating the tables; errors are ignored.
+	 * @return the messages consumed per second.
+	 * @throws Exception if the nodes fail.
+	 */
+	protected double consume(Supplier<BasicDataSource> dataSourceFactory,
+			ChannelMessageStoreQueryProvider queryProvider, int messagesPerPoll, Resource... schema)
+			throws Exception {
+
+		List<BasicDataSource> dataSources = new ArrayList<>();
+		try {
+			List<JdbcChannelMessageStore> stores = new ArrayList<>();
+			List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+			for (int i = 0; i < NODES; i++) {
+				BasicDataSource dataSource = dataSourceFactory.get();
+				dataSource.setInitialSize(THREADS_PER_NODE);
+				dataSources.add(dataSource);
+				if (i == 0 && schema.length > 0) {
+					ResourceDatabasePopulator populator = new ResourceDatabasePopulator(schema);
+					populator.setContinueOnError(true);
+					DatabasePopulatorUtils.execute(populator, dataSource);
+				}
+				JdbcChannelMessageStore store = new JdbcChannelMessageStore(dataSource);
+				store.setChannelMessageStoreQueryProvider(queryProvider);
+				store.afterPropertiesSet();
+				stores.add(store);
+				TransactionTemplate transactionTemplate =
+						new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+				transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+				transactionTemplates.add(transactionTemplate);
+			}
+			stores.get(0).removeMessageGroup(GROUP);
+			return consume(stores, transactionTemplates, messagesPerPoll, queryProvider);
+		}
+		finally {
+			for (BasicDataSource dataSource : dataSources) {
+				dataSource.close();
+			}
+		}
+	}
+
+	private double consume(List<JdbcChannelMessageStore> stores, List<TransactionTemplate> transactionTemplates,
+			int messagesPerPoll, ChannelMessageStoreQueryProvider queryProvider) throws Exception {
+
+		Message<?>[] chunk = new Message<?>[100];
+		for (int i = 0; i < MESSAGES; i++) {
+			chunk[i % chunk.length] = MessageBuilder.withPayload(i).build();
+			if (i % chunk.length == chunk.length - 1) {
+				stores.get(0).addMessagesToGroup(GROUP, chunk);
+			}
+		}
+		assertThat(stores.get(NODES - 1).messageGroupSize(GROUP)).isEqualTo(MESSAGES);
+
+		Set<Object> received = ConcurrentHashMap.newKeySet();
+		AtomicInteger duplicates = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+		long start = System.nanoTime();
+		long deadline = System.currentTimeMillis() + 60_000;
+		for (int node = 0; node < NODES; node++) {
+			JdbcChannelMessageStore store = stores.get(node);
+			TransactionTemplate transactionTemplate = transactionTemplates.get(node);
+			for (int i = 0; i < THREADS_PER_NODE; i++) {
+				executor.execute(() -> {
+					while (received.size() < MESSAGES && System.currentTimeMillis() < deadline) {
+						try {
+							List<Message<?>> messages = transactionTemplate.execute(s ->
+									messagesPerPoll > 1
+											? store.pollMessagesFromGroup(GROUP, messagesPerPoll)
+											: nullToEmpty(store.pollMessageFromGroup(GROUP)));
+							for (Message<?> message : messages) {
+								if (!received.add(message.getPayload())) {
+									duplicates.incrementAndGet();
+								}
+							}
+						}
+						catch (DataAccessException e) {
+							// lock timeout or concurrent update - the transaction is rolled back; poll again
+						}
+					}
+				});
+			}
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(90, TimeUnit.SECONDS)).isTrue();
+		long elapsed = System.nanoTime() - start;
+
+		assertThat(duplicates.get()).isEqualTo(0);
+		assertThat(received).hasSize(MESSAGES);
+		assertThat(stores.get(0).messageGroupSize(GROUP)).isEqualTo(0);
+
+		double rate = MESSAGES * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+		this.logger.info(String.format("%s, %d message(s) per poll: %d messages in %d ms, %.0f messages/second",
+				queryProvider, messagesPerPoll, MESSAGES, TimeUnit.NANOSECONDS.toMillis(elapsed), rate));
+		return rate;
+	}
+
+	private static List<Message<?>> nullToEmpty(Message<?> message) {
+		return message == null ? Collections.emptyList() : Collections.singletonList(message);
+	}
+
+	/**
+	 * The queries of another provider, with plain {@code FOR UPDATE} poll queries
+	 * instead of {@code FOR UPDATE SKIP LOCKED}, to compare the two.
+	 */
+	protected static class WithoutSkipLocked implements ChannelMessageStoreQueryProvider {
+
+		private final ChannelMessageStoreQueryProvider delegate;
+
+		protected WithoutSkipLocked(ChannelMessageStoreQueryProvider delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String getCountAllMessagesInGroupQuery() {
+			return this.delegate.getCountAllMessagesInGroupQuery();
+		}
+
+		@Override
+		public String getPollFromGroupExcludeIdsQuery() {
+			return withoutSkipLocked(this.delegate.getPollFromGroupExcludeIdsQuery());
+		}
+
+		@Override
+		public String getPollFromGroupQuery() {
+			return withoutSkipLocked(this.delegate.getPollFromGroupQuery());
+		}
+
+		@Override
+		public String getPriorityPollFromGroupExcludeIdsQuery() {
+			return withoutSkipLocked(this.delegate.getPriorityPollFromGroupExcludeIdsQuery());
+		}
+
+		@Override
+		public String getPriorityPollFromGroupQuery() {
+			return withoutSkipLocked(this.delegate.getPriorityPollFromGroupQuery());
+		}
+
+		@Override
+		public String getPollMessagesFromGroupQuery() {
+			return withoutSkipLocked(this.delegate.getPollMessagesFromGroupQuery());
+		}
+
+		@Override
+		public String getPriorityPollMessagesFromGroupQuery() {
+			return withoutSkipLocked(this.delegate.getPriorityPollMessagesFromGroupQuery());
+		}
+
+		@Override
+		public String getMessageQuery() {
+			return this.delegate.getMessageQuery();
+		}
+
+		@Override
+		public String getMessageCountForRegionQuery() {
+			return this.delegate.getMessageCountForRegionQuery();
+		}
+
+		@Override
+		public String getDeleteMessageQuery() {
+			return this.delegate.getDeleteMessageQuery();
+		}
+
+		@Override
+		public String getCreateMessageQuery() {
+			return this.delegate.getCreateMessageQuery();
+		}
+
+		@Override
+		public String getDeleteMessageGroupQuery() {
+			return this.delegate.getDeleteMessageGroupQuery();
+		}
+
+		@Override
+		public String toString() {
+			return this.delegate.getClass().getSimpleName() + " without SKIP LOCKED";
+		}
+
+		protected static String withoutSkipLocked(String query) {
+			assertThat(query).endsWith(" FOR UPDATE SKIP LOCKED");
+			return query.replace(" SKIP LOCKED", "");
+		}
+
+	}
+
+}
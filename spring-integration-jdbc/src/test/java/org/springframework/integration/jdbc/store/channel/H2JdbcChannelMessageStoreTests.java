@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,16 @@
 
 package org.springframework.integration.jdbc.store.channel;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
 /**
  * @author Gunnar Hillert
  * @author Manuel Jordan
@@ -23,4 +33,35 @@ package org.springframework.integration.jdbc.store.channel;
  */
 public class H2JdbcChannelMessageStoreTests extends AbstractJdbcChannelMessageStoreTests {
 
+	@Test
+	public void testBulkPoll() throws Exception {
+		JdbcChannelMessageStore messageStore = new JdbcChannelMessageStore(this.dataSource);
+		messageStore.setRegion("H2JdbcChannelMessageStoreTests");
+		messageStore.setChannelMessageStoreQueryProvider(new H2ChannelMessageStoreQueryProvider() {
+
+			@Override
+			public String getPollMessagesFromGroupQuery() {
+				return getPollFromGroupQuery().replace("LIMIT 1", "LIMIT :max_rows");
+			}
+
+		});
+		messageStore.afterPropertiesSet();
+		Message<?>[] messages = new Message<?>[5];
+		for (int i = 0; i < messages.length; i++) {
+			messages[i] = MessageBuilder.withPayload("foo" + i).build();
+		}
+		messageStore.addMessagesToGroup(TEST_MESSAGE_GROUP, messages);
+
+		List<Message<?>> polled = messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 4);
+		assertEquals(4, polled.size());
+		for (int i = 0; i < polled.size(); i++) {
+			assertEquals(messages[i].getHeaders().getId(), polled.get(i).getHeaders().getId());
+		}
+		assertEquals(1, messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+		polled = messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 4);
+		assertEquals(1, polled.size());
+		assertEquals(messages[4].getHeaders().getId(), polled.get(0).getHeaders().getId());
+		assertEquals(0, messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+	}
+
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.store.channel;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.Test;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Competing nodes on a shared H2 database, checking that no message is consumed twice.
+ * <p>The PostgreSQL and MySQL 8 poll queries run in the corresponding H2
+ * compatibility mode. This H2 version cannot parse {@code SKIP LOCKED}, so it is
+ * removed from them: the competing pollers then rely on the row locks of the
+ * remaining {@code FOR UPDATE}, waiting for (or failing on) each other's rows
+ * instead of skipping them. These tests therefore don't exercise {@code SKIP LOCKED}
+ * and their throughput is not meaningful; see {@link PostgresMultiNodeChannelMessageStoreTests}
+ * and {@link MySqlMultiNodeChannelMessageStoreTests} for that.
+ *
+ * @since 5.1
+ */
+public class H2MultiNodeChannelMessageStoreTests extends AbstractMultiNodeChannelMessageStoreTests {
+
+	@Test
+	public void testCompetingNodesConsumeEachMessageOnce() throws Exception {
+		consume(h2(""), new H2ChannelMessageStoreQueryProvider(), 1);
+	}
+
+	@Test
+	public void testCompetingNodesConsumeEachMessageOnceWithPostgresQueries() throws Exception {
+		consume(h2(";MODE=PostgreSQL"), new H2PollQueries(new PostgresChannelMessageStoreQueryProvider()), 1);
+	}
+
+	@Test
+	public void testCompetingNodesBulkConsumeEachMessageOnceWithPostgresQueries() throws Exception {
+		consume(h2(";MODE=PostgreSQL"), new H2PollQueries(new PostgresChannelMessageStoreQueryProvider()), 10);
+	}
+
+	@Test
+	public void testCompetingNodesConsumeEachMessageOnceWithMySql8Queries() throws Exception {
+		consume(h2(";MODE=MySQL"), new H2PollQueries(new MySql8ChannelMessageStoreQueryProvider()), 1);
+	}
+
+	@Test
+	public void testCompetingNodesBulkConsumeEachMessageOnceWithMySql8Queries() throws Exception {
+		consume(h2(";MODE=MySQL"), new H2PollQueries(new MySql8ChannelMessageStoreQueryProvider()), 10);
+	}
+
+	private double consume(Supplier<BasicDataSource> dataSources, ChannelMessageStoreQueryProvider queryProvider,
+			int messagesPerPoll) throws Exception {
+
+		return consume(dataSources, queryProvider, messagesPerPoll,
+				new ClassPathResource("org/springframework/integration/jdbc/schema-drop-h2.sql"),
+				new ClassPathResource("org/springframework/integration/jdbc/schema-h2.sql"));
+	}
+
+	private static Supplier<BasicDataSource> h2(String mode) {
+		String url = "jdbc:h2:mem:multiNode" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1" + mode;
+		return () -> {
+			BasicDataSource dataSource = new BasicDataSource();
+			dataSource.setDriverClassName("org.h2.Driver");
+			dataSource.setUrl(url);
+			dataSource.setUsername("sa");
+			dataSource.setPassword("");
+			return dataSource;
+		};
+	}
+
+	/**
+	 * The poll queries of another provider, without {@code SKIP LOCKED}, and the
+	 * other queries of the {@link H2ChannelMessageStoreQueryProvider}.
+	 */
+	private static class H2PollQueries extends H2ChannelMessageStoreQueryProvider {
+
+		private final ChannelMessageStoreQueryProvider pollQueries;
+
+		H2PollQueries(ChannelMessageStoreQueryProvider pollQueries) {
+			this.pollQueries = new WithoutSkipLocked(pollQueries);
+		}
+
+		@Override
+		public boolean isSkipLockedSupported() {
+			return true; // as the real provider: the store doesn't use its id cache
+		}
+
+		@Override
+		public String getPollFromGroupExcludeIdsQuery() {
+			return this.pollQueries.getPollFromGroupExcludeIdsQuery();
+		}
+
+		@Override
+		public String getPollFromGroupQuery() {
+			return this.pollQueries.getPollFromGroupQuery();
+		}
+
+		@Override
+		public String getPriorityPollFromGroupExcludeIdsQuery() {
+			return this.pollQueries.getPriorityPollFromGroupExcludeIdsQuery();
+		}
+
+		@Override
+		public String getPriorityPollFromGroupQuery() {
+			return this.pollQueries.getPriorityPollFromGroupQuery();
+		}
+
+		@Override
+		public String getPollMessagesFromGroupQuery() {
+			return this.pollQueries.getPollMessagesFromGroupQuery();
+		}
+
+		@Override
+		public String getPriorityPollMessagesFromGroupQuery() {
+			return this.pollQueries.getPriorityPollMessagesFromGroupQuery();
+		}
+
+		@Override
+		public String toString() {
+			return this.pollQueries.toString() + " on H2";
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.store.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+import java.sql.Connection;
+import java.util.function.Supplier;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Compares the throughput of competing nodes polling with {@code FOR UPDATE SKIP LOCKED}
+ * and with plain {@code FOR UPDATE} on MySQL 8; skipped unless a MySQL server is
+ * reachable on {@code jdbc:mysql://localhost/test} (user {@code root}, no password),
+ * as used by the other MySQL tests.
+ *
+ * @since 5.1
+ */
+public class MySqlMultiNodeChannelMessageStoreTests extends AbstractMultiNodeChannelMessageStoreTests {
+
+	private static final Supplier<BasicDataSource> DATA_SOURCES = () -> {
+		BasicDataSource dataSource = new BasicDataSource();
+		dataSource.setDriverClassName("com.mysql.jdbc.Driver");
+		dataSource.setUrl("jdbc:mysql://localhost/test");
+		dataSource.setUsername("root");
+		dataSource.setPassword("");
+		return dataSource;
+	};
+
+	@BeforeClass
+	public static void checkDatabase() throws Exception {
+		BasicDataSource dataSource = DATA_SOURCES.get();
+		try (Connection connection = dataSource.getConnection()) {
+			connection.isValid(1);
+		}
+		catch (Exception e) {
+			assumeNoException(e);
+		}
+		finally {
+			dataSource.close();
+		}
+	}
+
+	@Test
+	public void testSkipLockedThroughput() throws Exception {
+		compare(1);
+	}
+
+	@Test
+	public void testSkipLockedBulkThroughput() throws Exception {
+		compare(10);
+	}
+
+	private void compare(int messagesPerPoll) throws Exception {
+		double forUpdate = consume(new WithoutSkipLocked(new MySql8ChannelMessageStoreQueryProvider()), messagesPerPoll);
+		double skipLocked = consume(new MySql8ChannelMessageStoreQueryProvider(), messagesPerPoll);
+		this.logger.info(String.format("SKIP LOCKED, %d message(s) per poll: %.1fx the FOR UPDATE throughput",
+				messagesPerPoll, skipLocked / forUpdate));
+		assertThat(skipLocked).isGreaterThan(0);
+	}
+
+	private double consume(ChannelMessageStoreQueryProvider queryProvider, int messagesPerPoll) throws Exception {
+		return consume(DATA_SOURCES, queryProvider, messagesPerPoll,
+				new ClassPathResource("org/springframework/integration/jdbc/schema-mysql.sql"));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2017 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,7 @@ import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.integration.mongodb.support.BinaryToMessageConverter;
 import org.springframework.integration.mongodb.support.MessageToBinaryConverter;
 import org.springframework.integration.store.AbstractMessageGroupStore;
@@ -98,6 +99,8 @@ public abstract class AbstractConfigurableMongoDbMessageStore extends AbstractMe
 
 	protected MessageBuilderFactory messageBuilderFactory = new DefaultMessageBuilderFactory();
 
+	private MessageStoreCodec messageStoreCodec;
+
 	public AbstractConfigurableMongoDbMessageStore(MongoTemplate mongoTemplate, String collectionName) {
 		Assert.notNull(mongoTemplate, "'mongoTemplate' must not be null");
 		Assert.hasText(collectionName, "'collectionName' must not be empty");
@@ -124,6 +127,20 @@ public abstract class AbstractConfigurableMongoDbMessageStore extends AbstractMe
 		this.applicationContext = applicationContext;
 	}
 
+	/**
+	 * Serialize messages with the provided codec, and deserialize them in any of its
+	 * formats, including the Java serialization of existing documents. Only applies
+	 * when the store creates its own {@link MappingMongoConverter}; otherwise, register
+	 * a {@link MessageToBinaryConverter} and a {@link BinaryToMessageConverter} created
+	 * with the codec on the provided converter.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageStoreCodec(MessageStoreCodec messageStoreCodec) {
+		Assert.notNull(messageStoreCodec, "'messageStoreCodec' must not be null");
+		this.messageStoreCodec = messageStoreCodec;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		if (this.mongoTemplate == null) {
@@ -132,8 +149,14 @@ public abstract class AbstractConfigurableMongoDbMessageStore extends AbstractMe
 						new MongoMappingContext());
 				this.mappingMongoConverter.setApplicationContext(this.applicationContext);
 				List<Object> customConverters = new ArrayList<Object>();
-				customConverters.add(new MessageToBinaryConverter());
-				customConverters.add(new BinaryToMessageConverter());
+				if (this.messageStoreCodec != null) {
+					customConverters.add(new MessageToBinaryConverter(this.messageStoreCodec));
+					customConverters.add(new BinaryToMessageConverter(this.messageStoreCodec));
+				}
+				else {
+					customConverters.add(new MessageToBinaryConverter());
+					customConverters.add(new BinaryToMessageConverter());
+				}
 				this.mappingMongoConverter.setCustomConversions(new MongoCustomConversions(customConverters));
 				this.mappingMongoConverter.afterPropertiesSet();
 			}
@@ -153,6 +176,11 @@ public abstract class AbstractConfigurableMongoDbMessageStore extends AbstractMe
 		indexOperations.ensureIndex(new Index(MessageDocumentFields.GROUP_ID, Sort.Direction.ASC)
 				.on(MessageDocumentFields.LAST_MODIFIED_TIME, Sort.Direction.DESC)
 				.on(MessageDocumentFields.SEQUENCE, Sort.Direction.DESC));
+
+		if (getMessagePageSize() > 0) {
+			indexOperations.ensureIndex(new Index(MessageDocumentFields.GROUP_ID, Sort.Direction.ASC)
+					.on(MessageDocumentFields.SEQUENCE, Sort.Direction.ASC));
+		}
 	}
 
 	public Message<?> getMessage(UUID id) {
@@ -36,6 +36,7 @@ import org.springframework.integration.store.MessageGroupMetadata;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.MessageStore;
 import org.springframework.integration.store.SimpleMessageGroup;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.messaging.Message;
@@ -346,6 +347,23 @@ public class ConfigurableMongoDbMessageStore extends AbstractConfigurableMongoDb
 		return messages;
 	}
 
+	/**
+	 * Iterate over the messages for the provided group id, fetching them in pages of
+	 * {@link #setMessagePageSize(int) messagePageSize} (or {@link #setRemoveBatchSize(int)
+	 * removeBatchSize} if not set) documents, in the order they were added to the group.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.1
+	 */
+	@Override
+	public CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		int pageSize = getMessagePageSize() > 0 ? getMessagePageSize() : getRemoveBatchSize();
+		return new PagedMessageIterator<>(this.mongoTemplate, this.collectionName, MessageDocument.class,
+				Criteria.where(MessageDocumentFields.GROUP_ID).is(groupId), pageSize, MessageDocument::getSequence,
+				MessageDocument::getMessage);
+	}
+
 	private void expire(MessageGroup group) {
 
 		RuntimeException exception = null;
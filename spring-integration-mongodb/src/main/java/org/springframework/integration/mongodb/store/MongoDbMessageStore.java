@@ -71,6 +71,7 @@ import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.support.MutableMessage;
 import org.springframework.integration.support.MutableMessageBuilder;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
@@ -201,6 +202,11 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 		indexOperations.ensureIndex(new Index(GROUP_ID_KEY, Sort.Direction.ASC)
 				.on(GROUP_UPDATE_TIMESTAMP_KEY, Sort.Direction.DESC)
 				.on(SEQUENCE, Sort.Direction.DESC));
+
+		if (getMessagePageSize() > 0) {
+			indexOperations.ensureIndex(new Index(GROUP_ID_KEY, Sort.Direction.ASC)
+					.on(SEQUENCE, Sort.Direction.ASC));
+		}
 	}
 
 	@Override
@@ -417,6 +423,23 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Iterate over the messages for the provided group id, fetching them in pages of
+	 * {@link #setMessagePageSize(int) messagePageSize} (or {@link #setRemoveBatchSize(int)
+	 * removeBatchSize} if not set) documents, in the order they were added to the group.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.1
+	 */
+	@Override
+	public CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		int pageSize = getMessagePageSize() > 0 ? getMessagePageSize() : getRemoveBatchSize();
+		return new PagedMessageIterator<>(this.template, this.collectionName, MessageWrapper.class,
+				Criteria.where(GROUP_ID_KEY).is(groupId), pageSize, MessageWrapper::get_Sequence,
+				MessageWrapper::getMessage);
+	}
+
 	@Override
 	@ManagedAttribute
 	public int getMessageCountForAllMessageGroups() {
@@ -562,6 +585,7 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 				Long lastModified = (Long) sourceMap.get(GROUP_UPDATE_TIMESTAMP_KEY);
 				Integer lastReleasedSequenceNumber = (Integer) sourceMap.get(LAST_RELEASED_SEQUENCE_NUMBER);
 				Boolean completeGroup = (Boolean) sourceMap.get(GROUP_COMPLETE_KEY);
+				Integer sequence = (Integer) sourceMap.get(SEQUENCE);
 
 				MessageWrapper wrapper = new MessageWrapper(message);
 
@@ -582,6 +606,10 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 					wrapper.set_Group_complete(completeGroup);
 				}
 
+				if (sequence != null) {
+					wrapper.set_Sequence(sequence);
+				}
+
 				return (S) wrapper;
 			}
 			return null;
@@ -826,7 +854,6 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 
 		private volatile boolean _group_complete;
 
-		@SuppressWarnings("unused")
 		private int sequence;
 
 		MessageWrapper(Message<?> message) {
@@ -900,6 +927,10 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 			this.sequence = sequence;
 		}
 
+		public int get_Sequence() {
+			return this.sequence;
+		}
+
 	}
 
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.integration.mongodb.store;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.integration.util.CloseableIterator;
+import org.springframework.messaging.Message;
+
+/**
+ * A {@link CloseableIterator} over the messages of a group, which fetches the
+ * documents in pages ordered by their {@code sequence}; each page is selected with
+ * a separate query starting after the last sequence of the previous page, so no cursor
+ * is held between pages and messages removed meanwhile don't shift the next pages.
+ *
+ * @param <D> the document type.
+ *
+ * @since 5.1
+ */
+final class PagedMessageIterator<D> implements CloseableIterator<Message<?>> {
+
+	private final MongoOperations mongoOperations;
+
+	private final String collectionName;
+
+	private final Class<D> documentType;
+
+	private final Criteria groupCriteria;
+
+	private final int pageSize;
+
+	private final ToIntFunction<D> sequenceFunction;
+
+	private final Function<D, Message<?>> messageFunction;
+
+	private Iterator<D> page = Collections.emptyIterator();
+
+	private boolean lastPage;
+
+	private Integer lastSequence;
+
+	PagedMessageIterator(MongoOperations mongoOperations, String collectionName, Class<D> documentType,
+			Criteria groupCriteria, int pageSize, ToIntFunction<D> sequenceFunction,
+			Function<D, Message<?>> messageFunction) {
+
+		this.mongoOperations = mongoOperations;
+		this.collectionName = collectionName;
+		this.documentType = documentType;
+		this.groupCriteria = groupCriteria;
+		this.pageSize = pageSize;
+		this.sequenceFunction = sequenceFunction;
+		this.messageFunction = messageFunction;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!this.page.hasNext() && !this.lastPage) {
+			fetchPage();
+		}
+		return this.page.hasNext();
+	}
+
+	@Override
+	public Message<?> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		D document = this.page.next();
+		this.lastSequence = this.sequenceFunction.applyAsInt(document);
+		return this.messageFunction.apply(document);
+	}
+
+	@Override
+	public void close() {
+		this.lastPage = true;
+		this.page = Collections.emptyIterator();
+	}
+
+	private void fetchPage() {
+		Query query = new Query(this.groupCriteria);
+		if (this.lastSequence != null) {
+			query.addCriteria(Criteria.where(MessageDocumentFields.SEQUENCE).gt(this.lastSequence));
+		}
+		query.with(Sort.by(MessageDocumentFields.SEQUENCE))
+				.limit(this.pageSize);
+		List<D> documents = this.mongoOperations.find(query, this.documentType, this.collectionName);
+		this.lastPage = documents.size() < this.pageSize;
+		this.page = documents.iterator();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import org.bson.types.Binary;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.ReadingConverter;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
 import org.springframework.messaging.Message;
 
@@ -31,7 +32,22 @@ import org.springframework.messaging.Message;
 @ReadingConverter
 public class BinaryToMessageConverter implements Converter<Binary, Message<?>> {
 
-	private final WhiteListDeserializingConverter deserializingConverter = new WhiteListDeserializingConverter();
+	private final WhiteListDeserializingConverter deserializingConverter;
+
+	public BinaryToMessageConverter() {
+		this.deserializingConverter = new WhiteListDeserializingConverter();
+	}
+
+	/**
+	 * Construct an instance deserializing messages written in any format of the provided
+	 * codec, including Java serialization. The white list patterns must then be added to
+	 * the codec.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public BinaryToMessageConverter(MessageStoreCodec messageStoreCodec) {
+		this.deserializingConverter = new WhiteListDeserializingConverter(messageStoreCodec);
+	}
 
 	@Override
 	public Message<?> convert(Binary source) {
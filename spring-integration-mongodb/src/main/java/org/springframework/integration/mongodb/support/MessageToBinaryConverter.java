@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import org.bson.types.Binary;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.data.convert.WritingConverter;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.messaging.Message;
 
 /**
@@ -30,7 +31,20 @@ import org.springframework.messaging.Message;
 @WritingConverter
 public class MessageToBinaryConverter implements Converter<Message<?>, Binary> {
 
-	private final Converter<Object, byte[]> serializingConverter = new SerializingConverter();
+	private final Converter<Object, byte[]> serializingConverter;
+
+	public MessageToBinaryConverter() {
+		this.serializingConverter = new SerializingConverter();
+	}
+
+	/**
+	 * Construct an instance serializing messages with the provided codec.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public MessageToBinaryConverter(MessageStoreCodec messageStoreCodec) {
+		this.serializingConverter = new SerializingConverter(messageStoreCodec);
+	}
 
 	@Override
 	public Binary convert(Message<?> source) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -423,6 +423,28 @@ public abstract class AbstractMongoDbMessageGroupStoreTests extends MongoDbAvail
 		assertEquals(0, group.size());
 	}
 
+	@Test
+	@MongoDbAvailable
+	public void testPagedMessageGroup() throws Exception {
+		MessageGroupStore messageStore = (MessageGroupStore) this.getMessageStore();
+		String groupId = "X";
+		messageStore.removeMessageGroup("X");
+		((AbstractBatchingMessageGroupStore) messageStore).setMessagePageSize(10);
+		for (int i = 0; i < 25; i++) {
+			messageStore.addMessagesToGroup(groupId, MessageBuilder.withPayload(i).setCorrelationId(groupId).build());
+		}
+		MessageGroup group = messageStore.getMessageGroup(groupId);
+		Iterator<Message<?>> iterator = group.getMessages().iterator();
+		for (int i = 0; i < 25; i++) {
+			assertTrue(iterator.hasNext());
+			assertEquals(i, iterator.next().getPayload());
+		}
+		assertFalse(iterator.hasNext());
+
+		messageStore.removeMessagesFromGroup(groupId, group.getMessages());
+		assertEquals(0, messageStore.getMessageGroup(groupId).size());
+	}
+
 //	@Test
 //	@MongoDbAvailable
 //	public void testConcurrentModifications() throws Exception{
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,15 +21,18 @@ import java.util.Set;
 
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.integration.store.ChannelMessageStore;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupFactory;
 import org.springframework.integration.store.SimpleMessageGroupFactory;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
@@ -76,6 +79,19 @@ public class RedisChannelMessageStore implements ChannelMessageStore, BeanNameAw
 		this.redisTemplate.setValueSerializer(valueSerializer);
 	}
 
+	/**
+	 * Serialize the messages with the provided codec, and deserialize them in any of its
+	 * formats, including the Java serialization of existing entries. Replaces the
+	 * {@link #setValueSerializer(RedisSerializer) value serializer}.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageStoreCodec(MessageStoreCodec messageStoreCodec) {
+		Assert.notNull(messageStoreCodec, "'messageStoreCodec' must not be null");
+		setValueSerializer(new JdkSerializationRedisSerializer(new SerializingConverter(messageStoreCodec),
+				new WhiteListDeserializingConverter(messageStoreCodec)));
+	}
+
 	/**
 	 * Specify the {@link MessageGroupFactory} to create {@link MessageGroup} object where
 	 * it is necessary.
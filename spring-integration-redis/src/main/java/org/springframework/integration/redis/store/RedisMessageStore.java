@@ -16,24 +16,36 @@
 
 package org.springframework.integration.redis.store;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundValueOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.integration.codec.MessageStoreCodec;
 import org.springframework.integration.redis.util.RedisUtils;
 import org.springframework.integration.store.AbstractKeyValueMessageStore;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.MessageStore;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
 import org.springframework.util.Assert;
 
 /**
- * Redis implementation of the key/value style {@link MessageStore} and {@link MessageGroupStore}
+ * Redis implementation of the key/value style {@link MessageStore} and {@link MessageGroupStore}.
+ * With {@link #setAppendOnlyGroups(boolean) appendOnlyGroups}, the ids of the messages in a
+ * group are kept in a Redis list, so that adding or removing a message is a single
+ * {@code RPUSH} or {@code LREM} instead of a rewrite of the whole group.
  *
  * @author Oleg Zhurakousky
  * @author Gary Russell
@@ -45,6 +57,8 @@ public class RedisMessageStore extends AbstractKeyValueMessageStore implements B
 
 	private final RedisTemplate<Object, Object> redisTemplate;
 
+	private final StringRedisTemplate groupMessageIdsTemplate;
+
 	private boolean valueSerializerSet;
 
 	/**
@@ -72,6 +86,7 @@ public class RedisMessageStore extends AbstractKeyValueMessageStore implements B
 		this.redisTemplate.setKeySerializer(new StringRedisSerializer());
 		this.redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
 		this.redisTemplate.afterPropertiesSet();
+		this.groupMessageIdsTemplate = new StringRedisTemplate(connectionFactory);
 	}
 
 	@Override
@@ -87,6 +102,20 @@ public class RedisMessageStore extends AbstractKeyValueMessageStore implements B
 		this.valueSerializerSet = true;
 	}
 
+	/**
+	 * Serialize the stored messages and group metadata with the provided codec, and
+	 * deserialize them in any of its formats, including the Java serialization of
+	 * existing entries. Replaces the {@link #setValueSerializer(RedisSerializer) value
+	 * serializer}.
+	 * @param messageStoreCodec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageStoreCodec(MessageStoreCodec messageStoreCodec) {
+		Assert.notNull(messageStoreCodec, "'messageStoreCodec' must not be null");
+		setValueSerializer(new JdkSerializationRedisSerializer(new SerializingConverter(messageStoreCodec),
+				new WhiteListDeserializingConverter(messageStoreCodec)));
+	}
+
 	@Override
 	protected Object doRetrieve(Object id) {
 		Assert.notNull(id, "'id' must not be null");
@@ -157,6 +186,60 @@ public class RedisMessageStore extends AbstractKeyValueMessageStore implements B
 		return this.redisTemplate.keys(keyPattern);
 	}
 
+	@Override
+	protected void doAddGroupMessageIds(Object key, List<UUID> messageIds) {
+		if (messageIds.isEmpty()) {
+			return;
+		}
+		this.groupMessageIdsTemplate.opsForList()
+				.rightPushAll((String) key, messageIds.stream()
+						.map(UUID::toString)
+						.collect(Collectors.toList()));
+	}
+
+	@Override
+	protected void doRemoveGroupMessageIds(Object key, Collection<UUID> messageIds) {
+		RedisSerializer<String> serializer = this.groupMessageIdsTemplate.getStringSerializer();
+		byte[] rawKey = serializer.serialize((String) key);
+		this.groupMessageIdsTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (UUID messageId : messageIds) {
+				connection.lRem(rawKey, 1, serializer.serialize(messageId.toString()));
+			}
+			return null;
+		});
+	}
+
+	@Override
+	protected UUID doPollGroupMessageId(Object key) {
+		return toUuid(this.groupMessageIdsTemplate.opsForList().leftPop((String) key));
+	}
+
+	@Override
+	protected UUID doGetFirstGroupMessageId(Object key) {
+		return toUuid(this.groupMessageIdsTemplate.opsForList().index((String) key, 0));
+	}
+
+	@Override
+	protected int doCountGroupMessageIds(Object key) {
+		Long size = this.groupMessageIdsTemplate.opsForList().size((String) key);
+		return size != null ? size.intValue() : 0;
+	}
+
+	@Override
+	protected List<UUID> doListGroupMessageIds(Object key) {
+		List<String> ids = this.groupMessageIdsTemplate.opsForList().range((String) key, 0, -1);
+		if (ids == null) {
+			return new ArrayList<>();
+		}
+		return ids.stream()
+				.map(UUID::fromString)
+				.collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	private static UUID toUuid(String id) {
+		return id != null ? UUID.fromString(id) : null;
+	}
+
 	private void rethrowAsIllegalArgumentException(SerializationException e) {
 		throw new IllegalArgumentException("If relying on the default RedisSerializer " +
 				"(JdkSerializationRedisSerializer) the Object must be Serializable. " +
@@ -19,6 +19,7 @@ package org.springframework.integration.redis.store;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -79,6 +80,7 @@ public class RedisMessageGroupStoreTests extends RedisAvailableTests {
 	public void setUpTearDown() {
 		StringRedisTemplate template = createStringRedisTemplate(getConnectionFactoryForTest());
 		template.delete(template.keys("MESSAGE_GROUP_*"));
+		template.delete(template.keys("GROUP_MESSAGE_IDS_*"));
 	}
 
 	@Test
@@ -163,6 +165,45 @@ public class RedisMessageGroupStoreTests extends RedisAvailableTests {
 		assertEquals(0, messageGroup.size());
 	}
 
+	@Test
+	@RedisAvailable
+	public void testAppendOnlyGroups() {
+		RedisConnectionFactory jcf = getConnectionFactoryForTest();
+		RedisMessageStore store = new RedisMessageStore(jcf);
+		Message<?> message1 = new GenericMessage<>("1");
+		store.addMessageToGroup(this.groupId, message1);
+
+		store.setAppendOnlyGroups(true);
+		try {
+			store.messageGroupSize(this.groupId);
+			fail("IllegalStateException expected");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("migrateToAppendOnlyGroups()"));
+		}
+		assertTrue(store.migrateToAppendOnlyGroups() > 0);
+		assertEquals(0, store.migrateToAppendOnlyGroups());
+		Message<?> message2 = new GenericMessage<>("2");
+		Message<?> message3 = new GenericMessage<>("3");
+		store.addMessagesToGroup(this.groupId, message2, message3);
+		StringRedisTemplate template = createStringRedisTemplate(jcf);
+		assertEquals(Long.valueOf(3), template.opsForList().size("GROUP_MESSAGE_IDS_" + this.groupId));
+		assertEquals(3, store.messageGroupSize(this.groupId));
+		assertEquals(3, store.getGroupMetadata(this.groupId).size());
+		assertEquals("1", store.getOneMessageFromGroup(this.groupId).getPayload());
+
+		store.removeMessagesFromGroup(this.groupId, message2);
+		assertEquals("1", store.pollMessageFromGroup(this.groupId).getPayload());
+		MessageGroup messageGroup = store.getMessageGroup(this.groupId);
+		assertEquals(1, messageGroup.size());
+		assertEquals("3", messageGroup.getOne().getPayload());
+
+		store.removeMessageGroup(this.groupId);
+		assertFalse(template.hasKey("GROUP_MESSAGE_IDS_" + this.groupId));
+		assertNull(store.getMessage(message3.getHeaders().getId()));
+		assertEquals(0, store.messageGroupSize(this.groupId));
+	}
+
 	@Test
 	@RedisAvailable
 	public void testCompleteMessageGroup() {
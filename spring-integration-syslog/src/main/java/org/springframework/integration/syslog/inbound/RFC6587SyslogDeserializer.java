@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,10 +20,13 @@ import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayLfSerializer;
+import org.springframework.integration.ip.tcp.serializer.FrameDecoder;
+import org.springframework.integration.ip.tcp.serializer.FramingDeserializer;
 import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
 import org.springframework.integration.syslog.RFC5424SyslogParser;
 import org.springframework.util.Assert;
@@ -32,13 +35,15 @@ import org.springframework.util.Assert;
  * RFC5424/6587 Deserializer. Implemented as a {@link Deserializer} instead of a
  * transformer because we may receive a mixture of octet counting and non-transparent
  * framing - see RFC 6587.
+ * Also supports incremental decoding by NIO connections (see {@link FramingDeserializer}),
+ * when the deserializer for non-transparent frames does.
  *
  * @author Duncan McIntyre
  * @author Gary Russell
  * @since 4.1.1
  *
  */
-public class RFC6587SyslogDeserializer implements Deserializer<Map<String, ?>> {
+public class RFC6587SyslogDeserializer implements FramingDeserializer<Map<String, ?>> {
 
 	private final Deserializer<byte[]> delimitedDeserializer;
 
@@ -100,6 +105,19 @@ public class RFC6587SyslogDeserializer implements Deserializer<Map<String, ?>> {
 		return this.parser.parse(line, octetCount, shortRead);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public FrameDecoder<Map<String, ?>> createFrameDecoder() {
+		if (this.delimitedDeserializer instanceof FramingDeserializer) {
+			FrameDecoder<byte[]> delimitedDecoder =
+					((FramingDeserializer<byte[]>) this.delimitedDeserializer).createFrameDecoder();
+			if (delimitedDecoder != null) {
+				return new SyslogFrameDecoder(delimitedDecoder);
+			}
+		}
+		return null;
+	}
+
 	private boolean isDigit(int peek) {
 		return peek >= 0x30 && peek <= 0x39;
 	}
@@ -117,4 +135,103 @@ public class RFC6587SyslogDeserializer implements Deserializer<Map<String, ?>> {
 		return "UTF-8";
 	}
 
+	private final class SyslogFrameDecoder implements FrameDecoder<Map<String, ?>> {
+
+		private final FrameDecoder<byte[]> delimitedDecoder;
+
+		private State state = State.START;
+
+		private int octetCount;
+
+		private byte[] octets;
+
+		private int received;
+
+		SyslogFrameDecoder(FrameDecoder<byte[]> delimitedDecoder) {
+			this.delimitedDecoder = delimitedDecoder;
+		}
+
+		@Override
+		public Map<String, ?> decode(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				switch (this.state) {
+					case START:
+						int peek = buffer.get() & 0xff;
+						if (isDigit(peek)) {
+							this.octetCount = peek & 0xf;
+							this.state = State.COUNT;
+						}
+						else if (peek == '<') {
+							this.state = State.DELIMITED;
+						}
+						else {
+							throw new IllegalStateException("Expected a digit or '<', got 0x" + Integer.toHexString(peek));
+						}
+						break;
+					case COUNT:
+						int c = buffer.get() & 0xff;
+						if (isDigit(c)) {
+							this.octetCount = this.octetCount * 10 + (c & 0xf);
+						}
+						else {
+							Assert.state(this.octetCount > 0, "Expected length > 0");
+							this.octets = new byte[this.octetCount];
+							this.received = 0;
+							this.state = State.OCTETS;
+						}
+						break;
+					case OCTETS:
+						int length = Math.min(buffer.remaining(), this.octets.length - this.received);
+						buffer.get(this.octets, this.received, length);
+						this.received += length;
+						if (this.received == this.octets.length) {
+							this.state = State.START;
+							return RFC6587SyslogDeserializer.this.parser.parse(new String(this.octets, getCharset()),
+									this.octetCount, false);
+						}
+						break;
+					default:
+						byte[] bytes = this.delimitedDecoder.decode(buffer);
+						if (bytes != null) {
+							this.state = State.START;
+							return RFC6587SyslogDeserializer.this.parser.parse("<" + new String(bytes, getCharset()),
+									0, false);
+						}
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Map<String, ?> endOfStream(boolean timedOut) throws IOException {
+			State state = this.state;
+			this.state = State.START;
+			switch (state) {
+				case COUNT:
+				case OCTETS:
+					if (timedOut) {
+						return null;
+					}
+					byte[] bytes = this.octets != null && state == State.OCTETS ? this.octets : new byte[this.octetCount];
+					this.octets = null;
+					return RFC6587SyslogDeserializer.this.parser.parse(new String(bytes, getCharset()),
+							this.octetCount, true);
+				case DELIMITED:
+					byte[] delimited = this.delimitedDecoder.endOfStream(timedOut);
+					return delimited == null ? null
+							: RFC6587SyslogDeserializer.this.parser.parse("<" + new String(delimited, getCharset()),
+									0, false);
+				default:
+					return null;
+			}
+		}
+
+	}
+
+	private enum State {
+
+		START, COUNT, OCTETS, DELIMITED
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,13 +17,17 @@
 package org.springframework.integration.syslog.inbound;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
 
+import org.springframework.integration.ip.tcp.serializer.FrameDecoder;
 import org.springframework.integration.syslog.SyslogHeaders;
 
 /**
@@ -139,4 +143,39 @@ public class SyslogDeserializerTests {
 		assertEquals("true", map.get(SyslogHeaders.DECODE_ERRORS));
 	}
 
+	@Test
+	public void shouldDecodeMixedFramesIncrementally() throws Exception {
+
+		FrameDecoder<Map<String, ?>> decoder = new RFC6587SyslogDeserializer().createFrameDecoder();
+
+		byte[] data = (VALID_FRAMED_ENTRY + VALID_UNFRAMED_ENTRY + SD_ENTRY_1 + VALID_UNFRAMED_ENTRY).getBytes();
+		List<Map<String, ?>> maps = new ArrayList<>();
+		for (byte bite : data) {
+			Map<String, ?> map = decoder.decode(ByteBuffer.wrap(new byte[] { bite }));
+			if (map != null) {
+				maps.add(map);
+			}
+		}
+		assertNull(decoder.endOfStream(false));
+
+		assertEquals(4, maps.size());
+		for (Map<String, ?> map : maps) {
+			assertEquals("false", map.get(SyslogHeaders.DECODE_ERRORS));
+			assertEquals("loggregator", map.get(SyslogHeaders.HOST));
+			assertEquals("Removing instance", map.get(SyslogHeaders.MESSAGE));
+		}
+		assertEquals(1, ((List<?>) maps.get(2).get(SyslogHeaders.STRUCTURED_DATA)).size());
+	}
+
+	@Test
+	public void shouldErrorOnShortFramedDataIncrementally() throws Exception {
+
+		FrameDecoder<Map<String, ?>> decoder = new RFC6587SyslogDeserializer().createFrameDecoder();
+
+		assertNull(decoder.decode(ByteBuffer.wrap(SHORT_FRAMED_ENTRY.getBytes())));
+		Map<String, ?> map = decoder.endOfStream(false);
+
+		assertEquals("true", map.get(SyslogHeaders.DECODE_ERRORS));
+	}
+
 }